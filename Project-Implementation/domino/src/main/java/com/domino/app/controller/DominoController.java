@@ -1,12 +1,20 @@
 package com.domino.app.controller;
 
 import com.domino.app.model.*;
-import com.domino.app.view.DominoView;
-import com.domino.app.view.DominoViewImp;
-
-import java.util.Random;
-import java.util.Scanner;
+import com.domino.app.monitoring.FlightRecording;
+import com.domino.app.monitoring.GameMetrics;
+import com.domino.app.monitoring.TurnDecisionEvent;
+import com.domino.app.view.*;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
 
 /**
  * Manages the flow of the domino game, coordinating between the model and the view.
@@ -24,34 +32,102 @@ import java.util.function.IntPredicate;
  */
 public class DominoController
 {
-    private Scanner input; // Scanner for user input
+    /**
+     * Represents the states the game goes through between user decisions.
+     */
+    public enum GameState
+    {
+        MAIN_MENU, // Main menu is displayed
+        SETTINGS, // Settings are being configured
+        MATCH, // A match is being played
+        END_MENU, // End of match menu is displayed
+        EXIT // The game is over
+    }
+
+    private InputDriver input; // Driver supplying the decisions of human seats
     private DominoModel model; // The domino game model
     private DominoView view; // The view for displaying game information
+    private Executor cpuMoveExecutor; // Executor computing CPU decisions, null to compute them inline
+    private TimingWheel timers; // Wheel running the turn timers and CPU think delays, null without timers
+    private long turnTimeoutMillis; // Time given to human seats to choose a move, 0 for no limit
+    private long cpuThinkMillis; // Time CPU seats take before playing a move, 0 to play at once
 
     /**
      * Entry point of the Domino application.
      * Initializes the model, view, and starts the game.
+     * <p>
+     * Accepts {@code --max-fps=<n>} to cap how many turn frames are written
+     * per second, dropping intermediate frames during fast CPU play, and
+     * {@code --summary=ring:<n>|file:<path>|console} to choose where the
+     * match summary is recorded. Human seats can be driven by a file of
+     * pre-recorded decisions with {@code --script=<path>}, {@code --quiet}
+     * disables all console output, and {@code --jfr=<path>} records the
+     * Flight Recorder events of the game to a file written on exit.
+     * </p>
+     * @throws IOException if the script file cannot be read or the recording cannot be started.
      */
-    public static void main(String[] args)
+    public static void main(String[] args) throws IOException
     {
+        InputDriver inputDriver = null;
+        boolean quiet = false;
+        int maxFramesPerSecond = 0;
+        SummarySink summarySink = new RingBufferSummarySink(DominoViewImp.DEFAULT_SUMMARY_MOVES);
+        for(String arg : args)
+        {
+            if(arg.startsWith("--max-fps=")) maxFramesPerSecond = Integer.parseInt(arg.substring("--max-fps=".length()));
+            else if(arg.startsWith("--summary=")) summarySink = parseSummarySink(arg.substring("--summary=".length()));
+            else if(arg.startsWith("--script=")) inputDriver = ScriptedInputDriver.fromFile(Path.of(arg.substring("--script=".length())));
+            else if(arg.equals("--quiet")) quiet = true;
+            else if(arg.startsWith("--jfr=")) FlightRecording.start(Path.of(arg.substring("--jfr=".length())));
+        }
+
         DominoModel dominoModel = new DominoModelImp();
-        DominoView dominoView = new DominoViewImp();
+        DominoView dominoView = quiet? new SilentDominoView()
+                : new DominoViewImp(new FileOutputStream(FileDescriptor.out), maxFramesPerSecond, summarySink);
 
-        DominoController dominoController = new DominoController();
+        DominoController dominoController = inputDriver == null? new DominoController() : new DominoController(inputDriver);
         dominoController.setModel(dominoModel);
         dominoController.setView(dominoView);
 
-        dominoController.startDominoGame();
+        try {dominoController.startDominoGame();}
+        finally {summarySink.close();} // Releases the file of a file summary
     }
 
     /**
-     * Constructs a DominoController and initializes the input scanner.
+     * Creates the summary sink described by a command-line option value.
+     * @param option One of {@code ring:<n>}, {@code file:<path>} or {@code console}.
+     * @return The summary sink.
+     * @throws IllegalArgumentException if the option value is not recognized.
+     */
+    private static SummarySink parseSummarySink(String option)
+    {
+        if(option.startsWith("ring:")) return new RingBufferSummarySink(Integer.parseInt(option.substring("ring:".length())));
+        if(option.startsWith("file:")) return new FileSummarySink(Path.of(option.substring("file:".length())));
+        if(option.equals("console")) return new StreamSummarySink(new FileOutputStream(FileDescriptor.err));
+        throw new IllegalArgumentException("Unknown summary sink: " + option);
+    }
+
+    /**
+     * Constructs a DominoController reading user input from the console.
      */
     public DominoController()
     {
-        input = new Scanner(System.in);
+        this(new ScannerInputDriver(System.in));
+    }
+
+    /**
+     * Constructs a DominoController taking the decisions of human seats from the given driver.
+     * @param input The driver supplying the decisions.
+     */
+    public DominoController(InputDriver input)
+    {
+        this.input = input;
         model = null;
         view = null;
+        cpuMoveExecutor = null;
+        timers = null;
+        turnTimeoutMillis = 0;
+        cpuThinkMillis = 0;
     }
 
     /**
@@ -66,6 +142,39 @@ public class DominoController
      */
     public void setModel(DominoModel model) {this.model = model;}
 
+    /**
+     * Sets the driver supplying the decisions of human seats.
+     * @param input The input driver to be set.
+     */
+    public void setInputDriver(InputDriver input) {this.input = input;}
+
+    /**
+     * Sets the executor computing the decisions of CPU players.
+     * Servers hosting many tables share one executor sized to the available cores,
+     * so CPU moves do not compete with the threads serving the tables.
+     * @param cpuMoveExecutor The executor, or {@code null} to compute decisions on the calling thread.
+     */
+    public void setCPUMoveExecutor(Executor cpuMoveExecutor) {this.cpuMoveExecutor = cpuMoveExecutor;}
+
+    /**
+     * Sets the timers of the moves, run on a wheel shared by every table of a server.
+     * <p>
+     * A human seat that does not choose its tile or side within the turn timeout plays the
+     * first playable tile, or the left side, through {@link InputDriver#supplyDecision}.
+     * A CPU seat waits for the think delay before its move is played, so the move is
+     * not shown faster than a person could follow; the waiting thread is parked, not sleeping.
+     * </p>
+     * @param timers The wheel running the timers, or {@code null} to disable them.
+     * @param turnTimeoutMillis The time given to human seats to choose a move, or 0 for no limit.
+     * @param cpuThinkMillis The time CPU seats take before playing a move, or 0 to play at once.
+     */
+    public void setTurnTimers(TimingWheel timers, long turnTimeoutMillis, long cpuThinkMillis)
+    {
+        this.timers = timers;
+        this.turnTimeoutMillis = turnTimeoutMillis;
+        this.cpuThinkMillis = cpuThinkMillis;
+    }
+
     /**
      * Sets the view for this controller and links the controller to the view.
      * @param view The view to be set.
@@ -76,30 +185,105 @@ public class DominoController
     }
 
     /**
-     * Starts the domino game by displaying the main menu and processing the selected option.
+     * Starts the domino game and runs it until the user exits.
+     * <p>
+     * The game is driven by a flat loop over {@link GameState}s, so any number of
+     * matches can be played without growing the call stack.
+     * </p>
      */
-    private void startDominoGame()
+    public void startDominoGame()
+    {
+        GameState state = GameState.MAIN_MENU;
+        while(state != GameState.EXIT)
+        {
+            state = runState(state);
+        }
+        exitDominoGame();
+    }
+
+    /**
+     * Runs the given state of the game and determines the next one.
+     * @param state The state to run.
+     * @return The next state of the game.
+     */
+    private GameState runState(GameState state)
+    {
+        return switch (state)
+        {
+            case MAIN_MENU -> requestMainMenuOption();
+            case SETTINGS ->
+            {
+                requestConfigSettings();
+                yield GameState.MAIN_MENU;
+            }
+            case MATCH ->
+            {
+                startDominoMatch();
+                yield GameState.END_MENU;
+            }
+            case END_MENU -> requestEndMatchMenuOption();
+            case EXIT -> GameState.EXIT;
+        };
+    }
+
+    /**
+     * Displays the main menu and processes the selected option.
+     * @return The state selected by the user.
+     */
+    private GameState requestMainMenuOption()
     {
         view.displayMainMenu();
 
         int option = requestMenuOption();
         view.displaySeparatorEndOfSection();
-        switch (option)
+        return switch (option)
         {
-            case 0 -> startDominoMatch();
-            case 1 -> requestConfigSettings();
-            case 2 -> exitDominoGame();
-        }
+            case 0 -> GameState.MATCH;
+            case 1 -> GameState.SETTINGS;
+            default -> GameState.EXIT;
+        };
+    }
+
+    /**
+     * Displays the end of match menu and processes the selected option.
+     * @return The state selected by the user.
+     */
+    private GameState requestEndMatchMenuOption()
+    {
+        view.displayEndMatchMenu();
+
+        int option = requestEndMatchOpt();
+        view.displaySeparatorEndOfSection();
+        return switch (option)
+        {
+            case 0 -> GameState.MAIN_MENU;
+            case 1 -> GameState.MATCH;
+            default -> GameState.EXIT;
+        };
     }
 
     /**
-     * Starts a domino match and processes turns until a winner is found or the match is drawn.
+     * Starts a domino match and plays its rounds until a side reaches the target score,
+     * or its single round when the match has no target.
      */
     public void startDominoMatch()
     {
         view.resetViewData();
         model.startMatch();
+        playDominoRound();
+        while(!model.isMatchOver())
+        {
+            view.resetViewData();
+            model.startRound();
+            playDominoRound();
+        }
+    }
 
+    /**
+     * Processes the turns of the round just dealt until a winner is found or the round is drawn.
+     */
+    private void playDominoRound()
+    {
         view.displayDominoMatchHeader();
         while(!model.hasWinner() && !model.hasDraw())
         {
@@ -125,16 +309,7 @@ public class DominoController
         }
 
         view.displayEndMatchSummary();
-        view.displayEndMatchMenu();
-
-        int option = requestEndMatchOpt();
-        view.displaySeparatorEndOfSection();
-        switch (option)
-        {
-            case 0 -> startDominoGame();
-            case 1 -> startDominoMatch();
-            case 2 -> exitDominoGame();
-        }
+        if(model.getTargetScore() > 0) view.displayRoundScores();
     }
 
     /**
@@ -177,12 +352,14 @@ public class DominoController
                 case 2 -> requestMaxDots();
                 case 3 -> requestOpponentsTilesFlag();
                 case 4 -> requestBoneyardTilesFlag();
-                case 5 ->
+                case 5 -> requestTargetScore();
+                case 6 -> requestTeamPlay();
+                case 7 ->
                 {
                     configuring = false;
                     view.displayChangesSaved();
                 }
-                case 6 ->
+                case 8 ->
                 {
                     getModel().setSettings(lastDominoSettings);
                     configuring = false;
@@ -190,7 +367,6 @@ public class DominoController
                 }
             }
         }
-        startDominoGame();
     }
 
     /**
@@ -199,7 +375,8 @@ public class DominoController
      */
     public int requestMenuOption()
     {
-        return requestInput(option -> 0 <= option && option <= 2,
+        return requestInput(InputDriver.Request.MENU_OPTION,
+                option -> 0 <= option && option <= 2,
                 view::displayRequestNumberMessage,
                 view::displayInvalidOptionMessage);
     }
@@ -210,7 +387,8 @@ public class DominoController
      */
     public int requestEndMatchOpt()
     {
-        return requestInput(option -> 0 <= option && option <= 2,
+        return requestInput(InputDriver.Request.END_MATCH_OPTION,
+                option -> 0 <= option && option <= 2,
                 view::displayRequestNumberMessage,
                 view::displayInvalidOptionMessage);
     }
@@ -221,19 +399,23 @@ public class DominoController
      */
     public int requestSideToPlay()
     {
-        if(model.getCurrentPlayer() instanceof CPUPlayer)
+        long start = System.nanoTime();
+        TurnDecisionEvent event = new TurnDecisionEvent();
+        event.begin();
+        int opt;
+        if(model.getCurrentPlayer() instanceof CPUPlayer cpuPlayer)
         {
             view.displayRequestNumberMessage();
-            int opt = new Random().nextInt(2);
-            System.out.println(opt);
-            return opt;
+            opt = requestCPUDecision(() -> cpuPlayer.getStrategy().chooseSide(model));
+            view.displaySelectedOption(opt);
         }
         else
         {
-            return requestInput(option -> 0 <= option && option < 2,
-                    view::displayRequestNumberMessage,
-                    view::displayInvalidOptionMessage);
+            opt = requestTimedInput(InputDriver.Request.SIDE,
+                    option -> 0 <= option && option < 2);
         }
+        recordTurnDecision(start, event, InputDriver.Request.SIDE, 2, opt);
+        return opt;
     }
 
     /**
@@ -242,54 +424,138 @@ public class DominoController
      */
     public int requestTileToPlay()
     {
-        if(model.getCurrentPlayer() instanceof CPUPlayer)
+        long start = System.nanoTime();
+        TurnDecisionEvent event = new TurnDecisionEvent();
+        event.begin();
+        int opt;
+        if(model.getCurrentPlayer() instanceof CPUPlayer cpuPlayer)
         {
             view.displayRequestNumberMessage();
-            int opt = new Random().nextInt(model.getCurrentPlayerPlayableTiles().size());
-            System.out.println(opt);
-            return opt;
+            opt = requestCPUDecision(() -> cpuPlayer.getStrategy().chooseTile(model));
+            view.displaySelectedOption(opt);
         }
         else
         {
-            return requestInput(option -> 0 <= option && option < model.getCurrentPlayerPlayableTiles().size(),
+            opt = requestTimedInput(InputDriver.Request.TILE,
+                    option -> 0 <= option && option < model.getCurrentPlayerPlayableTiles().size());
+        }
+        recordTurnDecision(start, event, InputDriver.Request.TILE, model.getCurrentPlayerPlayableTiles().size(), opt);
+        return opt;
+    }
+
+    /**
+     * Records the time a decision of the current seat took in the metrics of the node,
+     * and reports the decision to Flight Recorder, if enabled.
+     * @param start The time the decision was requested, from {@link System#nanoTime()}.
+     * @param event The event, begun when the decision was requested.
+     * @param request The decision made.
+     * @param options The number of options the seat chose among.
+     * @param choice The chosen option.
+     */
+    private void recordTurnDecision(long start, TurnDecisionEvent event, InputDriver.Request request, int options, int choice)
+    {
+        String strategy = model.getCurrentPlayer() instanceof CPUPlayer cpuPlayer? cpuPlayer.getStrategy().getName() : null;
+        GameMetrics.getDefault().turnDecided(strategy, System.nanoTime() - start);
+
+        event.end();
+        if(!event.shouldCommit()) return;
+
+        event.seat = model.getCurrentTurn();
+        event.cpu = strategy != null;
+        event.strategy = strategy;
+        event.request = request.name();
+        event.options = options;
+        event.choice = choice;
+        event.commit();
+    }
+
+    /**
+     * Computes a decision of a CPU player, on the shared CPU move executor if one is set.
+     * The calling thread waits for the decision, which parks it when it is a virtual thread.
+     * @param decision The computation of the decision.
+     * @return The decision.
+     */
+    private int requestCPUDecision(IntSupplier decision)
+    {
+        if(timers == null || cpuThinkMillis <= 0)
+        {
+            if(cpuMoveExecutor == null) return decision.getAsInt();
+            return CompletableFuture.supplyAsync(decision::getAsInt, cpuMoveExecutor).join();
+        }
+
+        CompletableFuture<Void> thinking = new CompletableFuture<>();
+        timers.schedule(cpuThinkMillis, TimeUnit.MILLISECONDS, () -> thinking.complete(null));
+        CompletableFuture<Integer> choice = cpuMoveExecutor == null
+                ? CompletableFuture.completedFuture(decision.getAsInt())
+                : CompletableFuture.supplyAsync(decision::getAsInt, cpuMoveExecutor);
+        return choice.thenCombine(thinking, (option, ignored) -> option).join();
+    }
+
+    /**
+     * Requests a move of a human seat, playing the first option for it if its turn timer expires.
+     * The first option is always valid: the first playable tile, or the left side of the board.
+     * @param request The decision being requested from the input driver.
+     * @param isInputValid A predicate that defines the valid input range.
+     * @return The valid input from the user, or 0 if the turn timed out.
+     */
+    private int requestTimedInput(InputDriver.Request request, IntPredicate isInputValid)
+    {
+        TimingWheel.Timeout timeout = null;
+        if(timers != null && turnTimeoutMillis > 0)
+        {
+            timeout = timers.schedule(turnTimeoutMillis, TimeUnit.MILLISECONDS, () -> input.supplyDecision(request, 0));
+        }
+        try
+        {
+            return requestInput(request, isInputValid,
                     view::displayRequestNumberMessage,
                     view::displayInvalidOptionMessage);
         }
+        finally
+        {
+            // The timer fired but the seat answered first: its decision must not answer the next request
+            if(timeout != null && !timeout.cancel()) input.withdrawDecision();
+        }
     }
 
     /**
      * Requests the user to select a feature in the settings menu.
-     * @return The selected option (0-6).
+     * @return The selected option (0-8).
      */
     public int requestFeature()
     {
-        return requestInput(option -> 0 <= option && option <= 6,
+        return requestInput(InputDriver.Request.FEATURE,
+                option -> 0 <= option && option <= 8,
                 view::displayFeatureMessage,
                 view::displayInvalidOptionMessage);
     }
 
     /**
      * Requests input from the user, validating it against the specified criteria.
+     * @param request The decision being requested from the input driver.
      * @param isInputValid A predicate that defines the valid input range.
      * @param displayRequestMessage A runnable to display the request message.
      * @param displayErrorMessage A runnable to display an error message.
      * @return The valid input from the user.
      */
-    public int requestInput(IntPredicate isInputValid,
+    public int requestInput(InputDriver.Request request,
+                            IntPredicate isInputValid,
                             Runnable displayRequestMessage,
                             Runnable displayErrorMessage)
     {
         // Display the initial request message to the user
         displayRequestMessage.run();
+        view.flushDisplay();
 
         // Loop until the input meets the acceptable condition
         int option;
-        while (!input.hasNextInt() || !isInputValid.test(option = input.nextInt()))
+        while ((option = input.nextInt(request)) == InputDriver.INVALID || !isInputValid.test(option))
         {
             view.displaySeparatorSection();
             displayErrorMessage.run();    // Display an error message
             view.displaySeparatorSection();
             displayRequestMessage.run();  // Ask for input again
+            view.flushDisplay();
         }
 
         return option;
@@ -297,43 +563,56 @@ public class DominoController
 
     /**
      * Requests text input from the user, specifically for visibility options.
+     * @param request The decision being requested from the input driver.
      * @param displayRequestMessage A runnable to display the request message.
      * @return The user-selected visibility option (VISIBLE or HIDDEN).
      */
-    public String requestTextInput(Runnable displayRequestMessage)
+    public String requestTextInput(InputDriver.Request request, Runnable displayRequestMessage)
     {
         // Display the initial request message to the user
         displayRequestMessage.run();
+        view.flushDisplay();
 
         // Loop until the input meets the acceptable condition
         String option;
-        while (!input.hasNext("(?i)VISIBLE|HIDDEN")) // case-insensitivity
+        while (!isVisibilityOption(option = input.nextText(request)))
         {
-            option = input.next();
             view.displaySeparatorSection();
             view.displayInvalidInputMessage(); // Display an error message
             view.displaySeparatorSection();
             displayRequestMessage.run();  // Ask for input again
+            view.flushDisplay();
         }
-        option = input.next();
 
         return option;
     }
 
+    /**
+     * Checks whether a text input names a visibility option, ignoring case.
+     * @param option The text input.
+     * @return {@code true} if the input is VISIBLE or HIDDEN; {@code false} otherwise.
+     */
+    private static boolean isVisibilityOption(String option)
+    {
+        return option.equalsIgnoreCase("VISIBLE") || option.equalsIgnoreCase("HIDDEN");
+    }
+
     /**
      * Requests the number of players for the game.
      */
     public void requestNumOfPlayers()
     {
         getModel().setNumOfPlayers(
-                requestInput(input -> 2 <= input && input <= 4,
+                requestInput(InputDriver.Request.NUM_OF_PLAYERS,
+                        input -> 2 <= input && input <= 4,
                         view::displayNumOfPlayersMessage,
                         view::displayInvalidInputMessage)
         );
         view.displaySeparatorSection();
 
         getModel().setNumOfHumanPlayers(
-                requestInput(input -> 0 <= input && input < getModel().getNumOfPlayers(),
+                requestInput(InputDriver.Request.NUM_OF_HUMAN_PLAYERS,
+                        input -> 0 <= input && input < getModel().getNumOfPlayers(),
                         view::displayNumOfHumanPlayersMessage,
                         view::displayInvalidInputMessage)
         );
@@ -346,7 +625,8 @@ public class DominoController
     public void requestMinDots()
     {
         getModel().setMinDots(
-                requestInput(input -> 0 <= input && input < getModel().getMaxDots(),
+                requestInput(InputDriver.Request.MIN_DOTS,
+                input -> 0 <= input && input < getModel().getMaxDots(),
                 view::displayMinDotsMessage,
                 view::displayInvalidInputMessage)
         );
@@ -359,7 +639,8 @@ public class DominoController
     public void requestMaxDots()
     {
         getModel().setMaxDots(
-                requestInput(input -> input > 0,
+                requestInput(InputDriver.Request.MAX_DOTS,
+                        input -> input > 0,
                         view::displayMaxDotsMessage,
                         view::displayInvalidInputMessage)
         );
@@ -371,7 +652,7 @@ public class DominoController
      */
     public void requestOpponentsTilesFlag()
     {
-        String option = requestTextInput(view::displayOpponentsTilesMessage);
+        String option = requestTextInput(InputDriver.Request.VISIBILITY, view::displayOpponentsTilesMessage);
         getModel().setHideOpponentTiles(option.equals("HIDDEN"));
         view.displaySeparatorEndOfSection();
     }
@@ -381,11 +662,39 @@ public class DominoController
      */
     public void requestBoneyardTilesFlag()
     {
-        String option = requestTextInput(view::displayBoneyardTilesMessage);
+        String option = requestTextInput(InputDriver.Request.VISIBILITY, view::displayBoneyardTilesMessage);
         getModel().setHideBoneyardTiles(option.equals("HIDDEN"));
         view.displaySeparatorEndOfSection();
     }
 
+    /**
+     * Requests the score that ends the match, 0 for a single round.
+     */
+    public void requestTargetScore()
+    {
+        getModel().setTargetScore(
+                requestInput(InputDriver.Request.TARGET_SCORE,
+                        input -> input >= 0,
+                        view::displayTargetScoreMessage,
+                        view::displayInvalidInputMessage)
+        );
+        view.displaySeparatorEndOfSection();
+    }
+
+    /**
+     * Requests whether the players score as teams.
+     */
+    public void requestTeamPlay()
+    {
+        getModel().setTeamPlay(
+                requestInput(InputDriver.Request.TEAM_PLAY,
+                        input -> input == 0 || input == 1,
+                        view::displayTeamPlayMessage,
+                        view::displayInvalidInputMessage) == 1
+        );
+        view.displaySeparatorEndOfSection();
+    }
+
     /**
      * Exits the domino game, displaying a farewell message to the user.
      */
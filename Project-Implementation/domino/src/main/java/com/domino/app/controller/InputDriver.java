@@ -0,0 +1,74 @@
+package com.domino.app.controller;
+
+/**
+ * Supplies the decisions requested by the {@link DominoController} for human seats.
+ * <p>
+ * The controller validates every decision and asks again when it is out of range,
+ * so a driver only has to produce the next value for the given request. The console
+ * implementation reads tokens from an input stream, while scripted implementations
+ * can replay pre-recorded decisions without any parsing.
+ * </p>
+ */
+public interface InputDriver
+{
+    /**
+     * Value returned by {@link #nextInt(Request)} when the next input is not a number.
+     */
+    int INVALID = Integer.MIN_VALUE;
+
+    /**
+     * Identifies the decision the controller is requesting.
+     */
+    enum Request
+    {
+        MENU_OPTION, // Option of the main menu
+        END_MATCH_OPTION, // Option of the end of match menu
+        TILE, // Index of the tile to play among the playable tiles
+        SIDE, // Side of the board to play the last tile on
+        FEATURE, // Option of the settings menu
+        NUM_OF_PLAYERS, // Total number of players
+        NUM_OF_HUMAN_PLAYERS, // Number of human players
+        MIN_DOTS, // Minimum number of dots on the tiles
+        MAX_DOTS, // Maximum number of dots on the tiles
+        VISIBILITY, // Visibility of the opponents or boneyard tiles
+        TARGET_SCORE, // Score that ends the match, 0 for a single round
+        TEAM_PLAY // Whether the players score as teams, 0 for off and 1 for on
+    }
+
+    /**
+     * Reads the next numeric decision.
+     *
+     * @param request the decision being requested
+     * @return the decision, or {@link #INVALID} if the next input is not a number
+     * @throws java.util.NoSuchElementException if no more input is available
+     */
+    int nextInt(Request request);
+
+    /**
+     * Reads the next textual decision, such as {@code VISIBLE} or {@code HIDDEN}.
+     *
+     * @param request the decision being requested
+     * @return the decision as text
+     * @throws java.util.NoSuchElementException if no more input is available
+     */
+    String nextText(Request request);
+
+    /**
+     * Answers the pending or next request of the given kind on behalf of the seat, as if
+     * the decision had been read from the input. The controller calls it from the thread
+     * of its {@link TimingWheel} when the turn timer of a human seat expires, so it must
+     * not block. Drivers reading a blocking stream cannot be interrupted and ignore it.
+     *
+     * @param request the decision being requested
+     * @param decision the decision to supply
+     * @return {@code true} if the decision will be returned by {@link #nextInt(Request)};
+     * {@code false} if the driver does not support supplied decisions
+     */
+    default boolean supplyDecision(Request request, int decision) {return false;}
+
+    /**
+     * Discards a decision supplied by {@link #supplyDecision(Request, int)} that has not
+     * been read, because the seat answered before its turn timer expired.
+     */
+    default void withdrawDecision() {}
+}
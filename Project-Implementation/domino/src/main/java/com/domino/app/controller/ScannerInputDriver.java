@@ -0,0 +1,38 @@
+package com.domino.app.controller;
+
+import java.io.InputStream;
+import java.util.Scanner;
+
+/**
+ * An {@link InputDriver} reading whitespace-separated tokens from an input stream,
+ * typically the console.
+ */
+public class ScannerInputDriver implements InputDriver
+{
+    private final Scanner input; // Scanner for user input
+
+    /**
+     * Creates a driver reading from the given stream.
+     *
+     * @param in the stream providing the user input
+     */
+    public ScannerInputDriver(InputStream in)
+    {
+        input = new Scanner(in);
+    }
+
+    @Override
+    public int nextInt(Request request)
+    {
+        if(input.hasNextInt()) return input.nextInt();
+
+        input.next(); // Discard the token so the next request does not read it again
+        return INVALID;
+    }
+
+    @Override
+    public String nextText(Request request)
+    {
+        return input.next();
+    }
+}
@@ -0,0 +1,119 @@
+package com.domino.app.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An {@link InputDriver} replaying pre-recorded decisions from an in-memory array.
+ * <p>
+ * Decisions are handed to the controller in order, whatever the request, without
+ * any tokenization, which lets automated runs drive human seats through thousands
+ * of matches per second. Visibility requests consume a number as well:
+ * {@code 1} stands for {@code HIDDEN} and any other value for {@code VISIBLE}.
+ * The script can be rewound to replay the same session again.
+ * </p>
+ */
+public class ScriptedInputDriver implements InputDriver
+{
+    private final int[] decisions; // Pre-recorded decisions in order
+    private int position; // Index of the next decision to hand out
+
+    /**
+     * Creates a driver replaying the given decisions.
+     *
+     * @param decisions the decisions in the order they will be requested
+     */
+    public ScriptedInputDriver(int... decisions)
+    {
+        this.decisions = decisions;
+        this.position = 0;
+    }
+
+    /**
+     * Creates a driver replaying the decisions stored in a file.
+     * The file holds integers separated by whitespace or commas; lines starting with
+     * {@code #} are comments.
+     *
+     * @param file the file holding the decisions
+     * @return the driver replaying the file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file holds something other than integers
+     */
+    public static ScriptedInputDriver fromFile(Path file) throws IOException
+    {
+        return new ScriptedInputDriver(parseDecisions(Files.readAllBytes(file)));
+    }
+
+    /**
+     * Parses the decisions stored in the bytes of a script file.
+     *
+     * @param bytes the content of the script file
+     * @return the decisions in order
+     * @throws IllegalArgumentException if the content holds something other than integers
+     */
+    private static int[] parseDecisions(byte[] bytes)
+    {
+        int[] decisions = new int[64];
+        int count = 0;
+
+        int i = 0;
+        while(i < bytes.length)
+        {
+            byte b = bytes[i];
+            if(b == '#')
+            {
+                while(i < bytes.length && bytes[i] != '\n') i++;
+            }
+            else if(b == ' ' || b == ',' || b == '\t' || b == '\r' || b == '\n')
+            {
+                i++;
+            }
+            else
+            {
+                boolean negative = b == '-';
+                if(negative) i++;
+
+                int start = i;
+                int value = 0;
+                while(i < bytes.length && '0' <= bytes[i] && bytes[i] <= '9')
+                {
+                    value = value * 10 + (bytes[i++] - '0');
+                }
+                if(i == start) throw new IllegalArgumentException("Invalid decision at byte " + start);
+
+                if(count == decisions.length) decisions = Arrays.copyOf(decisions, count * 2);
+                decisions[count++] = negative? -value : value;
+            }
+        }
+
+        return Arrays.copyOf(decisions, count);
+    }
+
+    /**
+     * Restarts the script from its first decision.
+     */
+    public void rewind() {position = 0;}
+
+    /**
+     * Checks whether the script still holds decisions.
+     *
+     * @return {@code true} if there are decisions left; {@code false} otherwise
+     */
+    public boolean hasRemaining() {return position < decisions.length;}
+
+    @Override
+    public int nextInt(Request request)
+    {
+        if(position == decisions.length) throw new NoSuchElementException("Script exhausted at " + request);
+        return decisions[position++];
+    }
+
+    @Override
+    public String nextText(Request request)
+    {
+        return nextInt(request) == 1? "HIDDEN" : "VISIBLE";
+    }
+}
@@ -0,0 +1,206 @@
+package com.domino.app.controller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel running short tasks after a delay, shared by every table of a server.
+ * <p>
+ * Time is divided into ticks and the wheel is a ring of buckets, one per tick. A task
+ * is linked into the bucket of the tick it expires on, together with the number of
+ * whole revolutions left before it is due, so scheduling and cancelling a task are
+ * constant-time list operations whatever the number of pending tasks. A single thread
+ * advances the wheel one tick at a time and runs the tasks of the bucket it reaches.
+ * Tasks run at most one tick late, which is far below the precision a turn timer needs.
+ * </p>
+ * <p>
+ * Tasks run on the thread of the wheel while it holds its lock, so they must only hand
+ * work over to other threads, such as completing a future or queueing a decision. In
+ * exchange, a {@link Timeout#cancel()} that fails guarantees that the task has already
+ * run to completion.
+ * </p>
+ */
+public class TimingWheel implements AutoCloseable
+{
+    /**
+     * A task scheduled on the wheel.
+     */
+    public final class Timeout
+    {
+        private final Runnable task; // Task run when the timeout expires
+        private long remainingRounds; // Revolutions of the wheel left before the timeout expires
+        private int bucket; // Index of the bucket holding the timeout, -1 once it is no longer pending
+        private Timeout previous; // Previous timeout of the same bucket
+        private Timeout next; // Next timeout of the same bucket
+
+        private Timeout(Runnable task, long remainingRounds, int bucket)
+        {
+            this.task = task;
+            this.remainingRounds = remainingRounds;
+            this.bucket = bucket;
+        }
+
+        /**
+         * Cancels the timeout if its task has not run yet.
+         *
+         * @return {@code true} if the task will never run; {@code false} if it has already
+         * run or the timeout was already cancelled
+         */
+        public boolean cancel()
+        {
+            synchronized (TimingWheel.this)
+            {
+                if(bucket < 0) return false;
+                unlink(this);
+                return true;
+            }
+        }
+    }
+
+    private final long tickNanos; // Duration of a tick
+    private final Timeout[] buckets; // Head of the list of timeouts of every bucket
+    private final int mask; // Mask mapping a tick to its bucket, the number of buckets being a power of two
+    private long tick; // Number of ticks processed since the wheel started
+    private int pending; // Number of pending timeouts
+    private Thread worker; // Thread advancing the wheel, null until started
+    private volatile boolean running; // Whether the worker keeps advancing the wheel
+
+    /**
+     * Creates a wheel with the given resolution.
+     *
+     * @param tickDuration the duration of a tick
+     * @param unit the unit of the tick duration
+     * @param ticksPerWheel the number of buckets, rounded up to a power of two
+     */
+    public TimingWheel(long tickDuration, TimeUnit unit, int ticksPerWheel)
+    {
+        if(tickDuration <= 0) throw new IllegalArgumentException("The tick duration must be positive");
+        if(ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) throw new IllegalArgumentException("Invalid number of ticks per wheel");
+
+        int size = 1;
+        while (size < ticksPerWheel) size <<= 1;
+
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.buckets = new Timeout[size];
+        this.mask = buckets.length - 1;
+        this.tick = 0;
+        this.pending = 0;
+    }
+
+    /**
+     * Starts the thread advancing the wheel.
+     */
+    public synchronized void start()
+    {
+        if(worker != null) return;
+        running = true;
+        worker = Thread.ofPlatform().name("timing-wheel").daemon().start(this::run);
+    }
+
+    /**
+     * Stops the thread advancing the wheel. Pending timeouts never expire.
+     */
+    @Override
+    public void close()
+    {
+        running = false;
+        Thread thread;
+        synchronized (this) {thread = worker;}
+        if(thread != null) LockSupport.unpark(thread);
+    }
+
+    /**
+     * Gets the number of timeouts waiting to expire.
+     *
+     * @return the number of pending timeouts
+     */
+    public synchronized int getPending() {return pending;}
+
+    /**
+     * Schedules a task to run once the given delay has elapsed.
+     *
+     * @param delay the delay before the task runs
+     * @param unit the unit of the delay
+     * @param task the task, which must be short and must not block
+     * @return the handle cancelling the task
+     */
+    public Timeout schedule(long delay, TimeUnit unit, Runnable task)
+    {
+        long ticks = Math.max(1, (unit.toNanos(delay) + tickNanos - 1) / tickNanos);
+        synchronized (this)
+        {
+            int bucket = (int) ((tick + ticks) & mask);
+            Timeout timeout = new Timeout(task, (ticks - 1) / buckets.length, bucket);
+            timeout.next = buckets[bucket];
+            if(timeout.next != null) timeout.next.previous = timeout;
+            buckets[bucket] = timeout;
+            pending++;
+            return timeout;
+        }
+    }
+
+    /**
+     * Advances the wheel one tick at a time until it is closed.
+     */
+    private void run()
+    {
+        long deadline = System.nanoTime();
+        while (running)
+        {
+            deadline += tickNanos;
+            long wait;
+            while (running && (wait = deadline - System.nanoTime()) > 0) LockSupport.parkNanos(this, wait);
+            if(running) expireTimeouts();
+        }
+    }
+
+    /**
+     * Moves to the next tick and runs the tasks of its bucket that are due.
+     */
+    private synchronized void expireTimeouts()
+    {
+        tick++;
+
+        // Unlink the due timeouts before running any, since a task may cancel or schedule others of the bucket
+        Timeout expired = null;
+        Timeout timeout = buckets[(int) (tick & mask)];
+        while (timeout != null)
+        {
+            Timeout next = timeout.next;
+            if(timeout.remainingRounds > 0) timeout.remainingRounds--;
+            else
+            {
+                unlink(timeout);
+                timeout.next = expired;
+                expired = timeout;
+            }
+            timeout = next;
+        }
+
+        while (expired != null)
+        {
+            timeout = expired;
+            expired = timeout.next;
+            timeout.next = null;
+            try {timeout.task.run();}
+            catch (RuntimeException e) {System.err.println("Timer task failed: " + e);}
+        }
+    }
+
+    /**
+     * Removes a pending timeout from its bucket. Called while holding the lock of the wheel.
+     *
+     * @param timeout the timeout to remove
+     */
+    private void unlink(Timeout timeout)
+    {
+        if(timeout.previous != null) timeout.previous.next = timeout.next;
+        else buckets[timeout.bucket] = timeout.next;
+        if(timeout.next != null) timeout.next.previous = timeout.previous;
+
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        pending--;
+    }
+}
@@ -1,27 +1,51 @@
 package com.domino.app.model;
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.function.BiPredicate;
-import java.util.function.Consumer;
+import java.util.RandomAccess;
 
 /**
  * Represents the game board in a domino game, maintaining the sequence of placed tiles.
+ * <p>
+ * The tiles are kept in an array used as a double-ended queue: the first tile is placed
+ * in the middle and the line grows towards both ends, so placing a tile never allocates
+ * once the array is large enough, and {@link #clear()} readies the board for the next
+ * match without giving the array up.
+ * </p>
  */
 public class Board
 {
-    private List<Tile> tiles; // List of tiles on the board
+    private static final int INITIAL_CAPACITY = 64; // Slots of a new board, enough for both ends of a double-six set
+
+    private Tile[] tiles; // Tiles on the board, from tiles[first] at the left end to tiles[last - 1] at the right end
+    private int first; // Index of the tile on the left end
+    private int last; // Index after the tile on the right end
     private Tile lastAddedTile; // Tracks the last tile added to the board
+    private final Tile ends; // Tile holding the pips of both ends of the board, updated in place
+    private final List<Tile> view; // Read-only view of the tiles on the board
 
     /**
      * Initializes a new Board with no tiles.
      */
     public Board()
     {
+        tiles = new Tile[INITIAL_CAPACITY];
+        first = last = INITIAL_CAPACITY / 2;
+        lastAddedTile = null;
+        ends = new Tile(0, 0);
+        view = new TilesView();
+    }
+
+    /**
+     * Removes every tile from the board, keeping its storage for the next match.
+     */
+    public void clear()
+    {
+        Arrays.fill(tiles, first, last, null);
+        first = last = tiles.length / 2;
         lastAddedTile = null;
-        tiles = new LinkedList<>();
     }
 
     /**
@@ -29,14 +53,21 @@ public class Board
      *
      * @return {@code true} if the board has no tiles; {@code false} otherwise.
      */
-    public boolean isEmpty() {return tiles.isEmpty();}
+    public boolean isEmpty() {return first == last;}
+
+    /**
+     * Gets the number of tiles on the board.
+     *
+     * @return The number of tiles placed on the board.
+     */
+    public int getTileCount() {return last - first;}
 
     /**
      * Retrieves an unmodifiable view of all tiles on the board.
      *
-     * @return A list of tiles on the board.
+     * @return A list of tiles on the board, from the left end to the right end.
      */
-    public List<Tile> getTiles() {return Collections.unmodifiableList(tiles);}
+    public List<Tile> getTiles() {return view;}
 
     /**
      * Gets the tile on the left end of the board.
@@ -44,7 +75,11 @@ public class Board
      * @return The tile on the leftmost end.
      * @throws NoSuchElementException if the board is empty.
      */
-    public Tile getLeftEndTile() {return tiles.getFirst();}
+    public Tile getLeftEndTile()
+    {
+        if(isEmpty()) throw new NoSuchElementException();
+        return tiles[first];
+    }
 
     /**
      * Gets the tile on the right end of the board.
@@ -52,7 +87,11 @@ public class Board
      * @return The tile on the rightmost end.
      * @throws NoSuchElementException if the board is empty.
      */
-    public Tile getRightEndTile() {return tiles.getLast();}
+    public Tile getRightEndTile()
+    {
+        if(isEmpty()) throw new NoSuchElementException();
+        return tiles[last - 1];
+    }
 
     /**
      * Creates a new tile representing the values on both ends of the board.
@@ -60,11 +99,40 @@ public class Board
      * @return A tile with the left value from the left end and the right value from the right end;
      *         {@code null} if the board is empty.
      */
-    public Tile getEndsBoardTile()
+    public Tile getEndsBoardTile() {return isEmpty()? null : new Tile(ends.getLeft(), ends.getRight());}
+
+    /**
+     * Gets the value on the left end of the board.
+     *
+     * @return The value on the left end.
+     * @throws NoSuchElementException if the board is empty.
+     */
+    public int getLeftEnd()
+    {
+        if(isEmpty()) throw new NoSuchElementException();
+        return ends.getLeft();
+    }
+
+    /**
+     * Gets the value on the right end of the board.
+     *
+     * @return The value on the right end.
+     * @throws NoSuchElementException if the board is empty.
+     */
+    public int getRightEnd()
     {
-        return isEmpty()? null : new Tile(getLeftEndTile().getLeft(), getRightEndTile().getRight());
+        if(isEmpty()) throw new NoSuchElementException();
+        return ends.getRight();
     }
 
+    /**
+     * Checks on which ends of the board a tile can be played, without creating a tile for the ends.
+     *
+     * @param tile The tile to check.
+     * @return The ends the tile attaches to; {@link Tile.AttachSide#LEFT} if the board is empty.
+     */
+    Tile.AttachSide attachSide(Tile tile) {return isEmpty()? Tile.AttachSide.LEFT : ends.canAttach(tile);}
+
     /**
      * Retrieves the last tile that was added to the board.
      *
@@ -79,7 +147,7 @@ public class Board
      */
     public List<Tile> getTilesExcludingLastAdded()
     {
-        return tiles.stream()
+        return view.stream()
                 .filter(tile -> !tile.equals(lastAddedTile))
                 .toList();
     }
@@ -90,14 +158,7 @@ public class Board
      * @param tile The tile to be added.
      * @return {@code true} if the tile was successfully added; {@code false} otherwise.
      */
-    public boolean addTileAtLeftEnd(Tile tile)
-    {
-        return addTileAtEnd(
-                tile,
-                (endTile, newTile) -> newTile.getRight() == endTile.getLeft(),
-                newTile -> tiles.addFirst(newTile)
-        );
-    }
+    public boolean addTileAtLeftEnd(Tile tile) {return addTileAtEnd(tile, true);}
 
     /**
      * Adds a tile to the right end of the board.
@@ -105,47 +166,79 @@ public class Board
      * @param tile The tile to be added.
      * @return {@code true} if the tile was successfully added; {@code false} otherwise.
      */
-    public boolean addTileAtRightEnd(Tile tile)
-    {
-        return addTileAtEnd(
-                tile,
-                (endTile, newTile) -> endTile.getRight() == newTile.getLeft(),
-                newTile -> tiles.addLast(newTile)
-        );
-    }
+    public boolean addTileAtRightEnd(Tile tile) {return addTileAtEnd(tile, false);}
 
     /**
      * Attempts to add a tile to either end of the board.
      * Rotates the tile if it cannot be attached in its current orientation.
      *
-     * @param tile           The tile to be added.
-     * @param canAttach      Predicate to check if the tile can attach to the end.
-     * @param addTileAction  Action to perform if the tile can be added.
+     * @param tile    The tile to be added.
+     * @param atLeft  Whether the tile is added to the left end; otherwise it is added to the right end.
      * @return {@code true} if the tile was successfully added; {@code false} otherwise.
      */
-    private boolean addTileAtEnd(Tile tile, BiPredicate<Tile, Tile> canAttach, Consumer<Tile> addTileAction)
+    private boolean addTileAtEnd(Tile tile, boolean atLeft)
     {
-        boolean tileCanBeAdded;
-        Tile endTile = getEndsBoardTile(); // Store current end tile
-        if(endTile == null)
+        if(isEmpty())
         {
             lastAddedTile = tile; // Update last added tile
-            tiles.addFirst(tile);
+            tiles[--first] = tile;
+            ends.set(tile.getLeft(), tile.getRight());
             return true;
         }
 
         // Check if tile needs to be rotated
-        tileCanBeAdded = canAttach.test(endTile, tile);
-        if(!tileCanBeAdded){tile.rotate();}
+        if(!canAttach(tile, atLeft)) tile.rotate();
 
         // Verify after rotation if the tile can be added
-        tileCanBeAdded = canAttach.test(endTile, tile);
-        if(tileCanBeAdded)
+        if(!canAttach(tile, atLeft)) return false;
+
+        if(first == 0 || last == tiles.length) grow();
+        if(atLeft) tiles[--first] = tile;
+        else tiles[last++] = tile;
+        ends.set(tiles[first].getLeft(), tiles[last - 1].getRight());
+        lastAddedTile = tile; // Update last added tile
+        return true;
+    }
+
+    /**
+     * Checks whether a tile attaches to an end of the board in its current orientation.
+     *
+     * @param tile   The tile to check.
+     * @param atLeft Whether the left end is checked; otherwise the right end is.
+     * @return {@code true} if the tile attaches to that end as it is.
+     */
+    private boolean canAttach(Tile tile, boolean atLeft)
+    {
+        return atLeft? tile.getRight() == ends.getLeft() : ends.getRight() == tile.getLeft();
+    }
+
+    /**
+     * Doubles the storage of the board, centering the tiles in the new array.
+     */
+    private void grow()
+    {
+        Tile[] grown = new Tile[tiles.length * 2];
+        int count = last - first;
+        int start = (grown.length - count) / 2;
+        System.arraycopy(tiles, first, grown, start, count);
+        tiles = grown;
+        first = start;
+        last = start + count;
+    }
+
+    /**
+     * Read-only list over the tiles on the board, from the left end to the right end.
+     */
+    private final class TilesView extends AbstractList<Tile> implements RandomAccess
+    {
+        @Override
+        public Tile get(int index)
         {
-            addTileAction.accept(tile); // Add the tile
-            lastAddedTile = tile; // Update last added tile
+            if(index < 0 || index >= last - first) throw new IndexOutOfBoundsException(index);
+            return tiles[first + index];
         }
 
-        return tileCanBeAdded;
+        @Override
+        public int size() {return last - first;}
     }
 }
@@ -1,41 +1,69 @@
 package com.domino.app.model;
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents the boneyard in a domino game, which holds a collection of domino tiles.
  * The boneyard typically stores the unused tiles from which players can draw during the game.
+ * <p>
+ * Tiles are kept in an array and released from its front by moving an index, so drawing
+ * a tile never shifts or allocates, and {@link #clear()} keeps the array for the next deal.
+ * </p>
  */
 public class Boneyard {
-    private List<Tile> tiles; // List of tiles in the boneyard
+    private static final int INITIAL_CAPACITY = 28; // Slots of a new boneyard, a double-six set
+
+    private Tile[] tiles; // Tiles in the boneyard, next released at index head
+    private int head; // Index of the next tile released
+    private int count; // Index after the last tile
+    private final List<Tile> view; // Read-only view of the tiles in the boneyard
 
     /**
      * Initializes a new boneyard with an empty list of tiles.
      */
-    public Boneyard() {tiles = new LinkedList<>();}
+    public Boneyard()
+    {
+        tiles = new Tile[INITIAL_CAPACITY];
+        head = 0;
+        count = 0;
+        view = new TilesView();
+    }
+
+    /**
+     * Removes every tile from the boneyard, keeping its storage for the next deal.
+     */
+    public void clear()
+    {
+        Arrays.fill(tiles, head, count, null);
+        head = 0;
+        count = 0;
+    }
 
     /**
      * Checks if the boneyard is empty.
      *
      * @return {@code true} if the boneyard has no tiles, {@code false} otherwise.
      */
-    public boolean isEmpty() {return tiles.isEmpty();}
+    public boolean isEmpty() {return head == count;}
 
     /**
      * Gets an unmodifiable view of the tiles in the boneyard.
      *
-     * @return A read-only list of tiles in the boneyard.
+     * @return A read-only list of tiles in the boneyard, the next one released first.
      */
-    public List<Tile> getTiles() {return Collections.unmodifiableList(tiles);}
+    public List<Tile> getTiles() {return view;}
 
     /**
      * Gets the count of tiles currently in the boneyard.
      *
      * @return The number of tiles in the boneyard.
      */
-    public int getTileCount() {return tiles.size();}
+    public int getTileCount() {return count - head;}
 
     /**
      * Adds a new tile to the boneyard.
@@ -43,7 +71,22 @@ public class Boneyard {
      * @param tile The tile to be added.
      * @return {@code true} if the tile was successfully added, {@code false} otherwise.
      */
-    public boolean addTile(Tile tile) {return tiles.add(tile);}
+    public boolean addTile(Tile tile)
+    {
+        if(count == tiles.length)
+        {
+            if(head > 0)
+            {
+                System.arraycopy(tiles, head, tiles, 0, count - head);
+                Arrays.fill(tiles, count - head, count, null);
+                count -= head;
+                head = 0;
+            }
+            else tiles = Arrays.copyOf(tiles, tiles.length * 2);
+        }
+        tiles[count++] = tile;
+        return true;
+    }
 
     /**
      * Removes and returns the first tile from the boneyard.
@@ -51,12 +94,48 @@ public class Boneyard {
      *
      * @return The first tile from the boneyard, or {@code null} if it is empty.
      */
-    public Tile releaseTile() {return isEmpty()? null : tiles.removeFirst();}
+    public Tile releaseTile()
+    {
+        if(isEmpty()) return null;
+        Tile tile = tiles[head];
+        tiles[head++] = null;
+        return tile;
+    }
+
+    /**
+     * Randomly shuffles the tiles in the boneyard with the random generator of the current thread.
+     */
+    public void shuffleTiles() {shuffleTiles(ThreadLocalRandom.current());}
+
+    /**
+     * Randomly shuffles the tiles in the boneyard in place with a Fisher-Yates shuffle.
+     *
+     * @param random The source of randomness, which makes the order reproducible when seeded.
+     */
+    public void shuffleTiles(RandomGenerator random)
+    {
+        for(int i = count - 1; i > head; i--)
+        {
+            int j = head + random.nextInt(i - head + 1);
+            Tile tile = tiles[i];
+            tiles[i] = tiles[j];
+            tiles[j] = tile;
+        }
+    }
 
     /**
-     * Randomly shuffles the tiles in the boneyard.
-     * This method rearranges the order of the tiles in the boneyard randomly.
-     * It uses the {@link Collections#shuffle(List)} method for randomization.
+     * Read-only list over the tiles in the boneyard, the next one released first.
      */
-    public void shuffleTiles() {Collections.shuffle(tiles);}
+    private final class TilesView extends AbstractList<Tile> implements RandomAccess
+    {
+        @Override
+        public Tile get(int index)
+        {
+            if(index < 0 || index >= count - head) throw new IndexOutOfBoundsException(index);
+            return tiles[head + index];
+        }
+
+        @Override
+        public int size() {return count - head;}
+    }
 }
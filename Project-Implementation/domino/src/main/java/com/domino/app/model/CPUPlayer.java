@@ -3,10 +3,37 @@ package com.domino.app.model;
 /**
  * Represents a computer-controlled player in the domino game.
  * <p>
- * This class extends {@code Player} and acts as a marker for CPU players.
- * The {@code DominoController} utilizes this class to identify CPU players
- * and to determine which tiles to play and the sides to which they should
- * be attached during gameplay.
+ * This class extends {@code Player} and is used by the {@code DominoController}
+ * to identify CPU players. Its {@link CPUStrategy} determines which tiles to
+ * play and the sides to which they should be attached during gameplay.
  * </p>
  */
-public class CPUPlayer extends Player {}
+public class CPUPlayer extends Player
+{
+    private final CPUStrategy strategy; // The strategy deciding the moves of the player
+
+    /**
+     * Constructs a CPU player choosing its moves at random.
+     */
+    public CPUPlayer()
+    {
+        this(new RandomCPUStrategy());
+    }
+
+    /**
+     * Constructs a CPU player whose moves are decided by the given strategy.
+     *
+     * @param strategy The strategy deciding the moves.
+     */
+    public CPUPlayer(CPUStrategy strategy)
+    {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Gets the strategy deciding the moves of the player.
+     *
+     * @return The strategy of the player.
+     */
+    public CPUStrategy getStrategy() {return strategy;}
+}
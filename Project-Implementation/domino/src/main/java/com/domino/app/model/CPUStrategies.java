@@ -0,0 +1,106 @@
+package com.domino.app.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The registry of the {@link CPUStrategy} implementations, by the name they report.
+ * <p>
+ * Tools comparing or training strategies take them by name from the command line and
+ * build a new instance for every thread they run, since a strategy may keep state of
+ * its own between decisions.
+ * </p>
+ * <p>
+ * A family of strategies takes a parameter after its name, as in {@code learned:weights.bin}
+ * for the strategy playing with the value function saved in {@code weights.bin}, or
+ * {@code heuristic:1.0,0.3,...} for the heuristic strategy with tuned weights.
+ * </p>
+ * <p>
+ * Strategies built in other packages, such as the learned ones of the training package,
+ * are added by the {@link CPUStrategyProvider} implementations found on the class path.
+ * </p>
+ */
+public final class CPUStrategies
+{
+    private static final Map<String, Supplier<CPUStrategy>> FACTORIES = new LinkedHashMap<>();
+    private static final Map<String, Function<String, Supplier<CPUStrategy>>> FAMILIES = new LinkedHashMap<>();
+
+    static
+    {
+        register("random", RandomCPUStrategy::new);
+        register("greedy", GreedyCPUStrategy::new);
+        register("heuristic", HeuristicCPUStrategy::new);
+        registerFamily("heuristic", HeuristicCPUStrategy::factory);
+        for(CPUStrategyProvider provider : ServiceLoader.load(CPUStrategyProvider.class, CPUStrategies.class.getClassLoader()))
+        {
+            provider.registerStrategies();
+        }
+    }
+
+    private CPUStrategies() {}
+
+    /**
+     * Registers a strategy, replacing any strategy of the same name.
+     *
+     * @param name the name of the strategy
+     * @param factory the factory building new instances of the strategy
+     */
+    public static synchronized void register(String name, Supplier<CPUStrategy> factory)
+    {
+        FACTORIES.put(name, factory);
+    }
+
+    /**
+     * Registers a family of strategies, replacing any family of the same name.
+     *
+     * @param name the name of the family, written before the parameter and a colon
+     * @param factories the function giving the factory of the strategy of a parameter
+     */
+    public static synchronized void registerFamily(String name, Function<String, Supplier<CPUStrategy>> factories)
+    {
+        FAMILIES.put(name, factories);
+    }
+
+    /**
+     * Gets the factory of a registered strategy, or of a strategy of a registered family.
+     *
+     * @param name the name of the strategy, or the name of a family, a colon and its parameter
+     * @return the factory building new instances of the strategy
+     * @throws IllegalArgumentException if no strategy or family has this name
+     */
+    public static synchronized Supplier<CPUStrategy> factory(String name)
+    {
+        Supplier<CPUStrategy> factory = FACTORIES.get(name);
+        if(factory != null) return factory;
+        int colon = name.indexOf(':');
+        Function<String, Supplier<CPUStrategy>> family = colon < 0? null : FAMILIES.get(name.substring(0, colon));
+        if(family == null)
+        {
+            throw new IllegalArgumentException("Unknown strategy: " + name + ", expected one of " + FACTORIES.keySet()
+                    + " or a family of " + FAMILIES.keySet() + " with a parameter");
+        }
+        return family.apply(name.substring(colon + 1));
+    }
+
+    /**
+     * Builds a new instance of a registered strategy.
+     *
+     * @param name the name of the strategy
+     * @return a new strategy
+     * @throws IllegalArgumentException if no strategy has this name
+     */
+    public static CPUStrategy create(String name) {return factory(name).get();}
+
+    /**
+     * Gets the names of the registered strategies.
+     *
+     * @return the names, in the order they were registered
+     */
+    public static synchronized Set<String> names() {return Collections.unmodifiableSet(new LinkedHashSet<>(FACTORIES.keySet()));}
+}
@@ -0,0 +1,35 @@
+package com.domino.app.model;
+
+/**
+ * Decides the moves of a {@link CPUPlayer}.
+ * <p>
+ * The {@code DominoController} asks the strategy of the current CPU player for the
+ * same decisions it requests from human players: which of the playable tiles to
+ * play, and on which side of the board to play a tile that fits both ends.
+ * </p>
+ */
+public interface CPUStrategy
+{
+    /**
+     * Chooses the tile to play among the current player's playable tiles.
+     *
+     * @param model the model of the match, positioned on the CPU player's turn
+     * @return the index of the tile in {@link DominoModel#getCurrentPlayerPlayableTiles()}
+     */
+    int chooseTile(DominoModel model);
+
+    /**
+     * Chooses the side of the board on which to play the last played tile.
+     *
+     * @param model the model of the match, positioned on the CPU player's turn
+     * @return {@code 0} for the left end; {@code 1} for the right end
+     */
+    int chooseSide(DominoModel model);
+
+    /**
+     * Gets the name identifying the strategy in reports.
+     *
+     * @return the name of the strategy
+     */
+    default String getName() {return getClass().getSimpleName();}
+}
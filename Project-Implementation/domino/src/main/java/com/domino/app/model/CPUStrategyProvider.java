@@ -0,0 +1,19 @@
+package com.domino.app.model;
+
+/**
+ * Adds strategies from another package to the {@link CPUStrategies} registry.
+ * <p>
+ * Providers are found with a {@link java.util.ServiceLoader} when the registry is first
+ * used, so the model does not depend on the packages that build strategies on top of it.
+ * An implementation is listed in {@code META-INF/services/com.domino.app.model.CPUStrategyProvider}
+ * and needs a public constructor without parameters.
+ * </p>
+ */
+public interface CPUStrategyProvider
+{
+    /**
+     * Registers the strategies and families of the provider, with {@link CPUStrategies#register}
+     * and {@link CPUStrategies#registerFamily}.
+     */
+    void registerStrategies();
+}
@@ -1,6 +1,7 @@
 package com.domino.app.model;
 
 import java.util.List;
+import java.util.concurrent.Flow;
 
 /**
  * The {@code DominoModel} interface defines the core functionalities and behaviors
@@ -24,24 +25,115 @@ public interface DominoModel
     }
 
     /**
-     * Starts a new match of Domino.
+     * Gets the publisher of the events of the match.
+     * <p>
+     * Subscribers receive one batch of {@link GameEvent}s per deal and per completed
+     * move, so they can follow the match through deltas instead of querying the model.
+     * </p>
+     *
+     * @return The publisher of the game events.
+     */
+    Flow.Publisher<List<GameEvent>> getGameEvents();
+
+    /**
+     * Gets the last published state of the match.
+     * <p>
+     * A new immutable {@link GameSnapshot} is published after the deal and after every
+     * completed move. Unlike the other accessors, which expose live views of the game
+     * components, this method may be called from any thread while the match is played.
+     * </p>
+     *
+     * @return The latest snapshot, or {@link GameSnapshot#EMPTY} before the first deal.
+     */
+    GameSnapshot getSnapshot();
+
+    /**
+     * Assigns the strategy deciding the moves of a CPU seat from the next match on.
+     * Seats are numbered by turn index; human seats come first.
+     *
+     * @param seat The turn index of the seat.
+     * @param strategy The strategy of the seat, or {@code null} for the default random strategy.
+     */
+    void setCPUStrategy(int seat, CPUStrategy strategy);
+
+    /**
+     * Starts a new match of Domino, clearing the scores and dealing its first round.
      */
     void startMatch();
 
     /**
-     * Checks if there is a winner in the current match.
+     * Deals the next round of the current match, keeping the scores.
+     *
+     * @throws IllegalStateException if the current round is not over or the match is over.
+     */
+    void startRound();
+
+    /**
+     * Checks if there is a winner in the current round.
      *
      * @return {@code true} if there is a winner; {@code false} otherwise.
      */
     boolean hasWinner();
 
     /**
-     * Checks if the match has ended in a draw.
+     * Checks if the current round has ended in a draw.
      *
-     * @return {@code true} if the match is a draw; {@code false} otherwise.
+     * @return {@code true} if the round is a draw; {@code false} otherwise.
      */
     boolean hasDraw();
 
+    /**
+     * Checks if the match is over: its last round is over and, when playing to a target score,
+     * a player or team has reached it.
+     *
+     * @return {@code true} if the match is over; {@code false} otherwise.
+     */
+    boolean isMatchOver();
+
+    /**
+     * Gets the number of the current round, starting at 1.
+     *
+     * @return The round number.
+     */
+    int getRound();
+
+    /**
+     * Gets the number of sides scoring in the match: two teams, or one side per player.
+     *
+     * @return The number of sides.
+     */
+    int getNumOfSides();
+
+    /**
+     * Gets the side a player scores for.
+     *
+     * @param playerTurn The turn index of the player.
+     * @return The index of the side of the player.
+     */
+    int getSideOf(int playerTurn);
+
+    /**
+     * Gets the score of a side in the current match.
+     *
+     * @param side The index of the side.
+     * @return The points scored by the side.
+     */
+    int getScore(int side);
+
+    /**
+     * Gets the points scored by the side of the winner of the last round over.
+     *
+     * @return The points of the last round, or 0 while the first round is played.
+     */
+    int getRoundPoints();
+
+    /**
+     * Gets the side that won the match.
+     *
+     * @return The index of the winning side, or -1 if the match is not over.
+     */
+    int getMatchWinnerSide();
+
     /**
      * Determines if the current player can play a tile.
      *
@@ -104,6 +196,7 @@ public interface DominoModel
 
     /**
      * Retrieves a list of tiles that the current player can play.
+     * The list is a read-only view reused from move to move, so it must be copied to be kept.
      *
      * @return A list of playable tiles for the current player.
      */
@@ -172,6 +265,20 @@ public interface DominoModel
      */
     void setHideBoneyardTiles(boolean hidden);
 
+    /**
+     * Sets the score that ends the match.
+     *
+     * @param targetScore The target score, or 0 to play a single round.
+     */
+    void setTargetScore(int targetScore);
+
+    /**
+     * Sets whether the players score as two teams, the even seats against the odd seats.
+     *
+     * @param teamPlay {@code true} to score as teams; {@code false} to score individually.
+     */
+    void setTeamPlay(boolean teamPlay);
+
     /**
      * Gets the number of human players in the match.
      *
@@ -207,6 +314,20 @@ public interface DominoModel
      */
     boolean isHideBoneyardTiles();
 
+    /**
+     * Gets the score that ends the match.
+     *
+     * @return The target score, or 0 if the match is a single round.
+     */
+    int getTargetScore();
+
+    /**
+     * Checks if the players score as two teams. Teams only apply to matches of four players.
+     *
+     * @return {@code true} if the players score as teams; {@code false} otherwise.
+     */
+    boolean isTeamPlay();
+
     /**
      * Gets the last played tile on the board.
      *
@@ -229,9 +350,9 @@ public interface DominoModel
     Tile getLastDrawnTile();
 
     /**
-     * Gets the turn index of the winner.
+     * Gets the turn index of the winner of the current round.
      *
-     * @return The turn index of the winner.
+     * @return The turn index of the winner, or -1 if the round is not over.
      */
     int getWinnerTurn();
 
@@ -251,12 +372,29 @@ public interface DominoModel
     GameAction getLastGameAction();
 
     /**
-     * Gets the tile at the ends of the board.
+     * Creates a tile holding the values at the ends of the board.
+     * The tile is a copy, so changing it does not change the board.
      *
-     * @return The tile at the ends of the board.
+     * @return A new tile with the values at the ends of the board; {@code null} if the board is empty.
      */
     Tile getEndsBoardTile();
 
+    /**
+     * Gets the value on the left end of the board, without creating a tile.
+     *
+     * @return The value on the left end.
+     * @throws java.util.NoSuchElementException if the board is empty.
+     */
+    int getLeftEnd();
+
+    /**
+     * Gets the value on the right end of the board, without creating a tile.
+     *
+     * @return The value on the right end.
+     * @throws java.util.NoSuchElementException if the board is empty.
+     */
+    int getRightEnd();
+
     /**
      * Retrieves a list of tiles currently on the board.
      *
@@ -1,12 +1,38 @@
 package com.domino.app.model;
 
+import com.domino.app.monitoring.DealEvent;
+import com.domino.app.monitoring.GameMetrics;
+import com.domino.app.monitoring.MatchEndedEvent;
+import com.domino.app.monitoring.MatchStartedEvent;
+
 import java.util.*;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * The implementation of the {@link DominoModel} interface.
  * This class manages the game state, including the board, boneyard, players,
  * and game settings. It provides methods to control the flow of the game,
  * handle player actions, and determine game outcomes.
+ * <p>
+ * The components of a match are reused by the next one: the board, the boneyard and
+ * the hands are cleared in place, the players are kept while the seats are unchanged,
+ * and the tiles are taken from a set built once per range of pips. Simulations that
+ * never read snapshots can also turn their publication off, so playing a match
+ * allocates next to nothing.
+ * </p>
+ * <p>
+ * A match is a series of rounds. The winner of a round scores the pips left in the hands
+ * of the opponents, which every player keeps summed as its tiles leave its hand, and rounds
+ * are dealt on the same components until a side reaches the target score of the settings.
+ * </p>
+ * <p>
+ * The start of a match, every deal and the end of a match are reported as Flight Recorder
+ * events. The model only counts the moves of the match as it goes, and fills the events
+ * when a recording has enabled them. Matches, rounds and turns are also counted in the
+ * {@link GameMetrics} of the node.
+ * </p>
  */
 public class DominoModelImp implements DominoModel
 {
@@ -19,12 +45,50 @@ public class DominoModelImp implements DominoModel
     private int currentTurn; // Index of the player whose turn it is
     private int consecutivePassCount; // Count of consecutive passes made by players
 
+    // Scoring variables
+    private boolean teams; // Whether the current match is scored by two teams
+    private int[] scores; // Points of every side in the current match
+    private int round; // Number of the current round, 0 before the first deal
+    private int roundPoints; // Points scored by the winner of the last round over
+    private boolean roundScored; // Whether the current round is over and its points added to the scores
+    private int matchWinnerSide; // Side that won the match, -1 while it is played
+
+    // Match statistics, reported when the match ends
+    private long matchStartNanos; // Time the match started
+    private int matchTurns; // Number of turns played in the match
+    private int matchDraws; // Number of tiles drawn in the match
+    private int matchPasses; // Number of turns passed in the match
+    private int matchRedeals; // Number of deals discarded in the match
+    private final GameMetrics metrics; // Live counters of the node
+
     // Last action variables
     private Tile lastDrawnTile; // The last tile drawn by the current player
     private Tile lastPlayedTile; // The last tile played on the board
     private DominoModel.GameAction lastGameAction; // The last action performed in the game
 
     private DominoSettings settings; // The settings for the current game
+    private final GameEventPublisher events; // Publisher of the events of the match
+    private CPUStrategy[] cpuStrategies; // Strategies of the CPU seats by turn index, null for the default
+
+    // Reused components
+    private Tile[] tileSet; // Every tile of the current range of pips, dealt again in every match
+    private int[] dealOrder; // Indices in the tile set of the tiles of the last deal, in the order they were dealt
+    private int[] nextDeal; // Order of the tiles of the next deal, null to shuffle them
+    private final List<Tile> playableTiles; // Playable tiles of the current player, refilled when stale
+    private final List<Tile> playableView; // Read-only view of the playable tiles
+    private boolean playableTilesValid; // Whether the playable tiles match the current turn, hand and board
+    private boolean publishSnapshots; // Whether a snapshot is published after the deal and every move
+    private RandomGenerator random; // Source of randomness of the deals, null to use the thread's own
+
+    // Snapshot variables, only written by the thread playing the match
+    private volatile GameSnapshot snapshot; // Last published state of the match
+    private PersistentStack<TileFace> leftTiles; // Board tiles from the left end to the first tile played
+    private PersistentStack<TileFace> rightTiles; // Board tiles from the right end to the one next to the first tile
+    private PersistentStack<TileFace> boneyardTiles; // Boneyard tiles, next drawn on top
+    private List<List<TileFace>> hands; // Immutable hands by seat, as last published
+    private boolean drawnThisMove; // Whether the move being completed started with a draw
+
+    private static final CPUStrategy DEFAULT_CPU_STRATEGY = new RandomCPUStrategy();
 
     /**
      * Constructs a new instance of DominoModelImp.
@@ -39,12 +103,31 @@ public class DominoModelImp implements DominoModel
         this.currentTurn = -1;
         this.consecutivePassCount = 0;
 
+        this.teams = false;
+        this.scores = new int[0];
+        this.round = 0;
+        this.roundPoints = 0;
+        this.roundScored = false;
+        this.matchWinnerSide = -1;
+
         this.lastDrawnTile = null;
         this.lastPlayedTile = null;
         this.lastGameAction = null;
         this.settings = new DominoSettings();
+        this.events = new GameEventPublisher();
+        this.cpuStrategies = new CPUStrategy[0];
 
         this.players = new ArrayList<>(getNumOfPlayers());
+        this.snapshot = GameSnapshot.EMPTY;
+
+        this.tileSet = new Tile[0];
+        this.dealOrder = new int[0];
+        this.nextDeal = null;
+        this.playableTiles = new ArrayList<>();
+        this.playableView = Collections.unmodifiableList(playableTiles);
+        this.playableTilesValid = false;
+        this.publishSnapshots = true;
+        this.metrics = GameMetrics.getDefault();
     }
 
     // Settings methods
@@ -66,25 +149,159 @@ public class DominoModelImp implements DominoModel
     public boolean isHideBoneyardTiles() {return settings.isHideBoneyardTiles();}
     public void setHideBoneyardTiles(boolean hideBoneyardTiles) {settings.setHideBoneyardTiles(hideBoneyardTiles);}
 
+    public int getTargetScore() {return settings.getTargetScore();}
+    public void setTargetScore(int targetScore) {settings.setTargetScore(targetScore);}
+
+    public boolean isTeamPlay() {return settings.isTeamPlay();}
+    public void setTeamPlay(boolean teamPlay) {settings.setTeamPlay(teamPlay);}
+
     public DominoSettings getSettings() {return settings.clone();}
     public void setSettings(DominoSettings settings) {this.settings = settings;}
 
     public DominoModel.GameAction getLastGameAction() {return lastGameAction;}
 
+    public Flow.Publisher<List<GameEvent>> getGameEvents() {return events;}
+    public GameSnapshot getSnapshot() {return snapshot;}
+
+    /**
+     * Sets whether a snapshot is published after the deal and every move.
+     * Simulations that never read snapshots turn them off to avoid allocating one per move;
+     * {@link #getSnapshot()} then keeps returning the last one published.
+     *
+     * @param publishSnapshots {@code true} to publish snapshots, the default; {@code false} otherwise
+     */
+    public void setPublishSnapshots(boolean publishSnapshots) {this.publishSnapshots = publishSnapshots;}
+
+    /**
+     * Sets the source of randomness used to shuffle the tiles of every deal.
+     * A seeded generator makes the deals of the following matches reproducible.
+     *
+     * @param random The random generator, or {@code null} for the generator of the calling thread, the default.
+     */
+    public void setRandom(RandomGenerator random) {this.random = random;}
+
+    /**
+     * Gets the order in which the tiles of the last deal were dealt, so it can be played again.
+     *
+     * @return The indices of the tiles in the set of the current range of pips, from the first tile dealt to the last.
+     */
+    public int[] getLastDeal() {return dealOrder.clone();}
+
+    /**
+     * Sets the order in which the tiles of the next deal are dealt, instead of shuffling them.
+     * Only the next deal uses it; a redeal or a later round is shuffled again. Seats holding the
+     * same strategies get the same hands as in the match the order was taken from, so a deal can
+     * be played again with the strategies moved to other seats.
+     *
+     * @param order The order returned by {@link #getLastDeal()} for the same range of pips,
+     *              or {@code null} to shuffle the next deal.
+     */
+    public void setNextDeal(int[] order) {this.nextDeal = order == null? null : order.clone();}
+
+    public void setCPUStrategy(int seat, CPUStrategy strategy)
+    {
+        if(seat >= cpuStrategies.length) cpuStrategies = Arrays.copyOf(cpuStrategies, seat + 1);
+        cpuStrategies[seat] = strategy;
+    }
+
     // Control methods
     public void startMatch()
     {
-        // Clear the end state of the last match and apply the new settings
+        // Teams and sides are fixed for the whole match
+        teams = isTeamPlay() && getNumOfPlayers() == 4;
+        int sides = teams? 2 : getNumOfPlayers();
+        if(scores.length != sides) scores = new int[sides];
+        else Arrays.fill(scores, 0);
+        round = 0;
+        roundPoints = 0;
+        matchWinnerSide = -1;
+
+        matchStartNanos = System.nanoTime();
+        matchTurns = 0;
+        matchDraws = 0;
+        matchPasses = 0;
+        matchRedeals = 0;
+        metrics.matchStarted();
+
+        if(MatchStartedEvent.isRecorded())
+        {
+            MatchStartedEvent event = new MatchStartedEvent();
+            event.numOfPlayers = getNumOfPlayers();
+            event.numOfHumanPlayers = getNumOfHumanPlayers();
+            event.minDots = getMinDots();
+            event.maxDots = getMaxDots();
+            event.targetScore = getTargetScore();
+            event.teamPlay = teams;
+            event.commit();
+        }
+
+        dealRound();
+    }
+
+    public void startRound()
+    {
+        if(!roundScored) throw new IllegalStateException("The current round is not over");
+        if(isMatchOver()) throw new IllegalStateException("The match is over");
+        dealRound();
+    }
+
+    /**
+     * Deals a new round on the components of the last one.
+     */
+    private void dealRound()
+    {
+        // Clear the end state of the last round and apply the new settings
+        round++;
+        roundScored = false;
         resetGameData();
         applySettings();
         // Re-deal the tiles if no player has a double tile
+        int redeals = -1;
         boolean anyPlayerHasDoubleTile = false;
         while(!anyPlayerHasDoubleTile)
         {
             dealTiles();
-            anyPlayerHasDoubleTile = players.stream().anyMatch(Player::hasAnyDoubleTile);
+            redeals++;
+            for(int i = 0; i < players.size() && !anyPlayerHasDoubleTile; i++)
+            {
+                anyPlayerHasDoubleTile = players.get(i).hasAnyDoubleTile();
+            }
         }
         pickStartingPlayer();
+        playableTilesValid = false;
+        matchRedeals += redeals;
+        metrics.roundDealt(redeals);
+
+        if(DealEvent.isRecorded())
+        {
+            DealEvent event = new DealEvent();
+            event.round = round;
+            event.redeals = redeals;
+            event.startingSeat = currentTurn;
+            event.commit();
+        }
+
+        if(publishSnapshots) publishDeal();
+
+        if(events.hasSubscribers())
+        {
+            events.add(new GameEvent.Deal(currentTurn, players.size(),
+                    getCurrentPlayer().getTileCount(), boneyard.getTileCount(), redeals));
+            events.flush();
+        }
+    }
+
+    /**
+     * Publishes the snapshot of a new deal.
+     */
+    private void publishDeal()
+    {
+        leftTiles = PersistentStack.empty();
+        rightTiles = PersistentStack.empty();
+        boneyardTiles = PersistentStack.of(boneyard.getTiles().stream().map(TileFace::of).toList());
+        hands = new ArrayList<>(players.size());
+        for(Player player : players) hands.add(toFaces(player.getTiles()));
+        publishSnapshot(-1, currentTurn, false, false);
     }
 
     public int getWinnerTurn()
@@ -96,19 +313,31 @@ public class DominoModelImp implements DominoModel
 
     public boolean hasWinner()
     {
-        return players.stream().anyMatch(p -> !p.hasAnyTile());
+        return getRegularWinner() != null;
     }
 
     public boolean hasDraw()
     {
-        return consecutivePassCount == players.size()
+        return consecutivePassCount >= players.size()
                 && isBoneyardEmpty()
-                && players.stream().allMatch(Player::hasAnyTile);
+                && getRegularWinner() == null;
     }
 
+    // Scoring methods
+    public boolean isMatchOver() {return matchWinnerSide >= 0;}
+    public int getRound() {return round;}
+    public int getNumOfSides() {return scores.length;}
+    public int getSideOf(int playerTurn) {return teams? playerTurn % 2 : playerTurn;}
+    public int getScore(int side) {return scores[side];}
+    public int getRoundPoints() {return roundPoints;}
+    public int getMatchWinnerSide() {return matchWinnerSide;}
+
     public void advanceTurn()
     {
         currentTurn = (currentTurn+1) % players.size();
+        playableTilesValid = false;
+        matchTurns++;
+        metrics.turnPlayed();
     }
 
     // Access methods
@@ -126,19 +355,25 @@ public class DominoModelImp implements DominoModel
     public List<Tile> getCurrentPlayerTiles(){return getCurrentPlayer().getTiles();}
     public List<Tile> getCurrentPlayerPlayableTiles()
     {
-        Tile endsBoardTile = getEndsBoardTile();
-        if(endsBoardTile == null) return getCurrentPlayerTiles();
-        else
+        if(!playableTilesValid)
         {
-            return getCurrentPlayerTiles().stream()
-                    .filter(tile -> endsBoardTile.canAttach(tile).ordinal() > Tile.AttachSide.NONE.ordinal())
-                    .toList();
+            playableTiles.clear();
+            List<Tile> hand = getCurrentPlayerTiles();
+            for(int i = 0; i < hand.size(); i++)
+            {
+                Tile tile = hand.get(i);
+                if(board.attachSide(tile) != Tile.AttachSide.NONE) playableTiles.add(tile);
+            }
+            playableTilesValid = true;
         }
+        return playableView;
     }
 
     public boolean canCurrentPlayerPlayTile(){return !getCurrentPlayerPlayableTiles().isEmpty();}
 
     public Tile getEndsBoardTile(){return board.getEndsBoardTile();}
+    public int getLeftEnd() {return board.getLeftEnd();}
+    public int getRightEnd() {return board.getRightEnd();}
     public Tile getLastDrawnTile() {return lastDrawnTile;}
     public Tile getLastPlayedTile() {return lastPlayedTile;}
 
@@ -147,6 +382,7 @@ public class DominoModelImp implements DominoModel
     {
         int index = getCurrentPlayerTiles().indexOf(getCurrentPlayerPlayableTiles().get(indexFromPlayableTiles));
         Tile tile = getCurrentPlayer().grabTile(index);
+        playableTilesValid = false;
         return currentPlayerPlayTile(tile);
     }
 
@@ -163,18 +399,19 @@ public class DominoModelImp implements DominoModel
     public Tile.AttachSide currentPlayerDrawTile()
     {
         Tile lastDrawnTile = boneyard.releaseTile();
+        matchDraws++;
+        if(publishSnapshots) boneyardTiles = boneyardTiles.pop();
+        if(events.hasSubscribers())
+        {
+            events.add(new GameEvent.TileDrawn(currentTurn, lastDrawnTile.getLeft(), lastDrawnTile.getRight()));
+        }
 
         // Save the stolen tile from the override in the play method.
+        drawnThisMove = true;
         Tile.AttachSide attachSide = currentPlayerPlayTile(lastDrawnTile);
 
         this.lastDrawnTile = lastDrawnTile;
-
-        switch (lastGameAction)
-        {
-            case PASS -> lastGameAction = GameAction.DRAW_AND_PASS;
-            case PLAY_LEFT -> lastGameAction = GameAction.DRAW_AND_PLAY_LEFT;
-            case PLAY_RIGHT -> lastGameAction = GameAction.DRAW_AND_PLAY_RIGHT;
-        }
+        lastGameAction = withDraw(lastGameAction);
 
         return attachSide;
     }
@@ -185,36 +422,79 @@ public class DominoModelImp implements DominoModel
         lastPlayedTile = null;
         lastGameAction = GameAction.PASS;
         increasePassCount();
+        matchPasses++;
+
+        if(events.hasSubscribers()) events.add(new GameEvent.TurnPassed(currentTurn));
+        publishMove();
     }
 
     // Private control methods
 
     /**
      * Applies the current game settings by initializing the player list.
-     * Adds the specified number of human players and CPU players to the game.
+     * Adds the specified number of human players and CPU players to the game,
+     * unless the players of the last match already fill the same seats.
      */
     private void applySettings()
     {
+        if(playersMatchSettings())
+        {
+            for(int i = 0; i < players.size(); i++) players.get(i).clearTiles();
+            return;
+        }
+
+        players.clear();
         for(int i = 0; i < getNumOfHumanPlayers(); i++)
         {
             players.add(new HumanPlayer());
         }
 
-        for(int i = 0; i < getNumOfPlayers()-getNumOfHumanPlayers(); i++)
+        for(int i = getNumOfHumanPlayers(); i < getNumOfPlayers(); i++)
         {
-            players.add(new CPUPlayer());
+            players.add(new CPUPlayer(getCPUStrategy(i)));
         }
     }
 
     /**
-     * Resets the game data to prepare for a new match.
-     * Initializes the board, boneyard, player list, and game state variables.
+     * Checks whether the players of the last match fill the seats of the current settings,
+     * with the same strategy on every CPU seat.
+     *
+     * @return {@code true} if the players can be reused; {@code false} otherwise
+     */
+    private boolean playersMatchSettings()
+    {
+        if(players.size() != getNumOfPlayers()) return false;
+        for(int i = 0; i < players.size(); i++)
+        {
+            Player player = players.get(i);
+            boolean reusable = i < getNumOfHumanPlayers()
+                    ? player instanceof HumanPlayer
+                    : player instanceof CPUPlayer cpuPlayer && cpuPlayer.getStrategy() == getCPUStrategy(i);
+            if(!reusable) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the strategy assigned to a CPU seat.
+     *
+     * @param seat The turn index of the seat.
+     * @return The strategy of the seat, or the default random strategy if none was assigned.
+     */
+    private CPUStrategy getCPUStrategy(int seat)
+    {
+        CPUStrategy strategy = seat < cpuStrategies.length? cpuStrategies[seat] : null;
+        return strategy != null? strategy : DEFAULT_CPU_STRATEGY;
+    }
+
+    /**
+     * Resets the game data to prepare for a new round.
+     * Clears the board, boneyard, and game state variables in place.
      */
     private void resetGameData()
     {
-        this.board = new Board();
-        this.boneyard = new Boneyard();
-        this.players = new ArrayList<>(getNumOfPlayers());
+        board.clear();
+        boneyard.clear();
 
         this.currentTurn = -1;
         this.consecutivePassCount = 0;
@@ -222,6 +502,7 @@ public class DominoModelImp implements DominoModel
         this.lastDrawnTile = null;
         this.lastPlayedTile = null;
         this.lastGameAction = null;
+        this.drawnThisMove = false;
     }
 
     /**
@@ -230,11 +511,17 @@ public class DominoModelImp implements DominoModel
      */
     private void pickStartingPlayer()
     {
-        Player startingPlayer = players.stream()
-                .filter(Player::hasAnyDoubleTile)
-                .max(Comparator.comparing(p -> p.getBiggestDouble().getLeft()))
-                .orElse(null);
-        currentTurn = players.indexOf(startingPlayer);
+        currentTurn = -1;
+        int biggestDouble = -1;
+        for(int i = 0; i < players.size(); i++)
+        {
+            Tile tile = players.get(i).getBiggestDouble();
+            if(tile != null && tile.getLeft() > biggestDouble)
+            {
+                biggestDouble = tile.getLeft();
+                currentTurn = i;
+            }
+        }
     }
 
     /**
@@ -243,7 +530,18 @@ public class DominoModelImp implements DominoModel
      */
     private Player getWinnerByDraw()
     {
-        return players.stream().min(Comparator.comparing(Player::getTilesSum)).orElse(null);
+        Player winner = null;
+        int lowestSum = Integer.MAX_VALUE;
+        for(int i = 0; i < players.size(); i++)
+        {
+            int sum = players.get(i).getTilesSum();
+            if(sum < lowestSum)
+            {
+                lowestSum = sum;
+                winner = players.get(i);
+            }
+        }
+        return winner;
     }
 
     /**
@@ -252,26 +550,37 @@ public class DominoModelImp implements DominoModel
      */
     private Player getRegularWinner()
     {
-        return players.stream().filter(p -> !p.hasAnyTile()).findFirst().orElse(null);
+        for(int i = 0; i < players.size(); i++)
+        {
+            if(!players.get(i).hasAnyTile()) return players.get(i);
+        }
+        return null;
     }
 
     /**
      * Deals tiles to each player from the boneyard.
-     * Creates all possible tiles based on the min and max dots,
-     * shuffles them, and distributes an equal number of tiles to each player.
+     * Gathers all possible tiles based on the min and max dots,
+     * shuffles them, unless an order was set for this deal, and distributes an equal number of tiles to each player.
+     * Hands and boneyard are emptied first, so a redeal starts from the full set again.
      */
     private void dealTiles()
     {
-        for (int left = getMinDots(); left <= getMaxDots(); left++)
+        for(int i = 0; i < players.size(); i++) players.get(i).clearTiles();
+        boneyard.clear();
+
+        Tile[] set = getTileSet();
+        if(dealOrder.length != set.length) dealOrder = new int[set.length];
+        if(nextDeal != null && nextDeal.length == set.length) System.arraycopy(nextDeal, 0, dealOrder, 0, set.length);
+        else shuffleDealOrder(random != null? random : ThreadLocalRandom.current());
+        nextDeal = null;
+
+        for(int index : dealOrder)
         {
-            for (int right = left; right <= getMaxDots(); right++)
-            {
-                boneyard.addTile(new Tile(left, right));
-            }
+            Tile tile = set[index];
+            tile.resetOrientation();
+            boneyard.addTile(tile);
         }
 
-        boneyard.shuffleTiles();
-
         int nTiles = boneyard.getTileCount();
         for(Player player: players)
         {
@@ -282,6 +591,47 @@ public class DominoModelImp implements DominoModel
         }
     }
 
+    /**
+     * Shuffles the order of the tiles of the next deal in place with a Fisher-Yates shuffle.
+     *
+     * @param random The source of randomness.
+     */
+    private void shuffleDealOrder(RandomGenerator random)
+    {
+        for(int i = 0; i < dealOrder.length; i++) dealOrder[i] = i;
+        for(int i = dealOrder.length - 1; i > 0; i--)
+        {
+            int j = random.nextInt(i + 1);
+            int index = dealOrder[i];
+            dealOrder[i] = dealOrder[j];
+            dealOrder[j] = index;
+        }
+    }
+
+    /**
+     * Gets every tile of the current range of pips, building the set when the range changes.
+     *
+     * @return The tiles of the set, in their dealt orientation once reset.
+     */
+    private Tile[] getTileSet()
+    {
+        int pips = getMaxDots() - getMinDots() + 1;
+        int size = pips > 0? pips * (pips + 1) / 2 : 0;
+        if(tileSet.length != size || (size > 0 && tileSet[0].getLeft() + tileSet[0].getRight() != 2 * getMinDots()))
+        {
+            tileSet = new Tile[size];
+            int i = 0;
+            for (int left = getMinDots(); left <= getMaxDots(); left++)
+            {
+                for (int right = left; right <= getMaxDots(); right++)
+                {
+                    tileSet[i++] = new Tile(left, right);
+                }
+            }
+        }
+        return tileSet;
+    }
+
     // Game methods
 
     /**
@@ -303,10 +653,7 @@ public class DominoModelImp implements DominoModel
      */
     private Tile.AttachSide currentPlayerPlayTile(Tile tile)
     {
-        Tile.AttachSide attachSide;
-        Tile endsBoardTile = getEndsBoardTile();
-        if(endsBoardTile == null) attachSide = Tile.AttachSide.LEFT;
-        else attachSide = endsBoardTile.canAttach(tile);
+        Tile.AttachSide attachSide = board.attachSide(tile);
 
         switch(attachSide)
         {
@@ -335,7 +682,9 @@ public class DominoModelImp implements DominoModel
     {
         clearPassCount();
         lastGameAction = GameAction.PLAY_LEFT;
-        return board.addTileAtLeftEnd(tile);
+        boolean added = board.addTileAtLeftEnd(tile);
+        if(added) publishTilePlayed(tile, true);
+        return added;
     }
 
     /**
@@ -348,6 +697,158 @@ public class DominoModelImp implements DominoModel
     {
         clearPassCount();
         lastGameAction = GameAction.PLAY_RIGHT;
-        return board.addTileAtRightEnd(tile);
+        boolean added = board.addTileAtRightEnd(tile);
+        if(added) publishTilePlayed(tile, false);
+        return added;
+    }
+
+    // Event methods
+
+    /**
+     * Publishes the play of a tile, as placed on the board, and completes the move.
+     *
+     * @param tile The tile that was played.
+     * @param atLeftEnd Whether the tile was played at the left end of the board.
+     */
+    private void publishTilePlayed(Tile tile, boolean atLeftEnd)
+    {
+        playableTilesValid = false;
+        if(publishSnapshots)
+        {
+            if(atLeftEnd) leftTiles = leftTiles.push(TileFace.of(tile));
+            else rightTiles = rightTiles.push(TileFace.of(tile));
+        }
+
+        if(events.hasSubscribers())
+        {
+            events.add(new GameEvent.TilePlayed(currentTurn, tile.getLeft(), tile.getRight(), atLeftEnd,
+                    board.getLeftEndTile().getLeft(), board.getRightEndTile().getRight()));
+        }
+        publishMove();
+    }
+
+    /**
+     * Completes the current move: publishes the new snapshot and the batch of events,
+     * adding the end of the round to both if it is over, and the end of the match once
+     * a side reaches the target score.
+     */
+    private void publishMove()
+    {
+        if(!roundScored && (hasWinner() || hasDraw())) scoreRound();
+
+        drawnThisMove = false;
+        if(!publishSnapshots && !events.hasSubscribers()) return;
+
+        boolean winner = hasWinner();
+        boolean roundOver = winner || hasDraw();
+
+        if(publishSnapshots)
+        {
+            hands.set(currentTurn, toFaces(getCurrentPlayerTiles())); // Only the hand of the mover can change
+            publishSnapshot(currentTurn, (currentTurn + 1) % players.size(), roundOver, winner);
+        }
+
+        if(!events.hasSubscribers()) return;
+        if(roundOver)
+        {
+            int winnerTurn = getWinnerTurn();
+            events.add(new GameEvent.RoundEnded(winnerTurn, !winner, roundPoints));
+            if(isMatchOver()) events.add(new GameEvent.MatchEnded(winnerTurn, !winner));
+        }
+        events.flush();
+    }
+
+    /**
+     * Adds the points of the round that just ended to the side of its winner,
+     * ending the match if the side reaches the target score.
+     * The winner scores the pips left in the hands of the players of the other sides.
+     */
+    private void scoreRound()
+    {
+        int winnerSide = getSideOf(getWinnerTurn());
+        int points = 0;
+        for(int i = 0; i < players.size(); i++)
+        {
+            if(getSideOf(i) != winnerSide) points += players.get(i).getTilesSum();
+        }
+        scores[winnerSide] += points;
+        roundPoints = points;
+        roundScored = true;
+        if(!hasWinner()) metrics.roundBlocked();
+
+        int targetScore = getTargetScore();
+        if(targetScore <= 0 || scores[winnerSide] >= targetScore)
+        {
+            matchWinnerSide = winnerSide;
+            metrics.matchCompleted();
+            publishMatchEnded();
+        }
+    }
+
+    /**
+     * Reports the statistics of the match that just ended to Flight Recorder, if enabled.
+     */
+    private void publishMatchEnded()
+    {
+        if(!MatchEndedEvent.isRecorded()) return;
+
+        MatchEndedEvent event = new MatchEndedEvent();
+        event.matchDuration = System.nanoTime() - matchStartNanos;
+        event.rounds = round;
+        event.turns = matchTurns + 1; // The last turn ends the match before it is advanced
+        event.draws = matchDraws;
+        event.passes = matchPasses;
+        event.redeals = matchRedeals;
+        event.winnerSide = matchWinnerSide;
+        event.commit();
+    }
+
+    /**
+     * Replaces the published snapshot with the current state of the match.
+     *
+     * @param lastMover The seat that made the last move, -1 after the deal.
+     * @param nextTurn The seat to move next.
+     * @param roundOver Whether the round is over.
+     * @param winner Whether a player won by playing all the tiles.
+     */
+    private void publishSnapshot(int lastMover, int nextTurn, boolean roundOver, boolean winner)
+    {
+        int leftEnd = board.isEmpty()? -1 : board.getLeftEndTile().getLeft();
+        int rightEnd = board.isEmpty()? -1 : board.getRightEndTile().getRight();
+        int winnerTurn = !roundOver? -1 : winner? players.indexOf(getRegularWinner()) : players.indexOf(getWinnerByDraw());
+
+        GameAction action = drawnThisMove? withDraw(lastGameAction) : lastGameAction;
+        snapshot = new GameSnapshot(snapshot.getVersion() + 1, nextTurn, lastMover, action,
+                leftTiles, rightTiles, leftEnd, rightEnd, List.copyOf(hands), boneyardTiles, winnerTurn, isMatchOver());
+    }
+
+    /**
+     * Gets the action recorded for a move that started by drawing a tile.
+     *
+     * @param action The action of the tile played or passed after the draw.
+     * @return The matching draw action.
+     */
+    private static GameAction withDraw(GameAction action)
+    {
+        return switch (action)
+        {
+            case PASS -> GameAction.DRAW_AND_PASS;
+            case PLAY_LEFT -> GameAction.DRAW_AND_PLAY_LEFT;
+            case PLAY_RIGHT -> GameAction.DRAW_AND_PLAY_RIGHT;
+            default -> action;
+        };
+    }
+
+    /**
+     * Copies the current faces of a list of tiles into an immutable list.
+     *
+     * @param tiles The tiles.
+     * @return The immutable list of faces.
+     */
+    private static List<TileFace> toFaces(List<Tile> tiles)
+    {
+        TileFace[] faces = new TileFace[tiles.size()];
+        for(int i = 0; i < faces.length; i++) faces[i] = TileFace.of(tiles.get(i));
+        return List.of(faces);
     }
 }
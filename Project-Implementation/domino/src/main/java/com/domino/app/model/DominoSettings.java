@@ -4,7 +4,9 @@ package com.domino.app.model;
  * Represents the settings for a game of domino, including the number of players,
  * the number of human players, and the range of pips (dots) on the tiles.
  * <p>
- * This class also provides options to hide opponent tiles and boneyard tiles during gameplay.
+ * This class also provides options to hide opponent tiles and boneyard tiles during gameplay,
+ * and the scoring of the match: a single round, or rounds played until a player or a team
+ * reaches a target score.
  * It implements the {@code Cloneable} interface to allow creating a copy of the settings.
  * </p>
  */
@@ -16,6 +18,8 @@ public class DominoSettings implements Cloneable
     private int maxDots;
     private boolean hideOpponentTiles;
     private boolean hideBoneyardTiles;
+    private int targetScore;
+    private boolean teamPlay;
 
     /**
      * Constructs a new instance of {@code DominoSettings} with default values:
@@ -26,6 +30,8 @@ public class DominoSettings implements Cloneable
      *   <li>Maximum dots: 6</li>
      *   <li>Opponent tiles: hidden</li>
      *   <li>Boneyard tiles: hidden</li>
+     *   <li>Target score: 0, a single round</li>
+     *   <li>Team play: off</li>
      * </ul>
      */
     public DominoSettings()
@@ -36,6 +42,8 @@ public class DominoSettings implements Cloneable
         this.maxDots = 6;
         this.hideOpponentTiles = true;
         this.hideBoneyardTiles = true;
+        this.targetScore = 0;
+        this.teamPlay = false;
     }
 
     /**
@@ -122,6 +130,36 @@ public class DominoSettings implements Cloneable
      */
     public void setHideBoneyardTiles(boolean hideBoneyardTiles) {this.hideBoneyardTiles = hideBoneyardTiles;}
 
+    /**
+     * Returns the score that ends the match.
+     *
+     * @return the target score, or 0 if the match is a single round
+     */
+    public int getTargetScore() {return targetScore;}
+
+    /**
+     * Sets the score that ends the match. The winner of every round scores the pips
+     * left in the hands of the opponents, and rounds are played until a score reaches the target.
+     *
+     * @param targetScore the target score, or 0 to play a single round
+     */
+    public void setTargetScore(int targetScore) {this.targetScore = targetScore;}
+
+    /**
+     * Checks if the players score as two teams.
+     *
+     * @return true if the players of opposite seats share their score, false otherwise
+     */
+    public boolean isTeamPlay() {return teamPlay;}
+
+    /**
+     * Sets whether the players score as two teams, the even seats against the odd seats.
+     * Teams only apply to matches of four players.
+     *
+     * @param teamPlay true to score as teams, false to score individually
+     */
+    public void setTeamPlay(boolean teamPlay) {this.teamPlay = teamPlay;}
+
     /**
      * Creates and returns a copy of this {@code DominoSettings} object.
      *
@@ -0,0 +1,78 @@
+package com.domino.app.model;
+
+/**
+ * A change in the state of a match, published by the model as it happens.
+ * <p>
+ * Events carry the values of the tiles involved rather than the mutable
+ * {@link Tile} instances, so they can be consumed after the model has moved on.
+ * Every event identifies the seat it concerns through its turn index.
+ * </p>
+ */
+public sealed interface GameEvent
+        permits GameEvent.Deal, GameEvent.TileDrawn, GameEvent.TilePlayed, GameEvent.TurnPassed, GameEvent.RoundEnded,
+                GameEvent.MatchEnded
+{
+    /**
+     * Gets the turn index of the seat the event concerns.
+     *
+     * @return the turn index
+     */
+    int turn();
+
+    /**
+     * The tiles have been dealt and the starting player picked.
+     *
+     * @param turn the turn index of the starting player
+     * @param numOfPlayers the number of players in the match
+     * @param tilesPerPlayer the number of tiles dealt to each player
+     * @param boneyardTiles the number of tiles left in the boneyard
+     * @param redeals the number of times the tiles were dealt again because no player had a double
+     */
+    record Deal(int turn, int numOfPlayers, int tilesPerPlayer, int boneyardTiles, int redeals) implements GameEvent {}
+
+    /**
+     * A tile has been drawn from the boneyard.
+     *
+     * @param turn the turn index of the player drawing the tile
+     * @param left the pips on the left end of the drawn tile
+     * @param right the pips on the right end of the drawn tile
+     */
+    record TileDrawn(int turn, int left, int right) implements GameEvent {}
+
+    /**
+     * A tile has been played at one end of the board.
+     *
+     * @param turn the turn index of the player
+     * @param left the pips on the left end of the tile, as placed
+     * @param right the pips on the right end of the tile, as placed
+     * @param atLeftEnd {@code true} if the tile was played at the left end; {@code false} for the right end
+     * @param endsLeft the pips on the left end of the board after the play
+     * @param endsRight the pips on the right end of the board after the play
+     */
+    record TilePlayed(int turn, int left, int right, boolean atLeftEnd, int endsLeft, int endsRight) implements GameEvent {}
+
+    /**
+     * A player has passed the turn.
+     *
+     * @param turn the turn index of the player
+     */
+    record TurnPassed(int turn) implements GameEvent {}
+
+    /**
+     * A round has ended and its points were added to the side of its winner.
+     * The match goes on with a new deal unless a {@link MatchEnded} follows.
+     *
+     * @param turn the turn index of the winner of the round
+     * @param draw {@code true} if the round was blocked and the winner decided by the tiebreaker
+     * @param points the points scored by the side of the winner
+     */
+    record RoundEnded(int turn, boolean draw, int points) implements GameEvent {}
+
+    /**
+     * The match has ended, its last round reported by the {@link RoundEnded} just before.
+     *
+     * @param turn the turn index of the winner of the last round, on the side winning the match
+     * @param draw {@code true} if the last round was blocked and its winner decided by the tiebreaker
+     */
+    record MatchEnded(int turn, boolean draw) implements GameEvent {}
+}
@@ -0,0 +1,222 @@
+package com.domino.app.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+
+/**
+ * Publishes the {@link GameEvent}s of a match to {@link Flow.Subscriber}s in batches.
+ * <p>
+ * The model adds events as they happen and flushes them once a move is complete,
+ * so each subscriber receives one immutable batch per move (or per deal). Batches
+ * are delivered on the thread that flushes them whenever the subscriber has
+ * outstanding demand; otherwise they are queued, up to a bounded number per
+ * subscriber. A subscriber falling further behind is cancelled with an error
+ * rather than slowing down the match.
+ * </p>
+ */
+public class GameEventPublisher implements Flow.Publisher<List<GameEvent>>
+{
+    /**
+     * Maximum number of batches queued for a subscriber without demand.
+     */
+    public static final int MAX_PENDING_BATCHES = 1024;
+
+    private final List<EventSubscription> subscriptions; // Active subscriptions
+    private final List<GameEvent> pending; // Events of the move in progress
+
+    /**
+     * Creates a publisher without subscribers.
+     */
+    public GameEventPublisher()
+    {
+        subscriptions = new CopyOnWriteArrayList<>();
+        pending = new ArrayList<>(4);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<GameEvent>> subscriber)
+    {
+        EventSubscription subscription = new EventSubscription(subscriber);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Checks whether any subscriber is listening, so callers can skip creating events.
+     *
+     * @return {@code true} if there is at least one subscriber; {@code false} otherwise
+     */
+    public boolean hasSubscribers() {return !subscriptions.isEmpty();}
+
+    /**
+     * Adds an event to the batch of the move in progress.
+     *
+     * @param event the event to publish
+     */
+    public void add(GameEvent event) {pending.add(event);}
+
+    /**
+     * Delivers the events added since the last flush as one batch to every subscriber.
+     */
+    public void flush()
+    {
+        if(pending.isEmpty()) return;
+
+        List<GameEvent> batch = List.copyOf(pending);
+        pending.clear();
+        for(EventSubscription subscription : subscriptions)
+        {
+            subscription.offer(batch);
+        }
+    }
+
+    /**
+     * Completes every subscription, typically when the model is discarded.
+     */
+    public void close()
+    {
+        for(EventSubscription subscription : subscriptions)
+        {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * The subscription of a single subscriber, holding its demand and its queued batches.
+     */
+    private class EventSubscription implements Flow.Subscription
+    {
+        private final Flow.Subscriber<? super List<GameEvent>> subscriber; // The subscriber receiving the batches
+        private final Queue<List<GameEvent>> queue; // Batches waiting for demand
+        private long demand; // Number of batches requested and not yet delivered
+        private boolean draining; // Whether a thread is currently delivering batches
+        private boolean cancelled; // Whether the subscription has been cancelled
+
+        /**
+         * Creates the subscription of a subscriber.
+         *
+         * @param subscriber the subscriber receiving the batches
+         */
+        EventSubscription(Flow.Subscriber<? super List<GameEvent>> subscriber)
+        {
+            this.subscriber = subscriber;
+            this.queue = new ArrayDeque<>();
+        }
+
+        @Override
+        public void request(long n)
+        {
+            if(n <= 0)
+            {
+                fail(new IllegalArgumentException("Non-positive request: " + n));
+                return;
+            }
+            synchronized (this)
+            {
+                demand = demand + n < 0? Long.MAX_VALUE : demand + n;
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel()
+        {
+            synchronized (this)
+            {
+                cancelled = true;
+                queue.clear();
+            }
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Queues a batch for the subscriber and delivers it if there is demand.
+         *
+         * @param batch the batch of events
+         */
+        void offer(List<GameEvent> batch)
+        {
+            synchronized (this)
+            {
+                if(cancelled) return;
+                if(queue.size() == MAX_PENDING_BATCHES)
+                {
+                    queue.clear();
+                    cancelled = true;
+                }
+                else queue.add(batch);
+            }
+
+            if(cancelled)
+            {
+                subscriptions.remove(this);
+                subscriber.onError(new IllegalStateException("Subscriber fell behind by " + MAX_PENDING_BATCHES + " batches"));
+            }
+            else drain();
+        }
+
+        /**
+         * Completes the subscription.
+         */
+        void complete()
+        {
+            synchronized (this)
+            {
+                if(cancelled) return;
+                cancelled = true;
+            }
+            subscriptions.remove(this);
+            subscriber.onComplete();
+        }
+
+        /**
+         * Delivers queued batches while there is demand, unless another thread is already doing so.
+         */
+        private void drain()
+        {
+            synchronized (this)
+            {
+                if(draining) return;
+                draining = true;
+            }
+
+            while (true)
+            {
+                List<GameEvent> batch;
+                synchronized (this)
+                {
+                    if(cancelled || demand == 0 || queue.isEmpty())
+                    {
+                        draining = false;
+                        return;
+                    }
+                    batch = queue.poll();
+                    if(demand != Long.MAX_VALUE) demand--;
+                }
+
+                try {subscriber.onNext(batch);}
+                catch (RuntimeException e)
+                {
+                    synchronized (this) {draining = false;}
+                    fail(e);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Cancels the subscription and reports the error to the subscriber.
+         *
+         * @param error the cause of the failure
+         */
+        private void fail(Throwable error)
+        {
+            cancel();
+            subscriber.onError(error);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.domino.app.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable view of a match, published by the model after the deal and after every move.
+ * <p>
+ * The model replaces its snapshot through a single volatile reference, so any thread
+ * can read a consistent state of the match without locking the thread playing it.
+ * Consecutive snapshots share their structure: the board is kept as two
+ * {@link PersistentStack}s growing from its first tile, the boneyard as a stack whose
+ * tail is shared after each draw, and only the hand of the seat that moved is copied.
+ * </p>
+ */
+public final class GameSnapshot
+{
+    /**
+     * The snapshot of a model that has not dealt a match yet.
+     */
+    public static final GameSnapshot EMPTY = new GameSnapshot(0, -1, -1, null,
+            PersistentStack.empty(), PersistentStack.empty(), -1, -1, List.of(), PersistentStack.empty(), -1, false);
+
+    private final long version; // Number of snapshots published by the model before this one
+    private final int currentTurn; // Seat to move next
+    private final int lastMover; // Seat that made the last move, -1 right after the deal
+    private final DominoModel.GameAction lastGameAction; // Last move, null right after the deal
+    private final PersistentStack<TileFace> leftTiles; // Tiles from the left end to the first tile played
+    private final PersistentStack<TileFace> rightTiles; // Tiles from the right end to the one next to the first tile
+    private final int leftEnd; // Pips on the left end of the board, -1 if it is empty
+    private final int rightEnd; // Pips on the right end of the board, -1 if it is empty
+    private final List<List<TileFace>> hands; // Hands by seat
+    private final PersistentStack<TileFace> boneyard; // Tiles left in the boneyard, next drawn on top
+    private final int roundWinnerTurn; // Seat of the winner of the round, -1 while the round is played
+    private final boolean over; // Whether the match is over, its last round won by roundWinnerTurn
+
+    /**
+     * Creates a snapshot. Every argument must be immutable.
+     *
+     * @param version the number of snapshots published before this one
+     * @param currentTurn the seat to move next
+     * @param lastMover the seat that made the last move, -1 right after the deal
+     * @param lastGameAction the last move, null right after the deal
+     * @param leftTiles the tiles from the left end to the first tile played
+     * @param rightTiles the tiles from the right end to the one next to the first tile
+     * @param leftEnd the pips on the left end of the board, -1 if it is empty
+     * @param rightEnd the pips on the right end of the board, -1 if it is empty
+     * @param hands the hands by seat
+     * @param boneyard the tiles left in the boneyard, next drawn on top
+     * @param roundWinnerTurn the seat of the winner of the round, -1 while the round is played
+     * @param over whether the match is over; only once its last round is over
+     */
+    GameSnapshot(long version, int currentTurn, int lastMover, DominoModel.GameAction lastGameAction,
+                 PersistentStack<TileFace> leftTiles, PersistentStack<TileFace> rightTiles, int leftEnd, int rightEnd,
+                 List<List<TileFace>> hands, PersistentStack<TileFace> boneyard, int roundWinnerTurn, boolean over)
+    {
+        this.version = version;
+        this.currentTurn = currentTurn;
+        this.lastMover = lastMover;
+        this.lastGameAction = lastGameAction;
+        this.leftTiles = leftTiles;
+        this.rightTiles = rightTiles;
+        this.leftEnd = leftEnd;
+        this.rightEnd = rightEnd;
+        this.hands = hands;
+        this.boneyard = boneyard;
+        this.roundWinnerTurn = roundWinnerTurn;
+        this.over = over;
+    }
+
+    /**
+     * Gets the number of snapshots the model published before this one.
+     * Readers can compare versions to detect that the match has moved on.
+     *
+     * @return the version of the snapshot
+     */
+    public long getVersion() {return version;}
+
+    /**
+     * Gets the seat to move next.
+     *
+     * @return the turn index of the seat
+     */
+    public int getCurrentTurn() {return currentTurn;}
+
+    /**
+     * Gets the seat that made the last move.
+     *
+     * @return the turn index of the seat, or -1 right after the deal
+     */
+    public int getLastMover() {return lastMover;}
+
+    /**
+     * Gets the last move.
+     *
+     * @return the last game action, or {@code null} right after the deal
+     */
+    public DominoModel.GameAction getLastGameAction() {return lastGameAction;}
+
+    /**
+     * Gets the number of players of the match.
+     *
+     * @return the number of seats
+     */
+    public int getNumOfPlayers() {return hands.size();}
+
+    /**
+     * Gets the tiles on the board from the left end to the right end.
+     *
+     * @return a new list of the board tiles
+     */
+    public List<TileFace> getBoardTiles()
+    {
+        List<TileFace> tiles = new ArrayList<>(getBoardSize());
+        for(TileFace tile : leftTiles) tiles.add(tile);
+        List<TileFace> right = rightTiles.toList();
+        for(int i = right.size() - 1; i >= 0; i--) tiles.add(right.get(i));
+        return tiles;
+    }
+
+    /**
+     * Gets the number of tiles on the board.
+     *
+     * @return the board size
+     */
+    public int getBoardSize() {return leftTiles.size() + rightTiles.size();}
+
+    /**
+     * Checks whether the board is empty.
+     *
+     * @return {@code true} if no tile has been played; {@code false} otherwise
+     */
+    public boolean isBoardEmpty() {return getBoardSize() == 0;}
+
+    /**
+     * Gets the pips on the left end of the board.
+     *
+     * @return the pips, or -1 if the board is empty
+     */
+    public int getLeftEnd() {return leftEnd;}
+
+    /**
+     * Gets the pips on the right end of the board.
+     *
+     * @return the pips, or -1 if the board is empty
+     */
+    public int getRightEnd() {return rightEnd;}
+
+    /**
+     * Gets the hand of a seat.
+     *
+     * @param seat the turn index of the seat
+     * @return the immutable list of the tiles of the seat
+     */
+    public List<TileFace> getHand(int seat) {return hands.get(seat);}
+
+    /**
+     * Gets the number of tiles in the hand of a seat.
+     *
+     * @param seat the turn index of the seat
+     * @return the number of tiles
+     */
+    public int getTileCount(int seat) {return hands.get(seat).size();}
+
+    /**
+     * Gets the tiles left in the boneyard.
+     *
+     * @return a new list of the boneyard tiles, next drawn first
+     */
+    public List<TileFace> getBoneyardTiles() {return boneyard.toList();}
+
+    /**
+     * Gets the number of tiles left in the boneyard.
+     *
+     * @return the boneyard size
+     */
+    public int getBoneyardCount() {return boneyard.size();}
+
+    /**
+     * Checks whether the round is over, a player having won or the round being blocked.
+     * The match may go on with a new deal.
+     *
+     * @return {@code true} if the round is over; {@code false} otherwise
+     */
+    public boolean isRoundOver() {return roundWinnerTurn >= 0;}
+
+    /**
+     * Gets the seat of the winner of the round.
+     *
+     * @return the turn index of the winner, or -1 while the round is played
+     */
+    public int getRoundWinnerTurn() {return roundWinnerTurn;}
+
+    /**
+     * Checks whether the match is over, a side having reached the target score.
+     *
+     * @return {@code true} if the match is over; {@code false} otherwise
+     */
+    public boolean isOver() {return over;}
+
+    /**
+     * Gets the seat of the winner of the last round, on the side winning the match.
+     *
+     * @return the turn index of the winner, or -1 while the match is not over
+     */
+    public int getWinnerTurn() {return over? roundWinnerTurn : -1;}
+
+    /**
+     * Checks whether the round was blocked and decided by the lowest pip count.
+     *
+     * @return {@code true} if the round is over and its winner still has tiles; {@code false} otherwise
+     */
+    public boolean isDraw() {return isRoundOver() && !hands.get(roundWinnerTurn).isEmpty();}
+}
@@ -0,0 +1,52 @@
+package com.domino.app.model;
+
+import java.util.List;
+
+/**
+ * A {@link CPUStrategy} getting rid of its heaviest tiles first.
+ * <p>
+ * The strategy plays the playable tile with the most pips, a double first on a tie,
+ * so a blocked round leaves as few points as possible in its hand. A tile that fits
+ * both ends is played on the side that keeps open the end the player holds the most
+ * tiles for.
+ * </p>
+ */
+public class GreedyCPUStrategy implements CPUStrategy
+{
+    @Override
+    public int chooseTile(DominoModel model)
+    {
+        List<Tile> playable = model.getCurrentPlayerPlayableTiles();
+        int best = 0;
+        for(int i = 1; i < playable.size(); i++)
+        {
+            Tile tile = playable.get(i);
+            Tile bestTile = playable.get(best);
+            if(tile.getSum() > bestTile.getSum() || tile.getSum() == bestTile.getSum() && tile.isDouble() && !bestTile.isDouble())
+            {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int chooseSide(DominoModel model)
+    {
+        int leftEnd = model.getLeftEnd();
+        int rightEnd = model.getRightEnd();
+        List<Tile> hand = model.getCurrentPlayer().getTiles();
+        int left = 0;
+        int right = 0;
+        for(int i = 0; i < hand.size(); i++)
+        {
+            Tile tile = hand.get(i);
+            if(tile.hasNumber(leftEnd)) left++;
+            if(tile.hasNumber(rightEnd)) right++;
+        }
+        return left >= right? 1 : 0; // Covering the other end keeps the better one open
+    }
+
+    @Override
+    public String getName() {return "greedy";}
+}
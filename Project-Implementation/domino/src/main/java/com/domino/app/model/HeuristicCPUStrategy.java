@@ -0,0 +1,171 @@
+package com.domino.app.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * A {@link RatedMoveCPUStrategy} playing the move with the highest weighted score.
+ * <p>
+ * Every playable tile is tried on every end it fits and scored as the weighted sum of
+ * {@value #WEIGHTS} terms, each scaled to about one: the pips it sheds, whether it is a
+ * double, how many tiles of the new ends are already out of the opponents' reach, how much
+ * of the hand still follows the new ends, and so on. The weights default to values set by
+ * hand and can be tuned, a strategy with other weights being named
+ * {@code heuristic:w0,w1,...} in the {@link CPUStrategies} registry.
+ * </p>
+ */
+public class HeuristicCPUStrategy extends RatedMoveCPUStrategy
+{
+    public static final int WEIGHTS = 10; // Number of weights of the score
+
+    public static final int PIPS = 0; // Pips of the tile played
+    public static final int DOUBLE = 1; // Whether the tile played is a double
+    public static final int BLOCKING = 2; // Share of the tiles of the new ends held by the seat or on the board
+    public static final int SUIT_CONTROL = 3; // Share of the tiles kept that fit a new end
+    public static final int DOUBLES_KEPT = 4; // Share of the tiles kept that are doubles
+    public static final int VARIETY = 5; // Share of the pips found in the tiles kept
+    public static final int LOCK = 6; // Whether both new ends show the same pips
+    public static final int ENDGAME_PIPS = 7; // Pips of the tile played when an opponent holds two tiles or less
+    public static final int GOING_OUT = 8; // Whether the tile played is the last one of the hand
+    public static final int CLOSED_BLOCKING = 9; // Blocking once the boneyard is empty and opponents cannot draw
+
+    private static final double[] DEFAULT_WEIGHTS = {1.0, 0.3, 0.5, 1.0, -0.3, 0.5, 0.0, 1.0, 10.0, 0.5};
+
+    private final double[] weights; // Weight of every term of the score
+
+    /**
+     * Creates a strategy with the default weights.
+     */
+    public HeuristicCPUStrategy()
+    {
+        this(DEFAULT_WEIGHTS);
+    }
+
+    /**
+     * Creates a strategy with the given weights.
+     *
+     * @param weights the weight of every term, indexed by {@link #PIPS} to {@link #CLOSED_BLOCKING}; copied
+     * @throws IllegalArgumentException if there is not one weight per term
+     */
+    public HeuristicCPUStrategy(double[] weights)
+    {
+        if(weights.length != WEIGHTS) throw new IllegalArgumentException("Expected " + WEIGHTS + " weights: " + weights.length);
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Gets the default weights, set by hand.
+     *
+     * @return a copy of the default weights
+     */
+    public static double[] defaultWeights() {return DEFAULT_WEIGHTS.clone();}
+
+    /**
+     * Gets a factory of strategies with the weights written as a list.
+     *
+     * @param weights the weights separated by commas, as written by {@link #format(double[])}
+     * @return the factory
+     * @throws IllegalArgumentException if the list does not hold one number per term
+     */
+    public static Supplier<CPUStrategy> factory(String weights)
+    {
+        String[] parts = weights.split(",");
+        double[] parsed = new double[parts.length];
+        try
+        {
+            for(int i = 0; i < parts.length; i++) parsed[i] = Double.parseDouble(parts[i].trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Not a list of weights: " + weights, e);
+        }
+        HeuristicCPUStrategy checked = new HeuristicCPUStrategy(parsed);
+        return () -> new HeuristicCPUStrategy(checked.weights);
+    }
+
+    /**
+     * Writes weights as the list read by {@link #factory(String)}.
+     *
+     * @param weights the weights
+     * @return the weights separated by commas
+     */
+    public static String format(double[] weights)
+    {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < weights.length; i++)
+        {
+            if(i > 0) builder.append(',');
+            builder.append(String.format(Locale.ROOT, "%.4f", weights[i]));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String getName() {return "heuristic";}
+
+    @Override
+    public String toString() {return "heuristic" + Arrays.toString(weights);}
+
+    @Override
+    protected double rate(DominoModel model, Tile tile, boolean left)
+    {
+        int seat = model.getCurrentTurn();
+        int pips = model.getMaxDots() - model.getMinDots() + 1;
+        int newLeft = newLeftEnd(model, tile, left);
+        int newRight = newRightEnd(model, tile, left);
+
+        // Tiles kept, and the tiles of the new ends held or on the board
+        List<Tile> hand = model.getCurrentPlayer().getTiles();
+        int kept = 0;
+        int doubles = 0;
+        int fitting = 0;
+        long suits = 0;
+        int seen = (tile.hasNumber(newLeft)? 1 : 0) + (tile.hasNumber(newRight)? 1 : 0);
+        for(int i = 0; i < hand.size(); i++)
+        {
+            Tile held = hand.get(i);
+            if(held == tile) continue;
+            kept++;
+            if(held.isDouble()) doubles++;
+            boolean hasLeft = held.hasNumber(newLeft);
+            boolean hasRight = held.hasNumber(newRight);
+            if(hasLeft || hasRight) fitting++;
+            if(hasLeft) seen++;
+            if(hasRight) seen++;
+            suits |= 1L << held.getLeft() | 1L << held.getRight();
+        }
+        List<Tile> board = model.getBoardTiles();
+        for(int i = 0; i < board.size(); i++)
+        {
+            Tile placed = board.get(i);
+            if(placed.hasNumber(newLeft)) seen++;
+            if(placed.hasNumber(newRight)) seen++;
+        }
+
+        int fewestTiles = Integer.MAX_VALUE;
+        for(int k = 1; k < model.getNumOfPlayers(); k++)
+        {
+            int opponent = (seat + k) % model.getNumOfPlayers();
+            if(model.getSideOf(opponent) != model.getSideOf(seat)) fewestTiles = Math.min(fewestTiles, model.getPlayer(opponent).getTileCount());
+        }
+
+        double shed = tile.getSum() / (2.0 * Math.max(1, model.getMaxDots()));
+        double blocking = Math.min(1, seen / (2.0 * pips));
+        double score = weights[PIPS] * shed;
+        if(tile.isDouble()) score += weights[DOUBLE];
+        score += weights[BLOCKING] * blocking;
+        if(kept > 0)
+        {
+            score += weights[SUIT_CONTROL] * fitting / kept;
+            score += weights[DOUBLES_KEPT] * doubles / kept;
+        }
+        score += weights[VARIETY] * Long.bitCount(suits) / pips;
+        if(newLeft == newRight) score += weights[LOCK];
+        if(fewestTiles <= 2) score += weights[ENDGAME_PIPS] * shed;
+        if(kept == 0) score += weights[GOING_OUT];
+        if(model.getBoneyardTiles().isEmpty()) score += weights[CLOSED_BLOCKING] * blocking;
+        return score;
+    }
+}
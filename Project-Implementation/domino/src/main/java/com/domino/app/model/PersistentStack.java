@@ -0,0 +1,141 @@
+package com.domino.app.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable singly-linked stack whose versions share their common tails.
+ * <p>
+ * Pushing or popping creates at most one node and leaves every previous version
+ * intact, which lets the model publish a new {@link GameSnapshot} after each move
+ * without copying the board or the boneyard.
+ * </p>
+ *
+ * @param <E> the type of the elements
+ */
+public final class PersistentStack<E> implements Iterable<E>
+{
+    private static final PersistentStack<?> EMPTY = new PersistentStack<>(null, null, 0);
+
+    private final E head; // Top element, null for the empty stack
+    private final PersistentStack<E> tail; // Stack below the top element, null for the empty stack
+    private final int size; // Number of elements
+
+    /**
+     * Creates a stack node.
+     *
+     * @param head the top element
+     * @param tail the stack below the top element
+     * @param size the number of elements
+     */
+    private PersistentStack(E head, PersistentStack<E> tail, int size)
+    {
+        this.head = head;
+        this.tail = tail;
+        this.size = size;
+    }
+
+    /**
+     * Gets the empty stack.
+     *
+     * @param <E> the type of the elements
+     * @return the empty stack
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentStack<E> empty() {return (PersistentStack<E>) EMPTY;}
+
+    /**
+     * Creates a stack holding the elements of a list, the first element on top.
+     *
+     * @param elements the elements
+     * @param <E> the type of the elements
+     * @return the stack
+     */
+    public static <E> PersistentStack<E> of(List<? extends E> elements)
+    {
+        PersistentStack<E> stack = empty();
+        for(int i = elements.size() - 1; i >= 0; i--) stack = stack.push(elements.get(i));
+        return stack;
+    }
+
+    /**
+     * Creates a stack with an element on top of this one.
+     *
+     * @param element the element to push
+     * @return the new stack, sharing this one as its tail
+     */
+    public PersistentStack<E> push(E element) {return new PersistentStack<>(element, this, size + 1);}
+
+    /**
+     * Gets the stack without its top element.
+     *
+     * @return the tail of this stack
+     * @throws NoSuchElementException if the stack is empty
+     */
+    public PersistentStack<E> pop()
+    {
+        if(size == 0) throw new NoSuchElementException();
+        return tail;
+    }
+
+    /**
+     * Gets the top element.
+     *
+     * @return the top element
+     * @throws NoSuchElementException if the stack is empty
+     */
+    public E peek()
+    {
+        if(size == 0) throw new NoSuchElementException();
+        return head;
+    }
+
+    /**
+     * Gets the number of elements.
+     *
+     * @return the size of the stack
+     */
+    public int size() {return size;}
+
+    /**
+     * Checks whether the stack is empty.
+     *
+     * @return {@code true} if the stack has no elements; {@code false} otherwise
+     */
+    public boolean isEmpty() {return size == 0;}
+
+    /**
+     * Copies the elements from the top to the bottom into a new list.
+     *
+     * @return the elements, top first
+     */
+    public List<E> toList()
+    {
+        List<E> list = new ArrayList<>(size);
+        for(E element : this) list.add(element);
+        return list;
+    }
+
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new Iterator<>()
+        {
+            private PersistentStack<E> next = PersistentStack.this; // Stack whose head is returned next
+
+            @Override
+            public boolean hasNext() {return next.size > 0;}
+
+            @Override
+            public E next()
+            {
+                if(next.size == 0) throw new NoSuchElementException();
+                E element = next.head;
+                next = next.tail;
+                return element;
+            }
+        };
+    }
+}
@@ -4,10 +4,13 @@ import java.util.*;
 
 /**
  * Represents a player in the domino game, holding a set of tiles.
+ * The sum of the pips in the hand is kept up to date as tiles are added and removed.
  */
 public class Player
 {
     private List<Tile> tiles; // List of tiles held by the player
+    private final List<Tile> view; // Read-only view of the tiles held by the player
+    private int tilesSum; // Sum of the pips of the tiles held by the player
 
     /**
      * Constructs a new Player with an empty set of tiles.
@@ -15,6 +18,17 @@ public class Player
     public Player()
     {
         tiles = new ArrayList<>(7); // Initializes the list with a capacity of 7 tiles
+        view = Collections.unmodifiableList(tiles);
+        tilesSum = 0;
+    }
+
+    /**
+     * Removes every tile from the player's hand, keeping its storage for the next deal.
+     */
+    public void clearTiles()
+    {
+        tiles.clear();
+        tilesSum = 0;
     }
 
     /**
@@ -29,14 +43,14 @@ public class Player
      *
      * @return {@code true} if the player has double tiles; {@code false} otherwise.
      */
-    public boolean hasAnyDoubleTile() {return !getDoubleTiles().isEmpty();}
+    public boolean hasAnyDoubleTile() {return getBiggestDouble() != null;}
 
     /**
      * Retrieves an unmodifiable list of the tiles held by the player.
      *
      * @return An unmodifiable list of the player's tiles.
      */
-    public List<Tile> getTiles() {return Collections.unmodifiableList(tiles);}
+    public List<Tile> getTiles() {return view;}
 
     /**
      * Gets a list of all double tiles held by the player.
@@ -58,16 +72,11 @@ public class Player
     public int getTileCount() {return tiles.size();}
 
     /**
-     * Calculates the total sum of the values of all tiles held by the player.
+     * Gets the total sum of the values of all tiles held by the player.
      *
      * @return The sum of the values of the player's tiles.
      */
-    public int getTilesSum()
-    {
-        return tiles.stream()
-                .map(Tile::getSum)
-                .reduce(0, Integer::sum);
-    }
+    public int getTilesSum() {return tilesSum;}
 
     /**
      * Retrieves the double tile with the highest pip value from the player's hand.
@@ -77,9 +86,13 @@ public class Player
      */
     public Tile getBiggestDouble()
     {
-        return getDoubleTiles().stream()
-                .max(Comparator.comparing(Tile::getLeft))
-                .orElse(null);
+        Tile biggest = null;
+        for(int i = 0; i < tiles.size(); i++)
+        {
+            Tile tile = tiles.get(i);
+            if(tile.isDouble() && (biggest == null || tile.getLeft() > biggest.getLeft())) biggest = tile;
+        }
+        return biggest;
     }
 
     /**
@@ -88,7 +101,11 @@ public class Player
      * @param tile The tile to be added.
      * @return {@code true} if the tile was successfully added; {@code false} otherwise.
      */
-    public boolean addTile(Tile tile) {return tiles.add(tile);}
+    public boolean addTile(Tile tile)
+    {
+        tilesSum += tile.getSum();
+        return tiles.add(tile);
+    }
 
     /**
      * Removes and returns the tile at the specified index from the player's hand.
@@ -97,5 +114,10 @@ public class Player
      * @return The tile that was removed.
      * @throws IndexOutOfBoundsException if the index is out of range.
      */
-    public Tile grabTile(int index) {return tiles.remove(index);}
+    public Tile grabTile(int index)
+    {
+        Tile tile = tiles.remove(index);
+        tilesSum -= tile.getSum();
+        return tile;
+    }
 }
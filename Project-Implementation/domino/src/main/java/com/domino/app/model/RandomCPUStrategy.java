@@ -0,0 +1,55 @@
+package com.domino.app.model;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A {@link CPUStrategy} choosing uniformly at random among the valid options.
+ */
+public class RandomCPUStrategy implements CPUStrategy
+{
+    private final RandomGenerator random; // Source of randomness, null to use the thread's own
+
+    /**
+     * Creates a strategy using the calling thread's random generator.
+     */
+    public RandomCPUStrategy()
+    {
+        this.random = null;
+    }
+
+    /**
+     * Creates a strategy using the given random generator, for reproducible matches.
+     *
+     * @param random the source of randomness
+     */
+    public RandomCPUStrategy(RandomGenerator random)
+    {
+        this.random = random;
+    }
+
+    @Override
+    public int chooseTile(DominoModel model)
+    {
+        return random().nextInt(model.getCurrentPlayerPlayableTiles().size());
+    }
+
+    @Override
+    public int chooseSide(DominoModel model)
+    {
+        return random().nextInt(2);
+    }
+
+    @Override
+    public String getName() {return "random";}
+
+    /**
+     * Gets the source of randomness for the calling thread.
+     *
+     * @return the random generator
+     */
+    private RandomGenerator random()
+    {
+        return random != null? random : ThreadLocalRandom.current();
+    }
+}
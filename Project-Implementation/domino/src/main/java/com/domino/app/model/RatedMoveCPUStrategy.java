@@ -0,0 +1,164 @@
+package com.domino.app.model;
+
+import java.util.List;
+
+/**
+ * A {@link CPUStrategy} playing the move it rates highest.
+ * <p>
+ * A move is a playable tile on an end of the board it fits, and every move is rated by
+ * {@link #rate}. When the chosen tile fits both ends, the end it was rated on is returned by
+ * {@link #chooseSide}; a drawn tile fitting both ends is rated on both when the side is asked.
+ * A subclass can explore, playing another move than the best rated one, and is told of every
+ * move it plays.
+ * </p>
+ * <p>
+ * The strategy keeps the side of the move being played, so every seat and thread needs an
+ * instance of its own.
+ * </p>
+ */
+public abstract class RatedMoveCPUStrategy implements CPUStrategy
+{
+    private boolean bestLeft; // Whether the chosen move plays its tile on the left end
+    private Tile ratedTile; // Tile chosen by the last move when it fits both ends, waiting for its side
+
+    /**
+     * Rates the move of the current seat playing a tile on one end of the board. The model must be left untouched.
+     *
+     * @param model the model of the match, positioned on the turn of the seat
+     * @param tile the tile played, in the hand of the seat or just taken from it
+     * @param left {@code true} to play the tile on the left end; {@code false} for the right end
+     * @return the rating of the move, higher for better moves
+     */
+    protected abstract double rate(DominoModel model, Tile tile, boolean left);
+
+    /**
+     * Chooses a move to play instead of the best rated one. By default the strategy never explores.
+     *
+     * @param moves the number of moves available
+     * @return the index of the move to play, in the order they are rated, or {@code -1} to play the best rated one
+     */
+    protected int exploreMove(int moves) {return -1;}
+
+    /**
+     * Called when a move has been chosen, before it is played. Does nothing by default.
+     *
+     * @param model the model of the match, positioned on the turn of the seat
+     * @param tile the tile played
+     * @param left {@code true} if the tile is played on the left end; {@code false} for the right end
+     * @param rating the rating of the move
+     */
+    protected void moveChosen(DominoModel model, Tile tile, boolean left, double rating) {}
+
+    @Override
+    public int chooseTile(DominoModel model)
+    {
+        List<Tile> playable = model.getCurrentPlayerPlayableTiles();
+        int explored = exploreMove(countMoves(model, playable));
+
+        int best = -1;
+        double bestRating = Double.NEGATIVE_INFINITY;
+        int move = 0;
+        for(int i = 0; i < playable.size(); i++)
+        {
+            Tile tile = playable.get(i);
+            for(int side = 0; side < 2; side++)
+            {
+                boolean left = side == 0;
+                if(!fits(model, tile, left)) continue;
+                double rating = rate(model, tile, left);
+                if(explored >= 0? move == explored : best < 0 || rating > bestRating)
+                {
+                    best = i;
+                    bestRating = rating;
+                    bestLeft = left;
+                }
+                move++;
+            }
+        }
+        Tile chosen = playable.get(best);
+        ratedTile = !model.isBoardEmpty() && fits(model, chosen, true) && fits(model, chosen, false)? chosen : null;
+        moveChosen(model, chosen, bestLeft, bestRating);
+        return best;
+    }
+
+    @Override
+    public int chooseSide(DominoModel model)
+    {
+        Tile tile = model.getLastPlayedTile();
+        boolean rated = tile == ratedTile;
+        ratedTile = null;
+        if(rated) return bestLeft? 0 : 1;
+
+        // A drawn tile fitting both ends, not rated yet
+        double leftRating = rate(model, tile, true);
+        double rightRating = rate(model, tile, false);
+        int explored = exploreMove(2);
+        boolean left = explored >= 0? explored == 0 : leftRating >= rightRating;
+        moveChosen(model, tile, left, left? leftRating : rightRating);
+        return left? 0 : 1;
+    }
+
+    /**
+     * Checks whether a tile fits an end of the board. On an empty board, a tile is only played once, on the left.
+     *
+     * @param model the model of the match
+     * @param tile the tile
+     * @param left {@code true} for the left end; {@code false} for the right end
+     * @return {@code true} if the tile can be played on that end
+     */
+    public static boolean fits(DominoModel model, Tile tile, boolean left)
+    {
+        if(model.isBoardEmpty()) return left;
+        return tile.hasNumber(left? model.getLeftEnd() : model.getRightEnd());
+    }
+
+    /**
+     * Gets the left end of the board once a tile is played.
+     *
+     * @param model the model of the match
+     * @param tile the tile, fitting the end it is played on
+     * @param left {@code true} if the tile is played on the left end; {@code false} for the right end
+     * @return the number on the new left end
+     */
+    public static int newLeftEnd(DominoModel model, Tile tile, boolean left)
+    {
+        if(model.isBoardEmpty()) return tile.getLeft();
+        int end = model.getLeftEnd();
+        if(!left) return end;
+        return tile.getLeft() == end? tile.getRight() : tile.getLeft();
+    }
+
+    /**
+     * Gets the right end of the board once a tile is played.
+     *
+     * @param model the model of the match
+     * @param tile the tile, fitting the end it is played on
+     * @param left {@code true} if the tile is played on the left end; {@code false} for the right end
+     * @return the number on the new right end
+     */
+    public static int newRightEnd(DominoModel model, Tile tile, boolean left)
+    {
+        if(model.isBoardEmpty()) return tile.getRight();
+        int end = model.getRightEnd();
+        if(left) return end;
+        return tile.getRight() == end? tile.getLeft() : tile.getRight();
+    }
+
+    /**
+     * Counts the moves available: every playable tile on every end it fits.
+     *
+     * @param model the model of the match
+     * @param playable the playable tiles
+     * @return the number of moves
+     */
+    private static int countMoves(DominoModel model, List<Tile> playable)
+    {
+        int moves = 0;
+        for(int i = 0; i < playable.size(); i++)
+        {
+            if(fits(model, playable.get(i), true)) moves++;
+            if(fits(model, playable.get(i), false)) moves++;
+        }
+        return moves;
+    }
+}
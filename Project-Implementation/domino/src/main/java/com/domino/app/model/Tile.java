@@ -56,6 +56,35 @@ public class Tile
      */
     public boolean isDouble() {return left == right;}
 
+    /**
+     * Checks if one of the ends of the tile has the given number.
+     *
+     * @param number the number
+     * @return true if the left or the right end has the number, false otherwise
+     */
+    public boolean hasNumber(int number) {return left == number || right == number;}
+
+    /**
+     * Turns the tile back to its dealt orientation, with the lower number on the left end.
+     * Used when the tiles of a match are dealt again in the next one.
+     */
+    void resetOrientation()
+    {
+        if(left > right) rotate();
+    }
+
+    /**
+     * Replaces the numbers on both ends. Used by the board for the tile holding its ends.
+     *
+     * @param left the number on the left end
+     * @param right the number on the right end
+     */
+    void set(int left, int right)
+    {
+        this.left = left;
+        this.right = right;
+    }
+
     /**
      * Rotates the tile, swapping the numbers on the ends.
      */
@@ -0,0 +1,63 @@
+package com.domino.app.model;
+
+/**
+ * The immutable value of a tile as placed, used where a {@link Tile}, which can be
+ * rotated, must not change after it was read.
+ * <p>
+ * Faces of the usual pip ranges are interned, so snapshots referencing them do not
+ * allocate a new object per tile.
+ * </p>
+ *
+ * @param left the pips on the left end
+ * @param right the pips on the right end
+ */
+public record TileFace(int left, int right)
+{
+    private static final int MAX_INTERNED_PIPS = 32; // Faces with pips below this bound are interned
+    private static final TileFace[] INTERNED = new TileFace[MAX_INTERNED_PIPS * MAX_INTERNED_PIPS];
+
+    static
+    {
+        for(int left = 0; left < MAX_INTERNED_PIPS; left++)
+        {
+            for(int right = 0; right < MAX_INTERNED_PIPS; right++)
+            {
+                INTERNED[left * MAX_INTERNED_PIPS + right] = new TileFace(left, right);
+            }
+        }
+    }
+
+    /**
+     * Gets the face with the given pips.
+     *
+     * @param left the pips on the left end
+     * @param right the pips on the right end
+     * @return the face, interned when the pips are in the usual range
+     */
+    public static TileFace of(int left, int right)
+    {
+        if(0 <= left && left < MAX_INTERNED_PIPS && 0 <= right && right < MAX_INTERNED_PIPS)
+        {
+            return INTERNED[left * MAX_INTERNED_PIPS + right];
+        }
+        return new TileFace(left, right);
+    }
+
+    /**
+     * Gets the current face of a tile.
+     *
+     * @param tile the tile
+     * @return the face of the tile as it is oriented now
+     */
+    public static TileFace of(Tile tile) {return of(tile.getLeft(), tile.getRight());}
+
+    /**
+     * Gets the sum of the pips of the tile.
+     *
+     * @return the sum of both ends
+     */
+    public int sum() {return left + right;}
+
+    @Override
+    public String toString() {return "[" + left + "|" + right + "]";}
+}
@@ -0,0 +1,41 @@
+package com.domino.app.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event emitted when the tiles of a round have been dealt.
+ */
+@Name("com.domino.Deal")
+@Label("Deal")
+@Category({"Domino", "Match"})
+@Description("The tiles of a round were dealt and its starting player picked")
+@Enabled(false)
+@StackTrace(false)
+public class DealEvent extends Event
+{
+    private static final EventType TYPE = EventType.getEventType(DealEvent.class); // Registered type, enabled by recordings
+
+    /**
+     * Checks whether a recording has enabled the event, so the model allocates it only when recorded.
+     *
+     * @return {@code true} if the event is recorded
+     */
+    public static boolean isRecorded() {return TYPE.isEnabled();}
+
+    @Label("Round")
+    public int round; // Number of the round in its match, starting at 1
+
+    @Label("Redeals")
+    @Description("Number of times the tiles were dealt again because no player had a double")
+    public int redeals; // Number of discarded deals
+
+    @Label("Starting Seat")
+    public int startingSeat; // Turn index of the player holding the biggest double
+}
@@ -0,0 +1,55 @@
+package com.domino.app.monitoring;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * Starts Flight Recorder recordings of the events of the application.
+ * <p>
+ * The recording uses the {@code default} settings of the JDK, which are cheap enough
+ * for production, and enables the events of this package on top of them. It is written
+ * to its destination when the JVM exits.
+ * </p>
+ */
+public class FlightRecording
+{
+    /**
+     * Events of the application, all disabled unless a recording enables them.
+     */
+    public static final List<Class<? extends Event>> EVENTS = List.of(
+            MatchStartedEvent.class,
+            DealEvent.class,
+            MatchEndedEvent.class,
+            TurnDecisionEvent.class
+    );
+
+    private FlightRecording() {}
+
+    /**
+     * Starts a recording of the JVM and of the events of the application.
+     *
+     * @param destination the file the recording is written to when the JVM exits
+     * @return the started recording
+     * @throws IOException if the destination cannot be written or the settings cannot be read
+     */
+    public static Recording start(Path destination) throws IOException
+    {
+        Recording recording;
+        try {recording = new Recording(Configuration.getConfiguration("default"));}
+        catch (ParseException e) {throw new IOException("Invalid default recording settings", e);}
+
+        for(Class<? extends Event> event : EVENTS) recording.enable(event).withoutThreshold();
+        recording.setName("domino");
+        recording.setToDisk(true);
+        recording.setDumpOnExit(true);
+        recording.setDestination(destination);
+        recording.start();
+        return recording;
+    }
+}
@@ -0,0 +1,317 @@
+package com.domino.app.monitoring;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of the matches played by a node, exposed through JMX.
+ * <p>
+ * Every model and controller of the node records into the {@linkplain #getDefault() default
+ * instance}. Counters are {@link LongAdder}s and latencies go to lock-free log-linear
+ * {@link LatencyHistogram}s, by seat type and by CPU strategy, so hundreds of tables can record every turn without
+ * contending on a shared lock or cache line. Rates are derived once per second by a
+ * sampler started with {@link #register()}, so reading them never races with recording.
+ * </p>
+ */
+public class GameMetrics implements GameMetricsMXBean
+{
+    /**
+     * Name of the MBean in the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "com.domino.app:type=GameMetrics";
+
+    private static final GameMetrics DEFAULT = new GameMetrics(); // Instance shared by the node
+    private static final long SAMPLE_MILLIS = 1000; // Period of the rate sampler
+
+    private final LongAdder matchesStarted; // Number of matches started
+    private final LongAdder matchesCompleted; // Number of matches played to their end
+    private final LongAdder rounds; // Number of rounds dealt
+    private final LongAdder turns; // Number of turns played
+    private final LongAdder redeals; // Number of deals discarded
+    private final LongAdder blockedRounds; // Number of rounds ended blocked
+    private final LongAdder activeTables; // Number of tables hosted
+    private final LatencyHistogram humanTurnLatency; // Decision times of human seats
+    private final LatencyHistogram cpuTurnLatency; // Decision times of CPU seats
+    private final Map<String, LatencyHistogram> strategyTurnLatency; // Decision times of CPU seats by strategy name
+
+    // Rate sampler, only written by the sampler thread
+    private long lastSampleNanos; // Time of the last sample
+    private long lastMatches; // Matches completed at the last sample
+    private long lastTurns; // Turns played at the last sample
+    private long lastAllocatedBytes; // Bytes allocated at the last sample
+    private volatile double matchesPerSecond; // Match rate over the last period
+    private volatile double turnsPerSecond; // Turn rate over the last period
+    private volatile double allocatedBytesPerMatch; // Allocation per match over the last period
+    private ScheduledExecutorService sampler; // Thread sampling the rates, null until registered
+
+    /**
+     * Creates metrics with every counter at zero.
+     */
+    public GameMetrics()
+    {
+        this.matchesStarted = new LongAdder();
+        this.matchesCompleted = new LongAdder();
+        this.rounds = new LongAdder();
+        this.turns = new LongAdder();
+        this.redeals = new LongAdder();
+        this.blockedRounds = new LongAdder();
+        this.activeTables = new LongAdder();
+        this.humanTurnLatency = new LatencyHistogram();
+        this.cpuTurnLatency = new LatencyHistogram();
+        this.strategyTurnLatency = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the metrics shared by every model and controller of the node.
+     *
+     * @return the default metrics
+     */
+    public static GameMetrics getDefault() {return DEFAULT;}
+
+    /**
+     * Registers the default metrics with the platform MBean server and starts sampling their rates.
+     * Registering again has no effect.
+     *
+     * @throws IllegalStateException if the MBean cannot be registered
+     */
+    public static synchronized void register()
+    {
+        if(DEFAULT.sampler != null) return;
+        try {ManagementFactory.getPlatformMBeanServer().registerMBean(DEFAULT, new ObjectName(OBJECT_NAME));}
+        catch (InstanceAlreadyExistsException e) {return;}
+        catch (JMException e) {throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);}
+
+        DEFAULT.sampler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("metrics-sampler").daemon().factory());
+        DEFAULT.sampler.scheduleAtFixedRate(DEFAULT::sample, SAMPLE_MILLIS, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Recording methods
+
+    /**
+     * Records the start of a match.
+     */
+    public void matchStarted() {matchesStarted.increment();}
+
+    /**
+     * Records the end of a match.
+     */
+    public void matchCompleted() {matchesCompleted.increment();}
+
+    /**
+     * Records the deal of a round.
+     *
+     * @param redealCount the number of deals discarded before it because no player had a double
+     */
+    public void roundDealt(int redealCount)
+    {
+        rounds.increment();
+        if(redealCount > 0) redeals.add(redealCount);
+    }
+
+    /**
+     * Records a round that ended blocked.
+     */
+    public void roundBlocked() {blockedRounds.increment();}
+
+    /**
+     * Records a turn played.
+     */
+    public void turnPlayed() {turns.increment();}
+
+    /**
+     * Records the time a seat took to decide a move.
+     *
+     * @param strategy the name of the strategy of a CPU seat, or {@code null} for a human seat
+     * @param nanos the decision time in nanoseconds
+     */
+    public void turnDecided(String strategy, long nanos)
+    {
+        if(strategy == null)
+        {
+            humanTurnLatency.record(nanos);
+            return;
+        }
+        cpuTurnLatency.record(nanos);
+        getStrategyTurnLatency(strategy).record(nanos);
+    }
+
+    /**
+     * Gets the histogram of the decision times of a CPU strategy, creating it on first use.
+     *
+     * @param strategy the name of the strategy
+     * @return the histogram of the strategy
+     */
+    public LatencyHistogram getStrategyTurnLatency(String strategy)
+    {
+        LatencyHistogram histogram = strategyTurnLatency.get(strategy);
+        return histogram != null? histogram : strategyTurnLatency.computeIfAbsent(strategy, name -> new LatencyHistogram());
+    }
+
+    /**
+     * Records a table opened by the node.
+     */
+    public void tableOpened() {activeTables.increment();}
+
+    /**
+     * Records a table closed by the node.
+     */
+    public void tableClosed() {activeTables.decrement();}
+
+    // Management methods
+    @Override
+    public long getMatchesStarted() {return matchesStarted.sum();}
+
+    @Override
+    public long getMatchesCompleted() {return matchesCompleted.sum();}
+
+    @Override
+    public long getRounds() {return rounds.sum();}
+
+    @Override
+    public long getTurns() {return turns.sum();}
+
+    @Override
+    public long getRedeals() {return redeals.sum();}
+
+    @Override
+    public long getBlockedRounds() {return blockedRounds.sum();}
+
+    @Override
+    public long getActiveTables() {return activeTables.sum();}
+
+    @Override
+    public double getMatchesPerSecond() {return matchesPerSecond;}
+
+    @Override
+    public double getTurnsPerSecond() {return turnsPerSecond;}
+
+    @Override
+    public double getRedealRate() {return ratio(redeals.sum(), rounds.sum());}
+
+    @Override
+    public double getBlockedRoundRate() {return ratio(blockedRounds.sum(), rounds.sum());}
+
+    @Override
+    public double getHumanTurnLatencyP50Micros() {return humanTurnLatency.getPercentile(50) / 1e3;}
+
+    @Override
+    public double getHumanTurnLatencyP99Micros() {return humanTurnLatency.getPercentile(99) / 1e3;}
+
+    @Override
+    public double getHumanTurnLatencyP999Micros() {return humanTurnLatency.getPercentile(99.9) / 1e3;}
+
+    @Override
+    public double getHumanTurnLatencyMaxMicros() {return humanTurnLatency.getMax() / 1e3;}
+
+    @Override
+    public double getCpuTurnLatencyP50Micros() {return cpuTurnLatency.getPercentile(50) / 1e3;}
+
+    @Override
+    public double getCpuTurnLatencyP99Micros() {return cpuTurnLatency.getPercentile(99) / 1e3;}
+
+    @Override
+    public double getCpuTurnLatencyP999Micros() {return cpuTurnLatency.getPercentile(99.9) / 1e3;}
+
+    @Override
+    public String[] getStrategyTurnLatencies()
+    {
+        Map<String, LatencyHistogram> sorted = new TreeMap<>(strategyTurnLatency);
+        String[] lines = new String[sorted.size()];
+        int i = 0;
+        for(Map.Entry<String, LatencyHistogram> entry : sorted.entrySet())
+        {
+            lines[i++] = entry.getKey() + ": " + entry.getValue().snapshot();
+        }
+        return lines;
+    }
+
+    @Override
+    public double getCpuTurnLatencyMaxMicros() {return cpuTurnLatency.getMax() / 1e3;}
+
+    @Override
+    public long getAllocatedBytes()
+    {
+        if(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemoryEnabled())
+        {
+            return threads.getTotalThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    @Override
+    public double getAllocatedBytesPerMatch() {return allocatedBytesPerMatch;}
+
+    @Override
+    public long getGcCount()
+    {
+        long count = 0;
+        for(GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    @Override
+    public long getGcTimeMillis()
+    {
+        long time = 0;
+        for(GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+
+    @Override
+    public void resetLatencies()
+    {
+        humanTurnLatency.reset();
+        cpuTurnLatency.reset();
+        for(LatencyHistogram histogram : strategyTurnLatency.values()) histogram.reset();
+    }
+
+    /**
+     * Derives the rates from the counters accumulated since the last sample.
+     */
+    private void sample()
+    {
+        long now = System.nanoTime();
+        long matches = matchesCompleted.sum();
+        long turnCount = turns.sum();
+        long allocated = getAllocatedBytes();
+
+        if(lastSampleNanos != 0)
+        {
+            double seconds = (now - lastSampleNanos) / 1e9;
+            matchesPerSecond = (matches - lastMatches) / seconds;
+            turnsPerSecond = (turnCount - lastTurns) / seconds;
+            allocatedBytesPerMatch = allocated < 0 || matches == lastMatches? 0
+                    : (double) (allocated - lastAllocatedBytes) / (matches - lastMatches);
+        }
+        lastSampleNanos = now;
+        lastMatches = matches;
+        lastTurns = turnCount;
+        lastAllocatedBytes = allocated;
+    }
+
+    /**
+     * Divides two counters.
+     *
+     * @param count the dividend
+     * @param total the divisor
+     * @return the ratio, or 0 if the divisor is 0
+     */
+    private static double ratio(long count, long total) {return total == 0? 0 : (double) count / total;}
+}
@@ -0,0 +1,187 @@
+package com.domino.app.monitoring;
+
+/**
+ * Management interface of the {@link GameMetrics} of a node, registered with the platform
+ * MBean server as {@value GameMetrics#OBJECT_NAME}.
+ * <p>
+ * Counters are totals since the node started. Rates are measured over the last
+ * sampling period of one second, and latencies are in microseconds.
+ * </p>
+ */
+public interface GameMetricsMXBean
+{
+    /**
+     * Gets the number of matches started.
+     *
+     * @return the number of matches started
+     */
+    long getMatchesStarted();
+
+    /**
+     * Gets the number of matches played to their end.
+     *
+     * @return the number of matches completed
+     */
+    long getMatchesCompleted();
+
+    /**
+     * Gets the number of rounds dealt.
+     *
+     * @return the number of rounds
+     */
+    long getRounds();
+
+    /**
+     * Gets the number of turns played.
+     *
+     * @return the number of turns
+     */
+    long getTurns();
+
+    /**
+     * Gets the number of deals discarded because no player had a double.
+     *
+     * @return the number of redeals
+     */
+    long getRedeals();
+
+    /**
+     * Gets the number of rounds that ended blocked and were decided on pips.
+     *
+     * @return the number of blocked rounds
+     */
+    long getBlockedRounds();
+
+    /**
+     * Gets the number of tables currently hosted by the node.
+     *
+     * @return the number of active tables
+     */
+    long getActiveTables();
+
+    /**
+     * Gets the number of matches completed per second.
+     *
+     * @return the match rate over the last sampling period
+     */
+    double getMatchesPerSecond();
+
+    /**
+     * Gets the number of turns played per second.
+     *
+     * @return the turn rate over the last sampling period
+     */
+    double getTurnsPerSecond();
+
+    /**
+     * Gets the share of deals discarded because no player had a double.
+     *
+     * @return the redeals per round dealt
+     */
+    double getRedealRate();
+
+    /**
+     * Gets the share of rounds that ended blocked.
+     *
+     * @return the blocked rounds per round dealt
+     */
+    double getBlockedRoundRate();
+
+    /**
+     * Gets the median time human seats take to decide a move.
+     *
+     * @return the 50th percentile in microseconds
+     */
+    double getHumanTurnLatencyP50Micros();
+
+    /**
+     * Gets the 99th percentile of the time human seats take to decide a move.
+     *
+     * @return the 99th percentile in microseconds
+     */
+    double getHumanTurnLatencyP99Micros();
+
+    /**
+     * Gets the 99.9th percentile of the time human seats take to decide a move.
+     *
+     * @return the 99.9th percentile in microseconds
+     */
+    double getHumanTurnLatencyP999Micros();
+
+    /**
+     * Gets the longest time a human seat took to decide a move.
+     *
+     * @return the maximum in microseconds
+     */
+    double getHumanTurnLatencyMaxMicros();
+
+    /**
+     * Gets the median time CPU seats take to decide a move, including any think delay.
+     *
+     * @return the 50th percentile in microseconds
+     */
+    double getCpuTurnLatencyP50Micros();
+
+    /**
+     * Gets the 99th percentile of the time CPU seats take to decide a move.
+     *
+     * @return the 99th percentile in microseconds
+     */
+    double getCpuTurnLatencyP99Micros();
+
+    /**
+     * Gets the 99.9th percentile of the time CPU seats take to decide a move.
+     *
+     * @return the 99.9th percentile in microseconds
+     */
+    double getCpuTurnLatencyP999Micros();
+
+    /**
+     * Gets the decision latencies of every CPU strategy, one line per strategy with its
+     * count, 50th, 99th and 99.9th percentiles and maximum.
+     *
+     * @return the latency summaries, sorted by strategy name
+     */
+    String[] getStrategyTurnLatencies();
+
+    /**
+     * Gets the longest time a CPU seat took to decide a move.
+     *
+     * @return the maximum in microseconds
+     */
+    double getCpuTurnLatencyMaxMicros();
+
+    /**
+     * Gets the number of bytes allocated by all the threads of the JVM.
+     *
+     * @return the allocated bytes, or -1 if the JVM does not measure them
+     */
+    long getAllocatedBytes();
+
+    /**
+     * Gets the number of bytes allocated per completed match over the last sampling period,
+     * by every thread of the node.
+     *
+     * @return the allocated bytes per match, or 0 if no match was completed
+     */
+    double getAllocatedBytesPerMatch();
+
+    /**
+     * Gets the number of garbage collections run by all the collectors.
+     *
+     * @return the collection count
+     */
+    long getGcCount();
+
+    /**
+     * Gets the time spent in garbage collections by all the collectors.
+     *
+     * @return the collection time in milliseconds
+     */
+    long getGcTimeMillis();
+
+    /**
+     * Clears the turn latency histograms.
+     */
+    void resetLatencies();
+}
@@ -0,0 +1,222 @@
+package com.domino.app.monitoring;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, with log-linear buckets.
+ * <p>
+ * Values below {@code 2 * SUB_BUCKETS} get a bucket each. Above, every power of two is
+ * split into {@value #SUB_BUCKETS} linear sub-buckets, so a value is known within 1/32
+ * of itself, about 3%, from nanoseconds to centuries, in under two thousand counters.
+ * Recording computes the bucket with a few shifts and increments one atomic counter,
+ * so any number of threads can record at once without a lock or an allocation.
+ * </p>
+ * <p>
+ * Queries work on a {@link Snapshot}, an immutable copy of the counts. Snapshots of
+ * histograms recorded on different threads, seats or nodes can be merged before the
+ * percentiles are read.
+ * </p>
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 5; // Bits of a value kept below its highest bit
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // Linear sub-buckets per power of two
+    private static final int BUCKETS = SUB_BUCKETS * (64 - SUB_BUCKET_BITS); // Buckets covering every positive long
+
+    private final AtomicLongArray counts; // Number of values recorded by bucket
+    private final LongAccumulator max; // Largest value recorded
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram()
+    {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds; negative values are recorded as 0
+     */
+    public void record(long nanos)
+    {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the number of latencies recorded.
+     *
+     * @return the number of values
+     */
+    public long getCount()
+    {
+        long count = 0;
+        for(int i = 0; i < BUCKETS; i++) count += counts.get(i);
+        return count;
+    }
+
+    /**
+     * Gets the largest latency recorded.
+     *
+     * @return the largest value in nanoseconds, or 0 if none was recorded
+     */
+    public long getMax() {return max.get();}
+
+    /**
+     * Estimates a percentile of the latencies recorded.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the estimated value in nanoseconds, or 0 if none was recorded
+     */
+    public long getPercentile(double percentile) {return snapshot().getPercentile(percentile);}
+
+    /**
+     * Copies the counts of the histogram. Values recorded while copying may be left out.
+     *
+     * @return an immutable snapshot
+     */
+    public Snapshot snapshot()
+    {
+        long[] copy = new long[BUCKETS];
+        for(int i = 0; i < BUCKETS; i++) copy[i] = counts.get(i);
+        return new Snapshot(copy, max.get());
+    }
+
+    /**
+     * Clears the histogram. Values recorded concurrently may be kept or dropped.
+     */
+    public void reset()
+    {
+        for(int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        max.reset();
+    }
+
+    /**
+     * Gets the bucket of a value.
+     *
+     * @param value a value, at least 0
+     * @return the index of its bucket
+     */
+    static int bucketOf(long value)
+    {
+        if(value < 2 * SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS * (shift + 1) + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Gets the largest value falling in a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the highest value the bucket stands for
+     */
+    static long highestValueOf(int bucket)
+    {
+        if(bucket < 2 * SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * An immutable copy of the counts of a histogram, answering percentile queries.
+     */
+    public static final class Snapshot
+    {
+        /**
+         * A snapshot without any value.
+         */
+        public static final Snapshot EMPTY = new Snapshot(new long[BUCKETS], 0);
+
+        private final long[] counts; // Number of values by bucket
+        private final long count; // Number of values
+        private final long max; // Largest value
+
+        private Snapshot(long[] counts, long max)
+        {
+            long total = 0;
+            for(long bucketCount : counts) total += bucketCount;
+            this.counts = counts;
+            this.count = total;
+            this.max = max;
+        }
+
+        /**
+         * Gets the number of values in the snapshot.
+         *
+         * @return the number of values
+         */
+        public long getCount() {return count;}
+
+        /**
+         * Gets the largest value in the snapshot.
+         *
+         * @return the largest value in nanoseconds, or 0 if it is empty
+         */
+        public long getMax() {return max;}
+
+        /**
+         * Estimates the mean of the values, taking every value as the middle of its bucket.
+         *
+         * @return the mean in nanoseconds, or 0 if it is empty
+         */
+        public double getMean()
+        {
+            if(count == 0) return 0;
+            double sum = 0;
+            for(int i = 0; i < BUCKETS; i++)
+            {
+                if(counts[i] == 0) continue;
+                long highest = highestValueOf(i);
+                long lowest = i == 0? 0 : highestValueOf(i - 1) + 1;
+                sum += counts[i] * ((lowest + highest) / 2.0);
+            }
+            return sum / count;
+        }
+
+        /**
+         * Estimates a percentile of the values, as the highest value of the bucket it falls in.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the estimated value in nanoseconds, never above the largest value, or 0 if it is empty
+         */
+        public long getPercentile(double percentile)
+        {
+            if(count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+            long seen = 0;
+            for(int i = 0; i < BUCKETS; i++)
+            {
+                seen += counts[i];
+                if(seen >= rank) return Math.min(highestValueOf(i), max);
+            }
+            return max;
+        }
+
+        /**
+         * Merges this snapshot with another, as if their values had been recorded in one histogram.
+         *
+         * @param other the other snapshot
+         * @return a new snapshot holding the values of both
+         */
+        public Snapshot merge(Snapshot other)
+        {
+            long[] merged = Arrays.copyOf(counts, BUCKETS);
+            for(int i = 0; i < BUCKETS; i++) merged[i] += other.counts[i];
+            return new Snapshot(merged, Math.max(max, other.max));
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("n=%d p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus", count,
+                    getPercentile(50) / 1e3, getPercentile(99) / 1e3, getPercentile(99.9) / 1e3, max / 1e3);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.domino.app.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event emitted when a match is over, summarizing how it was played.
+ */
+@Name("com.domino.MatchEnded")
+@Label("Match Ended")
+@Category({"Domino", "Match"})
+@Description("A match ended, with the counts of its rounds and moves")
+@Enabled(false)
+@StackTrace(false)
+public class MatchEndedEvent extends Event
+{
+    private static final EventType TYPE = EventType.getEventType(MatchEndedEvent.class); // Registered type, enabled by recordings
+
+    /**
+     * Checks whether a recording has enabled the event, so the model allocates it only when recorded.
+     *
+     * @return {@code true} if the event is recorded
+     */
+    public static boolean isRecorded() {return TYPE.isEnabled();}
+
+    @Label("Match Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long matchDuration; // Time between the start of the match and its last move
+
+    @Label("Rounds")
+    public int rounds; // Number of rounds played
+
+    @Label("Turns")
+    public int turns; // Number of turns played over all rounds
+
+    @Label("Draws")
+    @Description("Number of tiles drawn from the boneyard")
+    public int draws; // Number of tiles drawn
+
+    @Label("Passes")
+    public int passes; // Number of turns passed
+
+    @Label("Redeals")
+    @Description("Number of deals discarded because no player had a double")
+    public int redeals; // Number of discarded deals over all rounds
+
+    @Label("Winner Side")
+    public int winnerSide; // Side that won the match
+}
@@ -0,0 +1,50 @@
+package com.domino.app.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event emitted when a match starts, with its settings.
+ */
+@Name("com.domino.MatchStarted")
+@Label("Match Started")
+@Category({"Domino", "Match"})
+@Description("A match started with the given settings")
+@Enabled(false)
+@StackTrace(false)
+public class MatchStartedEvent extends Event
+{
+    private static final EventType TYPE = EventType.getEventType(MatchStartedEvent.class); // Registered type, enabled by recordings
+
+    /**
+     * Checks whether a recording has enabled the event, so the model allocates it only when recorded.
+     *
+     * @return {@code true} if the event is recorded
+     */
+    public static boolean isRecorded() {return TYPE.isEnabled();}
+
+    @Label("Players")
+    public int numOfPlayers; // Number of seats
+
+    @Label("Human Players")
+    public int numOfHumanPlayers; // Number of seats played by people
+
+    @Label("Min Dots")
+    public int minDots; // Minimum number of pips on the tiles
+
+    @Label("Max Dots")
+    public int maxDots; // Maximum number of pips on the tiles
+
+    @Label("Target Score")
+    @Description("Score that ends the match, 0 for a single round")
+    public int targetScore; // Score that ends the match
+
+    @Label("Team Play")
+    public boolean teamPlay; // Whether the seats score as two teams
+}
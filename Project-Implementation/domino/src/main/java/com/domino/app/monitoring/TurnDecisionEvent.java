@@ -0,0 +1,45 @@
+package com.domino.app.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the time a seat takes to decide a move.
+ * <p>
+ * For human seats it measures the time until the answer is read, including network
+ * and think time; for CPU seats it measures the strategy, any think delay and the
+ * hand-over to the CPU move executor.
+ * </p>
+ */
+@Name("com.domino.TurnDecision")
+@Label("Turn Decision")
+@Category({"Domino", "Turn"})
+@Description("A seat decided a tile to play or a side of the board")
+@Enabled(false)
+@StackTrace(false)
+public class TurnDecisionEvent extends Event
+{
+    @Label("Seat")
+    public int seat; // Turn index of the deciding seat
+
+    @Label("CPU")
+    public boolean cpu; // Whether the seat is played by a strategy
+
+    @Label("Strategy")
+    public String strategy; // Name of the strategy of a CPU seat, null for a human seat
+
+    @Label("Request")
+    public String request; // TILE or SIDE
+
+    @Label("Options")
+    @Description("Number of moves the seat chose among, the search effort of the decision")
+    public int options; // Number of candidate moves
+
+    @Label("Choice")
+    public int choice; // Index of the chosen option
+}
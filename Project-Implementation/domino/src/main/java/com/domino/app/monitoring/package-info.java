@@ -0,0 +1,11 @@
+/**
+ * This package contains the monitoring components of the Domino game application.
+ *
+ * <p>
+ * The model and the controller emit JDK Flight Recorder events describing the
+ * lifecycle of matches and the time taken by every decision. The events are
+ * disabled unless a recording enables them, so they stay in production builds
+ * at almost no cost.
+ * </p>
+ */
+package com.domino.app.monitoring;
@@ -0,0 +1,85 @@
+package com.domino.app.server;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of fixed-size direct buffers shared by the connections of a server.
+ * <p>
+ * Direct buffers are written to sockets without an intermediate copy, but are
+ * expensive to allocate and release, so outgoing messages are encoded into
+ * buffers borrowed from this pool and returned once written. Buffers beyond the
+ * retained limit are left to the garbage collector.
+ * </p>
+ */
+public class DirectBufferPool
+{
+    private final int bufferSize; // Capacity of every buffer in bytes
+    private final int maxRetained; // Maximum number of idle buffers kept in the pool
+    private final Queue<ByteBuffer> idle; // Buffers ready to be borrowed
+    private final AtomicInteger idleCount; // Number of buffers in the idle queue
+    private final AtomicInteger allocated; // Number of buffers allocated by the pool
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param bufferSize the capacity of every buffer in bytes
+     * @param maxRetained the maximum number of idle buffers kept in the pool
+     */
+    public DirectBufferPool(int bufferSize, int maxRetained)
+    {
+        this.bufferSize = bufferSize;
+        this.maxRetained = maxRetained;
+        this.idle = new ConcurrentLinkedQueue<>();
+        this.idleCount = new AtomicInteger();
+        this.allocated = new AtomicInteger();
+    }
+
+    /**
+     * Gets the capacity of the buffers of the pool.
+     *
+     * @return the capacity in bytes
+     */
+    public int getBufferSize() {return bufferSize;}
+
+    /**
+     * Gets the number of buffers allocated by the pool since it was created.
+     *
+     * @return the number of allocated buffers
+     */
+    public int getAllocated() {return allocated.get();}
+
+    /**
+     * Borrows a cleared buffer, allocating one if the pool is empty.
+     *
+     * @return a buffer ready to be filled
+     */
+    public ByteBuffer acquire()
+    {
+        ByteBuffer buffer = idle.poll();
+        if(buffer == null)
+        {
+            allocated.incrementAndGet();
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        idleCount.decrementAndGet();
+        return buffer.clear();
+    }
+
+    /**
+     * Returns a borrowed buffer to the pool.
+     *
+     * @param buffer the buffer, which must not be used afterwards
+     */
+    public void release(ByteBuffer buffer)
+    {
+        if(idleCount.incrementAndGet() > maxRetained)
+        {
+            idleCount.decrementAndGet();
+            return;
+        }
+        idle.offer(buffer);
+    }
+}
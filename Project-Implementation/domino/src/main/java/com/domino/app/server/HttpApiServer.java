@@ -0,0 +1,567 @@
+package com.domino.app.server;
+
+import com.domino.app.model.CPUPlayer;
+import com.domino.app.model.DominoModel;
+import com.domino.app.model.DominoModelImp;
+import com.domino.app.model.DominoSettings;
+import com.domino.app.model.Player;
+import com.domino.app.monitoring.GameMetrics;
+import com.domino.app.monitoring.LatencyHistogram;
+import com.domino.app.simulation.BatchSimulator;
+import com.domino.app.simulation.MatchRunner;
+import com.domino.app.simulation.SimulationResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves matches over an HTTP JSON API, for tools that do not embed the game.
+ * <p>
+ * Requests are handled by the JDK {@link HttpServer} on virtual threads. Matches are
+ * played by a {@link MatchRunner}: CPU seats move as soon as the previous move is
+ * made, and human seats are played through the API. The endpoints are:
+ * </p>
+ * <ul>
+ *     <li>{@code POST /matches} with optional settings ({@code numOfPlayers},
+ *     {@code numOfHumanPlayers}, {@code minDots}, {@code maxDots}, {@code hideOpponentTiles},
+ *     {@code hideBoneyardTiles}, {@code targetScore}, {@code teamPlay}) deals a match and
+ *     returns its id with the observation of the seat that has to move; rounds of a match
+ *     played to a target score follow each other without a request;</li>
+ *     <li>{@code GET /matches/{id}?seat=n} returns the observation of a seat;</li>
+ *     <li>{@code POST /matches/{id}/moves} with {@code seat} and either {@code tile} (index
+ *     among the playable tiles) or {@code side} (0 for left, 1 for right) makes a move
+ *     and returns the new observation of the seat;</li>
+ *     <li>{@code DELETE /matches/{id}} discards a match;</li>
+ *     <li>{@code POST /simulations} with optional settings and {@code matches} plays a
+ *     batch of CPU-only matches and returns the wins by seat, and the decision latencies
+ *     of every strategy when {@code timeDecisions} is true.</li>
+ * </ul>
+ * <p>
+ * Errors are returned as {@code {"error": message}} with status 400 for invalid
+ * requests, 404 for unknown matches, 409 for moves out of turn, 503 when the
+ * server holds too many matches and 500 when a request fails unexpectedly.
+ * </p>
+ */
+public class HttpApiServer implements AutoCloseable
+{
+    private static final int MAX_MATCHES = 100_000; // Matches held at once
+    private static final int MAX_BODY_BYTES = 4096; // Largest request body accepted
+    private static final int MAX_SIMULATED_MATCHES = 1_000_000; // Largest simulation batch
+    private static final int MAX_DOTS = 18; // Largest tile set accepted, bounding the work of a request
+    private static final int MAX_TARGET_SCORE = 1000; // Largest target score accepted, bounding the rounds of a match
+
+    private final HttpServer server; // Server handling the HTTP exchanges
+    private final ExecutorService executor; // Executor running one virtual thread per exchange
+    private final Map<Long, HostedMatch> matches; // Matches by id
+    private final AtomicLong nextMatchId; // Id given to the next match
+
+    /**
+     * Creates a server listening on the given port.
+     *
+     * @param port the port to listen on, or {@code 0} for an ephemeral port
+     * @throws IOException if the port cannot be bound
+     */
+    public HttpApiServer(int port) throws IOException
+    {
+        // Responses are written as headers then body; without TCP_NODELAY the body waits for a delayed ACK
+        if(System.getProperty("sun.net.httpserver.nodelay") == null) System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        this.server = HttpServer.create(new InetSocketAddress(port), 4096);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.matches = new ConcurrentHashMap<>();
+        this.nextMatchId = new AtomicLong(1);
+
+        server.setExecutor(executor);
+        server.createContext("/matches", this::handleMatches);
+        server.createContext("/simulations", this::handleSimulations);
+    }
+
+    /**
+     * Starts serving requests.
+     */
+    public void start() {server.start();}
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {return server.getAddress().getPort();}
+
+    /**
+     * Gets the number of matches held by the server.
+     *
+     * @return the number of matches
+     */
+    public int getMatchCount() {return matches.size();}
+
+    /**
+     * Stops the server, letting the exchanges in progress complete.
+     */
+    @Override
+    public void close()
+    {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * Handles the requests under {@code /matches}.
+     *
+     * @param exchange the HTTP exchange
+     * @throws IOException if the response cannot be sent
+     */
+    private void handleMatches(HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            // path is ["", "matches", id?, "moves"?]
+            if(path.length == 2 && method.equals("POST")) createMatch(exchange);
+            else if(path.length == 3 && method.equals("GET")) getObservation(exchange, findMatch(path[2]));
+            else if(path.length == 3 && method.equals("DELETE")) deleteMatch(exchange, path[2]);
+            else if(path.length == 4 && path[3].equals("moves") && method.equals("POST")) postMove(exchange, findMatch(path[2]));
+            else throw new ApiException(404, "No such endpoint: " + method + " " + exchange.getRequestURI().getPath());
+        }
+        catch (ApiException e) {sendError(exchange, e.status, e.getMessage());}
+        catch (IllegalArgumentException e) {sendError(exchange, 400, e.getMessage());}
+        catch (RuntimeException e) {sendError(exchange, 500, "Internal server error");}
+        finally {exchange.close();}
+    }
+
+    /**
+     * Handles the requests under {@code /simulations}.
+     *
+     * @param exchange the HTTP exchange
+     * @throws IOException if the response cannot be sent
+     */
+    private void handleSimulations(HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            if(!exchange.getRequestMethod().equals("POST")) throw new ApiException(405, "Use POST to run a simulation");
+
+            JsonObjectParser body = readBody(exchange);
+            int count = body.getInt("matches", 1000);
+            if(count < 1 || count > MAX_SIMULATED_MATCHES)
+            {
+                throw new IllegalArgumentException("'matches' must be between 1 and " + MAX_SIMULATED_MATCHES);
+            }
+            BatchSimulator simulator = new BatchSimulator(readSettings(body));
+            simulator.setTimeDecisions(body.getBoolean("timeDecisions", false));
+            SimulationResult result = simulator.simulate(count);
+
+            JsonWriter json = new JsonWriter(new StringBuilder(256));
+            json.beginObject()
+                    .name("matches").value(result.matches())
+                    .name("draws").value(result.draws())
+                    .name("rounds").value(result.rounds())
+                    .name("turns").value(result.turns())
+                    .name("elapsedMillis").value(result.elapsedNanos() / 1e6)
+                    .name("winsBySeat").beginArray();
+            for(int seat = 0; seat < result.seats(); seat++) json.value(result.wins(seat));
+            json.endArray();
+            if(!result.decisionLatencies().isEmpty())
+            {
+                json.name("decisionLatencies").beginObject();
+                for(Map.Entry<String, LatencyHistogram.Snapshot> entry : result.decisionLatencies().entrySet())
+                {
+                    LatencyHistogram.Snapshot latency = entry.getValue();
+                    json.name(entry.getKey()).beginObject()
+                            .name("count").value(latency.getCount())
+                            .name("p50Micros").value(latency.getPercentile(50) / 1e3)
+                            .name("p99Micros").value(latency.getPercentile(99) / 1e3)
+                            .name("p999Micros").value(latency.getPercentile(99.9) / 1e3)
+                            .name("maxMicros").value(latency.getMax() / 1e3)
+                            .endObject();
+                }
+                json.endObject();
+            }
+            json.endObject();
+            send(exchange, 200, json.buffer());
+        }
+        catch (ApiException e) {sendError(exchange, e.status, e.getMessage());}
+        catch (IllegalArgumentException e) {sendError(exchange, 400, e.getMessage());}
+        catch (RuntimeException e) {sendError(exchange, 500, "Internal server error");}
+        finally {exchange.close();}
+    }
+
+    /**
+     * Deals a new match.
+     *
+     * @param exchange the HTTP exchange
+     * @throws IOException if the request or the response fails
+     */
+    private void createMatch(HttpExchange exchange) throws IOException
+    {
+        DominoSettings settings = readSettings(readBody(exchange));
+        if(matches.size() >= MAX_MATCHES) throw new ApiException(503, "Too many matches");
+
+        DominoModel model = new DominoModelImp();
+        model.setSettings(settings);
+        HostedMatch match = new HostedMatch(nextMatchId.getAndIncrement(), new MatchRunner(model));
+
+        // The match is dealt before it is published, so no request can observe it half started
+        JsonWriter json = new JsonWriter(new StringBuilder(512));
+        synchronized (match)
+        {
+            match.runner.start();
+            writeObservation(json, match, match.runner.getModel().getCurrentTurn());
+        }
+        matches.put(match.id, match);
+        GameMetrics.getDefault().tableOpened();
+        send(exchange, 201, json.buffer());
+    }
+
+    /**
+     * Returns the observation of a seat.
+     *
+     * @param exchange the HTTP exchange
+     * @param match the match
+     * @throws IOException if the response cannot be sent
+     */
+    private void getObservation(HttpExchange exchange, HostedMatch match) throws IOException
+    {
+        int seat = readSeatParameter(exchange);
+        JsonWriter json = new JsonWriter(new StringBuilder(512));
+        synchronized (match)
+        {
+            checkSeat(match, seat);
+            writeObservation(json, match, seat);
+        }
+        send(exchange, 200, json.buffer());
+    }
+
+    /**
+     * Makes the move of a human seat.
+     *
+     * @param exchange the HTTP exchange
+     * @param match the match
+     * @throws IOException if the request or the response fails
+     */
+    private void postMove(HttpExchange exchange, HostedMatch match) throws IOException
+    {
+        JsonObjectParser body = readBody(exchange);
+        if(!body.has("seat")) throw new IllegalArgumentException("'seat' is required");
+        int seat = body.getInt("seat", -1);
+
+        JsonWriter json = new JsonWriter(new StringBuilder(512));
+        synchronized (match)
+        {
+            checkSeat(match, seat);
+            MatchRunner runner = match.runner;
+            if(runner.getPendingDecision() == MatchRunner.Decision.NONE) throw new ApiException(409, "The match is over");
+            if(runner.getModel().getCurrentTurn() != seat) throw new ApiException(409, "It is not the turn of seat " + seat);
+
+            try
+            {
+                if(body.has("tile")) runner.playTile(body.getInt("tile", -1));
+                else if(body.has("side")) runner.playSide(body.getInt("side", -1));
+                else throw new IllegalArgumentException("Either 'tile' or 'side' is required");
+            }
+            catch (IllegalStateException e) {throw new ApiException(409, e.getMessage());}
+
+            writeObservation(json, match, seat);
+        }
+        send(exchange, 200, json.buffer());
+    }
+
+    /**
+     * Discards a match.
+     *
+     * @param exchange the HTTP exchange
+     * @param id the id of the match, as found in the path
+     * @throws IOException if the response cannot be sent
+     */
+    private void deleteMatch(HttpExchange exchange, String id) throws IOException
+    {
+        if(matches.remove(parseMatchId(id)) == null) throw new ApiException(404, "No such match: " + id);
+        GameMetrics.getDefault().tableClosed();
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    /**
+     * Writes what a seat can see of a match.
+     * <p>
+     * A seat always sees the board, the tile counts and its own hand. Other hands and
+     * the boneyard are only included when the settings of the match make them visible.
+     * </p>
+     *
+     * @param json the writer receiving the observation
+     * @param match the match
+     * @param seat the turn index of the observing seat
+     */
+    private static void writeObservation(JsonWriter json, HostedMatch match, int seat)
+    {
+        MatchRunner runner = match.runner;
+        DominoModel model = runner.getModel();
+        MatchRunner.Decision pending = runner.getPendingDecision();
+        boolean decides = pending != MatchRunner.Decision.NONE && model.getCurrentTurn() == seat;
+
+        json.beginObject()
+                .name("id").value(match.id)
+                .name("seat").value(seat)
+                .name("turn").value(model.getCurrentTurn())
+                .name("pending").value(pending.name())
+                .name("round").value(model.getRound())
+                .name("over").value(runner.isOver());
+        if(runner.isOver())
+        {
+            json.name("winner").value(model.getWinnerTurn())
+                    .name("draw").value(!model.hasWinner())
+                    .name("winnerSide").value(model.getMatchWinnerSide());
+        }
+        json.name("scores").beginArray();
+        for(int side = 0; side < model.getNumOfSides(); side++) json.value(model.getScore(side));
+        json.endArray();
+
+        json.name("board").tiles(model.getBoardTiles())
+                .name("ends").tile(model.getEndsBoardTile())
+                .name("hand").tiles(model.getPlayer(seat).getTiles());
+
+        if(decides && pending == MatchRunner.Decision.TILE) json.name("playable").tiles(model.getCurrentPlayerPlayableTiles());
+        if(decides && pending == MatchRunner.Decision.SIDE) json.name("tileToPlace").tile(model.getLastPlayedTile());
+
+        json.name("players").beginArray();
+        for(int i = 0; i < model.getNumOfPlayers(); i++)
+        {
+            Player player = model.getPlayer(i);
+            json.beginObject()
+                    .name("seat").value(i)
+                    .name("cpu").value(player instanceof CPUPlayer)
+                    .name("tileCount").value(player.getTileCount());
+            if(i != seat && !model.isHideOpponentTiles()) json.name("tiles").tiles(player.getTiles());
+            json.endObject();
+        }
+        json.endArray();
+
+        json.name("boneyardCount").value(model.getBoneyardTiles().size());
+        if(!model.isHideBoneyardTiles()) json.name("boneyard").tiles(model.getBoneyardTiles());
+        json.endObject();
+    }
+
+    /**
+     * Reads the settings of a match from a request body, using the defaults for missing members.
+     *
+     * @param body the parsed request body
+     * @return the validated settings
+     * @throws IllegalArgumentException if a setting is out of range
+     */
+    private static DominoSettings readSettings(JsonObjectParser body)
+    {
+        DominoSettings settings = new DominoSettings();
+        settings.setNumOfPlayers(body.getInt("numOfPlayers", settings.getNumOfPlayers()));
+        settings.setNumOfHumanPlayers(body.getInt("numOfHumanPlayers", settings.getNumOfHumanPlayers()));
+        settings.setMinDots(body.getInt("minDots", settings.getMinDots()));
+        settings.setMaxDots(body.getInt("maxDots", settings.getMaxDots()));
+        settings.setHideOpponentTiles(body.getBoolean("hideOpponentTiles", settings.isHideOpponentTiles()));
+        settings.setHideBoneyardTiles(body.getBoolean("hideBoneyardTiles", settings.isHideBoneyardTiles()));
+        settings.setTargetScore(body.getInt("targetScore", settings.getTargetScore()));
+        settings.setTeamPlay(body.getBoolean("teamPlay", settings.isTeamPlay()));
+
+        // Same ranges as the settings menu of the controller, with a bound on the tile set
+        if(settings.getNumOfPlayers() < 2 || settings.getNumOfPlayers() > 4)
+        {
+            throw new IllegalArgumentException("'numOfPlayers' must be between 2 and 4");
+        }
+        if(settings.getNumOfHumanPlayers() < 0 || settings.getNumOfHumanPlayers() >= settings.getNumOfPlayers())
+        {
+            throw new IllegalArgumentException("'numOfHumanPlayers' must be between 0 and numOfPlayers - 1");
+        }
+        if(settings.getMaxDots() <= 0 || settings.getMaxDots() > MAX_DOTS)
+        {
+            throw new IllegalArgumentException("'maxDots' must be between 1 and " + MAX_DOTS);
+        }
+        if(settings.getMinDots() < 0 || settings.getMinDots() >= settings.getMaxDots())
+        {
+            throw new IllegalArgumentException("'minDots' must be between 0 and maxDots - 1");
+        }
+        if(settings.getTargetScore() < 0 || settings.getTargetScore() > MAX_TARGET_SCORE)
+        {
+            throw new IllegalArgumentException("'targetScore' must be between 0 and " + MAX_TARGET_SCORE);
+        }
+        return settings;
+    }
+
+    /**
+     * Reads and parses the JSON body of a request.
+     *
+     * @param exchange the HTTP exchange
+     * @return the parsed body
+     * @throws IOException if the body cannot be read
+     */
+    private static JsonObjectParser readBody(HttpExchange exchange) throws IOException
+    {
+        InputStream in = exchange.getRequestBody();
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        if(body.length > MAX_BODY_BYTES) throw new ApiException(413, "Request body too large");
+        return new JsonObjectParser(new String(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the {@code seat} query parameter, 0 if it is missing.
+     *
+     * @param exchange the HTTP exchange
+     * @return the seat
+     */
+    private static int readSeatParameter(HttpExchange exchange)
+    {
+        String query = exchange.getRequestURI().getRawQuery();
+        if(query == null) return 0;
+        for(String parameter : query.split("&"))
+        {
+            if(parameter.startsWith("seat="))
+            {
+                try {return Integer.parseInt(parameter.substring("seat=".length()));}
+                catch (NumberFormatException e) {throw new IllegalArgumentException("'seat' must be an integer");}
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Finds a match by the id found in the path.
+     *
+     * @param id the id of the match
+     * @return the match
+     */
+    private HostedMatch findMatch(String id)
+    {
+        HostedMatch match = matches.get(parseMatchId(id));
+        if(match == null) throw new ApiException(404, "No such match: " + id);
+        return match;
+    }
+
+    /**
+     * Parses the id of a match.
+     *
+     * @param id the id as found in the path
+     * @return the id
+     */
+    private static long parseMatchId(String id)
+    {
+        try {return Long.parseLong(id);}
+        catch (NumberFormatException e) {throw new ApiException(404, "No such match: " + id);}
+    }
+
+    /**
+     * Checks that a seat exists in a match.
+     *
+     * @param match the match
+     * @param seat the turn index of the seat
+     */
+    private static void checkSeat(HostedMatch match, int seat)
+    {
+        if(seat < 0 || seat >= match.runner.getModel().getNumOfPlayers())
+        {
+            throw new IllegalArgumentException("No such seat: " + seat);
+        }
+    }
+
+    /**
+     * Sends an error response.
+     *
+     * @param exchange the HTTP exchange
+     * @param status the HTTP status
+     * @param message the description of the error
+     * @throws IOException if the response cannot be sent
+     */
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException
+    {
+        JsonWriter json = new JsonWriter(new StringBuilder(64 + message.length()));
+        json.beginObject().name("error").value(message).endObject();
+        send(exchange, status, json.buffer());
+    }
+
+    /**
+     * Sends a JSON response. The JSON writer only produces ASCII, so the text is copied without an encoder.
+     *
+     * @param exchange the HTTP exchange
+     * @param status the HTTP status
+     * @param json the JSON document
+     * @throws IOException if the response cannot be sent
+     */
+    private static void send(HttpExchange exchange, int status, CharSequence json) throws IOException
+    {
+        byte[] bytes = new byte[json.length()];
+        for(int i = 0; i < bytes.length; i++) bytes[i] = (byte) json.charAt(i);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {out.write(bytes);}
+    }
+
+    /**
+     * A match held by the server. Requests on the same match are serialized on this object.
+     */
+    private static final class HostedMatch
+    {
+        private final long id; // Id of the match
+        private final MatchRunner runner; // Runner playing the match
+
+        /**
+         * Creates a hosted match.
+         *
+         * @param id the id of the match
+         * @param runner the runner playing the match
+         */
+        HostedMatch(long id, MatchRunner runner)
+        {
+            this.id = id;
+            this.runner = runner;
+        }
+    }
+
+    /**
+     * An error reported to the client with a specific HTTP status.
+     */
+    private static final class ApiException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int status; // HTTP status of the response
+
+        /**
+         * Creates an error.
+         *
+         * @param status the HTTP status of the response
+         * @param message the description of the error
+         */
+        ApiException(int status, String message)
+        {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     * <p>
+     * Usage: {@code HttpApiServer [port]}, port 8080 by default. The metrics of the server,
+     * including its simulations, are registered with JMX.
+     * </p>
+     *
+     * @param args the command-line arguments
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0? Integer.parseInt(args[0]) : 8080;
+
+        GameMetrics.register();
+        HttpApiServer server = new HttpApiServer(port);
+        server.start();
+        System.out.println("Domino HTTP API listening on port " + server.getPort());
+    }
+}
@@ -0,0 +1,196 @@
+package com.domino.app.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays matches against an {@link HttpApiServer} from many concurrent clients and
+ * reports the request throughput and latency.
+ * <p>
+ * Every client creates a match with one human seat, plays the first playable tile
+ * and the left side whenever it has to decide, reads its observation after every
+ * move and deletes the match once it is over.
+ * </p>
+ * <p>
+ * Usage: {@code HttpLoadGenerator [--clients=n] [--matches=n] [--url=base]}.
+ * Without a URL, a server is started in process on an ephemeral port.
+ * </p>
+ */
+public class HttpLoadGenerator
+{
+    private static final String NEW_MATCH = "{\"numOfPlayers\":4,\"numOfHumanPlayers\":1}";
+
+    private final HttpClient client; // Client shared by all the workers
+    private final String baseUrl; // Base URL of the API
+    private final int matchesPerClient; // Matches played by every client
+
+    private final LongAdder requests; // Number of requests sent
+    private final LongAdder failedRequests; // Number of requests that failed or returned an unexpected status
+    private final LongAdder totalLatencyNanos; // Sum of the request latencies
+    private final LongAccumulator maxLatencyNanos; // Highest request latency
+
+    /**
+     * Creates a load generator for the API at the given URL.
+     *
+     * @param baseUrl the base URL of the API, without a trailing slash
+     * @param matchesPerClient the number of matches played by every client
+     */
+    public HttpLoadGenerator(String baseUrl, int matchesPerClient)
+    {
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        this.baseUrl = baseUrl;
+        this.matchesPerClient = matchesPerClient;
+        this.requests = new LongAdder();
+        this.failedRequests = new LongAdder();
+        this.totalLatencyNanos = new LongAdder();
+        this.maxLatencyNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Plays the given number of clients concurrently and waits for all of them to finish.
+     *
+     * @param clients the number of clients
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void run(int clients) throws InterruptedException
+    {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for(int i = 0; i < clients; i++) futures.add(executor.submit(this::playClient));
+            for(Future<?> future : futures)
+            {
+                try {future.get();}
+                catch (ExecutionException e) {failedRequests.increment();}
+            }
+        }
+    }
+
+    /**
+     * Plays the matches of one client.
+     *
+     * @throws IOException if a request fails
+     * @throws InterruptedException if the client is interrupted
+     */
+    private Void playClient() throws IOException, InterruptedException
+    {
+        for(int m = 0; m < matchesPerClient; m++)
+        {
+            String observation = send(HttpRequest.newBuilder(URI.create(baseUrl + "/matches"))
+                    .POST(HttpRequest.BodyPublishers.ofString(NEW_MATCH)), 201);
+            if(observation == null) return null;
+            long id = readLong(observation, "\"id\":");
+            String match = baseUrl + "/matches/" + id;
+
+            while (observation != null && !observation.contains("\"over\":true"))
+            {
+                String move;
+                if(observation.contains("\"pending\":\"TILE\"")) move = "{\"seat\":0,\"tile\":0}";
+                else if(observation.contains("\"pending\":\"SIDE\"")) move = "{\"seat\":0,\"side\":0}";
+                else break;
+
+                if(send(HttpRequest.newBuilder(URI.create(match + "/moves"))
+                        .POST(HttpRequest.BodyPublishers.ofString(move)), 200) == null) break;
+                observation = send(HttpRequest.newBuilder(URI.create(match + "?seat=0")).GET(), 200);
+            }
+
+            send(HttpRequest.newBuilder(URI.create(match)).DELETE(), 204);
+        }
+        return null;
+    }
+
+    /**
+     * Sends a request and records its latency.
+     *
+     * @param request the request to send
+     * @param expectedStatus the status of a successful response
+     * @return the body of the response, or {@code null} if the status was unexpected
+     * @throws IOException if the request fails
+     * @throws InterruptedException if the client is interrupted
+     */
+    private String send(HttpRequest.Builder request, int expectedStatus) throws IOException, InterruptedException
+    {
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        long latency = System.nanoTime() - start;
+
+        requests.increment();
+        totalLatencyNanos.add(latency);
+        maxLatencyNanos.accumulate(latency);
+        if(response.statusCode() != expectedStatus)
+        {
+            failedRequests.increment();
+            return null;
+        }
+        return response.body();
+    }
+
+    /**
+     * Reads a number following the given key in a JSON document.
+     *
+     * @param json the JSON document
+     * @param key the key, including its quotes and colon
+     * @return the number
+     */
+    private static long readLong(String json, String key)
+    {
+        int start = json.indexOf(key) + key.length();
+        int end = start;
+        while (end < json.length() && Character.isDigit(json.charAt(end))) end++;
+        return Long.parseLong(json, start, end, 10);
+    }
+
+    /**
+     * Runs the load generator and prints its report.
+     *
+     * @param args the command-line arguments
+     * @throws IOException if the in-process server cannot be started
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        int clients = 64;
+        int matches = 50;
+        String url = null;
+        for(String arg : args)
+        {
+            if(arg.startsWith("--clients=")) clients = Integer.parseInt(arg.substring("--clients=".length()));
+            else if(arg.startsWith("--matches=")) matches = Integer.parseInt(arg.substring("--matches=".length()));
+            else if(arg.startsWith("--url=")) url = arg.substring("--url=".length());
+        }
+
+        HttpApiServer server = null;
+        if(url == null)
+        {
+            server = new HttpApiServer(0);
+            server.start();
+            url = "http://localhost:" + server.getPort();
+        }
+
+        HttpLoadGenerator generator = new HttpLoadGenerator(url, matches);
+        long start = System.nanoTime();
+        generator.run(clients);
+        long elapsed = System.nanoTime() - start;
+        if(server != null) server.close();
+
+        long requests = generator.requests.sum();
+        double seconds = elapsed / 1e9;
+        System.out.printf("Clients: %d, matches per client: %d, failed requests: %d%n",
+                clients, matches, generator.failedRequests.sum());
+        System.out.printf("Requests: %d in %.2f s (%.0f requests/s)%n", requests, seconds, requests / seconds);
+        System.out.printf("Request latency: avg %.3f ms, max %.3f ms%n",
+                requests == 0? 0.0 : generator.totalLatencyNanos.sum() / 1e6 / requests,
+                generator.maxLatencyNanos.get() / 1e6);
+    }
+}
@@ -0,0 +1,211 @@
+package com.domino.app.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses the flat JSON objects accepted as request bodies by the {@link HttpApiServer}.
+ * <p>
+ * Only objects whose members are strings, numbers, booleans or {@code null} are
+ * accepted, which covers settings and moves without a general-purpose parser.
+ * Members are returned as raw text and converted by the typed getters.
+ * </p>
+ */
+public class JsonObjectParser
+{
+    private final Map<String, String> members; // Raw values by member name, null for JSON null
+
+    /**
+     * Parses a flat JSON object; an empty or blank text is read as an empty object.
+     *
+     * @param json the JSON text
+     * @throws IllegalArgumentException if the text is not a flat JSON object
+     */
+    public JsonObjectParser(String json)
+    {
+        this.members = new HashMap<>();
+        if(!json.isBlank()) parse(json);
+    }
+
+    /**
+     * Gets an integer member.
+     *
+     * @param name the member name
+     * @param defaultValue the value returned when the member is missing or null
+     * @return the value of the member
+     * @throws IllegalArgumentException if the member is not an integer
+     */
+    public int getInt(String name, int defaultValue)
+    {
+        String value = members.get(name);
+        if(value == null) return defaultValue;
+        try {return Integer.parseInt(value);}
+        catch (NumberFormatException e) {throw new IllegalArgumentException("'" + name + "' must be an integer");}
+    }
+
+    /**
+     * Gets a boolean member.
+     *
+     * @param name the member name
+     * @param defaultValue the value returned when the member is missing or null
+     * @return the value of the member
+     * @throws IllegalArgumentException if the member is not a boolean
+     */
+    public boolean getBoolean(String name, boolean defaultValue)
+    {
+        String value = members.get(name);
+        if(value == null) return defaultValue;
+        return switch (value)
+        {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new IllegalArgumentException("'" + name + "' must be a boolean");
+        };
+    }
+
+    /**
+     * Gets a string member.
+     *
+     * @param name the member name
+     * @param defaultValue the value returned when the member is missing or null
+     * @return the value of the member
+     */
+    public String getString(String name, String defaultValue)
+    {
+        String value = members.get(name);
+        return value != null? value : defaultValue;
+    }
+
+    /**
+     * Checks whether a member is present with a non-null value.
+     *
+     * @param name the member name
+     * @return {@code true} if the member is present; {@code false} otherwise
+     */
+    public boolean has(String name) {return members.get(name) != null;}
+
+    /**
+     * Parses the members of the object.
+     *
+     * @param json the JSON text
+     */
+    private void parse(String json)
+    {
+        int i = skipWhitespace(json, 0);
+        i = expect(json, i, '{');
+        i = skipWhitespace(json, i);
+        if(i < json.length() && json.charAt(i) == '}') i++;
+        else
+        {
+            while (true)
+            {
+                StringBuilder name = new StringBuilder();
+                i = readString(json, skipWhitespace(json, i), name);
+                i = expect(json, skipWhitespace(json, i), ':');
+                i = skipWhitespace(json, i);
+
+                String value;
+                if(i < json.length() && json.charAt(i) == '"')
+                {
+                    StringBuilder text = new StringBuilder();
+                    i = readString(json, i, text);
+                    value = text.toString();
+                }
+                else
+                {
+                    int start = i;
+                    while (i < json.length() && ",} \t\r\n".indexOf(json.charAt(i)) < 0) i++;
+                    value = json.substring(start, i);
+                    if(value.isEmpty() || value.charAt(0) == '{' || value.charAt(0) == '[')
+                    {
+                        throw new IllegalArgumentException("Unsupported value for '" + name + "'");
+                    }
+                    if(value.equals("null")) value = null;
+                }
+                members.put(name.toString(), value);
+
+                i = skipWhitespace(json, i);
+                if(i < json.length() && json.charAt(i) == ',')
+                {
+                    i++;
+                    continue;
+                }
+                i = expect(json, i, '}');
+                break;
+            }
+        }
+        if(skipWhitespace(json, i) != json.length()) throw new IllegalArgumentException("Trailing characters after the object");
+    }
+
+    /**
+     * Reads a string literal, resolving its escapes.
+     *
+     * @param json the JSON text
+     * @param i the index of the opening quote
+     * @param out the buffer receiving the string
+     * @return the index following the closing quote
+     */
+    private static int readString(String json, int i, StringBuilder out)
+    {
+        i = expect(json, i, '"');
+        while (i < json.length())
+        {
+            char c = json.charAt(i++);
+            if(c == '"') return i;
+            if(c != '\\')
+            {
+                out.append(c);
+                continue;
+            }
+            if(i >= json.length()) break;
+            char escaped = json.charAt(i++);
+            switch (escaped)
+            {
+                case 'n' -> out.append('\n');
+                case 'r' -> out.append('\r');
+                case 't' -> out.append('\t');
+                case 'b' -> out.append('\b');
+                case 'f' -> out.append('\f');
+                case 'u' ->
+                {
+                    if(i + 4 > json.length()) throw new IllegalArgumentException("Truncated escape");
+                    try {out.append((char) Integer.parseInt(json, i, i + 4, 16));}
+                    catch (NumberFormatException e) {throw new IllegalArgumentException("Invalid escape");}
+                    i += 4;
+                }
+                default -> out.append(escaped);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string");
+    }
+
+    /**
+     * Skips whitespace.
+     *
+     * @param json the JSON text
+     * @param i the index to start from
+     * @return the index of the next non-whitespace character
+     */
+    private static int skipWhitespace(String json, int i)
+    {
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) i++;
+        return i;
+    }
+
+    /**
+     * Checks that the given character is at the given index.
+     *
+     * @param json the JSON text
+     * @param i the index of the expected character
+     * @param expected the expected character
+     * @return the index following the character
+     */
+    private static int expect(String json, int i, char expected)
+    {
+        if(i >= json.length() || json.charAt(i) != expected)
+        {
+            throw new IllegalArgumentException("Expected '" + expected + "' at position " + i);
+        }
+        return i + 1;
+    }
+}
@@ -0,0 +1,245 @@
+package com.domino.app.server;
+
+import com.domino.app.model.Tile;
+
+import java.util.List;
+
+/**
+ * Writes JSON text straight into a {@link StringBuilder}.
+ * <p>
+ * The writer only tracks where commas go, so a document is produced without any
+ * intermediate tree or reflection. Tiles are written as two-element arrays
+ * {@code [left,right]}. Non-ASCII characters are escaped, so the output can be
+ * sent as ASCII bytes.
+ * </p>
+ */
+public class JsonWriter
+{
+    private static final int MAX_DEPTH = 64; // Nesting supported by the comma bookkeeping
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final StringBuilder out; // Buffer receiving the document
+    private long hasElements; // Bit per nesting level, set once the container has an element
+    private int depth; // Current nesting level
+    private boolean afterName; // Whether a member name was just written
+
+    /**
+     * Creates a writer appending to the given buffer.
+     *
+     * @param out the buffer receiving the document
+     */
+    public JsonWriter(StringBuilder out)
+    {
+        this.out = out;
+    }
+
+    /**
+     * Gets the buffer receiving the document.
+     *
+     * @return the output buffer
+     */
+    public StringBuilder buffer() {return out;}
+
+    /**
+     * Starts an object.
+     *
+     * @return this writer
+     */
+    public JsonWriter beginObject() {return open('{');}
+
+    /**
+     * Ends the current object.
+     *
+     * @return this writer
+     */
+    public JsonWriter endObject() {return close('}');}
+
+    /**
+     * Starts an array.
+     *
+     * @return this writer
+     */
+    public JsonWriter beginArray() {return open('[');}
+
+    /**
+     * Ends the current array.
+     *
+     * @return this writer
+     */
+    public JsonWriter endArray() {return close(']');}
+
+    /**
+     * Writes the name of the next member of the current object.
+     *
+     * @param name the member name, which must not need escaping
+     * @return this writer
+     */
+    public JsonWriter name(String name)
+    {
+        separate();
+        out.append('"').append(name).append("\":");
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a number.
+     *
+     * @param value the value
+     * @return this writer
+     */
+    public JsonWriter value(long value)
+    {
+        separate();
+        out.append(value);
+        return this;
+    }
+
+    /**
+     * Writes a number.
+     *
+     * @param value the value, written as {@code null} if it is not finite
+     * @return this writer
+     */
+    public JsonWriter value(double value)
+    {
+        separate();
+        if(Double.isFinite(value)) out.append(value);
+        else out.append("null");
+        return this;
+    }
+
+    /**
+     * Writes a boolean.
+     *
+     * @param value the value
+     * @return this writer
+     */
+    public JsonWriter value(boolean value)
+    {
+        separate();
+        out.append(value);
+        return this;
+    }
+
+    /**
+     * Writes a string, escaping it as needed.
+     *
+     * @param value the value, or {@code null}
+     * @return this writer
+     */
+    public JsonWriter value(String value)
+    {
+        if(value == null) return nullValue();
+
+        separate();
+        out.append('"');
+        for(int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default ->
+                {
+                    if(c < 0x20 || c >= 0x7f)
+                    {
+                        out.append("\\u").append(HEX[c >> 12]).append(HEX[(c >> 8) & 0xf])
+                                .append(HEX[(c >> 4) & 0xf]).append(HEX[c & 0xf]);
+                    }
+                    else out.append(c);
+                }
+            }
+        }
+        out.append('"');
+        return this;
+    }
+
+    /**
+     * Writes {@code null}.
+     *
+     * @return this writer
+     */
+    public JsonWriter nullValue()
+    {
+        separate();
+        out.append("null");
+        return this;
+    }
+
+    /**
+     * Writes a tile as {@code [left,right]}.
+     *
+     * @param tile the tile, or {@code null}
+     * @return this writer
+     */
+    public JsonWriter tile(Tile tile)
+    {
+        if(tile == null) return nullValue();
+
+        separate();
+        out.append('[').append(tile.getLeft()).append(',').append(tile.getRight()).append(']');
+        return this;
+    }
+
+    /**
+     * Writes an array of tiles.
+     *
+     * @param tiles the tiles
+     * @return this writer
+     */
+    public JsonWriter tiles(List<Tile> tiles)
+    {
+        beginArray();
+        for(Tile tile : tiles) tile(tile);
+        return endArray();
+    }
+
+    /**
+     * Opens a container.
+     *
+     * @param bracket the opening bracket
+     * @return this writer
+     */
+    private JsonWriter open(char bracket)
+    {
+        separate();
+        if(depth + 1 >= MAX_DEPTH) throw new IllegalStateException("JSON nested too deeply");
+        out.append(bracket);
+        depth++;
+        hasElements &= ~(1L << depth);
+        return this;
+    }
+
+    /**
+     * Closes the current container.
+     *
+     * @param bracket the closing bracket
+     * @return this writer
+     */
+    private JsonWriter close(char bracket)
+    {
+        out.append(bracket);
+        depth--;
+        return this;
+    }
+
+    /**
+     * Writes the comma preceding the next element of the current container, if needed.
+     */
+    private void separate()
+    {
+        if(afterName)
+        {
+            afterName = false;
+            return;
+        }
+        long bit = 1L << depth;
+        if((hasElements & bit) != 0) out.append(',');
+        else hasElements |= bit;
+    }
+}
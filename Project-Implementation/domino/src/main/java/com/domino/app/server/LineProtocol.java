@@ -0,0 +1,339 @@
+package com.domino.app.server;
+
+import com.domino.app.controller.InputDriver;
+import com.domino.app.model.CPUPlayer;
+import com.domino.app.model.DominoModel;
+import com.domino.app.model.GameEvent;
+import com.domino.app.model.GameSnapshot;
+import com.domino.app.model.Tile;
+import com.domino.app.model.TileFace;
+
+import java.util.List;
+
+/**
+ * Encodes the messages of the line protocol spoken by the {@link ProtocolServer}.
+ * <p>
+ * Every message is one line of ASCII text made of space-separated fields, and
+ * tiles are written as {@code left|right}. The server sends:
+ * </p>
+ * <ul>
+ *     <li>{@code HELLO DOMINO <version> <table>} when the connection is accepted;</li>
+ *     <li>{@code ASK <request> [options...]} for every decision of the controller, where
+ *     the request is a constant of {@link InputDriver.Request}; {@code ASK TILE} lists the
+ *     playable tiles in option order and {@code ASK SIDE} gives the tile and the board ends;</li>
+ *     <li>{@code DEAL <starter> <players> <tilesPerPlayer> <boneyard> <redeals>}, followed by
+ *     {@code HAND <seat> <tiles...>} for every human seat;</li>
+ *     <li>{@code DRAW <seat> [tile]}, with the tile only for human seats;</li>
+ *     <li>{@code PLAY <seat> <tile> L|R <ends>} and {@code PASS <seat>};</li>
+ *     <li>{@code ROUND <seat> WIN|DRAW <points>} when a round ends, the points going to the
+ *     side of the seat; a new {@code DEAL} follows unless the match is over;</li>
+ *     <li>{@code END <seat> WIN|DRAW} after the {@code ROUND} of the last round, when a side
+ *     reaches the target score and the match ends;</li>
+ *     <li>{@code ERR <reason>} when an answer is rejected, followed by the same {@code ASK};</li>
+ *     <li>{@code TIMEOUT <request>} when the turn timer of the client expired and the first
+ *     option was played for it; the client still answers the timed out {@code ASK}, and that
+ *     answer is discarded;</li>
+ *     <li>{@code BYE} before the connection is closed.</li>
+ * </ul>
+ * <p>
+ * Players connecting to the lobby port first send {@code JOIN}, optionally followed by
+ * {@code <players> <minDots> <maxDots> <hideOpponents> <hideBoneyard>} with the flags as
+ * {@code 0} or {@code 1}. The server answers {@code QUEUED} with the same settings, or
+ * {@code ERR INVALID_SETTINGS}, and once a table is formed sends
+ * {@code MATCHED <table> <seat> <humans>}, where the seats from {@code humans} on are
+ * played by CPU players. The match is then played as above, each player seeing only
+ * its own hand, and the connection is closed with {@code BYE} when it ends.
+ * </p>
+ * <p>
+ * The client answers every {@code ASK} with one line holding the number or text of
+ * its decision, exactly as it would be typed on the console.
+ * </p>
+ * <p>
+ * Spectators connect to the spectator port and send {@code WATCH <table>}. The server
+ * answers {@code WATCHING <table>}, or {@code ERR NO_SUCH_TABLE}, and then sends a
+ * state made of {@code SNAPSHOT <seq> <turn> <over> <winner> <roundWinner>}, where {@code over}
+ * and {@code winner} only tell the end of the match and {@code roundWinner} is -1 while the
+ * round is played, then {@code BOARD <tiles...>},
+ * {@code COUNTS <tiles by seat...>} and {@code BONEYARD <count>}, followed by one
+ * {@code SEQ <seq>} line and its events per move. Spectators never see hands or drawn
+ * tiles. A spectator too slow to keep up is sent a new state instead of the moves it
+ * missed, so sequence numbers may jump. The stream ends with {@code BYE}.
+ * </p>
+ */
+public final class LineProtocol
+{
+    /**
+     * Version of the protocol announced in the greeting.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Maximum length of a line sent by a client.
+     */
+    public static final int MAX_LINE_LENGTH = 128;
+
+    private LineProtocol() {}
+
+    /**
+     * Appends the greeting of the server.
+     *
+     * @param out the buffer receiving the line
+     * @param tableId the id of the table, used by spectators to watch it
+     */
+    public static void appendHello(StringBuilder out, long tableId)
+    {
+        out.append("HELLO DOMINO ").append(VERSION).append(' ').append(tableId).append('\n');
+    }
+
+    /**
+     * Appends the request of a decision, with its options when the model defines them.
+     *
+     * @param out the buffer receiving the line
+     * @param request the decision being requested
+     * @param model the model of the table
+     */
+    public static void appendAsk(StringBuilder out, InputDriver.Request request, DominoModel model)
+    {
+        out.append("ASK ").append(request.name());
+        switch (request)
+        {
+            case TILE -> appendTiles(out, model.getCurrentPlayerPlayableTiles());
+            case SIDE ->
+            {
+                appendTile(out.append(' '), model.getLastPlayedTile());
+                appendTile(out.append(' '), model.getEndsBoardTile());
+            }
+            default -> {}
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Appends the lines describing a batch of game events.
+     *
+     * @param out the buffer receiving the lines
+     * @param batch the events of one move
+     * @param model the model that published the events, or {@code null} to encode them for
+     *              spectators, without the hands and the drawn tiles of the human seats
+     */
+    public static void appendEvents(StringBuilder out, List<GameEvent> batch, DominoModel model)
+    {
+        appendEvents(out, batch, model, -1);
+    }
+
+    /**
+     * Appends the lines describing a batch of game events to the player of one seat.
+     *
+     * @param out the buffer receiving the lines
+     * @param batch the events of one move
+     * @param model the model that published the events, or {@code null} to encode them for spectators
+     * @param viewer the seat whose hand and drawn tiles are shown, or -1 to show those of every human seat
+     */
+    public static void appendEvents(StringBuilder out, List<GameEvent> batch, DominoModel model, int viewer)
+    {
+        for(GameEvent event : batch)
+        {
+            switch (event)
+            {
+                case GameEvent.Deal deal ->
+                {
+                    out.append("DEAL ").append(deal.turn())
+                            .append(' ').append(deal.numOfPlayers())
+                            .append(' ').append(deal.tilesPerPlayer())
+                            .append(' ').append(deal.boneyardTiles())
+                            .append(' ').append(deal.redeals()).append('\n');
+                    for(int seat = 0; model != null && seat < deal.numOfPlayers(); seat++)
+                    {
+                        if(isShownSeat(model, seat, viewer))
+                        {
+                            appendTiles(out.append("HAND ").append(seat), model.getPlayer(seat).getTiles());
+                            out.append('\n');
+                        }
+                    }
+                }
+                case GameEvent.TileDrawn drawn ->
+                {
+                    out.append("DRAW ").append(drawn.turn());
+                    if(model != null && isShownSeat(model, drawn.turn(), viewer))
+                    {
+                        out.append(' ').append(drawn.left()).append('|').append(drawn.right());
+                    }
+                    out.append('\n');
+                }
+                case GameEvent.TilePlayed played -> out.append("PLAY ").append(played.turn())
+                        .append(' ').append(played.left()).append('|').append(played.right())
+                        .append(played.atLeftEnd()? " L " : " R ")
+                        .append(played.endsLeft()).append('|').append(played.endsRight()).append('\n');
+                case GameEvent.TurnPassed passed -> out.append("PASS ").append(passed.turn()).append('\n');
+                case GameEvent.RoundEnded ended -> out.append("ROUND ").append(ended.turn())
+                        .append(ended.draw()? " DRAW " : " WIN ").append(ended.points()).append('\n');
+                case GameEvent.MatchEnded ended -> out.append("END ").append(ended.turn())
+                        .append(ended.draw()? " DRAW" : " WIN").append('\n');
+            }
+        }
+    }
+
+    /**
+     * Appends the public state of a match, sent to spectators when they start watching
+     * or fall behind.
+     *
+     * @param out the buffer receiving the lines
+     * @param snapshot the snapshot of the match
+     */
+    public static void appendSnapshot(StringBuilder out, GameSnapshot snapshot)
+    {
+        out.append("SNAPSHOT ").append(snapshot.getVersion())
+                .append(' ').append(snapshot.getCurrentTurn())
+                .append(snapshot.isOver()? " 1 " : " 0 ").append(snapshot.getWinnerTurn())
+                .append(' ').append(snapshot.getRoundWinnerTurn()).append('\n');
+        out.append("BOARD");
+        for(TileFace tile : snapshot.getBoardTiles()) out.append(' ').append(tile.left()).append('|').append(tile.right());
+        out.append('\n').append("COUNTS");
+        for(int seat = 0; seat < snapshot.getNumOfPlayers(); seat++) out.append(' ').append(snapshot.getTileCount(seat));
+        out.append('\n').append("BONEYARD ").append(snapshot.getBoneyardCount()).append('\n');
+    }
+
+    /**
+     * Appends the confirmation that a player waits in the lobby for a table.
+     *
+     * @param out the buffer receiving the line
+     * @param key the settings the player waits for
+     */
+    public static void appendQueued(StringBuilder out, Matchmaker.Key key)
+    {
+        out.append("QUEUED ").append(key.numOfPlayers())
+                .append(' ').append(key.minDots())
+                .append(' ').append(key.maxDots())
+                .append(key.hideOpponentTiles()? " 1" : " 0")
+                .append(key.hideBoneyardTiles()? " 1" : " 0").append('\n');
+    }
+
+    /**
+     * Appends the seat given to a player by the lobby.
+     *
+     * @param out the buffer receiving the line
+     * @param tableId the id of the table
+     * @param seat the seat of the player
+     * @param humans the number of seats played by remote players
+     */
+    public static void appendMatched(StringBuilder out, long tableId, int seat, int humans)
+    {
+        out.append("MATCHED ").append(tableId).append(' ').append(seat).append(' ').append(humans).append('\n');
+    }
+
+    /**
+     * Parses the settings of a {@code JOIN} line.
+     *
+     * @param line the line sent by the player
+     * @param defaults the settings used when the line only holds {@code JOIN}
+     * @param maxDots the highest number of pips the server accepts
+     * @return the settings, or {@code null} if the line is not a valid {@code JOIN}
+     */
+    public static Matchmaker.Key parseJoin(String line, Matchmaker.Key defaults, int maxDots)
+    {
+        String[] fields = line.split(" +");
+        if(!fields[0].equals("JOIN")) return null;
+        if(fields.length == 1) return defaults;
+        if(fields.length != 6) return null;
+        try
+        {
+            int players = Integer.parseInt(fields[1]);
+            int min = Integer.parseInt(fields[2]);
+            int max = Integer.parseInt(fields[3]);
+            if(players < 2 || players > 4 || min < 0 || min >= max || max > maxDots) return null;
+            if(!isFlag(fields[4]) || !isFlag(fields[5])) return null;
+            return new Matchmaker.Key(players, min, max, fields[4].equals("1"), fields[5].equals("1"));
+        }
+        catch (NumberFormatException e) {return null;}
+    }
+
+    /**
+     * Appends the rejection of an answer.
+     *
+     * @param out the buffer receiving the line
+     * @param reason the reason of the rejection
+     */
+    public static void appendError(StringBuilder out, String reason)
+    {
+        out.append("ERR ").append(reason).append('\n');
+    }
+
+    /**
+     * Appends the notice that a decision was played for the client when its turn timer expired.
+     *
+     * @param out the buffer receiving the line
+     * @param request the decision that timed out
+     */
+    public static void appendTimeout(StringBuilder out, InputDriver.Request request)
+    {
+        out.append("TIMEOUT ").append(request.name()).append('\n');
+    }
+
+    /**
+     * Appends the farewell of the server.
+     *
+     * @param out the buffer receiving the line
+     */
+    public static void appendBye(StringBuilder out)
+    {
+        out.append("BYE\n");
+    }
+
+    /**
+     * Appends a space-separated list of tiles.
+     *
+     * @param out the buffer receiving the tiles
+     * @param tiles the tiles to append
+     */
+    private static void appendTiles(StringBuilder out, List<Tile> tiles)
+    {
+        for(Tile tile : tiles) appendTile(out.append(' '), tile);
+    }
+
+    /**
+     * Appends a tile in the format left|right.
+     *
+     * @param out the buffer receiving the tile
+     * @param tile the tile to append
+     */
+    private static void appendTile(StringBuilder out, Tile tile)
+    {
+        out.append(tile.getLeft()).append('|').append(tile.getRight());
+    }
+
+    /**
+     * Checks whether the hand of a seat is shown to a viewer.
+     *
+     * @param model the model of the table
+     * @param seat the turn index of the seat
+     * @param viewer the seat of the viewer, or -1 for a client playing every human seat
+     * @return {@code true} if the seat is a human seat visible to the viewer
+     */
+    private static boolean isShownSeat(DominoModel model, int seat, int viewer)
+    {
+        return (viewer < 0 || seat == viewer) && isHumanSeat(model, seat);
+    }
+
+    /**
+     * Checks whether a field of a {@code JOIN} line is a flag.
+     *
+     * @param field the field
+     * @return {@code true} if the field is {@code 0} or {@code 1}
+     */
+    private static boolean isFlag(String field)
+    {
+        return field.equals("0") || field.equals("1");
+    }
+
+    /**
+     * Checks whether a seat is played by the remote client.
+     *
+     * @param model the model of the table
+     * @param seat the turn index of the seat
+     * @return {@code true} if the seat is a human seat; {@code false} for a CPU seat
+     */
+    private static boolean isHumanSeat(DominoModel model, int seat)
+    {
+        return !(model.getPlayer(seat) instanceof CPUPlayer);
+    }
+}
@@ -0,0 +1,209 @@
+package com.domino.app.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays many loopback clients against a {@link TableServer} and reports its throughput.
+ * <p>
+ * Every client opens one table on its own virtual thread and answers every prompt
+ * with the first option, playing again from the end of match menu until it has
+ * played the requested number of matches. The time between an answer and the next
+ * prompt is measured as the latency of a decision.
+ * </p>
+ * <p>
+ * Usage: {@code LoadGenerator [--clients=n] [--matches=n] [--host=name] [--port=n]}.
+ * Without a port, a server is started in process on an ephemeral port.
+ * </p>
+ */
+public class LoadGenerator
+{
+    private static final byte[] FIRST_OPTION = "0\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PLAY_AGAIN = "1\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUIT = "2\n".getBytes(StandardCharsets.US_ASCII);
+    private static final String PROMPT = "SELECT: ";
+    private static final String END_MATCH_MENU = "END OF MATCH MENU";
+    private static final int WINDOW_SIZE = 4096; // Characters of output kept to recognize prompts
+
+    private final InetAddress host; // Address of the server
+    private final int port; // Port of the server
+    private final int matchesPerClient; // Matches played by every client
+
+    private final LongAdder decisions; // Number of prompts answered
+    private final LongAdder totalLatencyNanos; // Sum of the decision latencies
+    private final LongAccumulator maxLatencyNanos; // Highest decision latency
+    private final AtomicLong failedClients; // Number of clients that lost their connection
+
+    /**
+     * Creates a load generator for the server at the given address.
+     *
+     * @param host the address of the server
+     * @param port the port of the server
+     * @param matchesPerClient the number of matches played by every client
+     */
+    public LoadGenerator(InetAddress host, int port, int matchesPerClient)
+    {
+        this.host = host;
+        this.port = port;
+        this.matchesPerClient = matchesPerClient;
+        this.decisions = new LongAdder();
+        this.totalLatencyNanos = new LongAdder();
+        this.maxLatencyNanos = new LongAccumulator(Math::max, 0);
+        this.failedClients = new AtomicLong();
+    }
+
+    /**
+     * Plays the given number of clients concurrently and waits for all of them to quit.
+     *
+     * @param clients the number of clients
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void run(int clients) throws InterruptedException
+    {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for(int i = 0; i < clients; i++) futures.add(executor.submit(this::playClient));
+            for(Future<?> future : futures)
+            {
+                try {future.get();}
+                catch (ExecutionException e) {failedClients.incrementAndGet();}
+            }
+        }
+    }
+
+    /**
+     * Plays one client until it quits or the connection is lost.
+     */
+    private void playClient()
+    {
+        try (Socket socket = new Socket(host, port))
+        {
+            socket.setTcpNoDelay(true);
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+
+            byte[] buffer = new byte[WINDOW_SIZE];
+            StringBuilder window = new StringBuilder(WINDOW_SIZE);
+            int matchesPlayed = 0;
+            long answeredAt = 0;
+
+            int read;
+            while ((read = in.read(buffer)) != -1)
+            {
+                for(int i = 0; i < read; i++) window.append((char) buffer[i]);
+                if(window.length() > WINDOW_SIZE) window.delete(0, window.length() - WINDOW_SIZE);
+
+                // A prompt ends the output of the server until it is answered
+                if(!endsWith(window, PROMPT) || in.available() > 0) continue;
+
+                long now = System.nanoTime();
+                if(answeredAt != 0) recordLatency(now - answeredAt);
+
+                byte[] answer = FIRST_OPTION;
+                if(window.indexOf(END_MATCH_MENU) >= 0)
+                {
+                    matchesPlayed++;
+                    answer = matchesPlayed < matchesPerClient? PLAY_AGAIN : QUIT;
+                }
+                window.setLength(0);
+
+                answeredAt = System.nanoTime();
+                out.write(answer);
+                out.flush();
+            }
+        }
+        catch (IOException e)
+        {
+            failedClients.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records the latency of one decision.
+     *
+     * @param nanos the time between the answer and the next prompt
+     */
+    private void recordLatency(long nanos)
+    {
+        decisions.increment();
+        totalLatencyNanos.add(nanos);
+        maxLatencyNanos.accumulate(nanos);
+    }
+
+    /**
+     * Checks whether the text ends with the given suffix.
+     *
+     * @param text the text to check
+     * @param suffix the expected suffix
+     * @return {@code true} if the text ends with the suffix; {@code false} otherwise
+     */
+    private static boolean endsWith(CharSequence text, String suffix)
+    {
+        int offset = text.length() - suffix.length();
+        if(offset < 0) return false;
+        for(int i = 0; i < suffix.length(); i++)
+        {
+            if(text.charAt(offset + i) != suffix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs the load generator and prints its report.
+     *
+     * @param args the command-line arguments
+     * @throws IOException if the in-process server cannot be started
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        int clients = 1000;
+        int matches = 5;
+        String hostName = "localhost";
+        int port = 0;
+        for(String arg : args)
+        {
+            if(arg.startsWith("--clients=")) clients = Integer.parseInt(arg.substring("--clients=".length()));
+            else if(arg.startsWith("--matches=")) matches = Integer.parseInt(arg.substring("--matches=".length()));
+            else if(arg.startsWith("--host=")) hostName = arg.substring("--host=".length());
+            else if(arg.startsWith("--port=")) port = Integer.parseInt(arg.substring("--port=".length()));
+        }
+
+        TableServer server = null;
+        if(port == 0)
+        {
+            server = new TableServer(0);
+            server.start();
+            port = server.getPort();
+        }
+
+        LoadGenerator generator = new LoadGenerator(InetAddress.getByName(hostName), port, matches);
+        long start = System.nanoTime();
+        generator.run(clients);
+        long elapsed = System.nanoTime() - start;
+        if(server != null) server.close();
+
+        long decisions = generator.decisions.sum();
+        double seconds = elapsed / 1e9;
+        System.out.printf("Clients: %d, matches per client: %d, failed clients: %d%n",
+                clients, matches, generator.failedClients.get());
+        System.out.printf("Decisions: %d in %.2f s (%.0f decisions/s)%n", decisions, seconds, decisions / seconds);
+        System.out.printf("Decision latency: avg %.3f ms, max %.3f ms%n",
+                decisions == 0? 0.0 : generator.totalLatencyNanos.sum() / 1e6 / decisions,
+                generator.maxLatencyNanos.get() / 1e6);
+    }
+}
@@ -0,0 +1,225 @@
+package com.domino.app.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Joins many loopback bots to the lobby of a {@link ProtocolServer} and reports how
+ * fast they are seated.
+ * <p>
+ * Every bot joins one of the first buckets of a fixed list of settings, plays the match
+ * of the table it is given with the first option of every {@code ASK}, and joins again
+ * until it has played the requested number of matches. All the bots join at once, so the
+ * matchmaker sees a burst of joins spread over the buckets.
+ * </p>
+ * <p>
+ * Usage: {@code LobbyLoadGenerator [--clients=n] [--matches=n] [--buckets=n] [--backfill=ms]
+ * [--host=name] [--port=n]}. Without a port, a server is started in process on ephemeral
+ * ports with the given backfill delay.
+ * </p>
+ */
+public class LobbyLoadGenerator
+{
+    private static final Matchmaker.Key[] BUCKETS = {
+            new Matchmaker.Key(4, 0, 6, true, true),
+            new Matchmaker.Key(2, 0, 6, true, true),
+            new Matchmaker.Key(3, 0, 6, true, true),
+            new Matchmaker.Key(4, 0, 9, true, true),
+            new Matchmaker.Key(2, 0, 6, false, false),
+            new Matchmaker.Key(3, 1, 8, true, false)
+    };
+    private static final byte[] FIRST_OPTION = "0\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final InetAddress host; // Address of the server
+    private final int port; // Lobby port of the server
+    private final int matchesPerClient; // Matches played by every bot
+    private final int buckets; // Number of buckets the bots are spread over
+
+    private final LongAdder matches; // Number of matches played
+    private final LongAdder totalSeatingNanos; // Sum of the times between JOIN and MATCHED
+    private final LongAccumulator maxSeatingNanos; // Longest time between JOIN and MATCHED
+    private final LongAdder failedClients; // Number of bots that lost their connection
+
+    /**
+     * Creates a load generator for the lobby at the given address.
+     *
+     * @param host the address of the server
+     * @param port the lobby port of the server
+     * @param matchesPerClient the number of matches played by every bot
+     * @param buckets the number of buckets the bots are spread over
+     */
+    public LobbyLoadGenerator(InetAddress host, int port, int matchesPerClient, int buckets)
+    {
+        this.host = host;
+        this.port = port;
+        this.matchesPerClient = matchesPerClient;
+        this.buckets = Math.max(1, Math.min(buckets, BUCKETS.length));
+        this.matches = new LongAdder();
+        this.totalSeatingNanos = new LongAdder();
+        this.maxSeatingNanos = new LongAccumulator(Math::max, 0);
+        this.failedClients = new LongAdder();
+    }
+
+    /**
+     * Plays the given number of bots concurrently and waits for all of them to finish.
+     *
+     * @param clients the number of bots
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void run(int clients) throws InterruptedException
+    {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for(int i = 0; i < clients; i++)
+            {
+                Matchmaker.Key key = BUCKETS[i % buckets];
+                futures.add(executor.submit(() -> playClient(key)));
+            }
+            for(Future<?> future : futures)
+            {
+                try {future.get();}
+                catch (ExecutionException e) {failedClients.increment();}
+            }
+        }
+    }
+
+    /**
+     * Plays the matches of one bot, joining the lobby again for each of them.
+     *
+     * @param key the settings the bot joins with
+     */
+    private void playClient(Matchmaker.Key key)
+    {
+        byte[] join = ("JOIN " + key.numOfPlayers() + ' ' + key.minDots() + ' ' + key.maxDots()
+                + (key.hideOpponentTiles()? " 1" : " 0") + (key.hideBoneyardTiles()? " 1" : " 0") + '\n')
+                .getBytes(StandardCharsets.US_ASCII);
+        try
+        {
+            for(int match = 0; match < matchesPerClient; match++)
+            {
+                if(!playMatch(join))
+                {
+                    failedClients.increment();
+                    return;
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            failedClients.increment();
+        }
+    }
+
+    /**
+     * Joins the lobby and plays the match of the table given to the bot.
+     *
+     * @param join the JOIN line of the bot
+     * @return {@code true} if the match ended with {@code BYE}
+     * @throws IOException if the connection fails
+     */
+    private boolean playMatch(byte[] join) throws IOException
+    {
+        try (Socket socket = new Socket(host, port))
+        {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+
+            long joinedAt = System.nanoTime();
+            out.write(join);
+            out.flush();
+
+            String line;
+            while ((line = in.readLine()) != null && !line.equals("BYE"))
+            {
+                if(line.startsWith("MATCHED "))
+                {
+                    long seating = System.nanoTime() - joinedAt;
+                    totalSeatingNanos.add(seating);
+                    maxSeatingNanos.accumulate(seating);
+                }
+                else if(line.startsWith("ASK ") || line.startsWith("TIMEOUT "))
+                {
+                    out.write(FIRST_OPTION);
+                    out.flush();
+                }
+                else if(line.startsWith("ERR INVALID_SETTINGS")) return false;
+            }
+            if(line == null) return false;
+            matches.increment();
+            return true;
+        }
+    }
+
+    /**
+     * Runs the load generator and prints its report.
+     *
+     * @param args the command-line options
+     * @throws IOException if the in-process server cannot be started
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        int clients = 1000;
+        int matches = 3;
+        int buckets = 4;
+        long backfillMillis = 1000;
+        String hostName = "localhost";
+        int port = 0;
+        for(String arg : args)
+        {
+            if(arg.startsWith("--clients=")) clients = Integer.parseInt(arg.substring("--clients=".length()));
+            else if(arg.startsWith("--matches=")) matches = Integer.parseInt(arg.substring("--matches=".length()));
+            else if(arg.startsWith("--buckets=")) buckets = Integer.parseInt(arg.substring("--buckets=".length()));
+            else if(arg.startsWith("--backfill=")) backfillMillis = Long.parseLong(arg.substring("--backfill=".length()));
+            else if(arg.startsWith("--host=")) hostName = arg.substring("--host=".length());
+            else if(arg.startsWith("--port=")) port = Integer.parseInt(arg.substring("--port=".length()));
+        }
+
+        ProtocolServer server = null;
+        if(port == 0)
+        {
+            server = new ProtocolServer(0, -1, 0);
+            server.getLobby().setBackfillMillis(backfillMillis);
+            server.start();
+            port = server.getLobbyPort();
+        }
+
+        LobbyLoadGenerator generator = new LobbyLoadGenerator(InetAddress.getByName(hostName), port, matches, buckets);
+        long start = System.nanoTime();
+        generator.run(clients);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long played = generator.matches.sum();
+        System.out.printf("Clients: %d, matches per client: %d, buckets: %d, failed clients: %d%n",
+                clients, matches, generator.buckets, generator.failedClients.sum());
+        System.out.printf("Joins: %d in %.2f s (%.0f joins/s)%n", played, seconds, played / seconds);
+        System.out.printf("Seating latency: avg %.3f ms, max %.3f ms%n",
+                played == 0? 0.0 : generator.totalSeatingNanos.sum() / 1e6 / played,
+                generator.maxSeatingNanos.get() / 1e6);
+        if(server != null)
+        {
+            for(Matchmaker.BucketStats bucket : server.getLobby().getStats())
+            {
+                System.out.printf("Bucket %s: %d joins, %d tables, %d CPU seats, %d waiting, wait avg %.3f ms, max %.3f ms%n",
+                        bucket.key(), bucket.joins(), bucket.tables(), bucket.cpuSeats(), bucket.waiting(),
+                        bucket.averageWaitMillis(), bucket.maxWaitMillis());
+            }
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.domino.app.server;
+
+import com.domino.app.controller.TimingWheel;
+import com.domino.app.model.DominoSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Groups waiting players into tables of compatible settings.
+ * <p>
+ * Players join the bucket of the settings they asked for. Joining only appends a
+ * ticket to the lock-free queue of the bucket and increments its counter; whichever
+ * thread sees enough waiting players takes the lock of that bucket alone and forms
+ * as many full tables as it can, while the other joiners return at once. Buckets
+ * never share a lock, so joins for different settings never contend.
+ * </p>
+ * <p>
+ * A player still waiting after the backfill delay is seated with the players of its
+ * bucket waiting at that time, and the empty seats are given to CPU players. The delay
+ * runs on the {@link TimingWheel} of the server, so a waiting player costs a ticket and
+ * a timer entry, not a thread. Every bucket reports how long its players waited.
+ * </p>
+ *
+ * @param <P> the type of the waiting players
+ */
+public class Matchmaker<P>
+{
+    private static final int WAITING = 0; // Ticket waiting in its bucket
+    private static final int MATCHED = 1; // Ticket seated at a table
+    private static final int CANCELLED = 2; // Ticket withdrawn by its player
+    private static final long BACKFILL_RETRY_MILLIS = 1; // Delay before a backfill finding its bucket locked tries again
+
+    /**
+     * Starts the tables formed by the matchmaker.
+     *
+     * @param <P> the type of the seated players
+     */
+    @FunctionalInterface
+    public interface TableStarter<P>
+    {
+        /**
+         * Starts a table. Called while the bucket of the table is locked, so it must
+         * hand the table over to another thread and return at once.
+         *
+         * @param key the settings of the table
+         * @param players the players seated at the table, in seat order; the seats after
+         *                them are played by CPU players
+         */
+        void startTable(Key key, List<P> players);
+    }
+
+    /**
+     * The settings players are matched on.
+     *
+     * @param numOfPlayers the number of seats at the table
+     * @param minDots the minimum number of pips on the tiles
+     * @param maxDots the maximum number of pips on the tiles
+     * @param hideOpponentTiles whether the tiles of the opponents are hidden
+     * @param hideBoneyardTiles whether the tiles of the boneyard are hidden
+     */
+    public record Key(int numOfPlayers, int minDots, int maxDots, boolean hideOpponentTiles, boolean hideBoneyardTiles)
+    {
+        /**
+         * Gets the key of the given settings, whatever their number of human players.
+         *
+         * @param settings the settings
+         * @return the key of the settings
+         */
+        public static Key of(DominoSettings settings)
+        {
+            return new Key(settings.getNumOfPlayers(), settings.getMinDots(), settings.getMaxDots(),
+                    settings.isHideOpponentTiles(), settings.isHideBoneyardTiles());
+        }
+
+        /**
+         * Creates the settings of a table of this key.
+         *
+         * @param numOfHumanPlayers the number of players seated by the matchmaker
+         * @return the settings of the table
+         */
+        public DominoSettings toSettings(int numOfHumanPlayers)
+        {
+            DominoSettings settings = new DominoSettings();
+            settings.setNumOfPlayers(numOfPlayers);
+            settings.setNumOfHumanPlayers(numOfHumanPlayers);
+            settings.setMinDots(minDots);
+            settings.setMaxDots(maxDots);
+            settings.setHideOpponentTiles(hideOpponentTiles);
+            settings.setHideBoneyardTiles(hideBoneyardTiles);
+            return settings;
+        }
+    }
+
+    /**
+     * The metrics of a bucket.
+     *
+     * @param key the settings of the bucket
+     * @param waiting the number of players waiting
+     * @param joins the number of players that joined
+     * @param cancelled the number of players that left before being seated
+     * @param tables the number of tables formed
+     * @param cpuSeats the number of seats given to CPU players
+     * @param averageWaitMillis the average time seated players waited
+     * @param maxWaitMillis the longest time a seated player waited
+     */
+    public record BucketStats(Key key, int waiting, long joins, long cancelled, long tables, long cpuSeats,
+                              double averageWaitMillis, double maxWaitMillis) {}
+
+    /**
+     * The place of a player in the queue of its bucket.
+     */
+    public final class Ticket
+    {
+        private final P player; // The waiting player
+        private final Bucket bucket; // Bucket the player waits in
+        private final long joinedNanos; // Time the player joined
+        private final AtomicInteger state; // WAITING, MATCHED or CANCELLED
+        private volatile TimingWheel.Timeout backfill; // Timer seating the player with CPU players, null without backfill
+
+        private Ticket(P player, Bucket bucket)
+        {
+            this.player = player;
+            this.bucket = bucket;
+            this.joinedNanos = System.nanoTime();
+            this.state = new AtomicInteger(WAITING);
+        }
+
+        /**
+         * Withdraws the player from the queue if it has not been seated yet.
+         *
+         * @return {@code true} if the player was withdrawn; {@code false} if it was already seated
+         */
+        public boolean cancel()
+        {
+            if(!state.compareAndSet(WAITING, CANCELLED)) return false;
+            bucket.waiting.decrementAndGet();
+            bucket.cancelled.increment();
+            if(backfill != null) backfill.cancel();
+            return true;
+        }
+    }
+
+    /**
+     * The players waiting for the same settings.
+     */
+    private final class Bucket
+    {
+        private final Key key; // Settings of the bucket
+        private final Queue<Ticket> queue; // Tickets in joining order, including cancelled ones not yet skipped
+        private final AtomicInteger waiting; // Number of tickets still waiting
+        private final ReentrantLock forming; // Held by the thread forming tables for the bucket
+
+        private final LongAdder joins; // Number of players that joined
+        private final LongAdder cancelled; // Number of players that left before being seated
+        private final LongAdder tables; // Number of tables formed
+        private final LongAdder cpuSeats; // Number of seats given to CPU players
+        private final LongAdder seated; // Number of players seated
+        private final LongAdder totalWaitNanos; // Sum of the waiting times of the seated players
+        private final LongAccumulator maxWaitNanos; // Longest waiting time of a seated player
+
+        private Bucket(Key key)
+        {
+            this.key = key;
+            this.queue = new ConcurrentLinkedQueue<>();
+            this.waiting = new AtomicInteger();
+            this.forming = new ReentrantLock();
+            this.joins = new LongAdder();
+            this.cancelled = new LongAdder();
+            this.tables = new LongAdder();
+            this.cpuSeats = new LongAdder();
+            this.seated = new LongAdder();
+            this.totalWaitNanos = new LongAdder();
+            this.maxWaitNanos = new LongAccumulator(Math::max, 0);
+        }
+    }
+
+    private final Map<Key, Bucket> buckets; // Buckets by settings
+    private final TableStarter<P> starter; // Receiver of the formed tables
+    private final TimingWheel timers; // Wheel running the backfill timers
+    private volatile long backfillMillis; // Time a player waits before CPU players fill its table, 0 to never backfill
+
+    /**
+     * Creates a matchmaker.
+     *
+     * @param starter the receiver of the formed tables
+     * @param timers the wheel running the backfill timers
+     * @param backfillMillis the time a player waits before CPU players fill its table,
+     *                       or 0 to wait for a full table of players
+     */
+    public Matchmaker(TableStarter<P> starter, TimingWheel timers, long backfillMillis)
+    {
+        this.buckets = new ConcurrentHashMap<>();
+        this.starter = starter;
+        this.timers = timers;
+        this.backfillMillis = backfillMillis;
+    }
+
+    /**
+     * Sets the time a player waits before CPU players fill its table, for the players joining from now on.
+     *
+     * @param backfillMillis the backfill delay, or 0 to wait for a full table of players
+     */
+    public void setBackfillMillis(long backfillMillis) {this.backfillMillis = backfillMillis;}
+
+    /**
+     * Adds a player to the bucket of the given settings, forming the tables it completes.
+     *
+     * @param key the settings the player asked for
+     * @param player the player
+     * @return the ticket of the player, withdrawing it when cancelled
+     */
+    public Ticket join(Key key, P player)
+    {
+        Bucket bucket = buckets.computeIfAbsent(key, Bucket::new);
+        Ticket ticket = new Ticket(player, bucket);
+        bucket.joins.increment();
+        long delay = backfillMillis;
+        if(delay > 0) ticket.backfill = timers.schedule(delay, TimeUnit.MILLISECONDS, () -> backfill(ticket));
+
+        bucket.queue.offer(ticket);
+        bucket.waiting.incrementAndGet();
+
+        // Another thread forming tables for the bucket will see this ticket, check again once it is done
+        while (bucket.waiting.get() >= key.numOfPlayers() && bucket.forming.tryLock())
+        {
+            try {formFullTables(bucket);}
+            finally {bucket.forming.unlock();}
+        }
+        return ticket;
+    }
+
+    /**
+     * Gets the metrics of every bucket.
+     *
+     * @return the metrics of the buckets that ever had a player
+     */
+    public List<BucketStats> getStats()
+    {
+        List<BucketStats> stats = new ArrayList<>(buckets.size());
+        for(Bucket bucket : buckets.values())
+        {
+            long seated = bucket.seated.sum();
+            stats.add(new BucketStats(bucket.key, bucket.waiting.get(), bucket.joins.sum(),
+                    bucket.cancelled.sum(), bucket.tables.sum(), bucket.cpuSeats.sum(),
+                    seated == 0? 0 : bucket.totalWaitNanos.sum() / 1e6 / seated,
+                    bucket.maxWaitNanos.get() / 1e6));
+        }
+        return stats;
+    }
+
+    /**
+     * Gets the number of players waiting in every bucket.
+     *
+     * @return the number of waiting players
+     */
+    public int getWaiting()
+    {
+        int waiting = 0;
+        for(Bucket bucket : buckets.values()) waiting += bucket.waiting.get();
+        return waiting;
+    }
+
+    /**
+     * Forms tables while the bucket has enough waiting players. Called while holding the lock of the bucket.
+     *
+     * @param bucket the bucket
+     */
+    private void formFullTables(Bucket bucket)
+    {
+        int seats = bucket.key.numOfPlayers();
+        while (bucket.waiting.get() >= seats) formTable(bucket, seats);
+    }
+
+    /**
+     * Seats a player that waited for the backfill delay, with the players waiting
+     * with it and CPU players in the remaining seats. Called on the thread of the wheel,
+     * which must not block: when a joining thread holds the lock of the bucket, the
+     * backfill is tried again on a later tick.
+     *
+     * @param ticket the ticket whose timer expired
+     */
+    private void backfill(Ticket ticket)
+    {
+        if(ticket.state.get() != WAITING) return;
+
+        Bucket bucket = ticket.bucket;
+        if(!bucket.forming.tryLock())
+        {
+            ticket.backfill = timers.schedule(BACKFILL_RETRY_MILLIS, TimeUnit.MILLISECONDS, () -> backfill(ticket));
+            return;
+        }
+        try
+        {
+            formFullTables(bucket);
+            if(ticket.state.get() == WAITING) formTable(bucket, Math.min(bucket.waiting.get(), bucket.key.numOfPlayers()));
+        }
+        finally {bucket.forming.unlock();}
+    }
+
+    /**
+     * Seats the first waiting players of a bucket at a new table. Called while holding the lock of the bucket.
+     * A player that leaves while the table is formed is replaced by a CPU player.
+     *
+     * @param bucket the bucket
+     * @param count the number of players to seat
+     */
+    private void formTable(Bucket bucket, int count)
+    {
+        List<P> players = new ArrayList<>(count);
+        long now = System.nanoTime();
+        Ticket ticket;
+        while (players.size() < count && (ticket = bucket.queue.poll()) != null)
+        {
+            if(!ticket.state.compareAndSet(WAITING, MATCHED)) continue; // Cancelled while waiting
+            bucket.waiting.decrementAndGet();
+            // The wheel never waits for a bucket, so its lock can be taken under the lock of the bucket
+            TimingWheel.Timeout timeout = ticket.backfill;
+            if(timeout != null) timeout.cancel();
+
+            long waited = now - ticket.joinedNanos;
+            bucket.seated.increment();
+            bucket.totalWaitNanos.add(waited);
+            bucket.maxWaitNanos.accumulate(waited);
+            players.add(ticket.player);
+        }
+        if(players.isEmpty()) return;
+
+        bucket.tables.increment();
+        bucket.cpuSeats.add(bucket.key.numOfPlayers() - players.size());
+        starter.startTable(bucket.key, players);
+    }
+}
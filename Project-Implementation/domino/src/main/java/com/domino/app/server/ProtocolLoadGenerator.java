@@ -0,0 +1,337 @@
+package com.domino.app.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays many loopback bots against a {@link ProtocolServer} and reports the latency
+ * of every move and the number of connections served per core.
+ * <p>
+ * Every bot answers each {@code ASK} with the first option, and plays again from
+ * the end of match menu until it has played the requested number of matches. All
+ * bots stay connected until they quit, so the peak number of open connections is
+ * the number of bots.
+ * </p>
+ * <p>
+ * Spectators can be added to the tables of the bots: watchers read every move as it
+ * is sent, while slow watchers read nothing until the bots are done, so their queues
+ * overflow and they are resynchronized from snapshots. Neither kind should change the
+ * latency of the moves.
+ * </p>
+ * <p>
+ * Idle bots only answer a tile or side request once it has timed out, relying on the
+ * turn timers of the server to play for them, which keeps one timer pending per idle table.
+ * </p>
+ * <p>
+ * Usage: {@code ProtocolLoadGenerator [--clients=n] [--idle=n] [--matches=n] [--watchers=n]
+ * [--slow-watchers=n] [--turn-timeout=ms] [--think-delay=ms] [--host=name] [--port=n]
+ * [--spectator-port=n]}. Without a port, a server is started in process on ephemeral ports
+ * with the given timers; idle bots are part of the clients.
+ * </p>
+ */
+public class ProtocolLoadGenerator
+{
+    private static final byte[] FIRST_OPTION = "0\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PLAY_AGAIN = "1\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUIT = "2\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final InetAddress host; // Address of the server
+    private final int port; // Port of the server
+    private final int spectatorPort; // Spectator port of the server, -1 without spectators
+    private final int matchesPerClient; // Matches played by every bot
+
+    private final LongAdder moves; // Number of requests answered
+    private final LongAdder totalLatencyNanos; // Sum of the move latencies
+    private final LongAccumulator maxLatencyNanos; // Highest move latency
+    private final LongAdder rejectedAnswers; // Number of ERR messages received
+    private final LongAdder timedOutMoves; // Number of TIMEOUT messages received
+    private final AtomicLong failedClients; // Number of bots that lost their connection
+
+    private final List<Long> tableIds; // Tables opened by the bots, watched by the spectators
+    private final CountDownLatch tablesOpened; // Released once every bot has its table
+    private volatile boolean botsDone; // Whether every bot has quit, releasing the slow watchers
+    private final LongAdder watchedMoves; // Number of moves received by the watchers
+    private final LongAdder watchedSnapshots; // Number of snapshots received by the watchers
+    private final LongAdder rejectedWatchers; // Number of watchers whose table was already over
+
+    /**
+     * Creates a load generator for the server at the given address.
+     *
+     * @param host the address of the server
+     * @param port the port of the server
+     * @param spectatorPort the spectator port of the server, or -1 to run without spectators
+     * @param clients the number of bots
+     * @param matchesPerClient the number of matches played by every bot
+     */
+    public ProtocolLoadGenerator(InetAddress host, int port, int spectatorPort, int clients, int matchesPerClient)
+    {
+        this.host = host;
+        this.port = port;
+        this.spectatorPort = spectatorPort;
+        this.matchesPerClient = matchesPerClient;
+        this.moves = new LongAdder();
+        this.totalLatencyNanos = new LongAdder();
+        this.maxLatencyNanos = new LongAccumulator(Math::max, 0);
+        this.rejectedAnswers = new LongAdder();
+        this.timedOutMoves = new LongAdder();
+        this.failedClients = new AtomicLong();
+        this.tableIds = new CopyOnWriteArrayList<>();
+        this.tablesOpened = new CountDownLatch(clients);
+        this.watchedMoves = new LongAdder();
+        this.watchedSnapshots = new LongAdder();
+        this.rejectedWatchers = new LongAdder();
+    }
+
+    /**
+     * Plays the bots concurrently, adds the spectators once every table is open,
+     * and waits for all the bots to quit and the spectators to be sent away.
+     *
+     * @param clients the number of bots
+     * @param idleClients the number of bots among them that let their turn timers play for them
+     * @param watchers the number of spectators reading every move
+     * @param slowWatchers the number of spectators reading nothing until the bots are done
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void run(int clients, int idleClients, int watchers, int slowWatchers) throws InterruptedException
+    {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            List<Future<?>> bots = new ArrayList<>(clients);
+            for(int i = 0; i < clients; i++)
+            {
+                boolean idle = i < idleClients;
+                bots.add(executor.submit(() -> playClient(idle)));
+            }
+
+            List<Future<?>> spectators = new ArrayList<>(watchers + slowWatchers);
+            if(watchers + slowWatchers > 0)
+            {
+                tablesOpened.await();
+                for(int i = 0; i < watchers + slowWatchers; i++)
+                {
+                    long tableId = tableIds.get(i % tableIds.size());
+                    boolean slow = i >= watchers;
+                    spectators.add(executor.submit(() -> watchTable(tableId, slow)));
+                }
+            }
+
+            for(Future<?> bot : bots)
+            {
+                try {bot.get();}
+                catch (ExecutionException e) {failedClients.incrementAndGet();}
+            }
+            botsDone = true;
+            for(Future<?> spectator : spectators)
+            {
+                try {spectator.get();}
+                catch (ExecutionException e) {rejectedWatchers.increment();}
+            }
+        }
+    }
+
+    /**
+     * Plays one bot until it receives {@code BYE} or the connection is lost.
+     *
+     * @param idle whether the bot leaves its tiles and sides to its turn timer
+     */
+    private void playClient(boolean idle)
+    {
+        try (Socket socket = new Socket(host, port))
+        {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+
+            int matchesPlayed = 0;
+            long answeredAt = 0;
+
+            String line;
+            while ((line = in.readLine()) != null && !line.equals("BYE"))
+            {
+                if(line.startsWith("HELLO "))
+                {
+                    tableIds.add(Long.parseLong(line.substring(line.lastIndexOf(' ') + 1)));
+                    tablesOpened.countDown();
+                }
+                if(line.startsWith("ERR")) rejectedAnswers.increment();
+                if(line.startsWith("TIMEOUT "))
+                {
+                    timedOutMoves.increment();
+                    if(idle)
+                    {
+                        out.write(FIRST_OPTION); // The late answer owed for the timed out request
+                        out.flush();
+                    }
+                }
+                if(!line.startsWith("ASK ")) continue;
+
+                if(answeredAt != 0) recordLatency(System.nanoTime() - answeredAt);
+                answeredAt = 0;
+                if(idle && (line.startsWith("ASK TILE") || line.startsWith("ASK SIDE"))) continue;
+
+                byte[] answer = FIRST_OPTION;
+                if(line.startsWith("ASK END_MATCH_OPTION"))
+                {
+                    matchesPlayed++;
+                    answer = matchesPlayed < matchesPerClient? PLAY_AGAIN : QUIT;
+                }
+
+                answeredAt = System.nanoTime();
+                out.write(answer);
+                out.flush();
+            }
+            if(line == null) failedClients.incrementAndGet();
+        }
+        catch (IOException e)
+        {
+            failedClients.incrementAndGet();
+        }
+        finally
+        {
+            tablesOpened.countDown(); // A bot that failed before its greeting must not block the spectators
+        }
+    }
+
+    /**
+     * Watches a table until the server sends the spectator away.
+     *
+     * @param tableId the id of the table
+     * @param slow whether the spectator reads nothing until the bots are done
+     * @throws IOException if the connection fails
+     * @throws InterruptedException if the spectator is interrupted
+     */
+    private Void watchTable(long tableId, boolean slow) throws IOException, InterruptedException
+    {
+        try (Socket socket = new Socket(host, spectatorPort))
+        {
+            socket.getOutputStream().write(("WATCH " + tableId + "\n").getBytes(StandardCharsets.US_ASCII));
+            socket.getOutputStream().flush();
+            while (slow && !botsDone) Thread.sleep(10);
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String line;
+            while ((line = in.readLine()) != null && !line.equals("BYE"))
+            {
+                if(line.startsWith("SEQ ")) watchedMoves.increment();
+                else if(line.startsWith("SNAPSHOT ")) watchedSnapshots.increment();
+                else if(line.startsWith("ERR")) rejectedWatchers.increment();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records the latency of one move.
+     *
+     * @param nanos the time between the answer and the next request
+     */
+    private void recordLatency(long nanos)
+    {
+        moves.increment();
+        totalLatencyNanos.add(nanos);
+        maxLatencyNanos.accumulate(nanos);
+    }
+
+    /**
+     * Runs the load generator and prints its report.
+     *
+     * @param args the command-line arguments
+     * @throws IOException if the in-process server cannot be started
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        int clients = 1000;
+        int matches = 5;
+        int idleClients = 0;
+        int watchers = 0;
+        int slowWatchers = 0;
+        long turnTimeoutMillis = 0;
+        long cpuThinkMillis = 0;
+        String hostName = "localhost";
+        int port = 0;
+        int spectatorPort = -1;
+        for(String arg : args)
+        {
+            if(arg.startsWith("--clients=")) clients = Integer.parseInt(arg.substring("--clients=".length()));
+            else if(arg.startsWith("--matches=")) matches = Integer.parseInt(arg.substring("--matches=".length()));
+            else if(arg.startsWith("--idle=")) idleClients = Integer.parseInt(arg.substring("--idle=".length()));
+            else if(arg.startsWith("--turn-timeout=")) turnTimeoutMillis = Long.parseLong(arg.substring("--turn-timeout=".length()));
+            else if(arg.startsWith("--think-delay=")) cpuThinkMillis = Long.parseLong(arg.substring("--think-delay=".length()));
+            else if(arg.startsWith("--watchers=")) watchers = Integer.parseInt(arg.substring("--watchers=".length()));
+            else if(arg.startsWith("--slow-watchers=")) slowWatchers = Integer.parseInt(arg.substring("--slow-watchers=".length()));
+            else if(arg.startsWith("--host=")) hostName = arg.substring("--host=".length());
+            else if(arg.startsWith("--port=")) port = Integer.parseInt(arg.substring("--port=".length()));
+            else if(arg.startsWith("--spectator-port=")) spectatorPort = Integer.parseInt(arg.substring("--spectator-port=".length()));
+        }
+
+        ProtocolServer server = null;
+        if(port == 0)
+        {
+            server = new ProtocolServer(0, 0);
+            server.setTurnTimers(turnTimeoutMillis, cpuThinkMillis);
+            server.start();
+            port = server.getPort();
+            spectatorPort = server.getSpectatorPort();
+        }
+        if(spectatorPort < 0)
+        {
+            watchers = 0;
+            slowWatchers = 0;
+        }
+
+        ProtocolLoadGenerator generator = new ProtocolLoadGenerator(InetAddress.getByName(hostName), port, spectatorPort, clients, matches);
+        long start = System.nanoTime();
+        generator.run(clients, idleClients, watchers, slowWatchers);
+        long elapsed = System.nanoTime() - start;
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        long moves = generator.moves.sum();
+        double seconds = elapsed / 1e9;
+        System.out.printf("Clients: %d, matches per client: %d, failed clients: %d, rejected answers: %d%n",
+                clients, matches, generator.failedClients.get(), generator.rejectedAnswers.sum());
+        System.out.printf("Connections per core: %.1f (%d cores, 1 selector thread)%n", (double) clients / cores, cores);
+        System.out.printf("Moves: %d in %.2f s (%.0f moves/s)%n", moves, seconds, moves / seconds);
+        System.out.printf("Move latency: avg %.3f ms, max %.3f ms%n",
+                moves == 0? 0.0 : generator.totalLatencyNanos.sum() / 1e6 / moves,
+                generator.maxLatencyNanos.get() / 1e6);
+        if(idleClients > 0 || turnTimeoutMillis > 0 || cpuThinkMillis > 0)
+        {
+            System.out.printf("Idle clients: %d, turn timeout: %d ms, CPU think delay: %d ms, timed out moves: %d%n",
+                    idleClients, turnTimeoutMillis, cpuThinkMillis, generator.timedOutMoves.sum());
+        }
+        if(watchers + slowWatchers > 0)
+        {
+            System.out.printf("Spectators: %d watchers, %d slow watchers, %d rejected%n",
+                    watchers, slowWatchers, generator.rejectedWatchers.sum());
+            System.out.printf("Spectator moves received: %d, snapshots received: %d%n",
+                    generator.watchedMoves.sum(), generator.watchedSnapshots.sum());
+        }
+        if(server != null)
+        {
+            System.out.printf("Output buffers allocated: %d%n", server.getBufferPool().getAllocated());
+            if(watchers + slowWatchers > 0)
+            {
+                System.out.printf("Spectator moves encoded: %d, resyncs: %d%n",
+                        server.getSpectatorFrames(), server.getSpectatorResyncs());
+            }
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,609 @@
+package com.domino.app.server;
+
+import com.domino.app.controller.DominoController;
+import com.domino.app.controller.TimingWheel;
+import com.domino.app.model.DominoModelImp;
+import com.domino.app.model.DominoSettings;
+import com.domino.app.monitoring.FlightRecording;
+import com.domino.app.monitoring.GameMetrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves tables to remote players and bots over the {@link LineProtocol}.
+ * <p>
+ * All the sockets are multiplexed by a single selector thread, which reads the
+ * answers of the clients and writes the pending output without ever blocking.
+ * Every table still runs its {@link DominoController} unchanged, on a virtual
+ * thread that parks whenever it waits for a decision of its client, so a
+ * connection costs a session and a parked continuation rather than an OS thread.
+ * Outgoing messages are written from pooled direct buffers.
+ * </p>
+ * <p>
+ * When a spectator port is configured, spectators can watch any table by its id.
+ * Each move of a table is encoded once by its {@link SpectatorBroadcaster} and the
+ * same bytes are written to all its spectators.
+ * </p>
+ * <p>
+ * Turn timers of the human seats and think delays of the CPU seats all run on one
+ * {@link TimingWheel}, so thousands of tables add entries to a wheel rather than
+ * scheduled tasks or sleeping threads.
+ * </p>
+ * <p>
+ * When a lobby port is configured, players connecting to it are not given a table of
+ * their own: they join the {@link Matchmaker} with the settings they ask for and are
+ * seated together, with CPU players filling the seats nobody took after a delay.
+ * </p>
+ */
+public class ProtocolServer implements AutoCloseable
+{
+    private static final int OUTPUT_BUFFER_SIZE = 2048; // Bytes per pooled output buffer
+    private static final int MAX_RETAINED_BUFFERS = 4096; // Idle output buffers kept by the pool
+    private static final long TIMER_TICK_MILLIS = 10; // Resolution of the turn timers
+    private static final int TIMER_TICKS_PER_WHEEL = 512; // Buckets of the timing wheel, about 5 s per revolution
+    private static final long DEFAULT_BACKFILL_MILLIS = 10_000; // Time lobby players wait before CPU players fill their table
+    private static final int MAX_LOBBY_DOTS = 12; // Highest number of pips lobby players may ask for
+    private static final Matchmaker.Key DEFAULT_LOBBY_KEY = Matchmaker.Key.of(new DominoSettings()); // Settings of a bare JOIN
+
+    private final Selector selector; // Selector multiplexing every connection
+    private final ServerSocketChannel serverChannel; // Channel accepting the connections
+    private final ServerSocketChannel spectatorChannel; // Channel accepting the spectators, null if disabled
+    private final ServerSocketChannel lobbyChannel; // Channel accepting the lobby players, null if disabled
+    private final DirectBufferPool pool; // Pool of output buffers shared by the sessions
+    private final Queue<SelectorSession> writeRequests; // Sessions with output queued by other threads
+    private final Map<Long, SpectatorBroadcaster> broadcasters; // Broadcasters of the tables being played, by table id
+    private final AtomicLong nextTableId; // Id given to the next table
+    private final ExecutorService tables; // Executor running one virtual thread per table
+    private final ExecutorService cpuMoves; // Executor shared by all tables for CPU decisions
+    private final TimingWheel timers; // Wheel running the turn timers of every table
+    private volatile long turnTimeoutMillis; // Time given to players to choose a move, 0 for no limit
+    private volatile long cpuThinkMillis; // Time CPU seats take before playing a move, 0 to play at once
+    private final LongAdder turnTimeouts; // Number of moves played for players whose timer expired
+    private final Matchmaker<RemoteSession> lobby; // Matchmaker seating the lobby players
+    private final AtomicInteger activeSessions; // Number of open player connections
+    private final AtomicInteger activeSpectators; // Number of open spectator connections
+    private final LongAdder spectatorResyncs; // Number of times a spectator was resynchronized
+    private final LongAdder spectatorFrames; // Number of moves encoded for spectators
+    private volatile boolean running; // Whether the selector loop keeps running
+
+    /**
+     * Creates a server listening on the given port.
+     *
+     * @param port the port to listen on, or {@code 0} for an ephemeral port
+     * @throws IOException if the port cannot be bound
+     */
+    public ProtocolServer(int port) throws IOException
+    {
+        this(port, -1);
+    }
+
+    /**
+     * Creates a server listening on the given ports.
+     *
+     * @param port the port to listen on, or {@code 0} for an ephemeral port
+     * @param spectatorPort the port spectators connect to, {@code 0} for an ephemeral port,
+     *                      or a negative value to disable spectators
+     * @throws IOException if a port cannot be bound
+     */
+    public ProtocolServer(int port, int spectatorPort) throws IOException
+    {
+        this(port, spectatorPort, -1);
+    }
+
+    /**
+     * Creates a server listening on the given ports.
+     *
+     * @param port the port to listen on, or {@code 0} for an ephemeral port
+     * @param spectatorPort the port spectators connect to, {@code 0} for an ephemeral port,
+     *                      or a negative value to disable spectators
+     * @param lobbyPort the port players waiting for a shared table connect to, {@code 0}
+     *                  for an ephemeral port, or a negative value to disable the lobby
+     * @throws IOException if a port cannot be bound
+     */
+    public ProtocolServer(int port, int spectatorPort, int lobbyPort) throws IOException
+    {
+        this.selector = Selector.open();
+        this.serverChannel = openServerChannel(port);
+        this.spectatorChannel = spectatorPort >= 0? openServerChannel(spectatorPort) : null;
+        this.lobbyChannel = lobbyPort >= 0? openServerChannel(lobbyPort) : null;
+        this.pool = new DirectBufferPool(OUTPUT_BUFFER_SIZE, MAX_RETAINED_BUFFERS);
+        this.writeRequests = new ConcurrentLinkedQueue<>();
+        this.broadcasters = new ConcurrentHashMap<>();
+        this.nextTableId = new AtomicLong(1);
+        this.tables = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("protocol-table-", 0).factory());
+        this.cpuMoves = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                Thread.ofPlatform().name("protocol-cpu-moves-", 0).daemon().factory());
+        this.timers = new TimingWheel(TIMER_TICK_MILLIS, TimeUnit.MILLISECONDS, TIMER_TICKS_PER_WHEEL);
+        this.turnTimeoutMillis = 0;
+        this.cpuThinkMillis = 0;
+        this.turnTimeouts = new LongAdder();
+        this.lobby = new Matchmaker<>(this::startLobbyTable, timers, DEFAULT_BACKFILL_MILLIS);
+        this.activeSessions = new AtomicInteger();
+        this.activeSpectators = new AtomicInteger();
+        this.spectatorResyncs = new LongAdder();
+        this.spectatorFrames = new LongAdder();
+    }
+
+    /**
+     * Starts the selector loop on its own thread.
+     */
+    public void start()
+    {
+        running = true;
+        timers.start();
+        Thread.ofPlatform().name("protocol-selector").start(this::runSelector);
+    }
+
+    /**
+     * Sets the timers applied to the tables started from now on.
+     *
+     * @param turnTimeoutMillis the time given to players to choose a move, or 0 for no limit
+     * @param cpuThinkMillis the time CPU seats take before playing a move, or 0 to play at once
+     */
+    public void setTurnTimers(long turnTimeoutMillis, long cpuThinkMillis)
+    {
+        this.turnTimeoutMillis = turnTimeoutMillis;
+        this.cpuThinkMillis = cpuThinkMillis;
+    }
+
+    /**
+     * Gets the number of moves played for players whose turn timer expired.
+     *
+     * @return the number of timed out moves
+     */
+    public long getTurnTimeouts() {return turnTimeouts.sum();}
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the local port
+     * @throws IOException if the address of the channel cannot be read
+     */
+    public int getPort() throws IOException
+    {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Gets the port spectators connect to.
+     *
+     * @return the local spectator port, or -1 if spectators are disabled
+     * @throws IOException if the address of the channel cannot be read
+     */
+    public int getSpectatorPort() throws IOException
+    {
+        return spectatorChannel == null? -1 : ((InetSocketAddress) spectatorChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Gets the port lobby players connect to.
+     *
+     * @return the local lobby port, or -1 if the lobby is disabled
+     * @throws IOException if the address of the channel cannot be read
+     */
+    public int getLobbyPort() throws IOException
+    {
+        return lobbyChannel == null? -1 : ((InetSocketAddress) lobbyChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Gets the matchmaker seating the lobby players, which reports the waiting times of every bucket.
+     *
+     * @return the matchmaker of the lobby
+     */
+    public Matchmaker<RemoteSession> getLobby() {return lobby;}
+
+    /**
+     * Gets the number of open player connections.
+     *
+     * @return the number of active sessions
+     */
+    public int getActiveSessions() {return activeSessions.get();}
+
+    /**
+     * Gets the number of open spectator connections.
+     *
+     * @return the number of active spectators
+     */
+    public int getActiveSpectators() {return activeSpectators.get();}
+
+    /**
+     * Gets the number of times a spectator fell too far behind and was sent a snapshot instead.
+     *
+     * @return the number of resynchronizations
+     */
+    public long getSpectatorResyncs() {return spectatorResyncs.sum();}
+
+    /**
+     * Gets the number of moves encoded for spectators, once per move whatever the number of spectators.
+     *
+     * @return the number of encoded moves
+     */
+    public long getSpectatorFrames() {return spectatorFrames.sum();}
+
+    /**
+     * Finds the broadcaster of a table being played.
+     *
+     * @param tableId the id of the table
+     * @return the broadcaster of the table, or {@code null} if no such table is being played
+     */
+    public SpectatorBroadcaster findTable(long tableId) {return broadcasters.get(tableId);}
+
+    /**
+     * Gets the pool of output buffers.
+     *
+     * @return the buffer pool
+     */
+    public DirectBufferPool getBufferPool() {return pool;}
+
+    /**
+     * Stops the selector loop and interrupts the tables being played.
+     */
+    @Override
+    public void close()
+    {
+        running = false;
+        selector.wakeup();
+        tables.shutdownNow();
+        cpuMoves.shutdownNow();
+        timers.close();
+    }
+
+    /**
+     * Asks the selector thread to write the output queued by a session.
+     *
+     * @param session the session with pending output
+     */
+    void requestWrite(SelectorSession session)
+    {
+        writeRequests.offer(session);
+        selector.wakeup();
+    }
+
+    /**
+     * Runs the selector loop until the server is closed.
+     */
+    private void runSelector()
+    {
+        try
+        {
+            while (running)
+            {
+                selector.select();
+                processWriteRequests();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext())
+                {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try
+                    {
+                        if(key.isAcceptable()) acceptSessions((ServerSocketChannel) key.channel());
+                        else
+                        {
+                            SelectorSession session = (SelectorSession) key.attachment();
+                            if(key.isReadable() && !session.readInput()) closeSession(session);
+                            else if(key.isValid() && key.isWritable()) writeSession(session, key);
+                        }
+                    }
+                    catch (IOException | CancelledKeyException e)
+                    {
+                        if(key.attachment() instanceof SelectorSession session) closeSession(session);
+                    }
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            System.err.println("Selector failed: " + e.getMessage());
+        }
+        finally
+        {
+            for(SelectionKey key : selector.keys())
+            {
+                if(key.attachment() instanceof SelectorSession session) closeSession(session);
+            }
+            try
+            {
+                serverChannel.close();
+                if(spectatorChannel != null) spectatorChannel.close();
+                if(lobbyChannel != null) lobbyChannel.close();
+                selector.close();
+            }
+            catch (IOException e) {/* The server is stopping anyway */}
+        }
+    }
+
+    /**
+     * Writes the output of every session whose table queued some since the last selection.
+     */
+    private void processWriteRequests()
+    {
+        SelectorSession session;
+        while ((session = writeRequests.poll()) != null)
+        {
+            SelectionKey key = session.channel().keyFor(selector);
+            if(key == null || !key.isValid()) continue;
+
+            session.clearWriteRequest();
+            try {writeSession(session, key);}
+            catch (IOException | CancelledKeyException e) {closeSession(session);}
+        }
+    }
+
+    /**
+     * Writes the pending output of a session, waiting for the socket to become
+     * writable again if it does not accept all of it.
+     *
+     * @param session the session to write
+     * @param key the selection key of the session
+     * @throws IOException if the channel cannot be written
+     */
+    private void writeSession(SelectorSession session, SelectionKey key) throws IOException
+    {
+        if(session.writeOutput())
+        {
+            if(session.isFinished()) closeSession(session);
+            else key.interestOps(SelectionKey.OP_READ);
+        }
+        else key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    /**
+     * Accepts the pending connections, starting a table for each player, waiting
+     * for the request of each spectator and for the settings of each lobby player.
+     *
+     * @param acceptor the channel with pending connections
+     * @throws IOException if a connection cannot be configured
+     */
+    private void acceptSessions(ServerSocketChannel acceptor) throws IOException
+    {
+        SocketChannel channel;
+        while ((channel = acceptor.accept()) != null)
+        {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            if(acceptor == spectatorChannel)
+            {
+                channel.register(selector, SelectionKey.OP_READ, new SpectatorSession(channel, this, spectatorResyncs));
+                activeSpectators.incrementAndGet();
+            }
+            else
+            {
+                RemoteSession session = new RemoteSession(channel, this, pool, turnTimeouts);
+                channel.register(selector, SelectionKey.OP_READ, session);
+                activeSessions.incrementAndGet();
+                tables.execute(acceptor == lobbyChannel? () -> joinLobby(session) : () -> playTable(session));
+            }
+        }
+    }
+
+    /**
+     * Closes a session, once.
+     *
+     * @param session the session to close
+     */
+    private void closeSession(SelectorSession session)
+    {
+        if(!session.channel().isOpen()) return;
+        session.close();
+        if(session instanceof SpectatorSession) activeSpectators.decrementAndGet();
+        else activeSessions.decrementAndGet();
+    }
+
+    /**
+     * Opens a non-blocking channel accepting connections on a port.
+     *
+     * @param port the port to listen on, or {@code 0} for an ephemeral port
+     * @return the channel, registered with the selector
+     * @throws IOException if the port cannot be bound
+     */
+    private ServerSocketChannel openServerChannel(int port) throws IOException
+    {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.bind(new InetSocketAddress(port), 4096);
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_ACCEPT);
+        return channel;
+    }
+
+    /**
+     * Plays a table for a session until the client exits or disconnects.
+     *
+     * @param session the session of the client
+     */
+    private void playTable(RemoteSession session)
+    {
+        long tableId = nextTableId.getAndIncrement();
+        DominoModelImp model = new DominoModelImp();
+        SpectatorBroadcaster broadcaster = new SpectatorBroadcaster(tableId, model, spectatorFrames);
+        broadcasters.put(tableId, broadcaster);
+        GameMetrics.getDefault().tableOpened();
+        try
+        {
+            session.setModel(model);
+
+            DominoController controller = new DominoController(session);
+            controller.setModel(model);
+            controller.setView(new RemoteDominoView(session));
+            controller.setCPUMoveExecutor(cpuMoves);
+            controller.setTurnTimers(timers, turnTimeoutMillis, cpuThinkMillis);
+
+            LineProtocol.appendHello(session.text(), tableId);
+            controller.startDominoGame();
+        }
+        catch (NoSuchElementException e)
+        {
+            // The client disconnected, the table is simply closed
+        }
+        finally
+        {
+            GameMetrics.getDefault().tableClosed();
+            broadcasters.remove(tableId);
+            broadcaster.close();
+            session.finish();
+        }
+    }
+
+    /**
+     * Waits for the settings of a lobby player and adds it to the matchmaker.
+     * The thread ends once the player is queued; the table is started by the matchmaker.
+     *
+     * @param session the session of the player
+     */
+    private void joinLobby(RemoteSession session)
+    {
+        try
+        {
+            Matchmaker.Key key;
+            while ((key = LineProtocol.parseJoin(session.readLine(), DEFAULT_LOBBY_KEY, MAX_LOBBY_DOTS)) == null)
+            {
+                LineProtocol.appendError(session.text(), "INVALID_SETTINGS");
+                session.flush();
+            }
+            LineProtocol.appendQueued(session.text(), key);
+            session.flush();
+
+            Matchmaker<RemoteSession>.Ticket ticket = lobby.join(key, session);
+            session.setCloseListener(ticket::cancel);
+            if(!session.channel().isOpen()) ticket.cancel(); // Closed before the listener was set
+        }
+        catch (NoSuchElementException e)
+        {
+            session.finish();
+        }
+    }
+
+    /**
+     * Hands a table formed by the matchmaker over to a virtual thread.
+     *
+     * @param key the settings of the table
+     * @param players the sessions of the players, in seat order
+     */
+    private void startLobbyTable(Matchmaker.Key key, List<RemoteSession> players)
+    {
+        RemoteSession[] seats = players.toArray(new RemoteSession[0]);
+        tables.execute(() -> playLobbyTable(key, seats));
+    }
+
+    /**
+     * Plays one match between the players seated by the matchmaker and CPU players.
+     *
+     * @param key the settings of the table
+     * @param seats the sessions of the human seats, in seat order
+     */
+    private void playLobbyTable(Matchmaker.Key key, RemoteSession[] seats)
+    {
+        long tableId = nextTableId.getAndIncrement();
+        DominoModelImp model = new DominoModelImp();
+        model.setSettings(key.toSettings(seats.length));
+        SpectatorBroadcaster broadcaster = new SpectatorBroadcaster(tableId, model, spectatorFrames);
+        broadcasters.put(tableId, broadcaster);
+        GameMetrics.getDefault().tableOpened();
+        try
+        {
+            for(int seat = 0; seat < seats.length; seat++)
+            {
+                seats[seat].setCloseListener(null);
+                seats[seat].setModel(model);
+                LineProtocol.appendMatched(seats[seat].text(), tableId, seat, seats.length);
+            }
+
+            DominoController controller = new DominoController(new SeatInputDriver(model, seats));
+            controller.setModel(model);
+            controller.setView(new RemoteDominoView(seats));
+            controller.setCPUMoveExecutor(cpuMoves);
+            controller.setTurnTimers(timers, turnTimeoutMillis, cpuThinkMillis);
+
+            controller.startDominoMatch();
+            controller.exitDominoGame();
+        }
+        catch (NoSuchElementException e)
+        {
+            // The table was interrupted, it is simply closed
+        }
+        finally
+        {
+            GameMetrics.getDefault().tableClosed();
+            broadcasters.remove(tableId);
+            broadcaster.close();
+            for(RemoteSession session : seats) session.finish();
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     * <p>
+     * Usage: {@code ProtocolServer [port] [spectatorPort] [turnTimeoutMillis] [cpuThinkMillis] [lobbyPort]},
+     * ports 7001, 7002 and 7003 by default, with a 30 s turn timeout and a 500 ms CPU think delay.
+     * A {@code --jfr=<path>} argument anywhere records the Flight Recorder events of the server
+     * to a file written on exit. The metrics of the server are registered with JMX.
+     * </p>
+     *
+     * @param args the command-line arguments
+     * @throws IOException if the port cannot be bound or the recording cannot be started
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        List<String> values = new ArrayList<>(args.length);
+        for(String arg : args)
+        {
+            if(arg.startsWith("--jfr=")) FlightRecording.start(Path.of(arg.substring("--jfr=".length())));
+            else values.add(arg);
+        }
+        int port = values.size() > 0? Integer.parseInt(values.get(0)) : 7001;
+        int spectatorPort = values.size() > 1? Integer.parseInt(values.get(1)) : 7002;
+        long turnTimeoutMillis = values.size() > 2? Long.parseLong(values.get(2)) : 30_000;
+        long cpuThinkMillis = values.size() > 3? Long.parseLong(values.get(3)) : 500;
+        int lobbyPort = values.size() > 4? Integer.parseInt(values.get(4)) : 7003;
+
+        GameMetrics.register();
+        ProtocolServer server = new ProtocolServer(port, spectatorPort, lobbyPort);
+        server.setTurnTimers(turnTimeoutMillis, cpuThinkMillis);
+        server.start();
+        System.out.println("Domino protocol server listening on port " + server.getPort()
+                + ", spectators on port " + server.getSpectatorPort()
+                + ", lobby on port " + server.getLobbyPort());
+
+        while (true)
+        {
+            Thread.sleep(10_000);
+            System.out.println("Active sessions: " + server.getActiveSessions()
+                    + ", spectators: " + server.getActiveSpectators()
+                    + ", spectator resyncs: " + server.getSpectatorResyncs()
+                    + ", turn timeouts: " + server.getTurnTimeouts()
+                    + ", output buffers allocated: " + server.getBufferPool().getAllocated());
+            for(Matchmaker.BucketStats bucket : server.getLobby().getStats())
+            {
+                System.out.printf("  Lobby %s: %d waiting, %d tables, %d CPU seats, wait avg %.1f ms, max %.1f ms%n",
+                        bucket.key(), bucket.waiting(), bucket.tables(), bucket.cpuSeats(),
+                        bucket.averageWaitMillis(), bucket.maxWaitMillis());
+            }
+        }
+    }
+}
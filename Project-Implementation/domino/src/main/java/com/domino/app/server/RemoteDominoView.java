@@ -0,0 +1,134 @@
+package com.domino.app.server;
+
+import com.domino.app.controller.DominoController;
+import com.domino.app.model.DominoModel;
+import com.domino.app.model.GameEvent;
+import com.domino.app.view.SilentDominoView;
+
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * A view sending the state of a table to a remote client as {@link LineProtocol} messages.
+ * <p>
+ * Menus and prompts are not rendered, since every decision reaches the client as an
+ * {@code ASK} from its {@link RemoteSession}. The view only forwards the game events
+ * of the model, the rejected answers and the end of the session.
+ * </p>
+ * <p>
+ * A view created for several sessions serves a table of the lobby, where the session
+ * at index {@code i} plays seat {@code i}: every client is sent the events with its own
+ * hand only, and rejections go to the client of the current turn.
+ * </p>
+ */
+public class RemoteDominoView extends SilentDominoView
+{
+    private final RemoteSession[] sessions; // Sessions of the remote clients, by seat when there are several
+    private DominoController dominoController; // Controller providing the model
+    private EventForwarder events; // Subscriber forwarding the events of the current model
+
+    /**
+     * Creates a view for the given sessions.
+     *
+     * @param sessions the session of the remote client playing every human seat,
+     *                 or the sessions of the human seats in seat order
+     */
+    public RemoteDominoView(RemoteSession... sessions)
+    {
+        this.sessions = sessions;
+    }
+
+    @Override
+    public void setController(DominoController dominoController) {this.dominoController = dominoController;}
+
+    @Override
+    public void resetViewData()
+    {
+        DominoModel model = dominoController.getModel();
+        if(events == null || events.model != model)
+        {
+            if(events != null) events.cancel();
+            events = new EventForwarder(model);
+            model.getGameEvents().subscribe(events);
+        }
+    }
+
+    @Override
+    public void displayExitMessage()
+    {
+        for(RemoteSession session : sessions) LineProtocol.appendBye(session.text());
+    }
+
+    @Override
+    public void displayInvalidOptionMessage() {LineProtocol.appendError(currentSession().text(), "INVALID_OPTION");}
+
+    @Override
+    public void displayInvalidInputMessage() {LineProtocol.appendError(currentSession().text(), "INVALID_INPUT");}
+
+    @Override
+    public void flushDisplay()
+    {
+        for(RemoteSession session : sessions) session.flush();
+    }
+
+    /**
+     * Gets the session of the client whose decision is being requested.
+     *
+     * @return the session of the current turn
+     */
+    private RemoteSession currentSession()
+    {
+        return sessions.length == 1? sessions[0] : sessions[dominoController.getModel().getCurrentTurn()];
+    }
+
+    /**
+     * Forwards the game events of a model to the client, on the thread of the table.
+     */
+    private class EventForwarder implements Flow.Subscriber<List<GameEvent>>
+    {
+        private final DominoModel model; // The model whose events are forwarded
+        private Flow.Subscription subscription; // The subscription to the events of the model
+
+        /**
+         * Creates a forwarder for the events of the given model.
+         *
+         * @param model the model whose events are forwarded
+         */
+        EventForwarder(DominoModel model) {this.model = model;}
+
+        /**
+         * Stops forwarding the events of the model.
+         */
+        void cancel()
+        {
+            if(subscription != null) subscription.cancel();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<GameEvent> batch)
+        {
+            if(sessions.length == 1)
+            {
+                LineProtocol.appendEvents(sessions[0].text(), batch, model);
+                return;
+            }
+            for(int seat = 0; seat < sessions.length; seat++)
+            {
+                LineProtocol.appendEvents(sessions[seat].text(), batch, model, seat);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {events = null;}
+
+        @Override
+        public void onComplete() {events = null;}
+    }
+}
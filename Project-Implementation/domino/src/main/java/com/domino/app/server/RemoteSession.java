@@ -0,0 +1,316 @@
+package com.domino.app.server;
+
+import com.domino.app.controller.InputDriver;
+import com.domino.app.model.DominoModel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The connection of a remote client to a table of the {@link ProtocolServer}.
+ * <p>
+ * The session is shared by two threads. The selector thread of the server reads
+ * the answers of the client into a queue and writes the pending output to the
+ * socket, never blocking on either. The thread of the table consumes the answers
+ * as the {@link InputDriver} of its controller and composes the output, which is
+ * encoded into pooled direct buffers and handed over to the selector thread.
+ * </p>
+ */
+public class RemoteSession implements InputDriver, SelectorSession
+{
+    private static final int INPUT_BUFFER_SIZE = 512; // Bytes read from the socket at once
+    private static final int MAX_QUEUED_ANSWERS = 64; // Answers sent ahead of the requests
+    private static final String END_OF_INPUT = ""; // Queued when the client is gone, never a valid answer
+    private static final char SUPPLIED = '\0'; // Prefix of the decisions supplied by a turn timer, trimmed from client lines
+
+    private final SocketChannel channel; // Non-blocking channel of the client
+    private final ProtocolServer server; // Server writing the output on its selector thread
+    private final DirectBufferPool pool; // Pool providing the output buffers
+    private final LongAdder turnTimeouts; // Number of decisions played by the turn timers of the server
+
+    // Owned by the selector thread
+    private final ByteBuffer input; // Bytes read from the socket
+    private final StringBuilder line; // Line being received
+
+    // Shared between the threads
+    private final BlockingQueue<String> answers; // Complete lines received from the client
+    private final Queue<ByteBuffer> outbound; // Encoded output waiting to be written
+    private final AtomicBoolean writeRequested; // Whether the selector thread has been asked to write
+    private volatile boolean finished; // Whether the table is over and the session can be closed
+    private volatile Runnable closeListener; // Run once the connection is closed, null if none
+
+    // Owned by the table thread
+    private final StringBuilder text; // Output composed since the last flush
+    private DominoModel model; // Model of the table, used to describe the options of a request
+    private int lateAnswers; // Answers still owed by the client for requests its turn timer answered
+
+    /**
+     * Creates the session of an accepted connection.
+     *
+     * @param channel the non-blocking channel of the client
+     * @param server the server writing the output of the session
+     * @param pool the pool providing the output buffers
+     * @param turnTimeouts the counter of the decisions played by turn timers
+     */
+    public RemoteSession(SocketChannel channel, ProtocolServer server, DirectBufferPool pool, LongAdder turnTimeouts)
+    {
+        this.channel = channel;
+        this.server = server;
+        this.pool = pool;
+        this.turnTimeouts = turnTimeouts;
+        this.input = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+        this.line = new StringBuilder(LineProtocol.MAX_LINE_LENGTH);
+        this.answers = new LinkedBlockingQueue<>(MAX_QUEUED_ANSWERS);
+        this.outbound = new ConcurrentLinkedQueue<>();
+        this.writeRequested = new AtomicBoolean();
+        this.text = new StringBuilder(256);
+    }
+
+    /**
+     * Sets the model of the table, used to describe the options of the requests.
+     *
+     * @param model the model of the table
+     */
+    public void setModel(DominoModel model) {this.model = model;}
+
+    /**
+     * Sets the action run on the selector thread once the connection is closed,
+     * such as leaving the queue of the lobby. It must not block.
+     *
+     * @param closeListener the action, or {@code null} for none
+     */
+    public void setCloseListener(Runnable closeListener) {this.closeListener = closeListener;}
+
+    /**
+     * Waits for the next line of the client that does not answer a request, such as {@code JOIN}.
+     *
+     * @return the line
+     * @throws NoSuchElementException if the client is gone
+     */
+    public String readLine()
+    {
+        String line;
+        try {line = answers.take();}
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new NoSuchElementException("Session interrupted");
+        }
+
+        if(line == END_OF_INPUT)
+        {
+            answers.offer(END_OF_INPUT);
+            throw new NoSuchElementException("Client disconnected");
+        }
+        return line;
+    }
+
+    /**
+     * Gets the buffer of the output composed by the table thread.
+     *
+     * @return the output buffer, sent on the next {@link #flush()}
+     */
+    public StringBuilder text() {return text;}
+
+    @Override
+    public int nextInt(Request request)
+    {
+        String answer = nextAnswer(request);
+        try {return Integer.parseInt(answer);}
+        catch (NumberFormatException e) {return INVALID;}
+    }
+
+    @Override
+    public String nextText(Request request)
+    {
+        return nextAnswer(request);
+    }
+
+    /**
+     * Queues the decision of an expired turn timer behind the answers already received.
+     * Called on the thread of the timing wheel.
+     */
+    @Override
+    public boolean supplyDecision(Request request, int decision)
+    {
+        return answers.offer(SUPPLIED + Integer.toString(decision));
+    }
+
+    @Override
+    public void withdrawDecision()
+    {
+        answers.removeIf(answer -> !answer.isEmpty() && answer.charAt(0) == SUPPLIED);
+    }
+
+    /**
+     * Sends the request of a decision and waits for the answer of the client.
+     * A decision supplied by a turn timer is announced to the client with {@code TIMEOUT},
+     * and the answer the client still sends for that request is discarded when it arrives,
+     * so it is never taken as the answer of a later request.
+     *
+     * @param request the decision being requested
+     * @return the answer of the client
+     * @throws NoSuchElementException if the client is gone
+     */
+    private String nextAnswer(Request request)
+    {
+        LineProtocol.appendAsk(text, request, model);
+        flush();
+
+        while (true)
+        {
+            String answer;
+            try {answer = answers.take();}
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new NoSuchElementException("Table interrupted");
+            }
+
+            if(answer == END_OF_INPUT)
+            {
+                answers.offer(END_OF_INPUT); // Later requests must fail as well
+                throw new NoSuchElementException("Client disconnected");
+            }
+            if(answer.charAt(0) == SUPPLIED)
+            {
+                turnTimeouts.increment();
+                lateAnswers++;
+                LineProtocol.appendTimeout(text, request);
+                return answer.substring(1);
+            }
+            if(lateAnswers == 0) return answer;
+            lateAnswers--; // Answer of a request that already timed out
+        }
+    }
+
+    /**
+     * Encodes the composed output into pooled buffers and asks the server to write them.
+     * Called on the table thread.
+     */
+    public void flush()
+    {
+        if(text.isEmpty()) return;
+        if(!channel.isOpen())
+        {
+            text.setLength(0);
+            return;
+        }
+
+        ByteBuffer buffer = pool.acquire();
+        for(int i = 0; i < text.length(); i++)
+        {
+            if(!buffer.hasRemaining())
+            {
+                outbound.offer(buffer.flip());
+                buffer = pool.acquire();
+            }
+            buffer.put((byte) text.charAt(i)); // The protocol is plain ASCII
+        }
+        outbound.offer(buffer.flip());
+        text.setLength(0);
+
+        if(writeRequested.compareAndSet(false, true)) server.requestWrite(this);
+    }
+
+    /**
+     * Marks the table as over, so the session is closed once its output is written.
+     * Called on the table thread.
+     */
+    public void finish()
+    {
+        flush();
+        finished = true;
+        if(writeRequested.compareAndSet(false, true)) server.requestWrite(this);
+    }
+
+    @Override
+    public boolean isFinished() {return finished;}
+
+    @Override
+    public SocketChannel channel() {return channel;}
+
+    @Override
+    public void clearWriteRequest() {writeRequested.set(false);}
+
+    /**
+     * Reads the available bytes and queues every complete line as an answer.
+     * Called on the selector thread.
+     *
+     * @return {@code false} if the client closed the connection or misbehaved
+     * @throws IOException if the channel cannot be read
+     */
+    @Override
+    public boolean readInput() throws IOException
+    {
+        if(channel.read(input) == -1) return false;
+
+        input.flip();
+        while (input.hasRemaining())
+        {
+            byte b = input.get();
+            if(b == '\n')
+            {
+                String answer = line.toString().trim();
+                line.setLength(0);
+                if(!answer.isEmpty() && !answers.offer(answer)) return false;
+            }
+            else if(b != '\r')
+            {
+                if(line.length() == LineProtocol.MAX_LINE_LENGTH) return false;
+                line.append((char) (b & 0xFF));
+            }
+        }
+        input.clear();
+        return true;
+    }
+
+    /**
+     * Writes as much of the pending output as the socket accepts.
+     * Called on the selector thread.
+     *
+     * @return {@code true} if all the pending output was written
+     * @throws IOException if the channel cannot be written
+     */
+    @Override
+    public boolean writeOutput() throws IOException
+    {
+        ByteBuffer buffer;
+        while ((buffer = outbound.peek()) != null)
+        {
+            channel.write(buffer);
+            if(buffer.hasRemaining()) return false;
+            outbound.poll();
+            pool.release(buffer);
+        }
+        return true;
+    }
+
+    /**
+     * Closes the channel, releases the pending output and wakes up the table if it waits for an answer.
+     * Called on the selector thread.
+     */
+    @Override
+    public void close()
+    {
+        try {channel.close();}
+        catch (IOException e) {/* Nothing left to do with the channel */}
+
+        ByteBuffer buffer;
+        while ((buffer = outbound.poll()) != null) pool.release(buffer);
+
+        answers.clear();
+        answers.offer(END_OF_INPUT);
+
+        Runnable listener = closeListener;
+        if(listener != null) listener.run();
+    }
+}
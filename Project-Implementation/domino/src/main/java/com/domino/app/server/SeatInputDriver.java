@@ -0,0 +1,67 @@
+package com.domino.app.server;
+
+import com.domino.app.controller.InputDriver;
+import com.domino.app.model.DominoModel;
+
+import java.util.NoSuchElementException;
+
+/**
+ * An {@link InputDriver} for a table of the lobby, routing every request to the
+ * session of the seat whose turn it is.
+ * <p>
+ * Lobby tables only play one match, so the controller only requests tiles and sides,
+ * which always belong to the current turn. When the client of a seat is gone, the
+ * first option is played for it until the match ends, so the other players can
+ * finish their match.
+ * </p>
+ */
+public class SeatInputDriver implements InputDriver
+{
+    private final DominoModel model; // Model of the table, giving the current turn
+    private final RemoteSession[] sessions; // Sessions of the human seats, by seat
+
+    /**
+     * Creates a driver for the given seats.
+     *
+     * @param model the model of the table
+     * @param sessions the sessions of the human seats, in seat order
+     */
+    public SeatInputDriver(DominoModel model, RemoteSession... sessions)
+    {
+        this.model = model;
+        this.sessions = sessions;
+    }
+
+    @Override
+    public int nextInt(Request request)
+    {
+        try {return currentSession().nextInt(request);}
+        catch (NoSuchElementException e)
+        {
+            if(Thread.currentThread().isInterrupted()) throw e;
+            return 0; // The client left, its seat plays the first playable tile or the left side
+        }
+    }
+
+    @Override
+    public String nextText(Request request)
+    {
+        return currentSession().nextText(request);
+    }
+
+    @Override
+    public boolean supplyDecision(Request request, int decision)
+    {
+        return currentSession().supplyDecision(request, decision);
+    }
+
+    @Override
+    public void withdrawDecision() {currentSession().withdrawDecision();}
+
+    /**
+     * Gets the session of the seat whose turn it is.
+     *
+     * @return the session of the current turn
+     */
+    private RemoteSession currentSession() {return sessions[model.getCurrentTurn()];}
+}
@@ -0,0 +1,55 @@
+package com.domino.app.server;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A connection served by the selector thread of the {@link ProtocolServer}.
+ * <p>
+ * The methods without documentation of their thread are only called by the
+ * selector thread, which never blocks on them.
+ * </p>
+ */
+interface SelectorSession
+{
+    /**
+     * Gets the channel of the client.
+     *
+     * @return the non-blocking socket channel
+     */
+    SocketChannel channel();
+
+    /**
+     * Acknowledges a write request before the selector thread writes the output.
+     */
+    void clearWriteRequest();
+
+    /**
+     * Reads the available bytes from the client.
+     *
+     * @return {@code false} if the client closed the connection or misbehaved
+     * @throws IOException if the channel cannot be read
+     */
+    boolean readInput() throws IOException;
+
+    /**
+     * Writes as much of the pending output as the socket accepts.
+     *
+     * @return {@code true} if all the pending output was written
+     * @throws IOException if the channel cannot be written
+     */
+    boolean writeOutput() throws IOException;
+
+    /**
+     * Checks whether the session can be closed once its output is written.
+     * May be called from any thread.
+     *
+     * @return {@code true} if the session is over
+     */
+    boolean isFinished();
+
+    /**
+     * Closes the channel and releases the resources of the session.
+     */
+    void close();
+}
@@ -0,0 +1,183 @@
+package com.domino.app.server;
+
+import com.domino.app.model.DominoModel;
+import com.domino.app.model.GameEvent;
+import com.domino.app.model.GameSnapshot;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Broadcasts the moves of one table to all its spectators.
+ * <p>
+ * The broadcaster follows the game events of the table only while someone is
+ * watching. Each batch of events is encoded once, on the thread of the table, into
+ * a read-only {@link Frame} shared by every {@link SpectatorSession}; the sessions
+ * only queue a reference to it. Spectators that fall behind are resynchronized from
+ * the latest {@link GameSnapshot} of the model, so the table never waits for them.
+ * </p>
+ */
+public class SpectatorBroadcaster implements Flow.Subscriber<List<GameEvent>>
+{
+    /**
+     * The encoded bytes of one move, shared read-only by all the spectators.
+     *
+     * @param version the version of the snapshot published with the move
+     * @param bytes the encoded lines; every reader must use its own {@link ByteBuffer#duplicate()}
+     */
+    public record Frame(long version, ByteBuffer bytes) {}
+
+    /**
+     * Placeholder marking a subscription in progress.
+     */
+    private static final Flow.Subscription NO_SUBSCRIPTION = new Flow.Subscription()
+    {
+        @Override
+        public void request(long n) {}
+
+        @Override
+        public void cancel() {}
+    };
+
+    private final long tableId; // Id of the table
+    private final DominoModel model; // Model of the table
+    private final List<SpectatorSession> spectators; // Sessions watching the table
+    private final LongAdder framesEncoded; // Counter of encoded moves shared by the server
+    private Flow.Subscription subscription; // Subscription to the events of the model, null until watched
+    private boolean closed; // Whether the table is over
+
+    /**
+     * Creates the broadcaster of a table.
+     *
+     * @param tableId the id of the table
+     * @param model the model of the table
+     * @param framesEncoded the counter of encoded moves of the server
+     */
+    public SpectatorBroadcaster(long tableId, DominoModel model, LongAdder framesEncoded)
+    {
+        this.tableId = tableId;
+        this.model = model;
+        this.spectators = new CopyOnWriteArrayList<>();
+        this.framesEncoded = framesEncoded;
+    }
+
+    /**
+     * Gets the id of the table.
+     *
+     * @return the table id
+     */
+    public long getTableId() {return tableId;}
+
+    /**
+     * Gets the number of spectators watching the table.
+     *
+     * @return the number of spectators
+     */
+    public int getSpectatorCount() {return spectators.size();}
+
+    /**
+     * Adds a spectator, following the events of the model from the first one on.
+     *
+     * @param spectator the session of the spectator
+     * @return {@code false} if the table is already over
+     */
+    public boolean addSpectator(SpectatorSession spectator)
+    {
+        boolean subscribe;
+        synchronized (this)
+        {
+            if(closed) return false;
+            spectators.add(spectator);
+            subscribe = subscription == null;
+            if(subscribe) subscription = NO_SUBSCRIPTION; // Reserved until onSubscribe replaces it
+        }
+        if(subscribe) model.getGameEvents().subscribe(this);
+        return true;
+    }
+
+    /**
+     * Removes a spectator.
+     *
+     * @param spectator the session of the spectator
+     */
+    public void removeSpectator(SpectatorSession spectator) {spectators.remove(spectator);}
+
+    /**
+     * Encodes the current state of the table, for spectators that start watching or fell behind.
+     * May be called from any thread.
+     *
+     * @return the frame of the latest snapshot
+     */
+    public Frame encodeSnapshot()
+    {
+        GameSnapshot snapshot = model.getSnapshot();
+        StringBuilder text = new StringBuilder(256);
+        LineProtocol.appendSnapshot(text, snapshot);
+        return new Frame(snapshot.getVersion(), encode(text));
+    }
+
+    /**
+     * Stops broadcasting and ends the session of every spectator, once the table is over.
+     */
+    public void close()
+    {
+        Flow.Subscription subscription;
+        synchronized (this)
+        {
+            closed = true;
+            subscription = this.subscription;
+        }
+        if(subscription != null) subscription.cancel();
+        for(SpectatorSession spectator : spectators) spectator.finish();
+        spectators.clear();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription)
+    {
+        synchronized (this)
+        {
+            this.subscription = subscription;
+            if(closed) subscription.cancel();
+        }
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<GameEvent> batch)
+    {
+        if(spectators.isEmpty()) return;
+
+        // The model publishes its snapshot before the events of the move
+        StringBuilder text = new StringBuilder(128);
+        long version = model.getSnapshot().getVersion();
+        text.append("SEQ ").append(version).append('\n');
+        LineProtocol.appendEvents(text, batch, null);
+
+        Frame frame = new Frame(version, encode(text));
+        framesEncoded.increment();
+        for(SpectatorSession spectator : spectators) spectator.offer(frame);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {close();}
+
+    @Override
+    public void onComplete() {close();}
+
+    /**
+     * Encodes protocol text, which is plain ASCII, into a read-only buffer.
+     *
+     * @param text the text to encode
+     * @return the encoded bytes
+     */
+    private static ByteBuffer encode(CharSequence text)
+    {
+        byte[] bytes = new byte[text.length()];
+        for(int i = 0; i < bytes.length; i++) bytes[i] = (byte) text.charAt(i);
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+}
@@ -0,0 +1,258 @@
+package com.domino.app.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The connection of a spectator to the {@link ProtocolServer}.
+ * <p>
+ * The thread of the watched table offers every encoded move to the session, which
+ * keeps at most {@link #MAX_QUEUED_FRAMES} of them. When the queue overflows, the
+ * queued moves are dropped and the spectator is sent the latest snapshot of the
+ * table instead, so a slow spectator costs a bounded amount of memory and never
+ * holds the table back. The selector thread writes every queued move at once with a
+ * single gathering write, so a spectator that falls behind receives several moves
+ * per write.
+ * </p>
+ */
+public class SpectatorSession implements SelectorSession
+{
+    /**
+     * Maximum number of moves queued for a spectator before it is resynchronized.
+     */
+    public static final int MAX_QUEUED_FRAMES = 32;
+
+    private static final int INPUT_BUFFER_SIZE = 128; // Bytes read from the socket at once
+    private static final ByteBuffer[] NO_OUTPUT = new ByteBuffer[0];
+
+    private final SocketChannel channel; // Non-blocking channel of the spectator
+    private final ProtocolServer server; // Server writing the output on its selector thread
+    private final LongAdder resyncs; // Counter of resynchronizations shared by the server
+
+    // Owned by the selector thread
+    private final ByteBuffer input; // Bytes read from the socket
+    private final StringBuilder line; // Line being received
+    private final ArrayDeque<ByteBuffer> control; // Replies to the spectator, written before any move
+    private SpectatorBroadcaster broadcaster; // Broadcaster of the watched table, null until watching
+    private ByteBuffer[] output; // Buffers of the gathering write in progress
+    private int outputOffset; // First buffer of the write in progress with bytes remaining
+    private long lastVersion; // Version of the last snapshot or move handed to the spectator
+
+    // Shared between the threads, guarded by this session
+    private final ArrayDeque<SpectatorBroadcaster.Frame> frames; // Moves waiting to be written
+    private boolean resync; // Whether the next write starts with a snapshot instead of the dropped moves
+
+    private final AtomicBoolean writeRequested; // Whether the selector thread has been asked to write
+    private volatile boolean finished; // Whether the session can be closed once its output is written
+
+    /**
+     * Creates the session of an accepted spectator connection.
+     *
+     * @param channel the non-blocking channel of the spectator
+     * @param server the server writing the output of the session
+     * @param resyncs the counter of resynchronizations of the server
+     */
+    public SpectatorSession(SocketChannel channel, ProtocolServer server, LongAdder resyncs)
+    {
+        this.channel = channel;
+        this.server = server;
+        this.resyncs = resyncs;
+        this.input = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+        this.line = new StringBuilder(LineProtocol.MAX_LINE_LENGTH);
+        this.control = new ArrayDeque<>(2);
+        this.output = NO_OUTPUT;
+        this.lastVersion = -1;
+        this.frames = new ArrayDeque<>(MAX_QUEUED_FRAMES);
+        this.resync = true; // A new spectator starts from the current state
+        this.writeRequested = new AtomicBoolean();
+    }
+
+    /**
+     * Queues a move for the spectator, dropping the queued moves if it is too far behind.
+     * Called on the thread of the watched table.
+     *
+     * @param frame the encoded move
+     */
+    public void offer(SpectatorBroadcaster.Frame frame)
+    {
+        synchronized (this)
+        {
+            if(resync) return; // The snapshot sent next already includes this move
+            if(frames.size() == MAX_QUEUED_FRAMES)
+            {
+                frames.clear();
+                resync = true;
+                resyncs.increment();
+            }
+            else frames.add(frame);
+        }
+        requestWrite();
+    }
+
+    /**
+     * Ends the session once its output is written.
+     * May be called from any thread.
+     */
+    public void finish()
+    {
+        finished = true;
+        requestWrite();
+    }
+
+    @Override
+    public boolean isFinished() {return finished;}
+
+    @Override
+    public SocketChannel channel() {return channel;}
+
+    @Override
+    public void clearWriteRequest() {writeRequested.set(false);}
+
+    @Override
+    public boolean readInput() throws IOException
+    {
+        if(channel.read(input) == -1) return false;
+
+        input.flip();
+        while (input.hasRemaining())
+        {
+            byte b = input.get();
+            if(broadcaster != null) continue; // Watching, the input is ignored
+            if(b == '\n')
+            {
+                String request = line.toString().trim();
+                line.setLength(0);
+                if(!request.isEmpty()) watch(request);
+            }
+            else if(b != '\r')
+            {
+                if(line.length() == LineProtocol.MAX_LINE_LENGTH) return false;
+                line.append((char) (b & 0xFF));
+            }
+        }
+        input.clear();
+        return true;
+    }
+
+    @Override
+    public boolean writeOutput() throws IOException
+    {
+        while (true)
+        {
+            if(outputOffset < output.length)
+            {
+                channel.write(output, outputOffset, output.length - outputOffset);
+                while (outputOffset < output.length && !output[outputOffset].hasRemaining()) outputOffset++;
+                if(outputOffset < output.length) return false;
+            }
+            if(!nextOutput()) return true;
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if(broadcaster != null) broadcaster.removeSpectator(this);
+        try {channel.close();}
+        catch (IOException e) {/* Nothing left to do with the channel */}
+        synchronized (this) {frames.clear();}
+    }
+
+    /**
+     * Starts watching the table named by a request of the spectator.
+     *
+     * @param request the request, {@code WATCH <table>}
+     */
+    private void watch(String request)
+    {
+        SpectatorBroadcaster table = null;
+        String tableId = request.startsWith("WATCH ")? request.substring("WATCH ".length()).trim() : "";
+        try {table = server.findTable(Long.parseLong(tableId));}
+        catch (NumberFormatException e) {/* Not a table id */}
+
+        if(table == null || !table.addSpectator(this))
+        {
+            control.add(encode("ERR NO_SUCH_TABLE\n"));
+            finished = true;
+        }
+        else
+        {
+            broadcaster = table;
+            control.add(encode("WATCHING " + table.getTableId() + "\n"));
+        }
+        requestWrite();
+    }
+
+    /**
+     * Prepares the next gathering write from the control replies and the queued moves.
+     *
+     * @return {@code false} if there is nothing left to write
+     */
+    private boolean nextOutput()
+    {
+        int count = control.size();
+        boolean sendSnapshot;
+        SpectatorBroadcaster.Frame[] moves;
+        synchronized (this)
+        {
+            sendSnapshot = resync && broadcaster != null;
+            moves = frames.toArray(new SpectatorBroadcaster.Frame[0]);
+            frames.clear();
+            if(sendSnapshot) resync = false;
+        }
+
+        SpectatorBroadcaster.Frame snapshot = sendSnapshot? broadcaster.encodeSnapshot() : null;
+        count += (snapshot != null? 1 : 0) + moves.length;
+        if(count == 0)
+        {
+            output = NO_OUTPUT;
+            outputOffset = 0;
+            return false;
+        }
+
+        ByteBuffer[] buffers = new ByteBuffer[count];
+        int i = 0;
+        while (!control.isEmpty()) buffers[i++] = control.poll();
+        if(snapshot != null)
+        {
+            buffers[i++] = snapshot.bytes().duplicate();
+            lastVersion = snapshot.version();
+        }
+        for(SpectatorBroadcaster.Frame move : moves)
+        {
+            // Moves already included in a snapshot are skipped
+            if(move.version() <= lastVersion) continue;
+            buffers[i++] = move.bytes().duplicate();
+            lastVersion = move.version();
+        }
+
+        output = i == buffers.length? buffers : Arrays.copyOf(buffers, i);
+        outputOffset = 0;
+        return i > 0;
+    }
+
+    /**
+     * Asks the server to write the output of the session, once per pending write.
+     */
+    private void requestWrite()
+    {
+        if(writeRequested.compareAndSet(false, true)) server.requestWrite(this);
+    }
+
+    /**
+     * Encodes a control reply.
+     *
+     * @param text the reply, plain ASCII
+     * @return the encoded bytes
+     */
+    private static ByteBuffer encode(String text)
+    {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,194 @@
+package com.domino.app.server;
+
+import com.domino.app.controller.DominoController;
+import com.domino.app.controller.ScannerInputDriver;
+import com.domino.app.model.DominoModel;
+import com.domino.app.model.DominoModelImp;
+import com.domino.app.view.DominoView;
+import com.domino.app.view.DominoViewImp;
+import com.domino.app.view.RingBufferSummarySink;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many domino tables in one process, one table per TCP connection.
+ * <p>
+ * Every connection gets its own {@link DominoModelImp}, {@link DominoViewImp} and
+ * {@link DominoController}, wired to the socket instead of the console, and the
+ * table runs on its own virtual thread. The decisions of CPU seats of every table
+ * are computed on a shared executor sized to the available cores, so the tables
+ * only park while waiting for their players.
+ * </p>
+ * <p>
+ * The session plays exactly as the console game does: the remote player reads
+ * the same screens and answers the same prompts.
+ * </p>
+ */
+public class TableServer implements AutoCloseable
+{
+    private static final int SUMMARY_MOVES = 64; // Moves kept per table for the match summary
+    private static final int INPUT_BUFFER_SIZE = 256; // Bytes buffered per table from the socket
+
+    private final ServerSocket serverSocket; // Socket accepting the connections
+    private final ExecutorService tables; // Executor running one virtual thread per table
+    private final ExecutorService cpuMoves; // Executor shared by all tables for CPU decisions
+    private final AtomicInteger activeTables; // Number of tables being played
+    private final AtomicLong totalTables; // Number of tables opened since the server started
+
+    /**
+     * Creates a server listening on the given port.
+     *
+     * @param port the port to listen on, or {@code 0} for an ephemeral port
+     * @throws IOException if the port cannot be bound
+     */
+    public TableServer(int port) throws IOException
+    {
+        this(port, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a server listening on the given port.
+     *
+     * @param port the port to listen on, or {@code 0} for an ephemeral port
+     * @param cpuThreads the number of threads computing the decisions of CPU seats
+     * @throws IOException if the port cannot be bound
+     */
+    public TableServer(int port, int cpuThreads) throws IOException
+    {
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(new InetSocketAddress(port), 4096);
+        this.tables = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("table-", 0).factory());
+        this.cpuMoves = Executors.newFixedThreadPool(cpuThreads, Thread.ofPlatform().name("cpu-moves-", 0).daemon().factory());
+        this.activeTables = new AtomicInteger();
+        this.totalTables = new AtomicLong();
+    }
+
+    /**
+     * Starts accepting connections on a virtual thread.
+     */
+    public void start()
+    {
+        Thread.ofVirtual().name("table-acceptor").start(this::acceptTables);
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {return serverSocket.getLocalPort();}
+
+    /**
+     * Gets the number of tables being played.
+     *
+     * @return the number of active tables
+     */
+    public int getActiveTables() {return activeTables.get();}
+
+    /**
+     * Gets the number of tables opened since the server started.
+     *
+     * @return the total number of tables
+     */
+    public long getTotalTables() {return totalTables.get();}
+
+    /**
+     * Stops accepting connections and interrupts the tables being played.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        serverSocket.close();
+        tables.shutdownNow();
+        cpuMoves.shutdownNow();
+    }
+
+    /**
+     * Accepts connections until the server is closed, opening a table for each one.
+     */
+    private void acceptTables()
+    {
+        while (!serverSocket.isClosed())
+        {
+            try
+            {
+                Socket socket = serverSocket.accept();
+                tables.execute(() -> playTable(socket));
+            }
+            catch (IOException e)
+            {
+                if(!serverSocket.isClosed()) System.err.println("Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Plays a table over a connection until the player exits or disconnects.
+     *
+     * @param socket the connection of the player
+     */
+    private void playTable(Socket socket)
+    {
+        activeTables.incrementAndGet();
+        totalTables.incrementAndGet();
+        try (socket)
+        {
+            socket.setTcpNoDelay(true);
+
+            DominoModel model = new DominoModelImp();
+            DominoView view = new DominoViewImp(socket.getOutputStream(), 0, new RingBufferSummarySink(SUMMARY_MOVES));
+            DominoController controller = new DominoController(
+                    new ScannerInputDriver(new BufferedInputStream(socket.getInputStream(), INPUT_BUFFER_SIZE)));
+            controller.setModel(model);
+            controller.setView(view);
+            controller.setCPUMoveExecutor(cpuMoves);
+
+            controller.startDominoGame();
+        }
+        catch (IOException | UncheckedIOException | NoSuchElementException e)
+        {
+            // The player disconnected, the table is simply closed
+        }
+        finally
+        {
+            activeTables.decrementAndGet();
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     * <p>
+     * Usage: {@code TableServer [port]}, port 7000 by default.
+     * </p>
+     *
+     * @param args the command-line arguments
+     * @throws IOException if the port cannot be bound
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        int port = args.length > 0? Integer.parseInt(args[0]) : 7000;
+
+        TableServer server = new TableServer(port);
+        server.start();
+        System.out.println("Domino table server listening on port " + server.getPort());
+
+        while (true)
+        {
+            Thread.sleep(10_000);
+            System.out.println("Active tables: " + server.getActiveTables() + ", total: " + server.getTotalTables());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * This package contains the server components for the Domino game application.
+ *
+ * <p>
+ * The server hosts many tables in a single process. Every table pairs its own
+ * model, view and controller with the I/O of a remote session, and runs on a
+ * virtual thread so thousands of tables can be played concurrently.
+ * </p>
+ */
+package com.domino.app.server;
@@ -0,0 +1,252 @@
+package com.domino.app.simulation;
+
+import com.domino.app.model.CPUPlayer;
+import com.domino.app.model.CPUStrategy;
+import com.domino.app.model.DominoModelImp;
+import com.domino.app.model.DominoSettings;
+import com.domino.app.model.RandomCPUStrategy;
+import com.domino.app.model.Tile;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the bytes allocated per simulated match and per turn, and fails when they exceed a budget.
+ * <p>
+ * The probe plays matches between random CPU seats on one model with snapshots off, like a
+ * {@link BatchSimulator}, but drives the turns itself, following the rules of the
+ * {@link MatchRunner}, so it can read the bytes allocated by the calling thread from the
+ * {@code com.sun.management.ThreadMXBean} between the phases of every turn:
+ * </p>
+ * <ul>
+ *     <li>deal: starting the match and dealing every following round;</li>
+ *     <li>move generation: finding the playable tiles and letting the strategy choose one;</li>
+ *     <li>play: playing, drawing or passing, choosing a side, and handing the turn over;</li>
+ *     <li>end detection: checking for a winner, a blocked round and the end of the match.</li>
+ * </ul>
+ * <p>
+ * The deals and the strategies are seeded, so every run plays the same matches. After a warm-up,
+ * the probe prints the bytes of every phase and exits with status 1 when the bytes per match or
+ * per turn are over their budgets, so it can guard the allocation-free hot path in a build.
+ * </p>
+ * <p>
+ * Usage: {@code AllocationProbe [--matches=n] [--warmup=n] [--players=n] [--max-dots=n] [--target=n] [--teams]
+ * [--seed=n] [--max-bytes=n] [--max-bytes-per-turn=n]}.
+ * </p>
+ */
+public class AllocationProbe
+{
+    private static final long DEFAULT_MAX_BYTES = 1024; // Budget of bytes per match
+    private static final long DEFAULT_MAX_BYTES_PER_TURN = 32; // Budget of bytes per turn
+    private static final long DEFAULT_SEED = 42; // Seed of the deals and the strategies
+
+    /**
+     * The phases of a match the allocated bytes are charged to.
+     */
+    enum Phase
+    {
+        DEAL("deal"),
+        MOVE_GENERATION("move generation"),
+        PLAY("play"),
+        END_DETECTION("end detection");
+
+        private final String label; // Name printed in the report
+
+        Phase(String label) {this.label = label;}
+    }
+
+    private final com.sun.management.ThreadMXBean threads; // Source of the bytes allocated by the thread
+    private final DominoModelImp model; // Model of the matches, reused by every match
+    private final long[] bytesByPhase; // Bytes allocated by phase since the last reset
+    private final long readCost; // Bytes allocated by reading the counter itself, taken off every phase
+    private long mark; // Bytes allocated by the thread at the end of the last phase
+    private long turns; // Turns played since the last reset
+
+    /**
+     * Creates a probe playing seeded matches with the given settings.
+     *
+     * @param threads the thread bean, with allocated memory measurement enabled
+     * @param settings the settings of the matches; the number of human players is ignored
+     * @param seed the seed of the deals and the strategies
+     */
+    AllocationProbe(com.sun.management.ThreadMXBean threads, DominoSettings settings, long seed)
+    {
+        this.threads = threads;
+        this.bytesByPhase = new long[Phase.values().length];
+
+        DominoSettings cpuOnly = settings.clone();
+        cpuOnly.setNumOfHumanPlayers(0);
+        SplittableRandom random = new SplittableRandom(seed);
+        this.model = new DominoModelImp();
+        model.setPublishSnapshots(false);
+        model.setSettings(cpuOnly);
+        model.setRandom(random.split());
+        for(int seat = 0; seat < cpuOnly.getNumOfPlayers(); seat++)
+        {
+            model.setCPUStrategy(seat, new RandomCPUStrategy(random.split()));
+        }
+        this.readCost = measureReadCost();
+    }
+
+    /**
+     * Plays matches, adding their allocated bytes to the phases.
+     *
+     * @param matches the number of matches to play
+     */
+    void play(int matches)
+    {
+        mark = threads.getCurrentThreadAllocatedBytes();
+        for(int i = 0; i < matches; i++) playMatch();
+    }
+
+    /**
+     * Clears the bytes and the turns counted so far.
+     */
+    void reset()
+    {
+        Arrays.fill(bytesByPhase, 0);
+        turns = 0;
+    }
+
+    /**
+     * Plays one match to its end, charging every step to its phase.
+     */
+    private void playMatch()
+    {
+        model.startMatch();
+        charge(Phase.DEAL);
+        while(true)
+        {
+            boolean roundOver = model.hasWinner() || model.hasDraw();
+            charge(Phase.END_DETECTION);
+            if(roundOver)
+            {
+                boolean matchOver = model.isMatchOver();
+                charge(Phase.END_DETECTION);
+                if(matchOver) return;
+                model.startRound();
+                charge(Phase.DEAL);
+            }
+
+            CPUStrategy strategy = ((CPUPlayer) model.getCurrentPlayer()).getStrategy();
+            boolean canPlay = model.canCurrentPlayerPlayTile();
+            int tile = canPlay? strategy.chooseTile(model) : -1;
+            charge(Phase.MOVE_GENERATION);
+
+            Tile.AttachSide attachSide;
+            if(canPlay) attachSide = model.currentPlayerPlayTile(tile);
+            else if(!model.isBoneyardEmpty()) attachSide = model.currentPlayerDrawTile();
+            else
+            {
+                model.currentPlayerPassTurn();
+                attachSide = null;
+            }
+            if(attachSide == Tile.AttachSide.BOTH)
+            {
+                if(strategy.chooseSide(model) == 0) model.currentPlayerPlayTileLeft();
+                else model.currentPlayerPlayTileRight();
+            }
+            model.advanceTurn();
+            turns++;
+            charge(Phase.PLAY);
+        }
+    }
+
+    /**
+     * Charges the bytes allocated since the end of the last phase to a phase.
+     *
+     * @param phase the phase that just ended
+     */
+    private void charge(Phase phase)
+    {
+        long now = threads.getCurrentThreadAllocatedBytes();
+        bytesByPhase[phase.ordinal()] += Math.max(0, now - mark - readCost);
+        mark = now;
+    }
+
+    /**
+     * Measures the bytes allocated by reading the allocated bytes of the thread, usually none.
+     *
+     * @return the smallest number of bytes seen between two consecutive reads
+     */
+    private long measureReadCost()
+    {
+        long cost = Long.MAX_VALUE;
+        for(int i = 0; i < 1000; i++)
+        {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            cost = Math.min(cost, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+        return cost;
+    }
+
+    /**
+     * Runs the probe and prints the bytes allocated per match, per turn and by phase.
+     *
+     * @param args the command-line options
+     */
+    public static void main(String[] args)
+    {
+        int matches = 20000;
+        int warmup = 20000;
+        long seed = DEFAULT_SEED;
+        long maxBytes = DEFAULT_MAX_BYTES;
+        long maxBytesPerTurn = DEFAULT_MAX_BYTES_PER_TURN;
+        DominoSettings settings = new DominoSettings();
+        settings.setNumOfPlayers(4);
+        for(String arg : args)
+        {
+            if(arg.startsWith("--matches=")) matches = Integer.parseInt(arg.substring("--matches=".length()));
+            else if(arg.startsWith("--warmup=")) warmup = Integer.parseInt(arg.substring("--warmup=".length()));
+            else if(arg.startsWith("--players=")) settings.setNumOfPlayers(Integer.parseInt(arg.substring("--players=".length())));
+            else if(arg.startsWith("--max-dots=")) settings.setMaxDots(Integer.parseInt(arg.substring("--max-dots=".length())));
+            else if(arg.startsWith("--target=")) settings.setTargetScore(Integer.parseInt(arg.substring("--target=".length())));
+            else if(arg.equals("--teams")) settings.setTeamPlay(true);
+            else if(arg.startsWith("--seed=")) seed = Long.parseLong(arg.substring("--seed=".length()));
+            else if(arg.startsWith("--max-bytes=")) maxBytes = Long.parseLong(arg.substring("--max-bytes=".length()));
+            else if(arg.startsWith("--max-bytes-per-turn=")) maxBytesPerTurn = Long.parseLong(arg.substring("--max-bytes-per-turn=".length()));
+        }
+
+        if(!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported())
+        {
+            System.err.println("Allocated memory per thread is not supported by this JVM");
+            System.exit(2);
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        AllocationProbe probe = new AllocationProbe(threads, settings, seed);
+        probe.play(warmup);
+        probe.reset();
+        probe.play(matches);
+
+        long allocated = 0;
+        for(long bytes : probe.bytesByPhase) allocated += bytes;
+        double bytesPerMatch = matches == 0? 0 : (double) allocated / matches;
+        double bytesPerTurn = probe.turns == 0? 0 : (double) allocated / probe.turns;
+        System.out.printf("Matches: %d, turns: %d, seed: %d, allocated: %d bytes%n", matches, probe.turns, seed, allocated);
+        for(Phase phase : Phase.values())
+        {
+            long bytes = probe.bytesByPhase[phase.ordinal()];
+            System.out.printf("  %-16s %10d bytes (%.1f bytes/match)%n", phase.label, bytes,
+                    matches == 0? 0.0 : (double) bytes / matches);
+        }
+        System.out.printf("Per match: %.1f bytes (budget %d), per turn: %.2f bytes (budget %d)%n",
+                bytesPerMatch, maxBytes, bytesPerTurn, maxBytesPerTurn);
+
+        boolean exceeded = false;
+        if(bytesPerMatch > maxBytes)
+        {
+            System.err.println("Allocation budget per match exceeded");
+            exceeded = true;
+        }
+        if(bytesPerTurn > maxBytesPerTurn)
+        {
+            System.err.println("Allocation budget per turn exceeded");
+            exceeded = true;
+        }
+        if(exceeded) System.exit(1);
+    }
+}
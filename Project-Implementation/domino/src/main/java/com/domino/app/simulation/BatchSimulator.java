@@ -0,0 +1,151 @@
+package com.domino.app.simulation;
+
+import com.domino.app.model.CPUPlayer;
+import com.domino.app.model.CPUStrategy;
+import com.domino.app.model.DominoModelImp;
+import com.domino.app.model.DominoSettings;
+import com.domino.app.monitoring.LatencyHistogram;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plays batches of matches between CPU seats as fast as possible.
+ * <p>
+ * Every seat of the simulated matches is a CPU seat, whatever the number of human
+ * players in the given settings, and matches are played by a {@link MatchRunner}
+ * on a single model that is dealt again for every match. The model publishes no
+ * snapshots, so once the first match has sized its components the batch allocates
+ * next to nothing.
+ * </p>
+ * <p>
+ * The decisions of the strategies can be timed into log-linear histograms, one per seat,
+ * merged by strategy in the result.
+ * </p>
+ */
+public class BatchSimulator
+{
+    private final DominoSettings settings; // Settings of the simulated matches, without human seats
+    private final CPUStrategy[] strategies; // Strategies by seat, null entries for the default
+    private boolean timeDecisions; // Whether the decisions of the strategies are timed
+
+    /**
+     * Creates a simulator for the given settings, with the default strategy on every seat.
+     *
+     * @param settings the settings of the matches; the number of human players is ignored
+     */
+    public BatchSimulator(DominoSettings settings)
+    {
+        this(settings, new CPUStrategy[0]);
+    }
+
+    /**
+     * Creates a simulator for the given settings and seat strategies.
+     *
+     * @param settings the settings of the matches; the number of human players is ignored
+     * @param strategies the strategies by seat; missing or null entries use the default strategy
+     */
+    public BatchSimulator(DominoSettings settings, CPUStrategy... strategies)
+    {
+        this.settings = settings.clone();
+        this.settings.setNumOfHumanPlayers(0);
+        this.strategies = strategies.clone();
+    }
+
+    /**
+     * Sets whether the decisions of the strategies are timed. Timing adds two clock reads per decision.
+     *
+     * @param timeDecisions {@code true} to report the decision latencies by strategy; {@code false} otherwise
+     */
+    public void setTimeDecisions(boolean timeDecisions) {this.timeDecisions = timeDecisions;}
+
+    /**
+     * Plays a batch of matches.
+     *
+     * @param matches the number of matches to play
+     * @return the outcome of the batch
+     */
+    public SimulationResult simulate(int matches)
+    {
+        DominoModelImp model = new DominoModelImp();
+        model.setPublishSnapshots(false); // Nothing reads them, every match reuses the same components
+        model.setSettings(settings.clone());
+        for(int seat = 0; seat < strategies.length; seat++)
+        {
+            if(strategies[seat] != null) model.setCPUStrategy(seat, strategies[seat]);
+        }
+        MatchRunner runner = new MatchRunner(model);
+        LatencyHistogram[] latencies = new LatencyHistogram[timeDecisions? settings.getNumOfPlayers() : 0];
+        for(int seat = 0; seat < latencies.length; seat++) latencies[seat] = new LatencyHistogram();
+        runner.setDecisionLatencies(latencies);
+
+        int[] winsBySeat = new int[settings.getNumOfPlayers()];
+        int draws = 0;
+        long rounds = 0;
+        long turns = 0;
+        long start = System.nanoTime();
+        for(int i = 0; i < matches; i++)
+        {
+            runner.start();
+            int winnerSide = model.getMatchWinnerSide();
+            for(int seat = 0; seat < winsBySeat.length; seat++)
+            {
+                if(model.getSideOf(seat) == winnerSide) winsBySeat[seat]++;
+            }
+            draws += runner.getBlockedRounds();
+            rounds += runner.getRounds();
+            turns += runner.getTurns();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, LatencyHistogram.Snapshot> latenciesByStrategy = new HashMap<>();
+        for(int seat = 0; seat < latencies.length && matches > 0; seat++)
+        {
+            String name = ((CPUPlayer) model.getPlayer(seat)).getStrategy().getName();
+            latenciesByStrategy.merge(name, latencies[seat].snapshot(), LatencyHistogram.Snapshot::merge);
+        }
+        return new SimulationResult(matches, winsBySeat, draws, rounds, turns, elapsed, latenciesByStrategy);
+    }
+
+    /**
+     * Plays a batch of matches between default CPU seats and prints the outcome.
+     * <p>
+     * Usage: {@code BatchSimulator [--matches=n] [--players=n] [--max-dots=n] [--target=n] [--teams]
+     * [--time-decisions]}. With {@code --time-decisions}, the 50th, 99th and 99.9th percentiles
+     * of the decision times of every strategy are printed too.
+     * </p>
+     *
+     * @param args the command-line options
+     */
+    public static void main(String[] args)
+    {
+        int matches = 100_000;
+        DominoSettings settings = new DominoSettings();
+        boolean timeDecisions = false;
+        for(String arg : args)
+        {
+            if(arg.startsWith("--matches=")) matches = Integer.parseInt(arg.substring("--matches=".length()));
+            else if(arg.startsWith("--players=")) settings.setNumOfPlayers(Integer.parseInt(arg.substring("--players=".length())));
+            else if(arg.startsWith("--max-dots=")) settings.setMaxDots(Integer.parseInt(arg.substring("--max-dots=".length())));
+            else if(arg.startsWith("--target=")) settings.setTargetScore(Integer.parseInt(arg.substring("--target=".length())));
+            else if(arg.equals("--teams")) settings.setTeamPlay(true);
+            else if(arg.equals("--time-decisions")) timeDecisions = true;
+        }
+
+        BatchSimulator simulator = new BatchSimulator(settings);
+        simulator.setTimeDecisions(timeDecisions);
+        SimulationResult result = simulator.simulate(matches);
+
+        double seconds = result.elapsedNanos() / 1e9;
+        System.out.printf("Matches: %d in %.2f s (%.0f matches/s), rounds: %d, blocked rounds: %d, turns: %d%n",
+                result.matches(), seconds, result.matches() / seconds, result.rounds(), result.draws(), result.turns());
+        for(int seat = 0; seat < result.seats(); seat++)
+        {
+            System.out.printf("Seat %d: %d wins (%.2f%%)%n", seat, result.wins(seat), 100.0 * result.wins(seat) / result.matches());
+        }
+        for(Map.Entry<String, LatencyHistogram.Snapshot> entry : result.decisionLatencies().entrySet())
+        {
+            System.out.println("Decision latency of " + entry.getKey() + ": " + entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.domino.app.simulation;
+
+import java.util.Arrays;
+
+/**
+ * The outcome of a batch of duplicate deals, every deal played once per rotation of the seats.
+ *
+ * @param deals the number of deals played
+ * @param rotations the number of times every deal was played, with the strategies moved one seat further each time
+ * @param winsByEntry the number of plays won by each entry of the lineup; both seats of a team are credited
+ *                    with the plays won by the team
+ * @param firstEntryScores the number of deals by plays won by the first entry of the lineup: index {@code k}
+ *                         counts the deals the first entry won {@code k} of the {@code rotations} times
+ * @param elapsedNanos the time spent playing the batch
+ */
+public record DuplicateResult(int deals, int rotations, long[] winsByEntry, long[] firstEntryScores, long elapsedNanos)
+{
+    /**
+     * Creates a result, copying the counts so they cannot change afterwards.
+     */
+    public DuplicateResult
+    {
+        winsByEntry = winsByEntry.clone();
+        firstEntryScores = firstEntryScores.clone();
+    }
+
+    /**
+     * Gets the number of plays won by each entry of the lineup.
+     *
+     * @return a copy of the wins by entry
+     */
+    @Override
+    public long[] winsByEntry() {return winsByEntry.clone();}
+
+    /**
+     * Gets the number of deals by plays won by the first entry of the lineup.
+     *
+     * @return a copy of the deal counts by plays won
+     */
+    @Override
+    public long[] firstEntryScores() {return firstEntryScores.clone();}
+
+    /**
+     * Gets the number of matches played, every deal counting once per rotation.
+     *
+     * @return the number of plays
+     */
+    public long plays() {return (long) deals * rotations;}
+
+    @Override
+    public String toString()
+    {
+        return "DuplicateResult[deals=" + deals + ", rotations=" + rotations + ", winsByEntry=" + Arrays.toString(winsByEntry)
+                + ", firstEntryScores=" + Arrays.toString(firstEntryScores) + ", elapsedNanos=" + elapsedNanos + "]";
+    }
+}
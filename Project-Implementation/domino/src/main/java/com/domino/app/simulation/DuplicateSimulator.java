@@ -0,0 +1,115 @@
+package com.domino.app.simulation;
+
+import com.domino.app.model.CPUStrategy;
+import com.domino.app.model.DominoModelImp;
+import com.domino.app.model.DominoSettings;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays every deal several times with the strategies rotated across the seats.
+ * <p>
+ * Most of the difference between two results comes from the deal rather than from the
+ * strategies. A duplicate batch removes it: the deal of the first rotation is taken from
+ * its model with {@link DominoModelImp#getLastDeal()} and laid again on one model per
+ * other rotation, where every strategy has moved one seat further. Every entry of the
+ * lineup then holds every hand of the deal in turn, and the results of a deal can be
+ * compared as paired outcomes.
+ * </p>
+ * <p>
+ * Like the {@link BatchSimulator}, the models are reused for every deal and publish no
+ * snapshots. Every deal is played as a single round, whatever the target score of the
+ * settings, since only the first deal of a match could be laid again.
+ * </p>
+ */
+public class DuplicateSimulator
+{
+    private final DominoSettings settings; // Settings of the simulated matches, without human seats or target score
+    private final CPUStrategy[] lineup; // Strategies by seat in the first rotation
+    private final int rotations; // Number of times every deal is played
+    private RandomGenerator random; // Source of randomness of the deals, null to use the thread's own
+
+    /**
+     * Creates a duplicate simulator for the given settings and lineup.
+     *
+     * @param settings the settings of the matches; the number of human players and the target score are ignored
+     * @param rotations the number of times every deal is played, from 1 to the number of players
+     * @param lineup the strategies by seat in the first rotation, one per player
+     * @throws IllegalArgumentException if the lineup does not fill the seats or the number of rotations is out of range
+     */
+    public DuplicateSimulator(DominoSettings settings, int rotations, CPUStrategy... lineup)
+    {
+        if(lineup.length != settings.getNumOfPlayers())
+        {
+            throw new IllegalArgumentException("The lineup needs one strategy per seat: " + settings.getNumOfPlayers());
+        }
+        if(rotations < 1 || rotations > lineup.length)
+        {
+            throw new IllegalArgumentException("Rotations must be between 1 and " + lineup.length + ": " + rotations);
+        }
+        this.settings = settings.clone();
+        this.settings.setNumOfHumanPlayers(0);
+        this.settings.setTargetScore(0);
+        this.lineup = lineup.clone();
+        this.rotations = rotations;
+    }
+
+    /**
+     * Sets the source of randomness of the deals, for reproducible batches.
+     *
+     * @param random the random generator, or {@code null} for the generator of the calling thread, the default
+     */
+    public void setRandom(RandomGenerator random) {this.random = random;}
+
+    /**
+     * Plays a batch of duplicate deals.
+     *
+     * @param deals the number of deals to play, each played once per rotation
+     * @return the outcome of the batch
+     */
+    public DuplicateResult simulate(int deals)
+    {
+        int seats = lineup.length;
+        DominoModelImp[] models = new DominoModelImp[rotations];
+        MatchRunner[] runners = new MatchRunner[rotations];
+        for(int rotation = 0; rotation < rotations; rotation++)
+        {
+            DominoModelImp model = new DominoModelImp();
+            model.setPublishSnapshots(false);
+            model.setSettings(settings.clone());
+            for(int seat = 0; seat < seats; seat++) model.setCPUStrategy(seat, lineup[(seat + rotation) % seats]);
+            models[rotation] = model;
+            runners[rotation] = new MatchRunner(model);
+        }
+        models[0].setRandom(random);
+
+        long[] winsByEntry = new long[seats];
+        long[] firstEntryScores = new long[rotations + 1];
+        long start = System.nanoTime();
+        for(int i = 0; i < deals; i++)
+        {
+            runners[0].start();
+            int[] deal = rotations > 1? models[0].getLastDeal() : null;
+            int firstEntryWins = 0;
+            for(int rotation = 0; rotation < rotations; rotation++)
+            {
+                DominoModelImp model = models[rotation];
+                if(rotation > 0)
+                {
+                    model.setNextDeal(deal);
+                    runners[rotation].start();
+                }
+                int winnerSide = model.getMatchWinnerSide();
+                for(int seat = 0; seat < seats; seat++)
+                {
+                    if(model.getSideOf(seat) != winnerSide) continue;
+                    int entry = (seat + rotation) % seats;
+                    winsByEntry[entry]++;
+                    if(entry == 0) firstEntryWins++;
+                }
+            }
+            firstEntryScores[firstEntryWins]++;
+        }
+        return new DuplicateResult(deals, rotations, winsByEntry, firstEntryScores, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,298 @@
+package com.domino.app.simulation;
+
+import com.domino.app.model.CPUPlayer;
+import com.domino.app.model.CPUStrategy;
+import com.domino.app.model.DominoModel;
+import com.domino.app.model.Tile;
+import com.domino.app.monitoring.LatencyHistogram;
+
+/**
+ * Plays a match on a model one decision at a time, without a view or a controller.
+ * <p>
+ * The runner follows the same turn rules as the {@code DominoController}: a player
+ * who can play chooses a tile, a player who cannot draws from the boneyard and the
+ * drawn tile is played if it fits, and a player who cannot draw passes. CPU seats
+ * are played immediately with their strategies, and the runner stops whenever a
+ * human seat has to decide, exposing the {@link Decision} it is waiting for.
+ * </p>
+ * <p>
+ * When the match is played to a target score, the next round is dealt as soon as
+ * one ends, until the match is over.
+ * </p>
+ * <p>
+ * A {@link TurnObserver} can watch the decisions of every seat, seeing the model as
+ * the seat saw it when deciding.
+ * </p>
+ */
+public class MatchRunner
+{
+    /**
+     * The decision a human seat has to make for the match to continue.
+     */
+    public enum Decision
+    {
+        NONE, // No decision is pending, the match is over
+        TILE, // Index of the tile to play among the playable tiles
+        SIDE // Side of the board to play the last tile on, 0 for left and 1 for right
+    }
+
+    /**
+     * Watches the turns of a match as they are played.
+     */
+    public interface TurnObserver
+    {
+        /**
+         * Called when the current seat has chosen the tile to play, before it is played.
+         *
+         * @param model the model of the match, positioned on the decision
+         * @param choice the index of the tile among the playable tiles of the seat
+         */
+        void tileChosen(DominoModel model, int choice);
+
+        /**
+         * Called when the current seat has no tile to play, before it draws or passes.
+         *
+         * @param model the model of the match, positioned on the turn
+         */
+        void cannotPlay(DominoModel model);
+    }
+
+    private final DominoModel model; // Model of the match
+    private Decision pending; // Decision the current seat has to make
+    private int turns; // Number of turns played in the match
+    private int rounds; // Number of rounds finished in the match
+    private int blockedRounds; // Number of rounds finished blocked, decided by the lowest pip count
+    private LatencyHistogram[] decisionLatencies; // Decision times of the CPU seats by seat, null when not timed
+    private TurnObserver observer; // Observer of the turns, null for none
+
+    /**
+     * Creates a runner for the given model.
+     *
+     * @param model the model of the match, configured with the desired settings
+     */
+    public MatchRunner(DominoModel model)
+    {
+        this.model = model;
+        this.pending = Decision.NONE;
+    }
+
+    /**
+     * Times the decisions of the CPU seats from now on.
+     *
+     * @param bySeat the histograms receiving the decision times, indexed by seat;
+     *               none to stop timing the decisions
+     */
+    public void setDecisionLatencies(LatencyHistogram... bySeat)
+    {
+        this.decisionLatencies = bySeat.length == 0? null : bySeat;
+    }
+
+    /**
+     * Sets the observer of the turns played from now on.
+     *
+     * @param observer the observer, or {@code null} for none
+     */
+    public void setTurnObserver(TurnObserver observer) {this.observer = observer;}
+
+    /**
+     * Gets the model of the match.
+     *
+     * @return the model
+     */
+    public DominoModel getModel() {return model;}
+
+    /**
+     * Gets the decision the current seat has to make.
+     *
+     * @return the pending decision, {@link Decision#NONE} once the match is over
+     */
+    public Decision getPendingDecision() {return pending;}
+
+    /**
+     * Gets the number of turns played in the match.
+     *
+     * @return the number of turns
+     */
+    public int getTurns() {return turns;}
+
+    /**
+     * Gets the number of rounds finished in the match.
+     *
+     * @return the number of rounds over
+     */
+    public int getRounds() {return rounds;}
+
+    /**
+     * Gets the number of rounds of the match that finished blocked.
+     *
+     * @return the number of blocked rounds
+     */
+    public int getBlockedRounds() {return blockedRounds;}
+
+    /**
+     * Checks whether the match is over.
+     *
+     * @return {@code true} if its last round is over and no other round follows; {@code false} otherwise
+     */
+    public boolean isOver() {return model.isMatchOver();}
+
+    /**
+     * Deals a new match and plays until a human seat has to decide or the match is over.
+     */
+    public void start()
+    {
+        model.startMatch();
+        turns = 0;
+        rounds = 0;
+        blockedRounds = 0;
+        pending = Decision.NONE;
+        advance();
+    }
+
+    /**
+     * Plays a tile for the human seat whose turn it is.
+     *
+     * @param index the index of the tile among the playable tiles of the seat
+     * @throws IllegalStateException if no tile choice is pending
+     * @throws IllegalArgumentException if the index is not a playable tile
+     */
+    public void playTile(int index)
+    {
+        if(pending != Decision.TILE) throw new IllegalStateException("No tile choice is pending");
+        if(index < 0 || index >= model.getCurrentPlayerPlayableTiles().size())
+        {
+            throw new IllegalArgumentException("Invalid tile option: " + index);
+        }
+
+        if(observer != null) observer.tileChosen(model, index);
+        if(model.currentPlayerPlayTile(index) == Tile.AttachSide.BOTH)
+        {
+            pending = Decision.SIDE;
+            return;
+        }
+        endTurn();
+        advance();
+    }
+
+    /**
+     * Plays the last tile on the chosen side of the board for the human seat whose turn it is.
+     *
+     * @param side {@code 0} for the left end, {@code 1} for the right end
+     * @throws IllegalStateException if no side choice is pending
+     * @throws IllegalArgumentException if the side is neither 0 nor 1
+     */
+    public void playSide(int side)
+    {
+        if(pending != Decision.SIDE) throw new IllegalStateException("No side choice is pending");
+        if(side != 0 && side != 1) throw new IllegalArgumentException("Invalid side option: " + side);
+
+        playSide(side == 0);
+        endTurn();
+        advance();
+    }
+
+    /**
+     * Plays turns until a human seat has to decide or the match is over,
+     * dealing the next round whenever one ends before the match does.
+     */
+    private void advance()
+    {
+        pending = Decision.NONE;
+        while(true)
+        {
+            if(model.hasWinner() || model.hasDraw())
+            {
+                rounds++;
+                if(!model.hasWinner()) blockedRounds++;
+                if(model.isMatchOver()) return;
+                model.startRound();
+            }
+
+            CPUStrategy strategy = model.getCurrentPlayer() instanceof CPUPlayer cpuPlayer? cpuPlayer.getStrategy() : null;
+
+            if(model.canCurrentPlayerPlayTile())
+            {
+                if(strategy == null)
+                {
+                    pending = Decision.TILE;
+                    return;
+                }
+                int choice = chooseTile(strategy);
+                if(observer != null) observer.tileChosen(model, choice);
+                Tile.AttachSide attachSide = model.currentPlayerPlayTile(choice);
+                if(attachSide == Tile.AttachSide.BOTH) playSide(chooseSide(strategy) == 0);
+            }
+            else if(!model.isBoneyardEmpty())
+            {
+                if(observer != null) observer.cannotPlay(model);
+                Tile.AttachSide attachSide = model.currentPlayerDrawTile();
+                if(attachSide == Tile.AttachSide.BOTH)
+                {
+                    if(strategy == null)
+                    {
+                        pending = Decision.SIDE;
+                        return;
+                    }
+                    playSide(chooseSide(strategy) == 0);
+                }
+            }
+            else
+            {
+                if(observer != null) observer.cannotPlay(model);
+                model.currentPlayerPassTurn();
+            }
+
+            endTurn();
+        }
+    }
+
+    /**
+     * Asks a CPU strategy for the tile to play, timing the decision if requested.
+     *
+     * @param strategy the strategy of the current seat
+     * @return the index of the tile among the playable tiles
+     */
+    private int chooseTile(CPUStrategy strategy)
+    {
+        if(decisionLatencies == null) return strategy.chooseTile(model);
+        long start = System.nanoTime();
+        int tile = strategy.chooseTile(model);
+        decisionLatencies[model.getCurrentTurn()].record(System.nanoTime() - start);
+        return tile;
+    }
+
+    /**
+     * Asks a CPU strategy for the side to play the last tile on, timing the decision if requested.
+     *
+     * @param strategy the strategy of the current seat
+     * @return {@code 0} for the left end; {@code 1} for the right end
+     */
+    private int chooseSide(CPUStrategy strategy)
+    {
+        if(decisionLatencies == null) return strategy.chooseSide(model);
+        long start = System.nanoTime();
+        int side = strategy.chooseSide(model);
+        decisionLatencies[model.getCurrentTurn()].record(System.nanoTime() - start);
+        return side;
+    }
+
+    /**
+     * Plays the last tile on one end of the board.
+     *
+     * @param left {@code true} for the left end; {@code false} for the right end
+     */
+    private void playSide(boolean left)
+    {
+        if(left) model.currentPlayerPlayTileLeft();
+        else model.currentPlayerPlayTileRight();
+    }
+
+    /**
+     * Completes the turn of the current seat.
+     */
+    private void endTurn()
+    {
+        turns++;
+        model.advanceTurn();
+    }
+}
@@ -0,0 +1,63 @@
+package com.domino.app.simulation;
+
+import com.domino.app.monitoring.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The outcome of a batch of simulated matches.
+ *
+ * @param matches the number of matches played
+ * @param winsBySeat the number of matches won by each seat, including blocked matches won on pips;
+ *                   both seats of a team are credited with the matches won by the team
+ * @param draws the number of blocked rounds, decided by the lowest pip count
+ * @param rounds the total number of rounds played, one per match without a target score
+ * @param turns the total number of turns played
+ * @param elapsedNanos the time spent playing the batch
+ * @param decisionLatencies the decision times of the CPU seats by strategy name, empty if they were not timed
+ */
+public record SimulationResult(int matches, int[] winsBySeat, int draws, long rounds, long turns, long elapsedNanos,
+                               Map<String, LatencyHistogram.Snapshot> decisionLatencies)
+{
+    /**
+     * Creates a result, copying the wins and latencies so they cannot change afterwards.
+     */
+    public SimulationResult
+    {
+        winsBySeat = winsBySeat.clone();
+        decisionLatencies = Collections.unmodifiableMap(new TreeMap<>(decisionLatencies));
+    }
+
+    /**
+     * Gets the number of matches won by each seat.
+     *
+     * @return a copy of the wins by seat
+     */
+    @Override
+    public int[] winsBySeat() {return winsBySeat.clone();}
+
+    /**
+     * Gets the number of matches won by a seat.
+     *
+     * @param seat the turn index of the seat
+     * @return the number of matches won by the seat
+     */
+    public int wins(int seat) {return winsBySeat[seat];}
+
+    /**
+     * Gets the number of seats of the simulated matches.
+     *
+     * @return the number of seats
+     */
+    public int seats() {return winsBySeat.length;}
+
+    @Override
+    public String toString()
+    {
+        return "SimulationResult[matches=" + matches + ", winsBySeat=" + Arrays.toString(winsBySeat)
+                + ", draws=" + draws + ", rounds=" + rounds + ", turns=" + turns + ", elapsedNanos=" + elapsedNanos + "]";
+    }
+}
@@ -0,0 +1,194 @@
+package com.domino.app.simulation;
+
+/**
+ * A sequential probability ratio test on the score of a strategy against another.
+ * <p>
+ * The test weighs the hypothesis that the first strategy is {@code elo1} Elo stronger
+ * than the second against the hypothesis that it is only {@code elo0} stronger. Every
+ * match scores 1 for a win, 1/2 for a draw and 0 for a loss, and the log-likelihood
+ * ratio of the two hypotheses is estimated from the mean and variance of the scores with
+ * the normal approximation used by engine testing frameworks. One pseudo outcome, half a win
+ * and half a loss, is added to the matches played, so a first batch of matches all scored the
+ * same has a variance and cannot end the test on its own. Matches are played until
+ * the ratio leaves the bounds given by the error rates, which takes few matches when
+ * the difference is large and many only when it is close to the hypotheses.
+ * </p>
+ * <p>
+ * The same estimate holds for any outcome scored between 0 and 1, such as the mean score
+ * of a deal played twice with the strategies swapped. Scoring such pairs removes the luck
+ * of the deal from the variance, so the test concludes after fewer matches.
+ * </p>
+ *
+ * @param elo0 the Elo difference of the null hypothesis
+ * @param elo1 the Elo difference of the alternative hypothesis, above {@code elo0}
+ * @param alpha the probability of accepting the alternative when the null hypothesis holds
+ * @param beta the probability of accepting the null hypothesis when the alternative holds
+ */
+public record Sprt(double elo0, double elo1, double alpha, double beta)
+{
+    private static final double PSEUDO_OUTCOMES = 1; // Outcomes added to the estimate, half won and half lost
+
+    /**
+     * Creates a test, checking its parameters.
+     *
+     * @throws IllegalArgumentException if {@code elo1} is not above {@code elo0} or an error rate is not in (0, 1)
+     */
+    public Sprt
+    {
+        if(!(elo1 > elo0)) throw new IllegalArgumentException("elo1 must be above elo0");
+        if(!(alpha > 0 && alpha < 1 && beta > 0 && beta < 1)) throw new IllegalArgumentException("Error rates must be in (0, 1)");
+    }
+
+    /**
+     * Gets the log-likelihood ratio below which the null hypothesis is accepted.
+     *
+     * @return the lower bound
+     */
+    public double lowerBound() {return Math.log(beta / (1 - alpha));}
+
+    /**
+     * Gets the log-likelihood ratio above which the alternative hypothesis is accepted.
+     *
+     * @return the upper bound
+     */
+    public double upperBound() {return Math.log((1 - beta) / alpha);}
+
+    /**
+     * Estimates the log-likelihood ratio of the alternative to the null hypothesis.
+     *
+     * @param wins the number of matches won by the first strategy
+     * @param draws the number of matches drawn
+     * @param losses the number of matches lost by the first strategy
+     * @return the ratio
+     */
+    public double llr(long wins, long draws, long losses) {return llr(new long[] {losses, draws, wins});}
+
+    /**
+     * Estimates the log-likelihood ratio of the alternative to the null hypothesis from outcomes
+     * scored in evenly spaced steps from 0 to 1.
+     *
+     * @param scoreCounts the number of outcomes by score, index {@code i} counting the outcomes
+     *                    scored {@code i / (scoreCounts.length - 1)}
+     * @return the ratio, 0 without outcomes
+     */
+    public double llr(long[] scoreCounts)
+    {
+        long outcomes = 0;
+        for(long count : scoreCounts) outcomes += count;
+        if(outcomes == 0) return 0;
+
+        // Mean and variance with the pseudo outcome spread over the lowest and highest scores
+        int last = scoreCounts.length - 1;
+        double weight = outcomes + PSEUDO_OUTCOMES;
+        double sum = 0;
+        for(int i = 0; i <= last; i++) sum += pseudoCount(scoreCounts, i) * stepScore(i, scoreCounts.length);
+        double score = sum / weight;
+        double squares = 0;
+        for(int i = 0; i <= last; i++)
+        {
+            double deviation = stepScore(i, scoreCounts.length) - score;
+            squares += pseudoCount(scoreCounts, i) * deviation * deviation;
+        }
+        double variance = squares / weight;
+
+        double s0 = scoreOf(elo0);
+        double s1 = scoreOf(elo1);
+        double drift = (s1 - s0) * (2 * score - s0 - s1);
+        if(variance == 0) return 0; // Only with a single step, every outcome scoring 0
+        return outcomes * drift / (2 * variance);
+    }
+
+    /**
+     * Gets the number of outcomes of a step, with its share of the pseudo outcome.
+     *
+     * @param scoreCounts the number of outcomes by score
+     * @param step the index of the step
+     * @return the number of outcomes, half the pseudo outcome added to the first and last steps
+     */
+    private static double pseudoCount(long[] scoreCounts, int step)
+    {
+        double count = scoreCounts[step];
+        if(step == 0) count += PSEUDO_OUTCOMES / 2;
+        if(step == scoreCounts.length - 1) count += PSEUDO_OUTCOMES / 2;
+        return count;
+    }
+
+    /**
+     * Gets the variance of the score of one match.
+     *
+     * @param wins the number of matches won by the first strategy
+     * @param draws the number of matches drawn
+     * @param losses the number of matches lost by the first strategy
+     * @return the variance of the score, 0 without matches
+     */
+    public static double variance(long wins, long draws, long losses) {return variance(new long[] {losses, draws, wins});}
+
+    /**
+     * Gets the mean of outcomes scored in evenly spaced steps from 0 to 1.
+     *
+     * @param scoreCounts the number of outcomes by score, as for {@link #llr(long[])}
+     * @return the mean score, 0 without outcomes
+     */
+    public static double mean(long[] scoreCounts)
+    {
+        long outcomes = 0;
+        double sum = 0;
+        for(int i = 0; i < scoreCounts.length; i++)
+        {
+            outcomes += scoreCounts[i];
+            sum += scoreCounts[i] * stepScore(i, scoreCounts.length);
+        }
+        return outcomes == 0? 0 : sum / outcomes;
+    }
+
+    /**
+     * Gets the variance of outcomes scored in evenly spaced steps from 0 to 1.
+     *
+     * @param scoreCounts the number of outcomes by score, as for {@link #llr(long[])}
+     * @return the variance of the score of one outcome, 0 without outcomes
+     */
+    public static double variance(long[] scoreCounts)
+    {
+        long outcomes = 0;
+        for(long count : scoreCounts) outcomes += count;
+        if(outcomes == 0) return 0;
+        double mean = mean(scoreCounts);
+        double sum = 0;
+        for(int i = 0; i < scoreCounts.length; i++)
+        {
+            double deviation = stepScore(i, scoreCounts.length) - mean;
+            sum += scoreCounts[i] * deviation * deviation;
+        }
+        return sum / outcomes;
+    }
+
+    /**
+     * Gets the score of a step.
+     *
+     * @param step the index of the step
+     * @param steps the number of steps, the first scoring 0 and the last 1
+     * @return the score of the step
+     */
+    private static double stepScore(int step, int steps) {return steps == 1? 0 : (double) step / (steps - 1);}
+
+    /**
+     * Gets the expected score of a strategy the given number of Elo stronger than its opponent.
+     *
+     * @param elo the Elo difference
+     * @return the expected score, between 0 and 1
+     */
+    public static double scoreOf(double elo) {return 1 / (1 + Math.pow(10, -elo / 400));}
+
+    /**
+     * Gets the Elo difference giving the expected score.
+     *
+     * @param score the score, between 0 and 1
+     * @return the Elo difference; infinite for a score of 0 or 1
+     */
+    public static double eloOf(double score)
+    {
+        if(score <= 0) return Double.NEGATIVE_INFINITY;
+        if(score >= 1) return Double.POSITIVE_INFINITY;
+        return -400 * Math.log10(1 / score - 1);
+    }
+}
@@ -0,0 +1,330 @@
+package com.domino.app.simulation;
+
+import com.domino.app.model.CPUStrategies;
+import com.domino.app.model.CPUStrategy;
+import com.domino.app.model.DominoSettings;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Compares two CPU strategies head to head, stopping as soon as the result is significant.
+ * <p>
+ * Batches of matches are played in parallel, one {@link BatchSimulator} per batch, and a
+ * {@link Sprt} is checked every time a batch completes. Every batch plays half its matches
+ * with the first strategy on the first seat and half with the second strategy there, so
+ * the advantage of a seat cancels out. With two players the strategies play each other;
+ * with four players they play as two teams, on alternate seats.
+ * </p>
+ * <p>
+ * In duplicate mode, a batch plays its matches on pairs of identical deals instead, one
+ * with each strategy on the first seat, through a {@link DuplicateSimulator}. The test
+ * then scores every pair by its mean outcome, which no longer depends on the luck of the
+ * deal, and concludes after many times fewer matches.
+ * </p>
+ * <p>
+ * The comparison stops when the test accepts a hypothesis or when the match budget is
+ * spent, and reports the matches played with the Elo difference and its 95% confidence
+ * interval.
+ * </p>
+ */
+public class StrategyComparison
+{
+    private static final double Z_95 = 1.959964; // Quantile of the normal distribution for a 95% interval
+
+    /**
+     * The conclusion of a comparison.
+     */
+    public enum Verdict
+    {
+        STRONGER, // The alternative hypothesis was accepted: the first strategy is at least elo1 stronger
+        NOT_STRONGER, // The null hypothesis was accepted: the first strategy is at most elo0 stronger
+        INCONCLUSIVE // The match budget was spent before either hypothesis was accepted
+    }
+
+    /**
+     * The outcome of a comparison, from the point of view of the first strategy.
+     *
+     * @param matches the number of matches played
+     * @param wins the number of matches won by the first strategy
+     * @param draws the number of matches without a winner
+     * @param losses the number of matches won by the second strategy
+     * @param llr the log-likelihood ratio of the test when the comparison stopped
+     * @param verdict the conclusion of the test
+     * @param elo the estimated Elo difference of the first strategy over the second
+     * @param eloLow the lower end of the 95% confidence interval of the Elo difference
+     * @param eloHigh the upper end of the 95% confidence interval of the Elo difference
+     * @param elapsedNanos the time spent playing
+     */
+    public record Result(long matches, long wins, long draws, long losses, double llr, Verdict verdict,
+                         double elo, double eloLow, double eloHigh, long elapsedNanos) {}
+
+    private final DominoSettings settings; // Settings of the matches, two players or four in teams
+    private final Supplier<CPUStrategy> first; // Factory of the first strategy, one instance per seat and batch
+    private final Supplier<CPUStrategy> second; // Factory of the second strategy, one instance per seat and batch
+    private final Sprt sprt; // Test deciding when to stop
+    private boolean duplicate; // Whether every deal is played twice, the strategies swapped
+    private SplittableRandom random; // Source of the seeds of the batches, null for unseeded deals
+
+    /**
+     * Creates a comparison of two strategies.
+     *
+     * @param settings the settings of the matches; with four players the matches are played in teams
+     * @param first the factory of the first strategy
+     * @param second the factory of the second strategy
+     * @param sprt the test deciding when to stop
+     * @throws IllegalArgumentException if the settings have neither two nor four players
+     */
+    public StrategyComparison(DominoSettings settings, Supplier<CPUStrategy> first, Supplier<CPUStrategy> second, Sprt sprt)
+    {
+        int players = settings.getNumOfPlayers();
+        if(players != 2 && players != 4) throw new IllegalArgumentException("Comparisons need 2 players, or 4 in teams");
+        this.settings = settings.clone();
+        this.settings.setTeamPlay(players == 4);
+        this.first = first;
+        this.second = second;
+        this.sprt = sprt;
+    }
+
+    /**
+     * Sets whether every deal is played twice with the strategies swapped, and scored as a pair.
+     *
+     * @param duplicate {@code true} to play duplicate deals; {@code false} to deal every match anew, the default
+     */
+    public void setDuplicate(boolean duplicate) {this.duplicate = duplicate;}
+
+    /**
+     * Seeds the deals of the duplicate batches, so the same deals are played by every comparison.
+     *
+     * @param seed the seed the batches take their own seeds from
+     */
+    public void setSeed(long seed) {this.random = new SplittableRandom(seed);}
+
+    /**
+     * Plays batches of matches until the test concludes or the budget is spent.
+     *
+     * @param batchSize the number of matches of a batch, rounded up to an even number
+     * @param maxMatches the largest number of matches to play
+     * @param threads the number of batches played at once
+     * @return the outcome of the comparison
+     * @throws InterruptedException if the calling thread is interrupted while waiting for a batch
+     */
+    public Result run(int batchSize, long maxMatches, int threads) throws InterruptedException
+    {
+        int size = Math.max(2, batchSize + (batchSize & 1));
+        long[] scoreCounts = new long[3]; // Outcomes scored 0, 1/2 and 1: matches, or pairs of matches in duplicate mode
+        long wins = 0;
+        long draws = 0;
+        long losses = 0;
+        double llr = 0;
+        Verdict verdict = Verdict.INCONCLUSIVE;
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try
+        {
+            CompletionService<BatchOutcome> batches = new ExecutorCompletionService<>(executor);
+            long submitted = 0;
+            int running = 0;
+            while(running < threads && submitted < maxMatches)
+            {
+                submitBatch(batches, size);
+                submitted += size;
+                running++;
+            }
+            while(running > 0)
+            {
+                BatchOutcome outcome = batches.take().get();
+                running--;
+                for(int i = 0; i < scoreCounts.length; i++) scoreCounts[i] += outcome.scoreCounts()[i];
+                wins += outcome.wins();
+                draws += outcome.draws();
+                losses += outcome.losses();
+
+                llr = sprt.llr(scoreCounts);
+                if(llr >= sprt.upperBound()) verdict = Verdict.STRONGER;
+                else if(llr <= sprt.lowerBound()) verdict = Verdict.NOT_STRONGER;
+                if(verdict != Verdict.INCONCLUSIVE) break;
+
+                if(submitted < maxMatches)
+                {
+                    submitBatch(batches, size);
+                    submitted += size;
+                    running++;
+                }
+            }
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("A batch of matches failed", e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow(); // Batches still running are left to finish, their matches are not counted
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long matches = wins + draws + losses;
+        long outcomes = scoreCounts[0] + scoreCounts[1] + scoreCounts[2];
+        double score = outcomes == 0? 0.5 : Sprt.mean(scoreCounts);
+        double margin = outcomes == 0? 0.5 : Z_95 * Math.sqrt(Sprt.variance(scoreCounts) / outcomes);
+        return new Result(matches, wins, draws, losses, llr, verdict, Sprt.eloOf(score),
+                Sprt.eloOf(score - margin), Sprt.eloOf(score + margin), elapsed);
+    }
+
+    /**
+     * The outcome of a batch, from the point of view of the first strategy.
+     *
+     * @param scoreCounts the outcomes scored 0, 1/2 and 1: matches, or pairs of matches in duplicate mode
+     * @param wins the number of matches won
+     * @param draws the number of matches without a winner
+     * @param losses the number of matches lost
+     */
+    private record BatchOutcome(long[] scoreCounts, long wins, long draws, long losses) {}
+
+    /**
+     * Submits a batch of the current mode.
+     *
+     * @param batches the service running the batches
+     * @param size the number of matches of the batch, even
+     */
+    private void submitBatch(CompletionService<BatchOutcome> batches, int size)
+    {
+        if(!duplicate) batches.submit(() -> playBatch(size));
+        else
+        {
+            RandomGenerator batchRandom = random != null? random.split() : null; // Split on this thread, in submission order
+            batches.submit(() -> playDuplicateBatch(size / 2, batchRandom));
+        }
+    }
+
+    /**
+     * Plays a batch of matches, half with each strategy on the first seat.
+     *
+     * @param size the number of matches, even
+     * @return the outcome of the batch, scored by match
+     */
+    private BatchOutcome playBatch(int size)
+    {
+        long wins = 0;
+        long draws = 0;
+        long losses = 0;
+        for(int rotation = 0; rotation < 2; rotation++)
+        {
+            SimulationResult result = new BatchSimulator(settings, lineup(rotation)).simulate(size / 2);
+            long firstWins = result.wins(rotation);
+            long secondWins = result.wins(1 - rotation);
+            wins += firstWins;
+            draws += result.matches() - firstWins - secondWins;
+            losses += secondWins;
+        }
+        return new BatchOutcome(new long[] {losses, draws, wins}, wins, draws, losses);
+    }
+
+    /**
+     * Plays a batch of duplicate deals, each once with each strategy on the first seat.
+     *
+     * @param deals the number of deals
+     * @param random the source of randomness of the deals, or {@code null} for the generator of the thread
+     * @return the outcome of the batch, scored by pair of matches
+     */
+    private BatchOutcome playDuplicateBatch(int deals, RandomGenerator random)
+    {
+        DuplicateSimulator simulator = new DuplicateSimulator(settings, 2, lineup(0));
+        simulator.setRandom(random);
+        DuplicateResult result = simulator.simulate(deals);
+        long[] pairs = result.firstEntryScores(); // Deals won 0, 1 or 2 times by the first strategy
+        long wins = pairs[1] + 2 * pairs[2];
+        return new BatchOutcome(pairs, wins, 0, result.plays() - wins);
+    }
+
+    /**
+     * Builds the strategies by seat, new instances for one batch.
+     *
+     * @param rotation {@code 0} for the first strategy on the even seats; {@code 1} for it on the odd seats
+     * @return the strategies by seat
+     */
+    private CPUStrategy[] lineup(int rotation)
+    {
+        CPUStrategy firstStrategy = first.get();
+        CPUStrategy secondStrategy = second.get();
+        CPUStrategy[] strategies = new CPUStrategy[settings.getNumOfPlayers()];
+        for(int seat = 0; seat < strategies.length; seat++) strategies[seat] = (seat + rotation) % 2 == 0? firstStrategy : secondStrategy;
+        return strategies;
+    }
+
+    /**
+     * Compares two registered strategies and prints the outcome.
+     * <p>
+     * Usage: {@code StrategyComparison [--first=name] [--second=name] [--players=2|4] [--max-dots=n]
+     * [--target=n] [--elo0=x] [--elo1=x] [--alpha=x] [--beta=x] [--batch=n] [--max-matches=n] [--threads=n]
+     * [--duplicate] [--seed=n]}. With {@code --duplicate}, every deal is played twice with the strategies swapped,
+     * and every match is played as a single round.
+     * The process exits with status 0 when the first strategy is found stronger, 1 when it is not, and
+     * 3 when the budget was spent first.
+     * </p>
+     *
+     * @param args the command-line options
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        String firstName = "greedy";
+        String secondName = "random";
+        DominoSettings settings = new DominoSettings();
+        settings.setNumOfPlayers(2);
+        double elo0 = 0;
+        double elo1 = 10;
+        double alpha = 0.05;
+        double beta = 0.05;
+        int batch = 1000;
+        long maxMatches = 1_000_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean duplicate = false;
+        Long seed = null;
+        for(String arg : args)
+        {
+            if(arg.startsWith("--first=")) firstName = arg.substring("--first=".length());
+            else if(arg.startsWith("--second=")) secondName = arg.substring("--second=".length());
+            else if(arg.startsWith("--players=")) settings.setNumOfPlayers(Integer.parseInt(arg.substring("--players=".length())));
+            else if(arg.startsWith("--max-dots=")) settings.setMaxDots(Integer.parseInt(arg.substring("--max-dots=".length())));
+            else if(arg.startsWith("--target=")) settings.setTargetScore(Integer.parseInt(arg.substring("--target=".length())));
+            else if(arg.startsWith("--elo0=")) elo0 = Double.parseDouble(arg.substring("--elo0=".length()));
+            else if(arg.startsWith("--elo1=")) elo1 = Double.parseDouble(arg.substring("--elo1=".length()));
+            else if(arg.startsWith("--alpha=")) alpha = Double.parseDouble(arg.substring("--alpha=".length()));
+            else if(arg.startsWith("--beta=")) beta = Double.parseDouble(arg.substring("--beta=".length()));
+            else if(arg.startsWith("--batch=")) batch = Integer.parseInt(arg.substring("--batch=".length()));
+            else if(arg.startsWith("--max-matches=")) maxMatches = Long.parseLong(arg.substring("--max-matches=".length()));
+            else if(arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+            else if(arg.equals("--duplicate")) duplicate = true;
+            else if(arg.startsWith("--seed=")) seed = Long.parseLong(arg.substring("--seed=".length()));
+        }
+
+        Sprt sprt = new Sprt(elo0, elo1, alpha, beta);
+        StrategyComparison comparison = new StrategyComparison(settings,
+                CPUStrategies.factory(firstName), CPUStrategies.factory(secondName), sprt);
+        comparison.setDuplicate(duplicate);
+        if(seed != null) comparison.setSeed(seed);
+        Result result = comparison.run(batch, maxMatches, threads);
+
+        double seconds = result.elapsedNanos() / 1e9;
+        System.out.printf("%s vs %s%s: %d matches in %.2f s (%.0f matches/s), W/D/L %d/%d/%d%n",
+                firstName, secondName, duplicate? " (duplicate deals)" : "", result.matches(), seconds, result.matches() / seconds,
+                result.wins(), result.draws(), result.losses());
+        System.out.printf("Elo difference: %+.1f [%+.1f, %+.1f] (95%%)%n", result.elo(), result.eloLow(), result.eloHigh());
+        System.out.printf("SPRT elo0=%.1f elo1=%.1f alpha=%.3f beta=%.3f: LLR %.2f [%.2f, %.2f], %s%n",
+                elo0, elo1, alpha, beta, result.llr(), sprt.lowerBound(), sprt.upperBound(), result.verdict());
+        System.exit(switch(result.verdict())
+        {
+            case STRONGER -> 0;
+            case NOT_STRONGER -> 1;
+            case INCONCLUSIVE -> 3;
+        });
+    }
+}
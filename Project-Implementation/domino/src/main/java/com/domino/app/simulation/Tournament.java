@@ -0,0 +1,492 @@
+package com.domino.app.simulation;
+
+import com.domino.app.model.CPUStrategies;
+import com.domino.app.model.CPUStrategy;
+import com.domino.app.model.DominoSettings;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a round-robin league between CPU strategies and rates them with Elo.
+ * <p>
+ * For every table size, every group of entrants that fills the table meets in every
+ * order of the seats, so each entrant plays every seat against every opponent equally
+ * often. A fixture is one such lineup, played for a fixed number of matches by a
+ * {@link BatchSimulator}, and the fixtures of a cycle are spread over a pool of threads.
+ * </p>
+ * <p>
+ * The ratings are updated on the calling thread as every fixture completes. A match of
+ * several seats counts as a game between every two of its entrants: the winner beats
+ * everyone else, and two entrants who both lost draw. Since a fixture brings hundreds of
+ * games at once, the ratings are not moved game by game with a K-factor but refitted to
+ * every game played so far: they are the Elo ratings under which the results between every
+ * two entrants are the most likely, found by a few iterations of the minorization-maximization
+ * algorithm of the Bradley-Terry model from the previous ratings. They are centered on
+ * {@value #MEAN_RATING}.
+ * </p>
+ * <p>
+ * With a checkpoint file, the ratings, the counts and the fixtures completed in the
+ * current cycle are written at most every second and at the end of every cycle, by
+ * replacing the file atomically. A tournament started with the same entrants, table
+ * sizes and matches per fixture resumes from it, skipping the fixtures already played.
+ * </p>
+ */
+public class Tournament
+{
+    private static final double MEAN_RATING = 1500; // Mean of the ratings of the entrants
+    private static final double PRIOR_GAMES = 1; // Drawn games added between every two entrants, keeping ratings finite
+    private static final int FIT_ITERATIONS = 50; // Iterations of the fit after every fixture
+    private static final long CHECKPOINT_INTERVAL_NANOS = 1_000_000_000L; // Shortest time between two checkpoints
+
+    /**
+     * The standing of an entrant.
+     *
+     * @param name the name of the entrant
+     * @param rating the Elo rating of the entrant
+     * @param matches the number of matches played by the entrant
+     * @param wins the number of matches won by the entrant
+     */
+    public record Standing(String name, double rating, long matches, long wins) {}
+
+    private final DominoSettings settings; // Settings of the matches, the number of players set by fixture
+    private final List<String> names; // Names of the entrants, numbered when a strategy enters more than once
+    private final List<Supplier<CPUStrategy>> factories; // Factories of the strategies of the entrants
+    private final int[] tableSizes; // Numbers of players of the tables played
+    private final int matchesPerFixture; // Matches played by every lineup
+    private final List<int[]> fixtures; // Entrants by seat of every fixture of a cycle
+    private final Path checkpoint; // File the state is written to, null for none
+
+    private final double[] ratings; // Ratings by entrant
+    private final double[][] pairScores; // Score of every entrant against every other, a win counting 1 and a draw 1/2
+    private final long[][] pairGames; // Games played between every two entrants
+    private final long[] matches; // Matches played by entrant
+    private final long[] wins; // Matches won by entrant
+    private final BitSet completed; // Fixtures of the current cycle already played
+    private int cycle; // Number of the current cycle, from 0
+    private long lastCheckpointNanos; // Time the last checkpoint was written
+
+    /**
+     * Creates a tournament between registered strategies.
+     *
+     * @param settings the settings of the matches; the number of players, human players and teams are set by the tournament
+     * @param strategies the names of the strategies entering; a name given several times enters several times
+     * @param tableSizes the numbers of players of the tables, each from 2 to 4
+     * @param matchesPerFixture the number of matches played by every lineup
+     * @param checkpoint the file to write the state to and resume from, or {@code null} for none
+     * @throws IllegalArgumentException if a strategy is unknown, a table size is out of range or larger than the field
+     */
+    public Tournament(DominoSettings settings, List<String> strategies, int[] tableSizes, int matchesPerFixture, Path checkpoint)
+    {
+        this.settings = settings.clone();
+        this.settings.setNumOfHumanPlayers(0);
+        this.settings.setTeamPlay(false);
+        this.names = new ArrayList<>();
+        this.factories = new ArrayList<>();
+        Map<String, Integer> entries = new HashMap<>();
+        for(String strategy : strategies)
+        {
+            factories.add(CPUStrategies.factory(strategy));
+            int entry = entries.merge(strategy, 1, Integer::sum);
+            names.add(entry == 1? strategy : strategy + "#" + entry);
+        }
+        for(int size : tableSizes)
+        {
+            if(size < 2 || size > 4) throw new IllegalArgumentException("Table sizes must be between 2 and 4: " + size);
+            if(size > names.size()) throw new IllegalArgumentException("Not enough entrants for tables of " + size);
+        }
+        this.tableSizes = tableSizes.clone();
+        this.matchesPerFixture = matchesPerFixture;
+        this.fixtures = schedule(names.size(), tableSizes);
+        this.checkpoint = checkpoint;
+
+        this.ratings = new double[names.size()];
+        Arrays.fill(ratings, MEAN_RATING);
+        this.pairScores = new double[names.size()][names.size()];
+        this.pairGames = new long[names.size()][names.size()];
+        this.matches = new long[names.size()];
+        this.wins = new long[names.size()];
+        this.completed = new BitSet(fixtures.size());
+        this.cycle = 0;
+    }
+
+    /**
+     * Gets the number of fixtures of a cycle.
+     *
+     * @return the number of lineups played in every cycle
+     */
+    public int getFixturesPerCycle() {return fixtures.size();}
+
+    /**
+     * Gets the number of the current cycle.
+     *
+     * @return the number of cycles completed
+     */
+    public int getCycle() {return cycle;}
+
+    /**
+     * Gets the standings, the highest rating first.
+     *
+     * @return the standing of every entrant
+     */
+    public List<Standing> getStandings()
+    {
+        List<Standing> standings = new ArrayList<>(names.size());
+        for(int i = 0; i < names.size(); i++) standings.add(new Standing(names.get(i), ratings[i], matches[i], wins[i]));
+        standings.sort(Comparator.comparingDouble(Standing::rating).reversed());
+        return standings;
+    }
+
+    /**
+     * Resumes the tournament from its checkpoint file, if the file exists.
+     *
+     * @return {@code true} if the state was read from the file; {@code false} if there was no file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file was written by a tournament with other entrants or fixtures
+     */
+    public boolean resume() throws IOException
+    {
+        if(checkpoint == null || !Files.exists(checkpoint)) return false;
+        Properties state = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8))
+        {
+            state.load(reader);
+        }
+        if(!String.join(",", names).equals(state.getProperty("entrants"))
+                || !Arrays.toString(tableSizes).equals(state.getProperty("tableSizes"))
+                || !String.valueOf(matchesPerFixture).equals(state.getProperty("matchesPerFixture")))
+        {
+            throw new IllegalArgumentException("The checkpoint " + checkpoint + " was written by another tournament");
+        }
+        cycle = Integer.parseInt(state.getProperty("cycle"));
+        completed.clear();
+        String done = state.getProperty("completed", "");
+        if(!done.isEmpty()) for(String fixture : done.split(",")) completed.set(Integer.parseInt(fixture));
+        for(int i = 0; i < names.size(); i++)
+        {
+            ratings[i] = Double.parseDouble(state.getProperty("rating." + i));
+            matches[i] = Long.parseLong(state.getProperty("matches." + i));
+            wins[i] = Long.parseLong(state.getProperty("wins." + i));
+            for(int j = 0; j < names.size(); j++)
+            {
+                if(i == j) continue;
+                pairScores[i][j] = Double.parseDouble(state.getProperty("score." + i + "." + j));
+                pairGames[i][j] = Long.parseLong(state.getProperty("games." + i + "." + j));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Plays cycles of the league, updating the ratings as the fixtures complete.
+     *
+     * @param cycles the number of cycles to play, counting the one resumed
+     * @param threads the number of fixtures played at once
+     * @throws InterruptedException if the calling thread is interrupted while waiting for a fixture
+     */
+    public void run(int cycles, int threads) throws InterruptedException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try
+        {
+            CompletionService<FixtureResult> results = new ExecutorCompletionService<>(executor);
+            for(int played = 0; played < cycles; played++)
+            {
+                int pending = 0;
+                for(int fixture = completed.nextClearBit(0); fixture < fixtures.size(); fixture = completed.nextClearBit(fixture + 1))
+                {
+                    int index = fixture;
+                    results.submit(() -> playFixture(index));
+                    pending++;
+                }
+                for(; pending > 0; pending--)
+                {
+                    FixtureResult result = results.take().get();
+                    rate(fixtures.get(result.fixture()), result.winsBySeat(), result.matches());
+                    completed.set(result.fixture());
+                    if(System.nanoTime() - lastCheckpointNanos >= CHECKPOINT_INTERVAL_NANOS) writeCheckpoint();
+                }
+                completed.clear();
+                cycle++;
+                writeCheckpoint();
+            }
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("A fixture failed", e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The outcome of a fixture.
+     *
+     * @param fixture the index of the fixture in the cycle
+     * @param winsBySeat the matches won by every seat
+     * @param matches the number of matches played
+     */
+    private record FixtureResult(int fixture, int[] winsBySeat, int matches) {}
+
+    /**
+     * Plays the matches of a fixture with new instances of its strategies.
+     *
+     * @param fixture the index of the fixture in the cycle
+     * @return the outcome of the fixture
+     */
+    private FixtureResult playFixture(int fixture)
+    {
+        int[] lineup = fixtures.get(fixture);
+        DominoSettings tableSettings = settings.clone();
+        tableSettings.setNumOfPlayers(lineup.length);
+        CPUStrategy[] strategies = new CPUStrategy[lineup.length];
+        for(int seat = 0; seat < lineup.length; seat++) strategies[seat] = factories.get(lineup[seat]).get();
+        SimulationResult result = new BatchSimulator(tableSettings, strategies).simulate(matchesPerFixture);
+        return new FixtureResult(fixture, result.winsBySeat(), result.matches());
+    }
+
+    /**
+     * Updates the ratings and the counts with the outcome of a fixture.
+     *
+     * @param lineup the entrants by seat
+     * @param winsBySeat the matches won by every seat
+     * @param played the number of matches played
+     */
+    private void rate(int[] lineup, int[] winsBySeat, int played)
+    {
+        if(played == 0) return;
+        for(int a = 0; a < lineup.length; a++)
+        {
+            for(int b = 0; b < lineup.length; b++)
+            {
+                if(a == b) continue;
+                pairScores[lineup[a]][lineup[b]] += winsBySeat[a] + (played - winsBySeat[a] - winsBySeat[b]) / 2.0;
+                pairGames[lineup[a]][lineup[b]] += played;
+            }
+            matches[lineup[a]] += played;
+            wins[lineup[a]] += winsBySeat[a];
+        }
+        fitRatings();
+    }
+
+    /**
+     * Refits the ratings to the games played so far, starting from the current ratings.
+     */
+    private void fitRatings()
+    {
+        int entrants = ratings.length;
+        double[] strengths = new double[entrants];
+        for(int i = 0; i < entrants; i++) strengths[i] = Math.pow(10, (ratings[i] - MEAN_RATING) / 400);
+        for(int iteration = 0; iteration < FIT_ITERATIONS; iteration++)
+        {
+            for(int i = 0; i < entrants; i++)
+            {
+                double score = 0;
+                double weight = 0;
+                for(int j = 0; j < entrants; j++)
+                {
+                    if(i == j) continue;
+                    score += pairScores[i][j] + PRIOR_GAMES / 2;
+                    weight += (pairGames[i][j] + PRIOR_GAMES) / (strengths[i] + strengths[j]);
+                }
+                strengths[i] = score / weight;
+            }
+            double logMean = 0;
+            for(double strength : strengths) logMean += Math.log10(strength) / entrants;
+            for(int i = 0; i < entrants; i++) strengths[i] /= Math.pow(10, logMean);
+        }
+        for(int i = 0; i < entrants; i++) ratings[i] = MEAN_RATING + 400 * Math.log10(strengths[i]);
+    }
+
+    /**
+     * Writes the state of the tournament to its checkpoint file, replacing the last one atomically.
+     */
+    private void writeCheckpoint()
+    {
+        lastCheckpointNanos = System.nanoTime();
+        if(checkpoint == null) return;
+
+        Properties state = new Properties();
+        state.setProperty("entrants", String.join(",", names));
+        state.setProperty("tableSizes", Arrays.toString(tableSizes));
+        state.setProperty("matchesPerFixture", String.valueOf(matchesPerFixture));
+        state.setProperty("cycle", String.valueOf(cycle));
+        state.setProperty("completed", completed.stream().mapToObj(String::valueOf).collect(Collectors.joining(",")));
+        for(int i = 0; i < names.size(); i++)
+        {
+            state.setProperty("rating." + i, String.valueOf(ratings[i]));
+            state.setProperty("matches." + i, String.valueOf(matches[i]));
+            state.setProperty("wins." + i, String.valueOf(wins[i]));
+            for(int j = 0; j < names.size(); j++)
+            {
+                if(i == j) continue;
+                state.setProperty("score." + i + "." + j, String.valueOf(pairScores[i][j]));
+                state.setProperty("games." + i + "." + j, String.valueOf(pairGames[i][j]));
+            }
+        }
+        try
+        {
+            Path absolute = checkpoint.toAbsolutePath();
+            Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8))
+            {
+                state.store(writer, "Tournament checkpoint");
+            }
+            Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Cannot write the checkpoint " + checkpoint, e);
+        }
+    }
+
+    /**
+     * Lists the fixtures of a cycle: every order of the seats of every group of entrants filling a table.
+     *
+     * @param entrants the number of entrants
+     * @param tableSizes the numbers of players of the tables
+     * @return the entrants by seat of every fixture
+     */
+    private static List<int[]> schedule(int entrants, int[] tableSizes)
+    {
+        List<int[]> fixtures = new ArrayList<>();
+        for(int size : tableSizes) addGroups(fixtures, new int[size], 0, 0, entrants);
+        return fixtures;
+    }
+
+    /**
+     * Adds the fixtures of every group of entrants completing a partial group.
+     *
+     * @param fixtures the fixtures found so far
+     * @param group the entrants of the group, in increasing order
+     * @param filled the number of entrants already in the group
+     * @param next the lowest entrant that can join the group
+     * @param entrants the number of entrants
+     */
+    private static void addGroups(List<int[]> fixtures, int[] group, int filled, int next, int entrants)
+    {
+        if(filled == group.length)
+        {
+            addOrders(fixtures, group.clone(), 0);
+            return;
+        }
+        for(int entrant = next; entrant < entrants; entrant++)
+        {
+            group[filled] = entrant;
+            addGroups(fixtures, group, filled + 1, entrant + 1, entrants);
+        }
+    }
+
+    /**
+     * Adds every order of the seats of a group, permuting the seats from the given one on.
+     *
+     * @param fixtures the fixtures found so far
+     * @param lineup the entrants by seat, permuted in place
+     * @param seat the first seat still to permute
+     */
+    private static void addOrders(List<int[]> fixtures, int[] lineup, int seat)
+    {
+        if(seat == lineup.length)
+        {
+            fixtures.add(lineup.clone());
+            return;
+        }
+        for(int i = seat; i < lineup.length; i++)
+        {
+            swap(lineup, seat, i);
+            addOrders(fixtures, lineup, seat + 1);
+            swap(lineup, seat, i);
+        }
+    }
+
+    /**
+     * Swaps two entries of an array.
+     *
+     * @param array the array
+     * @param i the first index
+     * @param j the second index
+     */
+    private static void swap(int[] array, int i, int j)
+    {
+        int value = array[i];
+        array[i] = array[j];
+        array[j] = value;
+    }
+
+    /**
+     * Runs a tournament between registered strategies and prints the standings after every cycle.
+     * <p>
+     * Usage: {@code Tournament [--strategies=a,b,...] [--tables=2,3,4] [--matches=n] [--cycles=n] [--max-dots=n]
+     * [--target=n] [--threads=n] [--checkpoint=path]}. A strategy listed several times enters several times,
+     * which shows how far apart equal entrants are rated. With a checkpoint that exists, the tournament resumes
+     * from it.
+     * </p>
+     *
+     * @param args the command-line options
+     * @throws IOException if the checkpoint cannot be read
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        List<String> strategies = List.of("greedy", "random", "greedy", "random");
+        int[] tables = {2, 3, 4};
+        int matchesPerFixture = 200;
+        int cycles = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path checkpoint = null;
+        DominoSettings settings = new DominoSettings();
+        for(String arg : args)
+        {
+            if(arg.startsWith("--strategies=")) strategies = List.of(arg.substring("--strategies=".length()).split(","));
+            else if(arg.startsWith("--tables=")) tables = Arrays.stream(arg.substring("--tables=".length()).split(",")).mapToInt(Integer::parseInt).toArray();
+            else if(arg.startsWith("--matches=")) matchesPerFixture = Integer.parseInt(arg.substring("--matches=".length()));
+            else if(arg.startsWith("--cycles=")) cycles = Integer.parseInt(arg.substring("--cycles=".length()));
+            else if(arg.startsWith("--max-dots=")) settings.setMaxDots(Integer.parseInt(arg.substring("--max-dots=".length())));
+            else if(arg.startsWith("--target=")) settings.setTargetScore(Integer.parseInt(arg.substring("--target=".length())));
+            else if(arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+            else if(arg.startsWith("--checkpoint=")) checkpoint = Path.of(arg.substring("--checkpoint=".length()));
+        }
+
+        Tournament tournament = new Tournament(settings, strategies, tables, matchesPerFixture, checkpoint);
+        if(tournament.resume())
+        {
+            System.out.printf("Resumed from %s at cycle %d%n", checkpoint, tournament.getCycle());
+        }
+        System.out.printf("Entrants: %d, tables: %s, fixtures per cycle: %d, matches per fixture: %d%n",
+                strategies.size(), Arrays.toString(tables), tournament.getFixturesPerCycle(), matchesPerFixture);
+        for(int i = tournament.getCycle(); i < cycles; i++)
+        {
+            long start = System.nanoTime();
+            tournament.run(1, threads);
+            System.out.printf("Cycle %d in %.2f s%n", tournament.getCycle(), (System.nanoTime() - start) / 1e9);
+            for(Standing standing : tournament.getStandings())
+            {
+                System.out.printf("  %-12s %7.1f  %8d matches  %5.1f%% wins%n", standing.name(), standing.rating(),
+                        standing.matches(), standing.matches() == 0? 0.0 : 100.0 * standing.wins() / standing.matches());
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * This package contains the headless components of the Domino game application.
+ *
+ * <p>
+ * They play matches on a {@link com.domino.app.model.DominoModel} without a view or
+ * a controller, one decision at a time, so matches can be driven by services and
+ * simulated in bulk.
+ * </p>
+ */
+package com.domino.app.simulation;
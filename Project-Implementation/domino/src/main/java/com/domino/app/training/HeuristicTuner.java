@@ -0,0 +1,486 @@
+package com.domino.app.training;
+
+import com.domino.app.model.CPUStrategies;
+import com.domino.app.model.DominoSettings;
+import com.domino.app.model.HeuristicCPUStrategy;
+import com.domino.app.simulation.DuplicateResult;
+import com.domino.app.simulation.DuplicateSimulator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes the weights of the {@link HeuristicCPUStrategy} with a separable CMA-ES.
+ * <p>
+ * Every generation samples weight vectors around a mean, from a normal distribution with a
+ * step size and one variance per weight, and measures the fitness of each one: its share of
+ * wins in duplicate deals against every reference opponent, where both hands of every deal
+ * are played by each side. All candidates of a generation play the same deals, so their
+ * ranking depends on the weights rather than on the luck of the deal. The mean moves towards
+ * the best half of the candidates, and the step size and variances adapt to the distance it
+ * travels, as in the evolution strategy of Hansen and Ostermeier restricted to a diagonal
+ * covariance (Ros and Hansen, 2008).
+ * </p>
+ * <p>
+ * The matches of every candidate and opponent are played as one task on a fixed pool, so a
+ * generation uses every core. The state of the search is written to a checkpoint file after
+ * every generation, through a temporary file moved over the last one, and a tuner with the
+ * same opponents, deals and seed resumes from it. The random numbers of a generation are
+ * drawn from the seed and the number of the generation, so a resumed search samples what the
+ * interrupted one would have, and follows it exactly when the opponents do not play at random.
+ * </p>
+ */
+public class HeuristicTuner
+{
+    private static final int DIMENSIONS = HeuristicCPUStrategy.WEIGHTS; // Number of weights tuned
+
+    private final DominoSettings settings; // Settings of the two-player matches played
+    private final List<String> opponents; // Names of the reference opponents
+    private final int deals; // Number of deals played against every opponent
+    private final long seed; // Seed of the random numbers of every generation
+    private final Path checkpoint; // File the state is written to, null for none
+
+    private final int populationSize; // Number of candidates of a generation, lambda
+    private final int parents; // Number of best candidates the mean moves towards, mu
+    private final double[] recombination; // Weight of every parent in the new mean, best first
+    private final double effectiveParents; // Variance effective selection mass, mu_eff
+    private final double sigmaLearningRate; // Cumulation rate of the step size path, c_sigma
+    private final double sigmaDamping; // Damping of the step size changes, d_sigma
+    private final double pathLearningRate; // Cumulation rate of the covariance path, c_c
+    private final double rankOneRate; // Learning rate of the covariance from its path, c_1
+    private final double rankMuRate; // Learning rate of the covariance from the parents, c_mu
+    private final double expectedNorm; // Expected length of a standard normal vector, chi_n
+
+    private final double[] mean; // Mean of the distribution of the candidates
+    private final double[] variances; // Diagonal of the covariance
+    private final double[] sigmaPath; // Evolution path of the step size
+    private final double[] covariancePath; // Evolution path of the covariance
+    private double sigma; // Step size
+    private int generation; // Number of generations completed
+    private double[] best; // Fittest candidate measured so far
+    private double bestFitness; // Fitness of that candidate
+
+    /**
+     * The outcome of a generation.
+     *
+     * @param generation the number of the generation, from 1
+     * @param bestFitness the fitness of the best candidate of the generation
+     * @param meanFitness the mean fitness of the candidates
+     * @param sigma the step size after the update
+     * @param mean the mean of the distribution after the update
+     * @param elapsedNanos the time spent on the generation
+     */
+    public record Generation(int generation, double bestFitness, double meanFitness, double sigma, double[] mean,
+                             long elapsedNanos) {}
+
+    /**
+     * Creates a tuner starting from the given weights.
+     *
+     * @param settings the settings of the matches, played with two players whatever the settings say
+     * @param opponents the names of the reference opponents
+     * @param deals the number of deals played by every candidate against every opponent, each once per seat
+     * @param initial the weights the search starts around
+     * @param sigma the initial step size
+     * @param populationSize the number of candidates of a generation, at least 2
+     * @param seed the seed of the random numbers
+     * @param checkpoint the file to write the state to and resume from, or {@code null} for none
+     * @throws IllegalArgumentException if an opponent is unknown, or the weights or population size are invalid
+     */
+    public HeuristicTuner(DominoSettings settings, List<String> opponents, int deals, double[] initial, double sigma,
+                          int populationSize, long seed, Path checkpoint)
+    {
+        if(initial.length != DIMENSIONS) throw new IllegalArgumentException("Expected " + DIMENSIONS + " weights: " + initial.length);
+        if(populationSize < 2) throw new IllegalArgumentException("The population needs 2 candidates or more: " + populationSize);
+        for(String opponent : opponents) CPUStrategies.factory(opponent);
+        this.settings = settings.clone();
+        this.settings.setNumOfPlayers(2);
+        this.settings.setTeamPlay(false);
+        this.opponents = List.copyOf(opponents);
+        this.deals = deals;
+        this.seed = seed;
+        this.checkpoint = checkpoint;
+
+        int n = DIMENSIONS;
+        this.populationSize = populationSize;
+        this.parents = populationSize / 2;
+        this.recombination = new double[parents];
+        double sum = 0;
+        for(int i = 0; i < parents; i++) sum += recombination[i] = Math.log(parents + 0.5) - Math.log(i + 1);
+        double squares = 0;
+        for(int i = 0; i < parents; i++) squares += (recombination[i] /= sum) * recombination[i];
+        this.effectiveParents = 1 / squares;
+        double mu = effectiveParents;
+        this.sigmaLearningRate = (mu + 2) / (n + mu + 5);
+        this.sigmaDamping = 1 + 2 * Math.max(0, Math.sqrt((mu - 1) / (n + 1)) - 1) + sigmaLearningRate;
+        this.pathLearningRate = (4 + mu / n) / (n + 4 + 2 * mu / n);
+        double separable = (n + 2) / 3.0; // A diagonal covariance can learn faster than a full one
+        double rankOne = 2 / ((n + 1.3) * (n + 1.3) + mu);
+        this.rankOneRate = Math.min(1, rankOne * separable);
+        this.rankMuRate = Math.min(1 - rankOneRate, separable * 2 * (mu - 2 + 1 / mu) / ((n + 2) * (n + 2) + mu));
+        this.expectedNorm = Math.sqrt(n) * (1 - 1.0 / (4 * n) + 1.0 / (21 * n * n));
+
+        this.mean = initial.clone();
+        this.variances = new double[n];
+        Arrays.fill(variances, 1);
+        this.sigmaPath = new double[n];
+        this.covariancePath = new double[n];
+        this.sigma = sigma;
+        this.best = initial.clone();
+        this.bestFitness = Double.NaN;
+    }
+
+    /**
+     * Gets the number of generations completed.
+     *
+     * @return the number of generations
+     */
+    public int getGeneration() {return generation;}
+
+    /**
+     * Gets the mean of the distribution, the current estimate of the best weights.
+     *
+     * @return a copy of the mean
+     */
+    public double[] getMean() {return mean.clone();}
+
+    /**
+     * Gets the fittest candidate measured so far. Its fitness was measured on a single set of deals,
+     * so it is biased upwards; the mean is the steadier estimate.
+     *
+     * @return a copy of the candidate
+     */
+    public double[] getBest() {return best.clone();}
+
+    /**
+     * Gets the fitness of the fittest candidate measured so far.
+     *
+     * @return the share of wins, or {@code NaN} before the first generation
+     */
+    public double getBestFitness() {return bestFitness;}
+
+    /**
+     * Resumes the search from its checkpoint file, if the file exists.
+     *
+     * @return {@code true} if the state was read from the file; {@code false} if there was no file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file was written by a search with other opponents, deals or seed
+     */
+    public boolean resume() throws IOException
+    {
+        if(checkpoint == null || !Files.exists(checkpoint)) return false;
+        Properties state = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8))
+        {
+            state.load(reader);
+        }
+        if(!String.join(",", opponents).equals(state.getProperty("opponents"))
+                || !String.valueOf(deals).equals(state.getProperty("deals"))
+                || !String.valueOf(populationSize).equals(state.getProperty("population"))
+                || !String.valueOf(seed).equals(state.getProperty("seed")))
+        {
+            throw new IllegalArgumentException("The checkpoint " + checkpoint + " was written by another search");
+        }
+        generation = Integer.parseInt(state.getProperty("generation"));
+        sigma = Double.parseDouble(state.getProperty("sigma"));
+        bestFitness = Double.parseDouble(state.getProperty("bestFitness"));
+        read(state.getProperty("mean"), mean);
+        read(state.getProperty("variances"), variances);
+        read(state.getProperty("sigmaPath"), sigmaPath);
+        read(state.getProperty("covariancePath"), covariancePath);
+        read(state.getProperty("best"), best);
+        return true;
+    }
+
+    /**
+     * Samples, measures and selects one generation, then writes the checkpoint.
+     *
+     * @param executor the pool playing the matches
+     * @return the outcome of the generation
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the matches
+     */
+    public Generation step(ExecutorService executor) throws InterruptedException
+    {
+        long start = System.nanoTime();
+        int n = DIMENSIONS;
+        SplittableRandom random = new SplittableRandom(seed ^ 0x9E3779B97F4A7C15L * (generation + 1));
+        long dealSeed = random.nextLong();
+
+        double[][] normals = new double[populationSize][n]; // z, from a standard normal
+        double[][] candidates = new double[populationSize][n]; // mean + sigma * sqrt(variances) * z
+        for(int k = 0; k < populationSize; k++)
+        {
+            for(int i = 0; i < n; i++)
+            {
+                normals[k][i] = gaussian(random);
+                candidates[k][i] = mean[i] + sigma * Math.sqrt(variances[i]) * normals[k][i];
+            }
+        }
+        double[] fitness = measure(executor, candidates, dealSeed);
+
+        Integer[] order = new Integer[populationSize];
+        for(int k = 0; k < populationSize; k++) order[k] = k;
+        Arrays.sort(order, (a, b) -> Double.compare(fitness[b], fitness[a]));
+        if(Double.isNaN(bestFitness) || fitness[order[0]] > bestFitness)
+        {
+            bestFitness = fitness[order[0]];
+            best = candidates[order[0]].clone();
+        }
+
+        // Move the mean towards the parents
+        double[] weightedNormal = new double[n];
+        double[] weightedStep = new double[n];
+        for(int p = 0; p < parents; p++)
+        {
+            for(int i = 0; i < n; i++)
+            {
+                weightedNormal[i] += recombination[p] * normals[order[p]][i];
+                weightedStep[i] += recombination[p] * Math.sqrt(variances[i]) * normals[order[p]][i];
+            }
+        }
+        for(int i = 0; i < n; i++) mean[i] += sigma * weightedStep[i];
+
+        // Evolution paths
+        double sigmaScale = Math.sqrt(sigmaLearningRate * (2 - sigmaLearningRate) * effectiveParents);
+        double pathNorm = 0;
+        for(int i = 0; i < n; i++)
+        {
+            sigmaPath[i] = (1 - sigmaLearningRate) * sigmaPath[i] + sigmaScale * weightedNormal[i];
+            pathNorm += sigmaPath[i] * sigmaPath[i];
+        }
+        pathNorm = Math.sqrt(pathNorm);
+        double decay = 1 - Math.pow(1 - sigmaLearningRate, 2.0 * (generation + 1));
+        boolean stalled = pathNorm / Math.sqrt(decay) >= (1.4 + 2.0 / (n + 1)) * expectedNorm;
+        double pathScale = stalled? 0 : Math.sqrt(pathLearningRate * (2 - pathLearningRate) * effectiveParents);
+        for(int i = 0; i < n; i++) covariancePath[i] = (1 - pathLearningRate) * covariancePath[i] + pathScale * weightedStep[i];
+
+        // Covariance and step size
+        double stallCorrection = stalled? rankOneRate * pathLearningRate * (2 - pathLearningRate) : 0;
+        for(int i = 0; i < n; i++)
+        {
+            double rankMu = 0;
+            for(int p = 0; p < parents; p++)
+            {
+                double step = Math.sqrt(variances[i]) * normals[order[p]][i];
+                rankMu += recombination[p] * step * step;
+            }
+            variances[i] = (1 - rankOneRate - rankMuRate) * variances[i] + stallCorrection * variances[i]
+                    + rankOneRate * covariancePath[i] * covariancePath[i] + rankMuRate * rankMu;
+        }
+        sigma *= Math.exp(sigmaLearningRate / sigmaDamping * (pathNorm / expectedNorm - 1));
+
+        generation++;
+        writeCheckpoint();
+        double meanFitness = 0;
+        for(double value : fitness) meanFitness += value / populationSize;
+        return new Generation(generation, fitness[order[0]], meanFitness, sigma, mean.clone(), System.nanoTime() - start);
+    }
+
+    /**
+     * Measures the fitness of the candidates on the same deals, one task per candidate and opponent.
+     *
+     * @param executor the pool playing the matches
+     * @param candidates the weights of the candidates
+     * @param dealSeed the seed of the deals, shared by every candidate
+     * @return the share of wins of every candidate, over all opponents
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the matches
+     */
+    private double[] measure(ExecutorService executor, double[][] candidates, long dealSeed) throws InterruptedException
+    {
+        List<Future<DuplicateResult>> futures = new ArrayList<>(candidates.length * opponents.size());
+        for(double[] candidate : candidates)
+        {
+            for(int o = 0; o < opponents.size(); o++)
+            {
+                String opponent = opponents.get(o);
+                long opponentSeed = dealSeed + o;
+                futures.add(executor.submit(() ->
+                {
+                    DuplicateSimulator simulator = new DuplicateSimulator(settings, 2, new HeuristicCPUStrategy(candidate),
+                            CPUStrategies.create(opponent));
+                    simulator.setRandom(new SplittableRandom(opponentSeed));
+                    return simulator.simulate(deals);
+                }));
+            }
+        }
+
+        double[] fitness = new double[candidates.length];
+        try
+        {
+            for(int k = 0; k < candidates.length; k++)
+            {
+                long wins = 0;
+                long plays = 0;
+                for(int o = 0; o < opponents.size(); o++)
+                {
+                    DuplicateResult result = futures.get(k * opponents.size() + o).get();
+                    wins += result.winsByEntry()[0];
+                    plays += result.plays();
+                }
+                fitness[k] = plays == 0? 0 : (double) wins / plays;
+            }
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("A fitness measurement failed", e.getCause());
+        }
+        return fitness;
+    }
+
+    /**
+     * Writes the state of the search to its checkpoint file, replacing the last one atomically.
+     */
+    private void writeCheckpoint()
+    {
+        if(checkpoint == null) return;
+
+        Properties state = new Properties();
+        state.setProperty("opponents", String.join(",", opponents));
+        state.setProperty("deals", String.valueOf(deals));
+        state.setProperty("population", String.valueOf(populationSize));
+        state.setProperty("seed", String.valueOf(seed));
+        state.setProperty("generation", String.valueOf(generation));
+        state.setProperty("sigma", String.valueOf(sigma));
+        state.setProperty("bestFitness", String.valueOf(bestFitness));
+        state.setProperty("mean", write(mean));
+        state.setProperty("variances", write(variances));
+        state.setProperty("sigmaPath", write(sigmaPath));
+        state.setProperty("covariancePath", write(covariancePath));
+        state.setProperty("best", write(best));
+        try
+        {
+            Path absolute = checkpoint.toAbsolutePath();
+            Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8))
+            {
+                state.store(writer, "Heuristic tuner checkpoint");
+            }
+            Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Cannot write the checkpoint " + checkpoint, e);
+        }
+    }
+
+    /**
+     * Writes a vector exactly, its values separated by commas.
+     *
+     * @param vector the vector
+     * @return the text of the vector
+     */
+    private static String write(double[] vector)
+    {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < vector.length; i++)
+        {
+            if(i > 0) builder.append(',');
+            builder.append(vector[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Reads a vector written by {@link #write(double[])}.
+     *
+     * @param text the text of the vector
+     * @param vector the array receiving the values
+     * @throws IllegalArgumentException if the text does not hold one value per element
+     */
+    private static void read(String text, double[] vector)
+    {
+        String[] parts = text.split(",");
+        if(parts.length != vector.length) throw new IllegalArgumentException("Expected " + vector.length + " values: " + text);
+        for(int i = 0; i < vector.length; i++) vector[i] = Double.parseDouble(parts[i]);
+    }
+
+    /**
+     * Draws a standard normal value by the Box-Muller transform.
+     *
+     * @param random the source of uniform values
+     * @return the normal value
+     */
+    private static double gaussian(SplittableRandom random)
+    {
+        double u = 1 - random.nextDouble(); // In (0, 1], keeping the logarithm finite
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    /**
+     * Tunes the heuristic weights and prints the progress of every generation.
+     * <p>
+     * Usage: {@code HeuristicTuner [--opponents=a,b,...] [--deals=n] [--generations=n] [--population=n]
+     * [--sigma=x] [--init=w0,w1,...] [--max-dots=n] [--threads=n] [--seed=n] [--checkpoint=path]}. Every
+     * candidate plays {@code --deals} duplicate deals against every opponent. With a checkpoint that exists,
+     * the search resumes from it. The tuned weights are printed as the strategy name {@code heuristic:w0,w1,...}.
+     * </p>
+     *
+     * @param args the command-line options
+     * @throws IOException if the checkpoint cannot be read
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        List<String> opponents = List.of("heuristic", "greedy", "random");
+        int deals = 300;
+        int generations = 20;
+        int population = 4 + (int) (3 * Math.log(DIMENSIONS));
+        double sigma = 0.5;
+        double[] initial = HeuristicCPUStrategy.defaultWeights();
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        Path checkpoint = null;
+        DominoSettings settings = new DominoSettings();
+        for(String arg : args)
+        {
+            if(arg.startsWith("--opponents=")) opponents = List.of(arg.substring("--opponents=".length()).split(","));
+            else if(arg.startsWith("--deals=")) deals = Integer.parseInt(arg.substring("--deals=".length()));
+            else if(arg.startsWith("--generations=")) generations = Integer.parseInt(arg.substring("--generations=".length()));
+            else if(arg.startsWith("--population=")) population = Integer.parseInt(arg.substring("--population=".length()));
+            else if(arg.startsWith("--sigma=")) sigma = Double.parseDouble(arg.substring("--sigma=".length()));
+            else if(arg.startsWith("--init=")) initial = Arrays.stream(arg.substring("--init=".length()).split(",")).mapToDouble(Double::parseDouble).toArray();
+            else if(arg.startsWith("--max-dots=")) settings.setMaxDots(Integer.parseInt(arg.substring("--max-dots=".length())));
+            else if(arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+            else if(arg.startsWith("--seed=")) seed = Long.parseLong(arg.substring("--seed=".length()));
+            else if(arg.startsWith("--checkpoint=")) checkpoint = Path.of(arg.substring("--checkpoint=".length()));
+        }
+
+        HeuristicTuner tuner = new HeuristicTuner(settings, opponents, deals, initial, sigma, population, seed, checkpoint);
+        if(tuner.resume())
+        {
+            System.out.printf("Resumed from %s at generation %d%n", checkpoint, tuner.getGeneration());
+        }
+        System.out.printf("Opponents: %s, population: %d, matches per candidate: %d%n", opponents, population,
+                2L * deals * opponents.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try
+        {
+            while(tuner.getGeneration() < generations)
+            {
+                Generation result = tuner.step(executor);
+                System.out.printf("Generation %d in %.2f s: best %.1f%%, mean %.1f%%, sigma %.3f%n", result.generation(),
+                        result.elapsedNanos() / 1e9, 100 * result.bestFitness(), 100 * result.meanFitness(), result.sigma());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        System.out.println("Mean: heuristic:" + HeuristicCPUStrategy.format(tuner.getMean()));
+        System.out.printf("Best: heuristic:%s (%.1f%%)%n", HeuristicCPUStrategy.format(tuner.getBest()), 100 * tuner.getBestFitness());
+    }
+}
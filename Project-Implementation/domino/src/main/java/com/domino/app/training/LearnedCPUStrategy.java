@@ -0,0 +1,120 @@
+package com.domino.app.training;
+
+import com.domino.app.model.CPUStrategy;
+import com.domino.app.model.DominoModel;
+import com.domino.app.model.RatedMoveCPUStrategy;
+import com.domino.app.model.Tile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * A {@link RatedMoveCPUStrategy} playing the move its {@link ValueFunction} rates best.
+ * <p>
+ * Every playable tile is tried on every end it fits, and the strategy keeps the move leading
+ * to the position with the highest chances of winning.
+ * </p>
+ * <p>
+ * For training, the strategy can explore, playing a random move with a given probability,
+ * and report every move it plays to a {@link MoveRecorder}. Every seat and thread needs a
+ * strategy of its own; the value function is only read and can be shared.
+ * </p>
+ */
+public class LearnedCPUStrategy extends RatedMoveCPUStrategy
+{
+    /**
+     * Receives the moves played by a learned strategy.
+     */
+    public interface MoveRecorder
+    {
+        /**
+         * Called when a move has been chosen, before it is played.
+         *
+         * @param seat the turn index of the seat playing the move
+         * @param features the features of the position the move leads to, valid until the next move
+         * @param value the rating of that position by the value function
+         */
+        void record(int seat, float[] features, float value);
+    }
+
+    private final ValueFunction valueFunction; // Rates the positions reached by the moves
+    private final RandomGenerator random; // Source of the exploring moves, null to never explore
+    private final double exploration; // Probability of playing a random move
+    private final MoveRecorder recorder; // Receiver of the moves played, null for none
+
+    private final float[] features; // Features of the move being rated
+
+    /**
+     * Creates a strategy always playing the best rated move.
+     *
+     * @param valueFunction the value function rating the moves
+     */
+    public LearnedCPUStrategy(ValueFunction valueFunction)
+    {
+        this(valueFunction, null, 0, null);
+    }
+
+    /**
+     * Creates a strategy exploring and recording its moves, for training.
+     *
+     * @param valueFunction the value function rating the moves
+     * @param random the source of the exploring moves, or {@code null} to never explore
+     * @param exploration the probability of playing a random move instead of the best rated one
+     * @param recorder the receiver of the moves played, or {@code null} for none
+     */
+    public LearnedCPUStrategy(ValueFunction valueFunction, RandomGenerator random, double exploration, MoveRecorder recorder)
+    {
+        this.valueFunction = valueFunction;
+        this.random = random;
+        this.exploration = random == null? 0 : exploration;
+        this.recorder = recorder;
+        this.features = new float[ValueFunction.FEATURES];
+    }
+
+    /**
+     * Gets a factory of strategies sharing the value function saved in a file.
+     *
+     * @param weights the path of the file written by {@link ValueFunction#save(Path)}
+     * @return the factory, which has already read the file
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public static Supplier<CPUStrategy> factory(String weights)
+    {
+        try
+        {
+            ValueFunction valueFunction = ValueFunction.load(Path.of(weights));
+            return () -> new LearnedCPUStrategy(valueFunction);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Cannot read the weights " + weights, e);
+        }
+    }
+
+    @Override
+    public String getName() {return "learned";}
+
+    @Override
+    protected double rate(DominoModel model, Tile tile, boolean left)
+    {
+        ValueFunction.extractFeatures(model, tile, left, features);
+        return valueFunction.evaluate(features);
+    }
+
+    @Override
+    protected int exploreMove(int moves)
+    {
+        return random != null && random.nextDouble() < exploration? random.nextInt(moves) : -1;
+    }
+
+    @Override
+    protected void moveChosen(DominoModel model, Tile tile, boolean left, double rating)
+    {
+        if(recorder == null) return;
+        ValueFunction.extractFeatures(model, tile, left, features);
+        recorder.record(model.getCurrentTurn(), features, (float) rating);
+    }
+}
@@ -0,0 +1,196 @@
+package com.domino.app.training;
+
+import com.domino.app.model.DominoModel;
+import com.domino.app.model.Player;
+import com.domino.app.model.Tile;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * The fixed-width binary record of a decision, as seen by the seat that made it.
+ * <p>
+ * A record is {@value #RECORD_BYTES} little-endian bytes:
+ * </p>
+ * <ul>
+ *     <li>{@link #MATCH_ID} (int): number of the match, shared by its records;</li>
+ *     <li>{@link #HAND} (long): tiles in the hand of the seat, one bit per index in the tile set;</li>
+ *     <li>{@link #BOARD} (long): tiles on the board, one bit per index in the tile set;</li>
+ *     <li>{@link #SEAT} and {@link #PLAYERS} (bytes): turn index of the seat and number of seats;</li>
+ *     <li>{@link #LEFT_END} and {@link #RIGHT_END} (bytes): pips of the ends of the board, -1 when it is empty;</li>
+ *     <li>{@link #OPPONENT_TILES} (3 bytes): tiles held by the next three seats in turn order, 0 for no seat;</li>
+ *     <li>{@link #BONEYARD} (byte): tiles left in the boneyard;</li>
+ *     <li>{@link #OPPONENT_MISSING} (3 shorts): pips the next three seats were seen lacking, one bit per pip,
+ *         learned from the ends of the board whenever they had to draw or pass in the round;</li>
+ *     <li>{@link #CHOICE} (byte): index in the tile set of the tile played;</li>
+ *     <li>{@link #TURN} (byte): number of the turn in the round, from 0;</li>
+ *     <li>{@link #WON} (byte): 1 if the side of the seat won the match, 0 otherwise;</li>
+ *     <li>{@link #PLAYABLE} (byte): number of tiles the seat could play;</li>
+ *     <li>{@link #POINTS} (short): score of the side of the seat minus the best score of the other sides
+ *         at the end of the match.</li>
+ * </ul>
+ * <p>
+ * Tiles are numbered as the model builds its set: by lower pip, then by higher pip, so the
+ * set of a range of up to ten pips, 55 tiles, fits in the bits of a long. A file starts with
+ * a header of {@value #HEADER_BYTES} bytes holding {@link #MAGIC}, the record size and the
+ * lowest and highest pips of the tile set.
+ * </p>
+ */
+public final class Observation
+{
+    public static final long MAGIC = 0x3153424F4D4F44L; // "DOMOBS1" read as a little-endian long
+    public static final int HEADER_BYTES = 16;
+    public static final int RECORD_BYTES = 40;
+    public static final int MAX_PIPS = 15; // Highest pip a short mask can hold
+    public static final int MAX_TILES = 64; // Largest tile set the masks can hold
+
+    public static final int MATCH_ID = 0;
+    public static final int HAND = 4;
+    public static final int BOARD = 12;
+    public static final int SEAT = 20;
+    public static final int PLAYERS = 21;
+    public static final int LEFT_END = 22;
+    public static final int RIGHT_END = 23;
+    public static final int OPPONENT_TILES = 24;
+    public static final int BONEYARD = 27;
+    public static final int OPPONENT_MISSING = 28;
+    public static final int CHOICE = 34;
+    public static final int TURN = 35;
+    public static final int WON = 36;
+    public static final int PLAYABLE = 37;
+    public static final int POINTS = 38;
+
+    private static final int OPPONENTS = 3; // Opponent slots of a record
+
+    private Observation() {}
+
+    /**
+     * Gets the index of a tile in the set of a range of pips.
+     *
+     * @param left the pips of one half of the tile
+     * @param right the pips of the other half
+     * @param minDots the lowest pip of the set
+     * @param maxDots the highest pip of the set
+     * @return the index of the tile, from 0
+     */
+    public static int tileIndex(int left, int right, int minDots, int maxDots)
+    {
+        int low = Math.min(left, right) - minDots;
+        int high = Math.max(left, right) - minDots;
+        int pips = maxDots - minDots + 1;
+        return low * pips - low * (low - 1) / 2 + high - low;
+    }
+
+    /**
+     * Checks that the tile set of a range of pips fits in a record.
+     *
+     * @param minDots the lowest pip of the set
+     * @param maxDots the highest pip of the set
+     * @throws IllegalArgumentException if the set has more than {@value #MAX_TILES} tiles or pips above {@value #MAX_PIPS}
+     */
+    public static void checkRange(int minDots, int maxDots)
+    {
+        int pips = maxDots - minDots + 1;
+        if(maxDots > MAX_PIPS || pips * (pips + 1) / 2 > MAX_TILES)
+        {
+            throw new IllegalArgumentException("Observations hold tile sets of up to " + MAX_TILES + " tiles and "
+                    + MAX_PIPS + " pips: " + minDots + ".." + maxDots);
+        }
+    }
+
+    /**
+     * Writes the header of a file of records.
+     *
+     * @param out the buffer to write to, little-endian
+     * @param minDots the lowest pip of the tile set
+     * @param maxDots the highest pip of the tile set
+     */
+    public static void writeHeader(ByteBuffer out, int minDots, int maxDots)
+    {
+        out.putLong(MAGIC).putInt(RECORD_BYTES).putShort((short) minDots).putShort((short) maxDots);
+    }
+
+    /**
+     * Appends the record of the decision of the current seat, leaving the outcome to {@link #label}.
+     *
+     * @param model the model of the match, positioned on the decision
+     * @param matchId the number of the match
+     * @param turn the number of the turn in the round
+     * @param missingBySeat the pips every seat was seen lacking in the round, one bit per pip
+     * @param choice the index of the chosen tile among the playable tiles of the seat
+     * @param out the buffer to append to, little-endian, with room for a record
+     */
+    public static void encode(DominoModel model, int matchId, int turn, short[] missingBySeat, int choice, ByteBuffer out)
+    {
+        int minDots = model.getMinDots();
+        int maxDots = model.getMaxDots();
+        int seat = model.getCurrentTurn();
+        int players = model.getNumOfPlayers();
+        boolean emptyBoard = model.isBoardEmpty();
+        List<Tile> playable = model.getCurrentPlayerPlayableTiles();
+        Tile chosen = playable.get(choice);
+
+        int start = out.position();
+        out.putInt(matchId);
+        out.putLong(mask(model.getCurrentPlayer().getTiles(), minDots, maxDots));
+        out.putLong(mask(model.getBoardTiles(), minDots, maxDots));
+        out.put((byte) seat);
+        out.put((byte) players);
+        out.put((byte) (emptyBoard? -1 : model.getLeftEnd()));
+        out.put((byte) (emptyBoard? -1 : model.getRightEnd()));
+        for(int k = 1; k <= OPPONENTS; k++)
+        {
+            Player opponent = k < players? model.getPlayer((seat + k) % players) : null;
+            out.put((byte) (opponent == null? 0 : opponent.getTileCount()));
+        }
+        out.put((byte) model.getBoneyardTiles().size());
+        for(int k = 1; k <= OPPONENTS; k++) out.putShort(k < players? missingBySeat[(seat + k) % players] : 0);
+        out.put((byte) tileIndex(chosen.getLeft(), chosen.getRight(), minDots, maxDots));
+        out.put((byte) turn);
+        out.put((byte) 0);
+        out.put((byte) playable.size());
+        out.putShort((short) 0);
+        assert out.position() - start == RECORD_BYTES;
+    }
+
+    /**
+     * Fills the outcome of the records of a finished match.
+     *
+     * @param model the model of the match, once it is over
+     * @param records the buffer holding the records of the match from index 0 to its position
+     */
+    public static void label(DominoModel model, ByteBuffer records)
+    {
+        int winnerSide = model.getMatchWinnerSide();
+        for(int record = 0; record < records.position(); record += RECORD_BYTES)
+        {
+            int side = model.getSideOf(records.get(record + SEAT));
+            int best = Integer.MIN_VALUE;
+            for(int other = 0; other < model.getNumOfSides(); other++)
+            {
+                if(other != side) best = Math.max(best, model.getScore(other));
+            }
+            records.put(record + WON, (byte) (side == winnerSide? 1 : 0));
+            records.putShort(record + POINTS, (short) (model.getScore(side) - best));
+        }
+    }
+
+    /**
+     * Gets the mask of a list of tiles.
+     *
+     * @param tiles the tiles
+     * @param minDots the lowest pip of the set
+     * @param maxDots the highest pip of the set
+     * @return one bit per index in the tile set
+     */
+    private static long mask(List<Tile> tiles, int minDots, int maxDots)
+    {
+        long mask = 0;
+        for(int i = 0; i < tiles.size(); i++)
+        {
+            Tile tile = tiles.get(i);
+            mask |= 1L << tileIndex(tile.getLeft(), tile.getRight(), minDots, maxDots);
+        }
+        return mask;
+    }
+}
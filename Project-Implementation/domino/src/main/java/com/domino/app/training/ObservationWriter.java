@@ -0,0 +1,166 @@
+package com.domino.app.training;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes chunks of records to a file on a thread of its own, through a bounded queue.
+ * <p>
+ * Producers take an empty chunk with {@link #acquire()}, fill it with whole records and hand
+ * it back with {@link #submit(ByteBuffer)}. The writer drains the chunks in the order they
+ * were submitted with one large sequential write each, and returns them to a fixed pool of
+ * direct buffers. When the disk is slower than the producers, the pool runs dry and the
+ * producers block in {@code acquire()} until a chunk is written: memory stays bounded by the
+ * pool, and the time spent blocked is counted.
+ * </p>
+ */
+public class ObservationWriter implements AutoCloseable
+{
+    private static final ByteBuffer END = ByteBuffer.allocate(0); // Chunk telling the writer to stop
+
+    private final FileChannel channel; // File the chunks are written to
+    private final BlockingQueue<ByteBuffer> free; // Empty chunks, waiting for a producer
+    private final BlockingQueue<ByteBuffer> full; // Filled chunks, waiting to be written
+    private final Thread writer; // Thread writing the filled chunks
+    private final LongAdder blockedNanos; // Time the producers spent waiting for an empty chunk
+    private volatile long bytesWritten; // Bytes written to the file
+    private volatile IOException failure; // Error that stopped the writer, if any
+
+    /**
+     * Creates the file, replacing any file of that name, and starts the writer.
+     *
+     * @param path the file to write
+     * @param header the bytes written first, from its position to its limit
+     * @param chunkBytes the size of a chunk
+     * @param chunks the number of chunks of the pool, at least one more than the number of producers
+     * @throws IOException if the file cannot be created
+     */
+    public ObservationWriter(Path path, ByteBuffer header, int chunkBytes, int chunks) throws IOException
+    {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.free = new ArrayBlockingQueue<>(chunks);
+        this.full = new ArrayBlockingQueue<>(chunks + 1);
+        for(int i = 0; i < chunks; i++) free.add(ByteBuffer.allocateDirect(chunkBytes).order(ByteOrder.LITTLE_ENDIAN));
+        this.blockedNanos = new LongAdder();
+        writeFully(header);
+        this.writer = new Thread(this::drain, "observation-writer");
+        writer.start();
+    }
+
+    /**
+     * Takes an empty chunk, waiting for one to be written if all of them are in use.
+     *
+     * @return a cleared chunk
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     * @throws IOException if the writer stopped on an error
+     */
+    public ByteBuffer acquire() throws InterruptedException, IOException
+    {
+        ByteBuffer chunk = free.poll();
+        if(chunk == null)
+        {
+            long start = System.nanoTime();
+            chunk = free.take();
+            blockedNanos.add(System.nanoTime() - start);
+        }
+        if(failure != null) throw failure;
+        return chunk.clear();
+    }
+
+    /**
+     * Hands a chunk to the writer, which writes it from 0 to its position.
+     *
+     * @param chunk a chunk taken with {@link #acquire()}
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void submit(ByteBuffer chunk) throws InterruptedException {full.put(chunk);}
+
+    /**
+     * Gets the time the producers spent waiting for an empty chunk.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getBlockedNanos() {return blockedNanos.sum();}
+
+    /**
+     * Gets the number of bytes written to the file so far, header included.
+     *
+     * @return the number of bytes
+     */
+    public long getBytesWritten() {return bytesWritten;}
+
+    /**
+     * Writes the chunks still queued, stops the writer and closes the file.
+     * <p>
+     * When the calling thread is interrupted while waiting for the writer, the writer is
+     * stopped, the file is closed without the chunks still queued, and the interrupt status
+     * of the thread is restored.
+     * </p>
+     *
+     * @throws InterruptedIOException if the calling thread is interrupted while waiting for the writer
+     * @throws IOException if a chunk could not be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            full.put(END);
+            writer.join();
+        }
+        catch (InterruptedException e)
+        {
+            writer.interrupt();
+            channel.close();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the observation writer");
+        }
+        channel.force(false);
+        channel.close();
+        if(failure != null) throw failure;
+    }
+
+    /**
+     * Writes the filled chunks until told to stop, returning them to the pool.
+     */
+    private void drain()
+    {
+        try
+        {
+            ByteBuffer chunk;
+            while((chunk = full.take()) != END)
+            {
+                if(failure == null)
+                {
+                    try {writeFully(chunk.flip());}
+                    catch (IOException e) {failure = e;}
+                }
+                free.put(chunk);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer to the file.
+     *
+     * @param buffer the bytes to write
+     * @throws IOException if the file cannot be written
+     */
+    private void writeFully(ByteBuffer buffer) throws IOException
+    {
+        while(buffer.hasRemaining()) bytesWritten += channel.write(buffer);
+    }
+}
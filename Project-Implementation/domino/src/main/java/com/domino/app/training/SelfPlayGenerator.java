@@ -0,0 +1,274 @@
+package com.domino.app.training;
+
+import com.domino.app.model.CPUStrategies;
+import com.domino.app.model.DominoModel;
+import com.domino.app.model.DominoModelImp;
+import com.domino.app.model.DominoSettings;
+import com.domino.app.simulation.MatchRunner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays CPU matches in parallel and streams an {@link Observation} of every decision to a file.
+ * <p>
+ * Every worker thread plays its share of the matches on a model of its own, watching the
+ * turns through a {@link MatchRunner.TurnObserver}. The records of a match are kept until
+ * it ends, labeled with its outcome, and copied into a chunk of the {@link ObservationWriter};
+ * a full chunk is handed to the writer and the worker goes on with the next one, or waits
+ * for one when the writer is behind.
+ * </p>
+ */
+public class SelfPlayGenerator
+{
+    private static final int CHUNK_BYTES = 1 << 20; // Size of a chunk, written in one call
+    private static final int MATCH_BUFFER_BYTES = 64 * Observation.RECORD_BYTES; // Initial room for the records of a match
+
+    /**
+     * The outcome of a run.
+     *
+     * @param matches the number of matches played
+     * @param records the number of records written
+     * @param bytes the size of the file
+     * @param elapsedNanos the time spent playing and writing
+     * @param blockedNanos the time the workers spent waiting for the writer
+     */
+    public record Stats(long matches, long records, long bytes, long elapsedNanos, long blockedNanos) {}
+
+    private final DominoSettings settings; // Settings of the matches, without human seats
+    private final List<String> strategies; // Names of the strategies by seat, repeated over the seats
+
+    /**
+     * Creates a generator for the given settings and strategies.
+     *
+     * @param settings the settings of the matches; the number of human players is ignored
+     * @param strategies the names of the strategies by seat, repeated when there are more seats than names
+     * @throws IllegalArgumentException if a strategy is unknown or the tile set does not fit in a record
+     */
+    public SelfPlayGenerator(DominoSettings settings, List<String> strategies)
+    {
+        Observation.checkRange(settings.getMinDots(), settings.getMaxDots());
+        for(String strategy : strategies) CPUStrategies.factory(strategy);
+        this.settings = settings.clone();
+        this.settings.setNumOfHumanPlayers(0);
+        this.strategies = List.copyOf(strategies);
+    }
+
+    /**
+     * Plays matches and writes the records of their decisions to a file.
+     *
+     * @param output the file to write, replaced if it exists
+     * @param matches the number of matches to play
+     * @param threads the number of worker threads
+     * @return the outcome of the run
+     * @throws IOException if the file cannot be written
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers
+     */
+    public Stats run(Path output, long matches, int threads) throws IOException, InterruptedException
+    {
+        int workers = Math.max(1, threads);
+        ByteBuffer header = ByteBuffer.allocate(Observation.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        Observation.writeHeader(header, settings.getMinDots(), settings.getMaxDots());
+        header.flip();
+
+        AtomicInteger matchIds = new AtomicInteger();
+        long records = 0;
+        long start = System.nanoTime();
+        ObservationWriter writer = new ObservationWriter(output, header, CHUNK_BYTES, 2 * workers + 2);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try
+        {
+            List<Future<Long>> futures = new ArrayList<>(workers);
+            for(int i = 0; i < workers; i++)
+            {
+                long share = matches / workers + (i < matches % workers? 1 : 0);
+                futures.add(executor.submit(() -> new Worker(writer, matchIds).play(share)));
+            }
+            for(Future<Long> future : futures) records += future.get();
+        }
+        catch (ExecutionException e)
+        {
+            if(e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            throw new IllegalStateException("A worker failed", e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+            writer.close();
+        }
+        return new Stats(matches, records, writer.getBytesWritten(), System.nanoTime() - start, writer.getBlockedNanos());
+    }
+
+    /**
+     * Plays matches on one thread, recording the decisions of every seat.
+     */
+    private final class Worker implements MatchRunner.TurnObserver
+    {
+        private final ObservationWriter writer; // Writer of the chunks
+        private final AtomicInteger matchIds; // Source of the numbers of the matches
+        private final DominoModelImp model; // Model of the matches of the worker
+        private final MatchRunner runner; // Runner playing the matches
+        private final short[] missingBySeat; // Pips every seat was seen lacking in the current round
+        private ByteBuffer matchRecords; // Records of the current match
+        private ByteBuffer chunk; // Chunk being filled
+        private int matchId; // Number of the current match
+        private int round; // Round the turns are counted in
+        private int turn; // Number of the current turn in the round
+
+        /**
+         * Creates a worker with a model of its own.
+         *
+         * @param writer the writer of the chunks
+         * @param matchIds the source of the numbers of the matches
+         */
+        Worker(ObservationWriter writer, AtomicInteger matchIds)
+        {
+            this.writer = writer;
+            this.matchIds = matchIds;
+            this.model = new DominoModelImp();
+            model.setPublishSnapshots(false);
+            model.setSettings(settings.clone());
+            for(int seat = 0; seat < settings.getNumOfPlayers(); seat++)
+            {
+                model.setCPUStrategy(seat, CPUStrategies.create(strategies.get(seat % strategies.size())));
+            }
+            this.runner = new MatchRunner(model);
+            runner.setTurnObserver(this);
+            this.missingBySeat = new short[settings.getNumOfPlayers()];
+            this.matchRecords = ByteBuffer.allocate(MATCH_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Plays matches and hands their records to the writer.
+         *
+         * @param matches the number of matches to play
+         * @return the number of records written
+         * @throws IOException if the writer stopped on an error
+         * @throws InterruptedException if the thread is interrupted while waiting for the writer
+         */
+        long play(long matches) throws IOException, InterruptedException
+        {
+            long records = 0;
+            chunk = writer.acquire();
+            for(long i = 0; i < matches; i++)
+            {
+                matchId = matchIds.getAndIncrement();
+                round = 0;
+                matchRecords.clear();
+                runner.start();
+                Observation.label(model, matchRecords);
+
+                matchRecords.flip();
+                records += matchRecords.remaining() / Observation.RECORD_BYTES;
+                while(matchRecords.hasRemaining())
+                {
+                    if(chunk.remaining() < Observation.RECORD_BYTES)
+                    {
+                        writer.submit(chunk);
+                        chunk = writer.acquire();
+                    }
+                    int length = Math.min(matchRecords.remaining(), chunk.remaining() / Observation.RECORD_BYTES * Observation.RECORD_BYTES);
+                    chunk.put(chunk.position(), matchRecords, matchRecords.position(), length);
+                    chunk.position(chunk.position() + length);
+                    matchRecords.position(matchRecords.position() + length);
+                }
+                matchRecords.clear();
+            }
+            writer.submit(chunk);
+            return records;
+        }
+
+        @Override
+        public void tileChosen(DominoModel model, int choice)
+        {
+            startRoundIfNew(model);
+            if(matchRecords.remaining() < Observation.RECORD_BYTES)
+            {
+                ByteBuffer grown = ByteBuffer.allocate(matchRecords.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                matchRecords = grown.put(matchRecords.flip());
+            }
+            Observation.encode(model, matchId, Math.min(turn, Byte.MAX_VALUE), missingBySeat, choice, matchRecords);
+            turn++;
+        }
+
+        @Override
+        public void cannotPlay(DominoModel model)
+        {
+            startRoundIfNew(model);
+            if(!model.isBoardEmpty())
+            {
+                missingBySeat[model.getCurrentTurn()] |= (short) (1 << model.getLeftEnd() | 1 << model.getRightEnd());
+            }
+            turn++;
+        }
+
+        /**
+         * Forgets what was learned in the last round when a new one has been dealt.
+         *
+         * @param model the model of the match
+         */
+        private void startRoundIfNew(DominoModel model)
+        {
+            if(model.getRound() == round) return;
+            round = model.getRound();
+            turn = 0;
+            Arrays.fill(missingBySeat, (short) 0);
+        }
+    }
+
+    /**
+     * Generates a file of observations and prints the throughput.
+     * <p>
+     * Usage: {@code SelfPlayGenerator --output=path [--matches=n] [--players=n] [--max-dots=n] [--target=n]
+     * [--teams] [--strategies=a,b,...] [--threads=n]}.
+     * </p>
+     *
+     * @param args the command-line options
+     * @throws IOException if the file cannot be written
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        Path output = null;
+        long matches = 100_000;
+        List<String> strategies = List.of("greedy", "random");
+        int threads = Runtime.getRuntime().availableProcessors();
+        DominoSettings settings = new DominoSettings();
+        for(String arg : args)
+        {
+            if(arg.startsWith("--output=")) output = Path.of(arg.substring("--output=".length()));
+            else if(arg.startsWith("--matches=")) matches = Long.parseLong(arg.substring("--matches=".length()));
+            else if(arg.startsWith("--players=")) settings.setNumOfPlayers(Integer.parseInt(arg.substring("--players=".length())));
+            else if(arg.startsWith("--max-dots=")) settings.setMaxDots(Integer.parseInt(arg.substring("--max-dots=".length())));
+            else if(arg.startsWith("--target=")) settings.setTargetScore(Integer.parseInt(arg.substring("--target=".length())));
+            else if(arg.equals("--teams")) settings.setTeamPlay(true);
+            else if(arg.startsWith("--strategies=")) strategies = List.of(arg.substring("--strategies=".length()).split(","));
+            else if(arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+        }
+        if(output == null)
+        {
+            System.err.println("Usage: SelfPlayGenerator --output=path [--matches=n] [--players=n] [--max-dots=n]"
+                    + " [--target=n] [--teams] [--strategies=a,b,...] [--threads=n]");
+            System.exit(2);
+            return;
+        }
+
+        Stats stats = new SelfPlayGenerator(settings, strategies).run(output, matches, threads);
+        double seconds = stats.elapsedNanos() / 1e9;
+        System.out.printf("Matches: %d, records: %d (%.1f per match), file: %.1f MiB%n", stats.matches(), stats.records(),
+                stats.matches() == 0? 0.0 : (double) stats.records() / stats.matches(), stats.bytes() / 1048576.0);
+        System.out.printf("Written in %.2f s: %.0f records/s, %.1f MiB/s, workers blocked %.1f ms%n", seconds,
+                stats.records() / seconds, stats.bytes() / 1048576.0 / seconds, stats.blockedNanos() / 1e6);
+    }
+}
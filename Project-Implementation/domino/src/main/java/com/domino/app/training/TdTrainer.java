@@ -0,0 +1,316 @@
+package com.domino.app.training;
+
+import com.domino.app.model.CPUStrategies;
+import com.domino.app.model.CPUStrategy;
+import com.domino.app.model.DominoModelImp;
+import com.domino.app.model.DominoSettings;
+import com.domino.app.simulation.BatchSimulator;
+import com.domino.app.simulation.MatchRunner;
+import com.domino.app.simulation.SimulationResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
+
+/**
+ * Learns a {@link ValueFunction} by temporal-difference learning from self-play.
+ * <p>
+ * Every iteration, each worker thread plays a batch of matches where every seat is a
+ * {@link LearnedCPUStrategy} using the current weights, exploring now and then. The moves
+ * of a seat form a sequence of positions, each rated by the value function, and the last
+ * one is followed by the outcome of the match for the side of the seat. Walking the sequence
+ * backwards, every position gets the TD(λ) target, the outcome and the ratings of the
+ * positions after it blended with weight λ, and the worker adds the gradient of the
+ * cross-entropy between the rating and the target to an array of its own.
+ * </p>
+ * <p>
+ * Once every worker is done, the gradients are summed and the weights take one step along
+ * their mean, so all cores learn from the same weights and the result of an iteration does
+ * not depend on the order the workers finish in.
+ * </p>
+ */
+public class TdTrainer
+{
+    /**
+     * The gradient of a batch of matches.
+     *
+     * @param gradient the sum of the gradients of the positions
+     * @param positions the number of positions
+     * @param squaredError the sum of the squared differences between the ratings and their targets
+     */
+    private record Batch(float[] gradient, long positions, double squaredError) {}
+
+    private final DominoSettings settings; // Settings of the self-play matches, without human seats
+    private final double lambda; // Weight of the later positions in the targets
+    private final float[] weights; // Current weights of the value function
+
+    /**
+     * Creates a trainer starting from the given value function.
+     *
+     * @param settings the settings of the self-play matches; the number of human players is ignored
+     * @param initial the value function to start from
+     * @param lambda the weight of the later positions in the targets, from 0 for one-step targets to 1 for the outcome
+     */
+    public TdTrainer(DominoSettings settings, ValueFunction initial, double lambda)
+    {
+        this.settings = settings.clone();
+        this.settings.setNumOfHumanPlayers(0);
+        this.lambda = lambda;
+        this.weights = initial.getWeights();
+    }
+
+    /**
+     * Gets the value function with the current weights.
+     *
+     * @return the value function
+     */
+    public ValueFunction getValueFunction() {return new ValueFunction(weights);}
+
+    /**
+     * Plays one batch of self-play matches per worker and updates the weights.
+     *
+     * @param executor the pool running the workers
+     * @param workers the number of batches played at once
+     * @param matches the number of matches of a batch
+     * @param learningRate the size of the step along the mean gradient
+     * @param exploration the probability of a random move
+     * @param random the source of the seeds of the batches
+     * @return the root mean squared difference between the ratings and their targets
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers
+     */
+    public double iterate(ExecutorService executor, int workers, int matches, double learningRate, double exploration,
+                          SplittableRandom random) throws InterruptedException
+    {
+        ValueFunction current = getValueFunction();
+        List<Future<Batch>> futures = new ArrayList<>(workers);
+        for(int i = 0; i < workers; i++)
+        {
+            RandomGenerator batchRandom = random.split();
+            futures.add(executor.submit(() -> playBatch(current, matches, exploration, batchRandom)));
+        }
+
+        float[] gradient = new float[ValueFunction.FEATURES];
+        long positions = 0;
+        double squaredError = 0;
+        try
+        {
+            for(Future<Batch> future : futures)
+            {
+                Batch batch = future.get();
+                for(int i = 0; i < gradient.length; i++) gradient[i] += batch.gradient()[i];
+                positions += batch.positions();
+                squaredError += batch.squaredError();
+            }
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("A self-play batch failed", e.getCause());
+        }
+        if(positions == 0) return 0;
+        for(int i = 0; i < weights.length; i++) weights[i] += (float) (learningRate * gradient[i] / positions);
+        return Math.sqrt(squaredError / positions);
+    }
+
+    /**
+     * Plays a batch of self-play matches and sums the gradients of their positions.
+     *
+     * @param valueFunction the value function of every seat
+     * @param matches the number of matches
+     * @param exploration the probability of a random move
+     * @param random the source of the random moves and deals
+     * @return the gradient of the batch
+     */
+    private Batch playBatch(ValueFunction valueFunction, int matches, double exploration, RandomGenerator random)
+    {
+        int seats = settings.getNumOfPlayers();
+        Trace[] traces = new Trace[seats];
+        for(int seat = 0; seat < seats; seat++) traces[seat] = new Trace();
+
+        DominoModelImp model = new DominoModelImp();
+        model.setPublishSnapshots(false);
+        model.setSettings(settings.clone());
+        model.setRandom(random);
+        LearnedCPUStrategy.MoveRecorder recorder = (seat, features, value) -> traces[seat].add(features, value);
+        for(int seat = 0; seat < seats; seat++)
+        {
+            model.setCPUStrategy(seat, new LearnedCPUStrategy(valueFunction, random, exploration, recorder));
+        }
+        MatchRunner runner = new MatchRunner(model);
+
+        float[] gradient = new float[ValueFunction.FEATURES];
+        long positions = 0;
+        double squaredError = 0;
+        for(int i = 0; i < matches; i++)
+        {
+            for(Trace trace : traces) trace.clear();
+            runner.start();
+            int winnerSide = model.getMatchWinnerSide();
+            for(int seat = 0; seat < seats; seat++)
+            {
+                Trace trace = traces[seat];
+                double target = model.getSideOf(seat) == winnerSide? 1 : 0;
+                for(int move = trace.size - 1; move >= 0; move--)
+                {
+                    double value = trace.values[move];
+                    double error = target - value;
+                    int offset = move * ValueFunction.FEATURES;
+                    for(int f = 0; f < ValueFunction.FEATURES; f++) gradient[f] += (float) (error * trace.features[offset + f]);
+                    squaredError += error * error;
+                    target = (1 - lambda) * value + lambda * target;
+                }
+                positions += trace.size;
+            }
+        }
+        return new Batch(gradient, positions, squaredError);
+    }
+
+    /**
+     * The positions reached by the moves of a seat in a match, in the order they were played.
+     */
+    private static final class Trace
+    {
+        private float[] features = new float[32 * ValueFunction.FEATURES]; // Features of the positions, one after the other
+        private float[] values = new float[32]; // Ratings of the positions
+        private int size; // Number of positions
+
+        /**
+         * Appends a position.
+         *
+         * @param positionFeatures the features of the position
+         * @param value the rating of the position
+         */
+        void add(float[] positionFeatures, float value)
+        {
+            if(size == values.length)
+            {
+                values = Arrays.copyOf(values, size * 2);
+                features = Arrays.copyOf(features, size * 2 * ValueFunction.FEATURES);
+            }
+            System.arraycopy(positionFeatures, 0, features, size * ValueFunction.FEATURES, ValueFunction.FEATURES);
+            values[size++] = value;
+        }
+
+        /**
+         * Forgets the positions, keeping the arrays.
+         */
+        void clear() {size = 0;}
+    }
+
+    /**
+     * Measures the share of two-player matches a value function wins against a registered strategy,
+     * half of them on each seat.
+     *
+     * @param valueFunction the value function
+     * @param opponent the name of the opposing strategy
+     * @param settings the settings of the matches, played with two players
+     * @param matches the number of matches
+     * @return the share of matches won, between 0 and 1
+     */
+    static double winRate(ValueFunction valueFunction, String opponent, DominoSettings settings, int matches)
+    {
+        DominoSettings twoPlayers = settings.clone();
+        twoPlayers.setNumOfPlayers(2);
+        twoPlayers.setTeamPlay(false);
+        long wins = 0;
+        for(int seat = 0; seat < 2; seat++)
+        {
+            CPUStrategy[] strategies = new CPUStrategy[2];
+            strategies[seat] = new LearnedCPUStrategy(valueFunction);
+            strategies[1 - seat] = CPUStrategies.create(opponent);
+            SimulationResult result = new BatchSimulator(twoPlayers, strategies).simulate(matches / 2);
+            wins += result.wins(seat);
+        }
+        return (double) wins / (matches / 2 * 2);
+    }
+
+    /**
+     * Trains a value function by self-play and saves it.
+     * <p>
+     * Usage: {@code TdTrainer --output=path [--init=path] [--iterations=n] [--matches=n] [--players=n] [--max-dots=n]
+     * [--teams] [--lambda=x] [--alpha=x] [--exploration=x] [--threads=n] [--seed=n] [--eval-every=n]
+     * [--eval-matches=n]}. Every batch plays {@code --matches} matches per thread. The weights are saved and
+     * measured against the greedy and random strategies every {@code --eval-every} iterations, and at the end.
+     * The saved weights are played by the strategy {@code learned:<path>}.
+     * </p>
+     *
+     * @param args the command-line options
+     * @throws IOException if the weights cannot be read or written
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        Path output = null;
+        Path init = null;
+        int iterations = 200;
+        int matches = 200;
+        double lambda = 0.7;
+        double alpha = 1.0;
+        double exploration = 0.05;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        int evalEvery = 50;
+        int evalMatches = 4000;
+        DominoSettings settings = new DominoSettings();
+        settings.setNumOfPlayers(2);
+        for(String arg : args)
+        {
+            if(arg.startsWith("--output=")) output = Path.of(arg.substring("--output=".length()));
+            else if(arg.startsWith("--init=")) init = Path.of(arg.substring("--init=".length()));
+            else if(arg.startsWith("--iterations=")) iterations = Integer.parseInt(arg.substring("--iterations=".length()));
+            else if(arg.startsWith("--matches=")) matches = Integer.parseInt(arg.substring("--matches=".length()));
+            else if(arg.startsWith("--players=")) settings.setNumOfPlayers(Integer.parseInt(arg.substring("--players=".length())));
+            else if(arg.startsWith("--max-dots=")) settings.setMaxDots(Integer.parseInt(arg.substring("--max-dots=".length())));
+            else if(arg.equals("--teams")) settings.setTeamPlay(true);
+            else if(arg.startsWith("--lambda=")) lambda = Double.parseDouble(arg.substring("--lambda=".length()));
+            else if(arg.startsWith("--alpha=")) alpha = Double.parseDouble(arg.substring("--alpha=".length()));
+            else if(arg.startsWith("--exploration=")) exploration = Double.parseDouble(arg.substring("--exploration=".length()));
+            else if(arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+            else if(arg.startsWith("--seed=")) seed = Long.parseLong(arg.substring("--seed=".length()));
+            else if(arg.startsWith("--eval-every=")) evalEvery = Integer.parseInt(arg.substring("--eval-every=".length()));
+            else if(arg.startsWith("--eval-matches=")) evalMatches = Integer.parseInt(arg.substring("--eval-matches=".length()));
+        }
+        if(output == null)
+        {
+            System.err.println("Usage: TdTrainer --output=path [--init=path] [--iterations=n] [--matches=n] [--players=n]"
+                    + " [--max-dots=n] [--teams] [--lambda=x] [--alpha=x] [--exploration=x] [--threads=n] [--seed=n]"
+                    + " [--eval-every=n] [--eval-matches=n]");
+            System.exit(2);
+            return;
+        }
+
+        TdTrainer trainer = new TdTrainer(settings, init == null? new ValueFunction() : ValueFunction.load(init), lambda);
+        SplittableRandom random = new SplittableRandom(seed);
+        int workers = Math.max(1, threads);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try
+        {
+            long start = System.nanoTime();
+            for(int iteration = 1; iteration <= iterations; iteration++)
+            {
+                double error = trainer.iterate(executor, workers, matches, alpha, exploration, random);
+                if(iteration % evalEvery == 0 || iteration == iterations)
+                {
+                    ValueFunction valueFunction = trainer.getValueFunction();
+                    valueFunction.save(output);
+                    System.out.printf("Iteration %d (%.1f s): TD error %.4f, wins vs greedy %.1f%%, vs random %.1f%%%n",
+                            iteration, (System.nanoTime() - start) / 1e9, error,
+                            100 * winRate(valueFunction, "greedy", settings, evalMatches),
+                            100 * winRate(valueFunction, "random", settings, evalMatches));
+                }
+            }
+            System.out.println("Weights: " + Arrays.toString(trainer.getValueFunction().getWeights()));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.domino.app.training;
+
+import com.domino.app.model.CPUStrategies;
+import com.domino.app.model.CPUStrategyProvider;
+
+/**
+ * Registers the strategies of the training package: the family {@code learned:<path>}
+ * playing the value function saved in a file.
+ */
+public class TrainingStrategies implements CPUStrategyProvider
+{
+    @Override
+    public void registerStrategies()
+    {
+        CPUStrategies.registerFamily("learned", LearnedCPUStrategy::factory);
+    }
+}
@@ -0,0 +1,190 @@
+package com.domino.app.training;
+
+import com.domino.app.model.DominoModel;
+import com.domino.app.model.Player;
+import com.domino.app.model.RatedMoveCPUStrategy;
+import com.domino.app.model.Tile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A linear estimate of the chances of a seat to win, from the position after one of its moves.
+ * <p>
+ * A move is described by {@value #FEATURES} features of the position it leads to, as seen by
+ * the seat that plays it: the pips and the doubles it keeps, how many of its tiles and of the
+ * unseen tiles fit the new ends of the board, how close the opponents are to going out. The
+ * estimate is the logistic function of the weighted sum of the features, so it reads as the
+ * probability of winning the match.
+ * </p>
+ * <p>
+ * The weights are kept in a primitive array and saved as a little-endian file of
+ * {@value #HEADER_BYTES} header bytes followed by the weights, read back in one call.
+ * </p>
+ */
+public final class ValueFunction
+{
+    public static final int FEATURES = 14; // Number of features of a position
+    private static final int MAGIC = 0x31465644; // "DVF1" read as a little-endian int
+    private static final int HEADER_BYTES = 8; // Magic and number of weights
+
+    private final float[] weights; // Weight of every feature, the first one the bias
+
+    /**
+     * Creates a value function with every weight at 0, estimating every position at even chances.
+     */
+    public ValueFunction()
+    {
+        this(new float[FEATURES]);
+    }
+
+    /**
+     * Creates a value function with the given weights.
+     *
+     * @param weights the weight of every feature, copied
+     * @throws IllegalArgumentException if there is not one weight per feature
+     */
+    public ValueFunction(float[] weights)
+    {
+        if(weights.length != FEATURES) throw new IllegalArgumentException("Expected " + FEATURES + " weights: " + weights.length);
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Gets the weights of the features.
+     *
+     * @return a copy of the weights
+     */
+    public float[] getWeights() {return weights.clone();}
+
+    /**
+     * Estimates the chances of winning from the features of a position.
+     *
+     * @param features the features of the position
+     * @return the probability of winning, between 0 and 1
+     */
+    public float evaluate(float[] features)
+    {
+        float sum = 0;
+        for(int i = 0; i < FEATURES; i++) sum += weights[i] * features[i];
+        return (float) (1 / (1 + Math.exp(-sum)));
+    }
+
+    /**
+     * Describes the position the current seat reaches by playing a tile on one end of the board.
+     * The model is left untouched.
+     *
+     * @param model the model of the match, positioned on the turn of the seat
+     * @param tile the tile played, in the hand of the seat or just taken from it
+     * @param left {@code true} to play the tile on the left end; {@code false} for the right end
+     * @param features the array receiving the {@value #FEATURES} features
+     */
+    public static void extractFeatures(DominoModel model, Tile tile, boolean left, float[] features)
+    {
+        int seat = model.getCurrentTurn();
+        int players = model.getNumOfPlayers();
+        int pips = model.getMaxDots() - model.getMinDots() + 1;
+
+        int newLeft = RatedMoveCPUStrategy.newLeftEnd(model, tile, left);
+        int newRight = RatedMoveCPUStrategy.newRightEnd(model, tile, left);
+
+        // Own hand after the move
+        List<Tile> hand = model.getCurrentPlayer().getTiles();
+        int handPips = 0;
+        int handTiles = 0;
+        int doubles = 0;
+        int fitting = 0;
+        int ownLeft = 0;
+        int ownRight = 0;
+        for(int i = 0; i < hand.size(); i++)
+        {
+            Tile held = hand.get(i);
+            if(held == tile) continue;
+            handTiles++;
+            handPips += held.getSum();
+            if(held.isDouble()) doubles++;
+            boolean hasLeft = held.getLeft() == newLeft || held.getRight() == newLeft;
+            boolean hasRight = held.getLeft() == newRight || held.getRight() == newRight;
+            if(hasLeft || hasRight) fitting++;
+            if(hasLeft) ownLeft++;
+            if(hasRight) ownRight++;
+        }
+
+        // Tiles of the new ends already seen on the board
+        List<Tile> board = model.getBoardTiles();
+        int boardLeft = tile.hasNumber(newLeft)? 1 : 0;
+        int boardRight = tile.hasNumber(newRight)? 1 : 0;
+        for(int i = 0; i < board.size(); i++)
+        {
+            Tile placed = board.get(i);
+            if(placed.hasNumber(newLeft)) boardLeft++;
+            if(placed.hasNumber(newRight)) boardRight++;
+        }
+        int unseenLeft = Math.max(0, pips - ownLeft - boardLeft); // Every pip is on one tile with each other pip
+        int unseenRight = newLeft == newRight? 0 : Math.max(0, pips - ownRight - boardRight);
+
+        int nextTiles = 0;
+        int fewestTiles = Integer.MAX_VALUE;
+        for(int k = 1; k < players; k++)
+        {
+            int opponent = (seat + k) % players;
+            if(model.getSideOf(opponent) == model.getSideOf(seat)) continue;
+            Player player = model.getPlayer(opponent);
+            if(nextTiles == 0) nextTiles = player.getTileCount();
+            fewestTiles = Math.min(fewestTiles, player.getTileCount());
+        }
+        if(fewestTiles == Integer.MAX_VALUE) fewestTiles = 0;
+
+        features[0] = 1;
+        features[1] = handPips / 50f;
+        features[2] = handTiles / 10f;
+        features[3] = doubles / 4f;
+        features[4] = handTiles == 0? 0 : (float) fitting / handTiles;
+        features[5] = (unseenLeft + unseenRight) / (float) pips;
+        features[6] = newLeft == newRight? 1 : 0;
+        features[7] = fewestTiles / 10f;
+        features[8] = nextTiles / 10f;
+        features[9] = model.getBoneyardTiles().size() / 14f;
+        features[10] = tile.getSum() / 12f;
+        features[11] = tile.isDouble()? 1 : 0;
+        features[12] = handTiles == 0? 1 : 0;
+        features[13] = Math.max(ownLeft + boardLeft, ownRight + boardRight) / (float) pips;
+    }
+
+    /**
+     * Reads a value function from a file written by {@link #save(Path)}.
+     *
+     * @param path the file
+     * @return the value function
+     * @throws IOException if the file cannot be read or is not a value function of this size
+     */
+    public static ValueFunction load(Path path) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if(buffer.remaining() != HEADER_BYTES + 4 * FEATURES || buffer.getInt() != MAGIC || buffer.getInt() != FEATURES)
+        {
+            throw new IOException("Not a value function of " + FEATURES + " features: " + path);
+        }
+        float[] weights = new float[FEATURES];
+        buffer.asFloatBuffer().get(weights);
+        return new ValueFunction(weights);
+    }
+
+    /**
+     * Writes the weights to a file, replacing it if it exists.
+     *
+     * @param path the file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 4 * FEATURES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(FEATURES);
+        buffer.asFloatBuffer().put(weights);
+        Files.write(path, buffer.array());
+    }
+}
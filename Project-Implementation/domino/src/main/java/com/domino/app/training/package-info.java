@@ -0,0 +1,12 @@
+/**
+ * This package contains the training components of the Domino game application.
+ *
+ * <p>
+ * They play CPU matches in bulk to produce what learned CPU strategies are fitted on:
+ * observations of every decision, as seen by the seat that made it, labeled with the
+ * outcome of the match and written to compact binary files. They also learn a value
+ * function by temporal-difference self-play, played by the {@code learned} strategy, and
+ * tune the weights of the {@code heuristic} strategy with an evolution strategy.
+ * </p>
+ */
+package com.domino.app.training;
@@ -83,6 +83,12 @@ public interface DominoView
      */
     void displayEndMatchSummary();
 
+    /**
+     * Displays the scores of the sides after a round of a match played to a target score,
+     * and the winner of the match once it is over.
+     */
+    void displayRoundScores();
+
     /**
      * Shows the end-of-match menu with options for the next steps.
      */
@@ -123,6 +129,16 @@ public interface DominoView
      */
     void displayBoneyardTilesMessage();
 
+    /**
+     * Prompts the user to select the score that ends the match.
+     */
+    void displayTargetScoreMessage();
+
+    /**
+     * Prompts the user to select whether the players score as teams.
+     */
+    void displayTeamPlayMessage();
+
     /**
      * Shows a message confirming that changes have been saved.
      */
@@ -133,6 +149,18 @@ public interface DominoView
      */
     void displayChangesDiscarded();
 
+    /**
+     * Echoes an option selected without console input, such as a CPU player's choice.
+     *
+     * @param option the selected option
+     */
+    void displaySelectedOption(int option);
+
+    /**
+     * Writes any buffered output, typically right before waiting for user input.
+     */
+    void flushDisplay();
+
     /**
      * Shows an error message for invalid menu option selection.
      */
@@ -2,37 +2,95 @@ package com.domino.app.view;
 
 import com.domino.app.controller.DominoController;
 import com.domino.app.model.DominoModel;
+import com.domino.app.model.GameEvent;
 import com.domino.app.model.Tile;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.util.*;
-import java.util.function.Function;
-import java.util.function.IntFunction;
+import java.util.concurrent.Flow;
 import java.util.function.IntPredicate;
-import java.util.function.ToIntFunction;
 
 /**
  * The implementation of the {@link DominoView} interface.
  * This class handles the presentation layer of the Domino game,
  * providing methods to display game information, player actions,
  * and game status updates to the console.
+ * <p>
+ * Output is composed into frames by a {@link FrameRenderer}: each turn is written
+ * with a single write once the move is made, and pending output is flushed
+ * whenever the controller is about to wait for input.
+ * </p>
+ * <p>
+ * Moves are not re-derived from the model after the fact: the view subscribes to
+ * the {@link GameEvent}s of the model and composes each move as it is published,
+ * keeping only the ends and first tiles of the board it needs for display.
+ * </p>
  */
 public class DominoViewImp implements DominoView {
 
+    /**
+     * Number of moves kept for the match summary by default.
+     */
+    public static final int DEFAULT_SUMMARY_MOVES = 256;
+
     private DominoController controller; // The controller that manages game logic and interactions
-    private StringJoiner summary; // A joiner to format and store the game summary
-    private String lastMove; // The last move made in the game
+    private final FrameRenderer renderer; // The renderer composing the output into frames
+    private TileFormatter formatter; // Cached tile and label representations for the current settings
+    private final SummarySink summary; // The sink recording the game summary as moves are made
+    private MoveRecorder events; // The subscriber following the events of the model, null until the first match
+    private final BoardMirror board; // The ends and first tiles of the board, as needed for display
+    private boolean drewTile; // Whether the move in progress started by drawing a tile
+    private final StringBuilder lastMove; // The last move made in the game, reused across moves
+    private final StringBuilder boardRepr; // Reusable buffer for board representations
+    private final StringBuilder playedBoardRepr; // Reusable buffer for the board with the played tile marked
 
     /**
      * Creates a new instance of {@code DominoViewImp}.
      * This constructor sets up the initial state of the view, including
      * the last move and controller references, and initializes the summary
-     * joiner for output formatting.
+     * sink for output formatting. Frames are written to the standard output
+     * without a frame-rate cap.
      */
     public DominoViewImp()
     {
-        lastMove = null;
+        this(new FileOutputStream(FileDescriptor.out), 0);
+    }
+
+    /**
+     * Creates a new instance of {@code DominoViewImp} writing to the given stream
+     * and keeping the last {@value #DEFAULT_SUMMARY_MOVES} moves for the match summary.
+     *
+     * @param out the stream receiving the rendered frames
+     * @param maxFramesPerSecond the maximum number of turn frames written per second,
+     *                           intermediate frames are dropped above it; {@code 0} disables the cap
+     */
+    public DominoViewImp(OutputStream out, int maxFramesPerSecond)
+    {
+        this(out, maxFramesPerSecond, new RingBufferSummarySink(DEFAULT_SUMMARY_MOVES));
+    }
+
+    /**
+     * Creates a new instance of {@code DominoViewImp} writing to the given stream.
+     *
+     * @param out the stream receiving the rendered frames
+     * @param maxFramesPerSecond the maximum number of turn frames written per second,
+     *                           intermediate frames are dropped above it; {@code 0} disables the cap
+     * @param summary the sink recording the move lines for the match summary
+     */
+    public DominoViewImp(OutputStream out, int maxFramesPerSecond, SummarySink summary)
+    {
+        renderer = new FrameRenderer(out, maxFramesPerSecond);
+        formatter = null;
+        events = null;
+        board = new BoardMirror();
+        drewTile = false;
+        lastMove = new StringBuilder(128);
+        boardRepr = new StringBuilder(64);
+        playedBoardRepr = new StringBuilder(64);
         controller = null;
-        summary = new StringJoiner("\n");
+        this.summary = summary;
     }
 
     @Override
@@ -44,16 +102,22 @@ public class DominoViewImp implements DominoView {
     @Override
     public void resetViewData()
     {
-        lastMove = null;
-        summary = new StringJoiner("\n");
+        if(events == null || events.model != getModel())
+        {
+            if(events != null) events.cancel();
+            events = new MoveRecorder(getModel());
+            getModel().getGameEvents().subscribe(events);
+        }
+        lastMove.setLength(0);
+        summary.reset();
     }
 
     @Override
     public void displayMainMenu() {
         displaySeparatorSection();
-        System.out.println(" DOMINO GAME");
+        renderer.println(" DOMINO GAME");
         displaySeparatorSection();
-        System.out.printf(
+        renderer.printf(
                 " (0) PLAY (%d HUMAN vs %d CPU)\n (1) SETTINGS\n (2) EXIT\n",
                 getModel().getNumOfHumanPlayers(),
                 getModel().getNumOfPlayers()-getModel().getNumOfHumanPlayers());
@@ -64,26 +128,30 @@ public class DominoViewImp implements DominoView {
     public void displaySettingsMenu()
     {
         displaySeparatorSection();
-        System.out.println(" DOMINO SETTINGS");
+        renderer.println(" DOMINO SETTINGS");
         displaySeparatorSection();
 
-        System.out.printf(
+        renderer.printf(
                 " (0) PLAYERS: %d HUMAN vs %d CPU\n" +
                         " (1) MIN PIPS: %d\n" +
                         " (2) MAX PIPS: %d\n" +
                         " (3) OPPONENTS TILES: %s\n" +
-                        " (4) BONEYARD TILES: %s\n",
+                        " (4) BONEYARD TILES: %s\n" +
+                        " (5) TARGET SCORE: %s\n" +
+                        " (6) TEAMS: %s\n",
                 getModel().getNumOfHumanPlayers(),
                 getModel().getNumOfPlayers()-getModel().getNumOfHumanPlayers(),
                 getModel().getMinDots(),
                 getModel().getMaxDots(),
                 booleanToOption(getModel().isHideOpponentTiles()),
-                booleanToOption(getModel().isHideBoneyardTiles())
+                booleanToOption(getModel().isHideBoneyardTiles()),
+                getModel().getTargetScore() > 0? Integer.toString(getModel().getTargetScore()) : "SINGLE ROUND",
+                getModel().isTeamPlay()? "ON" : "OFF"
         );
         displaySeparatorSection();
-        System.out.println(
-                " (5) SAVE CHANGES\n" +
-                        " (6) DISCARD CHANGES");
+        renderer.println(
+                " (7) SAVE CHANGES\n" +
+                        " (8) DISCARD CHANGES");
         displaySeparatorSection();
     }
 
@@ -91,15 +159,16 @@ public class DominoViewImp implements DominoView {
     public void displayExitMessage()
     {
         displaySeparatorSection();
-        System.out.println(" EXITING GAME");
+        renderer.println(" EXITING GAME");
         displaySeparatorSection();
+        renderer.flush();
     }
 
     @Override
     public void displayDominoMatchHeader()
     {
         displaySeparatorSection();
-        System.out.printf(
+        renderer.printf(
                 " DOMINO MATCH: %d HUMAN vs %d CPU\n",
                 getModel().getNumOfHumanPlayers(),
                 getModel().getNumOfPlayers()-getModel().getNumOfHumanPlayers()
@@ -109,25 +178,26 @@ public class DominoViewImp implements DominoView {
     @Override
     public void displayCurrentPlayerPlayableTiles()
     {
-        System.out.println(" TILES TO PLAY");
+        renderer.println(" TILES TO PLAY");
         displaySeparatorSection();
-        System.out.println(playableTilesRepr(getModel().getCurrentPlayerPlayableTiles()));
+        appendPlayableTiles(renderer.buffer(), getModel().getCurrentPlayerPlayableTiles());
         displaySeparatorSection();
     }
 
     @Override
     public void displayRequestNumberMessage()
     {
-        System.out.print(" SELECT: ");
+        renderer.print(" SELECT: ");
     }
 
     @Override
     public void displaySideToPlayLastTile()
     {
         displaySeparatorSection();
-        System.out.printf(" SIDE TO PLAY %s\n", regularTileRepr(getModel().getLastPlayedTile()));
+        appendRegularTile(renderer.buffer().append(" SIDE TO PLAY "), getModel().getLastPlayedTile());
+        renderer.println();
         displaySeparatorSection();
-        System.out.println(" (0) LEFT\n (1) RIGHT");
+        renderer.println(" (0) LEFT\n (1) RIGHT");
         displaySeparatorSection();
     }
 
@@ -135,7 +205,8 @@ public class DominoViewImp implements DominoView {
     public void displayMatchResume()
     {
         displaySeparatorSection();
-        System.out.printf(" PLAYER'S TURN (J%d)%n", getModel().getCurrentTurn());
+        renderer.buffer().append(" PLAYER'S TURN").append(getFormatter().seat(getModel().getCurrentTurn()));
+        renderer.println();
         displaySeparatorSection();
         displayHiddenPlayerTiles();
         displayHiddenBoneyardTiles();
@@ -147,39 +218,41 @@ public class DominoViewImp implements DominoView {
     public void displayPlayerMoveMade()
     {
         displaySeparatorSection();
-        System.out.println(" MOVE MADE");
+        renderer.println(" MOVE MADE");
         displaySeparatorSection();
-        System.out.println(lastMoveRepr());
+        renderer.println(lastMove);
         displaySeparatorEndOfSection();
+        renderer.endFrame();
     }
 
     @Override
     public void displayDrawMessage()
     {
-        System.out.println(" YOU CANNOT PLAY ANY TILE (DRAW)");
+        renderer.println(" YOU CANNOT PLAY ANY TILE (DRAW)");
         displaySeparatorSection();
-        System.out.printf(" TILE OBTAINED FROM THE BONEYARD: %s\n", regularTileRepr((getModel().getLastDrawnTile())));
+        appendRegularTile(renderer.buffer().append(" TILE OBTAINED FROM THE BONEYARD: "), getModel().getLastDrawnTile());
+        renderer.println();
     }
 
     @Override
     public void displayPassAction()
     {
-        System.out.println(" YOU CANNOT PLAY ANY TILE");
+        renderer.println(" YOU CANNOT PLAY ANY TILE");
     }
 
     @Override
     public void displayEndMatchSummary()
     {
         displaySeparatorSection();
-        System.out.println(" END OF MATCH");
+        renderer.println(" END OF MATCH");
 
         displaySeparatorSection();
-        System.out.println(" SUMMARY");
+        renderer.println(" SUMMARY");
         displaySeparatorSection();
-        System.out.println(summary);
+        summary.replay(renderer);
 
         displaySeparatorSection();
-        System.out.println(" REMAINING TILES");
+        renderer.println(" REMAINING TILES");
         displaySeparatorSection();
         displayVisiblePlayerTiles();
         displayVisibleBoneyardTiles();
@@ -187,23 +260,66 @@ public class DominoViewImp implements DominoView {
 
         if(getModel().hasDraw())
         {
-            System.out.println(" TIEBREAKER");
+            renderer.println(" TIEBREAKER");
             displaySeparatorSection();
             displayPlayersPoints();
             displaySeparatorSection();
         }
 
-        System.out.printf(" WINNER (J%d)\n", getModel().getWinnerTurn());
+        renderer.buffer().append(" WINNER").append(getFormatter().seat(getModel().getWinnerTurn()));
+        renderer.println();
+        displaySeparatorEndOfSection();
+        renderer.flush();
+    }
+
+    @Override
+    public void displayRoundScores()
+    {
+        DominoModel model = getModel();
+        displaySeparatorSection();
+        renderer.printf(" SCORES AFTER ROUND %d (+%d)\n", model.getRound(), model.getRoundPoints());
+        displaySeparatorSection();
+
+        StringBuilder out = renderer.buffer();
+        for(int side = 0; side < model.getNumOfSides(); side++)
+        {
+            appendSide(out, side);
+            out.append(" {").append(model.getScore(side)).append('/').append(model.getTargetScore()).append('}');
+            renderer.println();
+        }
+
+        if(model.isMatchOver())
+        {
+            displaySeparatorSection();
+            appendSide(out.append(" MATCH WINNER"), model.getMatchWinnerSide());
+            renderer.println();
+        }
         displaySeparatorEndOfSection();
+        renderer.flush();
+    }
+
+    /**
+     * Appends the seats of the players scoring for a side.
+     *
+     * @param out the buffer receiving the seats
+     * @param side the index of the side
+     */
+    private void appendSide(StringBuilder out, int side)
+    {
+        DominoModel model = getModel();
+        for(int turn = 0; turn < model.getNumOfPlayers(); turn++)
+        {
+            if(model.getSideOf(turn) == side) out.append(getFormatter().seat(turn));
+        }
     }
 
     @Override
     public void displayEndMatchMenu()
     {
         displaySeparatorSection();
-        System.out.println(" END OF MATCH MENU");
+        renderer.println(" END OF MATCH MENU");
         displaySeparatorSection();
-        System.out.println(
+        renderer.println(
                 " (0) GO BACK TO MAIN MENU\n" +
                         " (1) PLAY AGAIN\n" +
                         " (2) QUIT"
@@ -214,25 +330,25 @@ public class DominoViewImp implements DominoView {
     @Override
     public void displayFeatureMessage()
     {
-        System.out.print(" SELECT FEATURE: ");
+        renderer.print(" SELECT FEATURE: ");
     }
 
     @Override
     public void displayNumOfPlayersMessage()
     {
-        System.out.print(" 2 <= NUMBER OF PLAYERS <= 4: ");
+        renderer.print(" 2 <= NUMBER OF PLAYERS <= 4: ");
     }
 
     @Override
     public void displayNumOfHumanPlayersMessage()
     {
-        System.out.printf(" 0 <= HUMAN PLAYERS <= %s: ", getModel().getNumOfPlayers());
+        renderer.printf(" 0 <= HUMAN PLAYERS <= %s: ", getModel().getNumOfPlayers());
     }
 
     @Override
     public void displayMinDotsMessage()
     {
-        System.out.printf(
+        renderer.printf(
                 " 0 <= MIN DOTS < %d: "
                 , getModel().getMaxDots()
         );
@@ -241,7 +357,7 @@ public class DominoViewImp implements DominoView {
     @Override
     public void displayMaxDotsMessage()
     {
-        System.out.printf(
+        renderer.printf(
                 " MAX DOTS > %d: "
                 , getModel().getMinDots()
         );
@@ -250,52 +366,76 @@ public class DominoViewImp implements DominoView {
     @Override
     public void displayOpponentsTilesMessage()
     {
-        System.out.print(" OTHER PLAYERS TILES (HIDDEN|VISIBLE): ");
+        renderer.print(" OTHER PLAYERS TILES (HIDDEN|VISIBLE): ");
     }
 
     @Override
     public void displayBoneyardTilesMessage()
     {
-        System.out.print(" BONEYARD TILES (HIDDEN|VISIBLE): ");
+        renderer.print(" BONEYARD TILES (HIDDEN|VISIBLE): ");
+    }
+
+    @Override
+    public void displayTargetScoreMessage()
+    {
+        renderer.print(" TARGET SCORE (0 FOR A SINGLE ROUND): ");
+    }
+
+    @Override
+    public void displayTeamPlayMessage()
+    {
+        renderer.print(" TEAMS, 4 PLAYERS ONLY (0 OFF|1 ON): ");
     }
 
     @Override
     public void displayChangesSaved()
     {
-        System.out.println(" CHANGES SAVED");
+        renderer.println(" CHANGES SAVED");
         displaySeparatorEndOfSection();
     }
 
     @Override
     public void displayChangesDiscarded()
     {
-        System.out.println(" CHANGES DISCARDED");
+        renderer.println(" CHANGES DISCARDED");
         displaySeparatorEndOfSection();
     }
 
+    @Override
+    public void displaySelectedOption(int option)
+    {
+        renderer.println(Integer.toString(option));
+    }
+
+    @Override
+    public void flushDisplay()
+    {
+        renderer.flush();
+    }
+
     @Override
     public void displayInvalidOptionMessage()
     {
-        System.out.println(" INVALID OPTION - TRY AGAIN");
+        renderer.println(" INVALID OPTION - TRY AGAIN");
     }
 
     @Override
     public void displayInvalidInputMessage()
     {
-        System.out.println(" INVALID INPUT - TRY AGAIN");
+        renderer.println(" INVALID INPUT - TRY AGAIN");
     }
 
     @Override
     public void displaySeparatorSection()
     {
-        System.out.println("----------------------------------------------------");
+        renderer.println("----------------------------------------------------");
     }
 
     @Override
     public void displaySeparatorEndOfSection()
     {
         displaySeparatorSection();
-        System.out.println();
+        renderer.println();
     }
 
     // implementation methods
@@ -319,58 +459,56 @@ public class DominoViewImp implements DominoView {
     private DominoModel getModel() {return controller.getModel();}
 
     /**
-     * Provides a string representation of a regular tile in the format [left|right].
+     * Retrieves the tile formatter for the current settings, rebuilding it when they change.
      *
-     * @param tile the Tile object to represent
-     * @return the string representation of the tile
+     * @return the tile formatter
      */
-    private String regularTileRepr(Tile tile)
+    private TileFormatter getFormatter()
     {
-        return String.format("[%d|%d]", tile.getLeft(), tile.getRight());
+        DominoModel model = getModel();
+        if(formatter == null || !formatter.matches(model.getMinDots(), model.getMaxDots(), model.getNumOfPlayers()))
+        {
+            formatter = new TileFormatter(model.getMinDots(), model.getMaxDots(), model.getNumOfPlayers());
+        }
+        return formatter;
     }
 
     /**
-     * Provides a string representation of a hidden tile.
+     * Appends the representation of a regular tile in the format [left|right].
      *
+     * @param out the builder receiving the representation
      * @param tile the Tile object to represent
-     * @return the string representation of the hidden tile
+     * @return the builder
      */
-    private String hiddenTileRepr(Tile tile)
+    private StringBuilder appendRegularTile(StringBuilder out, Tile tile)
     {
-        return "[?|?]";
+        return out.append(getFormatter().tile(tile.getLeft(), tile.getRight()));
     }
 
     /**
-     * Provides a string representation of a list of tiles indicating the number of tiles.
+     * Appends the representation of a tile, hidden or regular.
      *
-     * @param tiles the list of Tile objects
-     * @return the string representation of the tile count
-     */
-    private String tilesRepr(List<Tile> tiles)
-    {
-        return String.format("<%d>", tiles.size());
-    }
-
-    /**
-     * Provides a string representation of the player's turn.
-     *
-     * @param playerTurn the index of the current player turn
-     * @return the string representation of the player's turn
+     * @param out the builder receiving the representation
+     * @param tile the Tile object to represent
+     * @param hidden whether the tile must be hidden
+     * @return the builder
      */
-    private String playerTurnRepr(int playerTurn)
+    private StringBuilder appendTile(StringBuilder out, Tile tile, boolean hidden)
     {
-        return String.format(" (J%d)", playerTurn);
+        return hidden? out.append(getFormatter().hiddenTile()) : appendRegularTile(out, tile);
     }
 
     /**
-     * Provides a string representation of the player's points.
+     * Appends the representation of the board ends in the format &lt;left|right&gt;.
      *
-     * @param playerTurn the index of the player
-     * @return the string representation of the player's points
+     * @param out the builder receiving the representation
+     * @param left the pips on the left end of the board
+     * @param right the pips on the right end of the board
+     * @return the builder
      */
-    private String playerPointsRepr(int playerTurn)
+    private StringBuilder appendEnds(StringBuilder out, int left, int right)
     {
-        return String.format(" (J%d) {%d}", playerTurn, getModel().getPlayer(playerTurn).getTilesSum());
+        return out.append(getFormatter().ends(left, right));
     }
 
     /**
@@ -378,200 +516,148 @@ public class DominoViewImp implements DominoView {
      */
     public void displayPlayersPoints()
     {
-        StringJoiner joiner = new StringJoiner("\n");
-
+        StringBuilder out = renderer.buffer();
         for (int turn=0; turn < getModel().getNumOfPlayers(); turn++)
         {
-            joiner.add(playerPointsRepr(turn));
+            out.append(getFormatter().seat(turn)).append(" {").append(getModel().getPlayer(turn).getTilesSum()).append('}');
+            renderer.println();
         }
-        System.out.println(joiner);
     }
 
     /**
-     * Provides a string representation of a player's move, including the current turn, action, board representation, and end tile representation.
+     * Appends the representation of a player's move, including the turn, action, board representation, and end tile representation.
      *
+     * @param out the builder receiving the move
+     * @param turn the turn index of the player making the move
      * @param action the action taken by the player
-     * @param boardRepr the string representation of the board
-     * @param endTileRepr the string representation of the end tile
-     * @return the string representation of the move
+     * @param boardRepr the representation of the board
+     * @param endTileRepr the representation of the end tile
      */
-    private String moveRepr(String action, String boardRepr, String endTileRepr)
+    private void appendMove(StringBuilder out, int turn, String action, CharSequence boardRepr, CharSequence endTileRepr)
     {
-        StringJoiner joiner = new StringJoiner(" ");
-        joiner.add(playerTurnRepr(getModel().getCurrentTurn()));
-        joiner.add(action);
-        joiner.add(boardRepr);
-        joiner.add(action);
-        joiner.add(endTileRepr);
-        return joiner.toString();
+        out.append(getFormatter().seat(turn))
+                .append(' ').append(action)
+                .append(' ').append(boardRepr)
+                .append(' ').append(action)
+                .append(' ').append(endTileRepr);
     }
 
     /**
-     * Provides a string representation of the last move made in the game.
+     * Composes the representation of a tile play, preceded by the draw when the tile
+     * came from the boneyard, into the reusable move buffer and records it in the summary.
      *
-     * @return the string representation of the last move
+     * @param played the event of the tile being played
      */
-    private String lastMoveRepr()
+    private void recordTilePlayed(GameEvent.TilePlayed played)
     {
-        StringJoiner joiner = new StringJoiner("\n");
-        switch (getModel().getLastGameAction())
+        lastMove.setLength(0);
+        CharSequence lastBoardRepr = boardRepr();
+        if(drewTile)
         {
-            case PASS :
-            {
-                joiner.add(moveRepr("---", currentBoardRepr(), currentEndsBoardTileRepr()));
-                break;
-            }
-
-            case DRAW_AND_PASS :
-            {
-                joiner.add(moveRepr("@@@", currentBoardRepr(), currentEndsBoardTileRepr()));
-                joiner.add(moveRepr("+++", currentBoardRepr(), currentEndsBoardTileRepr()));
-                break;
-            }
-
-            case DRAW_AND_PLAY_LEFT :
-            {
-                joiner.add(moveRepr("@@@", lastBoardRepr(), lastEndsBoardTileRepr()));
-            }
-
-            case PLAY_LEFT :
-            {
-                String currentBoardRepr = currentPlayedBoardRepr(boardRepr -> boardRepr.indexOf("-"));
-                joiner.add(moveRepr("...", currentBoardRepr, currentEndsBoardTileRepr()));
-                break;
-            }
-
-            case DRAW_AND_PLAY_RIGHT :
-            {
-                joiner.add(moveRepr("@@@", lastBoardRepr(), lastEndsBoardTileRepr()));
-            }
-
-            case PLAY_RIGHT :
-            {
-                String currentBoardRepr = currentPlayedBoardRepr(boardRepr -> boardRepr.lastIndexOf("-"));
-                joiner.add(moveRepr("...", currentBoardRepr, currentEndsBoardTileRepr()));
-                break;
-            }
+            appendMove(lastMove, played.turn(), "@@@", lastBoardRepr, endsBoardTileRepr());
+            lastMove.append('\n');
         }
 
-        lastMove = joiner.toString();
-        summary.add(lastMove);
+        CharSequence currentBoardRepr = playedBoardRepr(lastBoardRepr, played.left(), played.right(), played.atLeftEnd());
+        board.add(played.left(), played.right(), played.atLeftEnd());
+        appendMove(lastMove, played.turn(), "...", currentBoardRepr, endsBoardTileRepr());
 
-        return joiner.toString();
-    }
-
-    /**
-     * Provides a string representation of the current end tile of the board.
-     *
-     * @return the string representation of the current end tile
-     */
-    private String currentEndsBoardTileRepr()
-    {
-        Tile endsBoardTile = getModel().getEndsBoardTile();
-        return String.format("<%d|%d>", endsBoardTile.getLeft(), endsBoardTile.getRight());
+        drewTile = false;
+        summary.append(lastMove);
     }
 
     /**
-     * Provides a string representation of the last end tile based on the last game action.
+     * Composes the representation of a passed turn, preceded by the draw when a tile was
+     * drawn and could not be played, into the reusable move buffer and records it in the summary.
      *
-     * @return the string representation of the last end tile
+     * @param passed the event of the turn being passed
      */
-    private String lastEndsBoardTileRepr()
+    private void recordTurnPassed(GameEvent.TurnPassed passed)
     {
-        Tile endsBoardTile = getModel().getEndsBoardTile();
-
-        switch (getModel().getLastGameAction())
+        lastMove.setLength(0);
+        CharSequence currentBoardRepr = boardRepr();
+        if(drewTile)
         {
-            case PLAY_LEFT, DRAW_AND_PLAY_LEFT ->
-            {
-                Tile lastPlayedTile = getModel().getLastPlayedTile();
-                endsBoardTile = new Tile(lastPlayedTile.getLeft(), endsBoardTile.getRight());
-            }
-            case PLAY_RIGHT, DRAW_AND_PLAY_RIGHT ->
-            {
-                Tile lastPlayedTile = getModel().getLastPlayedTile();
-                endsBoardTile = new Tile(endsBoardTile.getLeft(), lastPlayedTile.getRight());
-            }
+            appendMove(lastMove, passed.turn(), "@@@", currentBoardRepr, endsBoardTileRepr());
+            lastMove.append('\n');
+            appendMove(lastMove, passed.turn(), "+++", currentBoardRepr, endsBoardTileRepr());
+        }
+        else
+        {
+            appendMove(lastMove, passed.turn(), "---", currentBoardRepr, endsBoardTileRepr());
         }
 
-        return String.format("<%d|%d>", endsBoardTile.getLeft(), endsBoardTile.getRight());
-    }
-
-    /**
-     * Provides a string representation of the current board state.
-     *
-     * @return the string representation of the current board
-     */
-    private String currentBoardRepr()
-    {
-        return boardTilesRepr(getModel().getBoardTiles());
+        drewTile = false;
+        summary.append(lastMove);
     }
 
     /**
-     * Provides a string representation of the last board state excluding the last added tile.
+     * Provides the representation of the ends of the board as mirrored by the view.
      *
-     * @return the string representation of the last board
+     * @return the representation of the board ends
      */
-    private String lastBoardRepr()
+    private String endsBoardTileRepr()
     {
-        return boardTilesRepr(getModel().getBoardTilesExcludingLastAdded());
+        return board.isEmpty()? "" : getFormatter().ends(board.getEndsLeft(), board.getEndsRight());
     }
 
     /**
-     * Provides a string representation of the tiles on the board.
+     * Composes the representation of the board as mirrored by the view into the reusable board buffer.
      *
-     * @param boardTiles the list of tiles on the board
-     * @return the string representation of the board tiles
+     * @return the representation of the board
      */
-    private String boardTilesRepr(List<Tile> boardTiles)
+    private CharSequence boardRepr()
     {
-        StringJoiner joiner = new StringJoiner("-");
-        if(boardTiles.size() < 4)
+        boardRepr.setLength(0);
+        if(board.size() < 4)
         {
-            boardTiles.forEach(tile -> joiner.add(regularTileRepr(tile)));
+            for(int i = 0; i < board.size(); i++)
+            {
+                if(i > 0) boardRepr.append('-');
+                boardRepr.append(getFormatter().tile(board.getLeft(i), board.getRight(i)));
+            }
         }
         else
         {
-            joiner.add(regularTileRepr(boardTiles.getFirst()));
-            joiner.add(String.format("[.%d.]", boardTiles.size()-2));
-            joiner.add(regularTileRepr(boardTiles.getLast()));
+            boardRepr.append(getFormatter().tile(board.getLeft(0), board.getRight(0))).append('-');
+            boardRepr.append(getFormatter().omitted(board.size()-2)).append('-');
+            boardRepr.append(getFormatter().tile(board.getLeft(board.size()-1), board.getRight(board.size()-1)));
         }
 
-        return joiner.toString();
+        return boardRepr;
     }
 
     /**
-     * Provides a string representation of the current played board based on the last game action.
+     * Composes the representation of the board with a newly played tile, marking its
+     * joint with a '+', into the reusable played board buffer.
      *
-     * @param indexSearcher a function to search for the index of a specific tile representation
-     * @return the string representation of the current played board
+     * @param lastBoardRepr the representation of the board before the play
+     * @param left the pips on the left end of the played tile
+     * @param right the pips on the right end of the played tile
+     * @param playedLeft whether the tile was played on the left end of the board
+     * @return the representation of the played board
      */
-    private String currentPlayedBoardRepr(ToIntFunction<StringBuilder> indexSearcher)
+    private CharSequence playedBoardRepr(CharSequence lastBoardRepr, int left, int right, boolean playedLeft)
     {
-        StringBuilder currentBoardRepr = new StringBuilder(lastBoardRepr());
-        switch (getModel().getLastGameAction())
+        playedBoardRepr.setLength(0);
+        int index;
+        if(playedLeft)
         {
-            case PLAY_LEFT, DRAW_AND_PLAY_LEFT ->
-            {
-                StringJoiner joiner = new StringJoiner("-");
-                joiner.add(regularTileRepr(getModel().getLastPlayedTile()));
-                if(!currentBoardRepr.isEmpty()) joiner.add(currentBoardRepr);
-                currentBoardRepr = new StringBuilder(joiner.toString());
-            }
-            case PLAY_RIGHT, DRAW_AND_PLAY_RIGHT ->
-            {
-                StringJoiner joiner = new StringJoiner("-");
-                joiner.add(currentBoardRepr).add(regularTileRepr(getModel().getLastPlayedTile()));
-                currentBoardRepr = new StringBuilder(joiner.toString());
-            }
+            playedBoardRepr.append(getFormatter().tile(left, right));
+            if(!lastBoardRepr.isEmpty()) playedBoardRepr.append('-').append(lastBoardRepr);
+            index = playedBoardRepr.indexOf("-");
+        }
+        else
+        {
+            playedBoardRepr.append(lastBoardRepr).append('-').append(getFormatter().tile(left, right));
+            index = playedBoardRepr.lastIndexOf("-");
         }
 
-        int index = indexSearcher.applyAsInt(currentBoardRepr);
         if(index >= 0)
         {
-            currentBoardRepr.replace(index, index+1, "+");
+            playedBoardRepr.setCharAt(index, '+');
         }
-        return currentBoardRepr.toString();
+        return playedBoardRepr;
     }
 
     /**
@@ -580,10 +666,8 @@ public class DominoViewImp implements DominoView {
      */
     public void displayHiddenBoneyardTiles()
     {
-        List<Tile> boneyardTiles = getModel().getBoneyardTiles();
-        String boneyardTilesRepr = getModel().isHideBoneyardTiles()?
-                hiddenBoneyardRepr(boneyardTiles) : regularBoneyardRepr(boneyardTiles);
-        System.out.println(boneyardTilesRepr);
+        appendBoneyard(renderer.buffer(), getModel().getBoneyardTiles(), getModel().isHideBoneyardTiles());
+        renderer.println();
     }
 
     /**
@@ -593,45 +677,25 @@ public class DominoViewImp implements DominoView {
      */
     public void displayVisibleBoneyardTiles()
     {
-        System.out.println(regularBoneyardRepr(getModel().getBoneyardTiles()));
-    }
-
-    /**
-     * Creates a regular string representation of the boneyard tiles.
-     *
-     * @param boneyardTiles the list of tiles in the boneyard.
-     * @return a string representation of the boneyard tiles.
-     */
-    private String regularBoneyardRepr(List<Tile> boneyardTiles)
-    {
-        return boneyardRepr(boneyardTiles, this::regularTileRepr);
-    }
-
-    /**
-     * Creates a hidden string representation of the boneyard tiles.
-     *
-     * @param boneyardTiles the list of tiles in the boneyard.
-     * @return a string representation of the hidden boneyard tiles.
-     */
-    private String hiddenBoneyardRepr(List<Tile> boneyardTiles)
-    {
-        return boneyardRepr(boneyardTiles, this::hiddenTileRepr);
+        appendBoneyard(renderer.buffer(), getModel().getBoneyardTiles(), false);
+        renderer.println();
     }
 
     /**
-     * Creates a string representation of the boneyard tiles using a specified tile representation function.
+     * Appends the representation of the boneyard tiles.
      *
+     * @param out the builder receiving the representation
      * @param boneyardTiles the list of tiles in the boneyard.
-     * @param tileRepr a function that converts a tile to its string representation.
-     * @return a string representation of the boneyard tiles.
+     * @param hidden whether the tiles must be hidden
      */
-    private String boneyardRepr(List<Tile> boneyardTiles, Function<Tile, String> tileRepr)
+    private void appendBoneyard(StringBuilder out, List<Tile> boneyardTiles, boolean hidden)
     {
-        StringJoiner joiner = new StringJoiner(" ");
-        joiner.add(" (@@@)");
-        boneyardTiles.forEach(tile -> joiner.add(tileRepr.apply(tile)));
-        joiner.add(tilesRepr(boneyardTiles));
-        return joiner.toString();
+        out.append(" (@@@)");
+        for(Tile tile : boneyardTiles)
+        {
+            appendTile(out.append(' '), tile, hidden);
+        }
+        out.append(' ').append(getFormatter().count(boneyardTiles.size()));
     }
 
     /**
@@ -642,9 +706,9 @@ public class DominoViewImp implements DominoView {
     {
         if(!getModel().isBoardEmpty())
         {
-            System.out.println(" BOARD - LAST MOVE");
+            renderer.println(" BOARD - LAST MOVE");
             displaySeparatorSection();
-            System.out.println(lastMove); // *
+            renderer.println(lastMove); // *
             displaySeparatorSection();
         }
     }
@@ -672,78 +736,218 @@ public class DominoViewImp implements DominoView {
      */
     public void displayPlayerTiles(IntPredicate showTilesCondition)
     {
-        StringJoiner joiner = new StringJoiner("\n");
+        renderer.println(" TILES");
+        displaySeparatorSection();
+
+        StringBuilder out = renderer.buffer();
         for(int turn=0; turn < getModel().getNumOfPlayers(); turn++)
         {
-            if(showTilesCondition.test(turn))
-            {
-                joiner.add(regularPlayerRepr(turn, getModel().getPlayer(turn).getTiles()));
-            }
-            else
-            {
-                joiner.add(hiddenPlayerRepr(turn, getModel().getPlayer(turn).getTiles()));
-            }
+            appendPlayer(out, turn, getModel().getPlayer(turn).getTiles(), !showTilesCondition.test(turn));
+            renderer.println();
         }
-
-        System.out.println(" TILES");
-        displaySeparatorSection();
-        System.out.println(joiner);
     }
 
     /**
-     * Creates a regular string representation of a player's tiles.
+     * Appends the representation of a player's tiles.
      *
+     * @param out the builder receiving the representation
      * @param playerTurn the index of the player.
      * @param playerTiles the list of tiles the player holds.
-     * @return a string representation of the player's tiles.
+     * @param hidden whether the tiles must be hidden
      */
-    private String regularPlayerRepr(int playerTurn, List<Tile> playerTiles)
+    private void appendPlayer(StringBuilder out, int playerTurn, List<Tile> playerTiles, boolean hidden)
     {
-        return playerRepr(playerTurn, playerTiles, this::regularTileRepr);
+        out.append(getFormatter().seat(playerTurn));
+        for(Tile tile : playerTiles)
+        {
+            appendTile(out.append(' '), tile, hidden);
+        }
+        out.append(' ').append(getFormatter().count(playerTiles.size()));
     }
 
     /**
-     * Creates a hidden string representation of a player's tiles.
+     * Appends the representation of the playable tiles, one option per line.
      *
-     * @param playerTurn the index of the player.
-     * @param playerTiles the list of tiles the player holds.
-     * @return a string representation of the hidden player's tiles.
+     * @param out the builder receiving the representation
+     * @param playableTiles the list of playable tiles.
      */
-    private String hiddenPlayerRepr(int playerTurn, List<Tile> playerTiles)
+    private void appendPlayableTiles(StringBuilder out, List<Tile> playableTiles)
     {
-        return playerRepr(playerTurn, playerTiles, this::hiddenTileRepr);
+        if(playableTiles.isEmpty()) renderer.println();
+        for(int option=0; option < playableTiles.size(); option++)
+        {
+            appendRegularTile(out.append(getFormatter().option(option)), playableTiles.get(option));
+            renderer.println();
+        }
     }
 
     /**
-     * Creates a string representation of a player's tiles using a specified tile representation function.
-     *
-     * @param playerTurn the index of the player.
-     * @param playerTiles the list of tiles the player holds.
-     * @param tileRepr a function that converts a tile to its string representation.
-     * @return a string representation of the player's tiles.
+     * Follows the events of a model, composing every move as it is published.
      */
-    private String playerRepr(int playerTurn, List<Tile> playerTiles, Function<Tile, String> tileRepr)
-    {
-        StringJoiner joiner = new StringJoiner(" ");
-        joiner.add(playerTurnRepr(playerTurn));
-        playerTiles.forEach(tile -> joiner.add(tileRepr.apply(tile)));
-        joiner.add(tilesRepr(playerTiles));
-        return joiner.toString();
+    private class MoveRecorder implements Flow.Subscriber<List<GameEvent>>
+    {
+        private final DominoModel model; // The model whose events are followed
+        private Flow.Subscription subscription; // The subscription to the events of the model
+
+        /**
+         * Creates a recorder for the events of the given model.
+         *
+         * @param model the model whose events are followed
+         */
+        MoveRecorder(DominoModel model) {this.model = model;}
+
+        /**
+         * Stops following the events of the model.
+         */
+        void cancel()
+        {
+            if(subscription != null) subscription.cancel();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<GameEvent> batch)
+        {
+            for(GameEvent event : batch)
+            {
+                switch (event)
+                {
+                    case GameEvent.Deal deal ->
+                    {
+                        board.clear();
+                        drewTile = false;
+                    }
+                    case GameEvent.TileDrawn drawn -> drewTile = true;
+                    case GameEvent.TilePlayed played -> recordTilePlayed(played);
+                    case GameEvent.TurnPassed passed -> recordTurnPassed(passed);
+                    case GameEvent.RoundEnded ended -> {}
+                    case GameEvent.MatchEnded ended -> {}
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {events = null;}
+
+        @Override
+        public void onComplete() {events = null;}
     }
 
     /**
-     * Creates a string representation of the playable tiles.
-     *
-     * @param playableTiles the list of playable tiles.
-     * @return a string representation of the playable tiles.
+     * Mirrors the part of the board the view displays: its ends, its size, and its
+     * tiles while it holds too few of them to be abbreviated.
      */
-    private String playableTilesRepr(List<Tile> playableTiles)
-    {
-        StringJoiner joiner = new StringJoiner("\n");
-        for(int option=0; option < playableTiles.size(); option++)
+    private static class BoardMirror
+    {
+        private static final int SHOWN_TILES = 3; // Largest board displayed in full
+
+        private final int[] lefts = new int[SHOWN_TILES + 1]; // Left pips of the tiles, first to last
+        private final int[] rights = new int[SHOWN_TILES + 1]; // Right pips of the tiles, first to last
+        private int firstLeft, firstRight; // Pips of the tile at the left end
+        private int lastLeft, lastRight; // Pips of the tile at the right end
+        private int size; // Number of tiles on the board
+
+        /**
+         * Removes every tile from the mirror.
+         */
+        void clear() {size = 0;}
+
+        /**
+         * Checks if the mirrored board is empty.
+         *
+         * @return {@code true} if the board has no tiles; {@code false} otherwise
+         */
+        boolean isEmpty() {return size == 0;}
+
+        /**
+         * Gets the number of tiles on the board.
+         *
+         * @return the number of tiles
+         */
+        int size() {return size;}
+
+        /**
+         * Gets the pips on the left end of the board.
+         *
+         * @return the pips on the left end
+         */
+        int getEndsLeft() {return firstLeft;}
+
+        /**
+         * Gets the pips on the right end of the board.
+         *
+         * @return the pips on the right end
+         */
+        int getEndsRight() {return lastRight;}
+
+        /**
+         * Gets the left pips of a tile, which must be the first or last one unless the board is shown in full.
+         *
+         * @param index the position of the tile from the left end
+         * @return the left pips of the tile
+         */
+        int getLeft(int index)
+        {
+            if(index == 0) return firstLeft;
+            if(index == size - 1) return lastLeft;
+            return lefts[index];
+        }
+
+        /**
+         * Gets the right pips of a tile, which must be the first or last one unless the board is shown in full.
+         *
+         * @param index the position of the tile from the left end
+         * @return the right pips of the tile
+         */
+        int getRight(int index)
+        {
+            if(index == 0) return firstRight;
+            if(index == size - 1) return lastRight;
+            return rights[index];
+        }
+
+        /**
+         * Adds a tile at one end of the board.
+         *
+         * @param left the pips on the left end of the tile, as placed
+         * @param right the pips on the right end of the tile, as placed
+         * @param atLeftEnd whether the tile is added at the left end
+         */
+        void add(int left, int right, boolean atLeftEnd)
         {
-            joiner.add(String.format(" (%d) %s", option, regularTileRepr(playableTiles.get(option))));
+            if(size <= SHOWN_TILES)
+            {
+                if(atLeftEnd)
+                {
+                    System.arraycopy(lefts, 0, lefts, 1, size);
+                    System.arraycopy(rights, 0, rights, 1, size);
+                    lefts[0] = left;
+                    rights[0] = right;
+                }
+                else
+                {
+                    lefts[size] = left;
+                    rights[size] = right;
+                }
+            }
+
+            if(atLeftEnd || size == 0)
+            {
+                firstLeft = left;
+                firstRight = right;
+            }
+            if(!atLeftEnd || size == 0)
+            {
+                lastLeft = left;
+                lastRight = right;
+            }
+            size++;
         }
-        return joiner.toString();
     }
 }
@@ -0,0 +1,96 @@
+package com.domino.app.view;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A {@link SummarySink} that streams every move line to a file as it happens and
+ * reads the file back, line by line, when the summary is displayed.
+ * <p>
+ * The file is truncated at the start of every match and stays open until the next
+ * one, or until the sink is closed. Only the writer buffer and the lines being
+ * replayed are held in memory.
+ * </p>
+ */
+public class FileSummarySink implements SummarySink
+{
+    private static final int LINES_PER_FLUSH = 64; // Replayed lines composed before flushing the renderer
+
+    private final Path file; // File holding the summary of the current match
+    private Writer writer; // Writer appending to the file, null before the first match
+
+    /**
+     * Creates a sink writing the summary to the given file.
+     *
+     * @param file the file receiving the move lines
+     */
+    public FileSummarySink(Path file)
+    {
+        this.file = file;
+        this.writer = null;
+    }
+
+    @Override
+    public void reset()
+    {
+        try
+        {
+            if(writer != null) writer.close();
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {throw new UncheckedIOException(e);}
+    }
+
+    @Override
+    public void append(CharSequence move)
+    {
+        try
+        {
+            if(writer == null) reset();
+            writer.append(move).append('\n');
+        }
+        catch (IOException e) {throw new UncheckedIOException(e);}
+    }
+
+    /**
+     * Closes the file of the current match, leaving its summary on disk.
+     */
+    @Override
+    public void close()
+    {
+        try
+        {
+            if(writer != null) writer.close();
+            writer = null;
+        }
+        catch (IOException e) {throw new UncheckedIOException(e);}
+    }
+
+    @Override
+    public void replay(FrameRenderer renderer)
+    {
+        try
+        {
+            if(writer == null) reset();
+            writer.flush();
+
+            int lines = 0;
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+            {
+                String line;
+                while ((line = reader.readLine()) != null)
+                {
+                    renderer.println(line);
+                    if(++lines % LINES_PER_FLUSH == 0) renderer.flush();
+                }
+            }
+            if(lines == 0) renderer.println();
+        }
+        catch (IOException e) {throw new UncheckedIOException(e);}
+    }
+}
@@ -0,0 +1,216 @@
+package com.domino.app.view;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Formatter;
+
+/**
+ * Composes the console output of the view into frames and writes each frame
+ * to the underlying stream with a single encoded write.
+ * <p>
+ * Text is appended into one reusable buffer instead of going through the
+ * synchronized {@code PrintStream} line by line. A frame ends either with
+ * {@link #flush()}, which always writes it, or with {@link #endFrame()}, which
+ * may drop it when an optional frame-rate cap is configured. Dropping is meant
+ * for intermediate frames during fast CPU play; prompts and final summaries
+ * should always be flushed.
+ * </p>
+ */
+public class FrameRenderer
+{
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final OutputStream out; // Destination of the encoded frames
+    private final StringBuilder frame; // Reusable buffer holding the frame being composed
+    private final Formatter formatter; // Formatter writing straight into the frame buffer
+    private final CharsetEncoder encoder; // Encoder used when the frame is not plain ASCII
+    private byte[] bytes; // Reusable buffer holding the encoded frame
+
+    private final long minFrameIntervalNanos; // Minimum time between droppable frames, 0 if uncapped
+    private long lastWriteNanos; // Time of the last written frame
+    private long droppedFrames; // Number of frames discarded by the frame-rate cap
+
+    /**
+     * Creates a renderer writing to the given stream without a frame-rate cap.
+     *
+     * @param out the stream receiving the encoded frames
+     */
+    public FrameRenderer(OutputStream out)
+    {
+        this(out, 0);
+    }
+
+    /**
+     * Creates a renderer writing to the given stream.
+     *
+     * @param out the stream receiving the encoded frames
+     * @param maxFramesPerSecond the maximum number of droppable frames written per second;
+     *                           {@code 0} or less disables the cap
+     */
+    public FrameRenderer(OutputStream out, int maxFramesPerSecond)
+    {
+        this.out = out;
+        this.frame = new StringBuilder(1024);
+        this.formatter = new Formatter(frame);
+        this.encoder = Charset.defaultCharset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = new byte[1024];
+
+        this.minFrameIntervalNanos = maxFramesPerSecond > 0? 1_000_000_000L / maxFramesPerSecond : 0;
+        this.lastWriteNanos = System.nanoTime() - minFrameIntervalNanos;
+        this.droppedFrames = 0;
+    }
+
+    /**
+     * Gets the buffer of the frame being composed, for callers that append directly.
+     *
+     * @return the reusable frame buffer
+     */
+    public StringBuilder buffer() {return frame;}
+
+    /**
+     * Gets the number of frames discarded by the frame-rate cap.
+     *
+     * @return the count of dropped frames
+     */
+    public long getDroppedFrames() {return droppedFrames;}
+
+    /**
+     * Appends text to the current frame.
+     *
+     * @param text the text to append
+     * @return this renderer
+     */
+    public FrameRenderer print(CharSequence text)
+    {
+        frame.append(text);
+        return this;
+    }
+
+    /**
+     * Appends a line of text to the current frame.
+     *
+     * @param text the text to append before the line separator
+     * @return this renderer
+     */
+    public FrameRenderer println(CharSequence text)
+    {
+        frame.append(text).append(LINE_SEPARATOR);
+        return this;
+    }
+
+    /**
+     * Appends the string representation of an object followed by a line separator.
+     *
+     * @param object the object to append
+     * @return this renderer
+     */
+    public FrameRenderer println(Object object)
+    {
+        frame.append(object).append(LINE_SEPARATOR);
+        return this;
+    }
+
+    /**
+     * Appends a line separator to the current frame.
+     *
+     * @return this renderer
+     */
+    public FrameRenderer println()
+    {
+        frame.append(LINE_SEPARATOR);
+        return this;
+    }
+
+    /**
+     * Appends formatted text to the current frame.
+     *
+     * @param format the format string, as in {@link String#format(String, Object...)}
+     * @param args the arguments referenced by the format string
+     * @return this renderer
+     */
+    public FrameRenderer printf(String format, Object... args)
+    {
+        formatter.format(format, args);
+        return this;
+    }
+
+    /**
+     * Ends the current frame, dropping it if the frame-rate cap has not elapsed
+     * since the last written frame.
+     */
+    public void endFrame()
+    {
+        if(minFrameIntervalNanos > 0 && System.nanoTime() - lastWriteNanos < minFrameIntervalNanos)
+        {
+            if(!frame.isEmpty()) droppedFrames++;
+            frame.setLength(0);
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * Writes the current frame to the underlying stream regardless of the frame-rate cap.
+     *
+     * @throws UncheckedIOException if the stream cannot be written
+     */
+    public void flush()
+    {
+        if(frame.isEmpty()) return;
+
+        int length = encodeFrame();
+        frame.setLength(0);
+        try
+        {
+            out.write(bytes, 0, length);
+            out.flush();
+        }
+        catch (IOException e) {throw new UncheckedIOException(e);}
+        lastWriteNanos = System.nanoTime();
+    }
+
+    /**
+     * Encodes the current frame into the reusable byte buffer.
+     * Plain ASCII frames, the usual case for the console view, are copied without an encoder.
+     *
+     * @return the number of encoded bytes
+     */
+    private int encodeFrame()
+    {
+        int length = frame.length();
+        if(bytes.length < length) bytes = new byte[Math.max(length, bytes.length * 2)];
+
+        for(int i = 0; i < length; i++)
+        {
+            char c = frame.charAt(i);
+            if(c >= 0x80) return encodeFrameWithCharset();
+            bytes[i] = (byte) c;
+        }
+        return length;
+    }
+
+    /**
+     * Encodes the current frame with the default charset into the reusable byte buffer.
+     *
+     * @return the number of encoded bytes
+     */
+    private int encodeFrameWithCharset()
+    {
+        int capacity = (int) (frame.length() * encoder.maxBytesPerChar()) + 1;
+        if(bytes.length < capacity) bytes = new byte[capacity];
+
+        ByteBuffer target = ByteBuffer.wrap(bytes);
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(frame), target, true);
+        encoder.flush(target);
+        return target.position();
+    }
+}
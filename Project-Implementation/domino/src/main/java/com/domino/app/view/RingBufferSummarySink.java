@@ -0,0 +1,61 @@
+package com.domino.app.view;
+
+/**
+ * A {@link SummarySink} that keeps only the last moves of a match in a fixed ring of
+ * reusable builders, so the summary uses constant memory however long the match is.
+ * Builders are created the first time their slot is needed and reused afterwards.
+ */
+public class RingBufferSummarySink implements SummarySink
+{
+    private final StringBuilder[] moves; // Ring of reusable move buffers
+    private long count; // Number of moves recorded in the current match
+
+    /**
+     * Creates a sink keeping the given number of most recent moves.
+     *
+     * @param capacity the maximum number of moves kept
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public RingBufferSummarySink(int capacity)
+    {
+        if(capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+
+        moves = new StringBuilder[capacity];
+        count = 0;
+    }
+
+    @Override
+    public void reset() {count = 0;}
+
+    @Override
+    public void append(CharSequence move)
+    {
+        int index = (int) (count % moves.length);
+        StringBuilder slot = moves[index];
+        if(slot == null) moves[index] = slot = new StringBuilder(move.length());
+        slot.setLength(0);
+        slot.append(move);
+        count++;
+    }
+
+    @Override
+    public void replay(FrameRenderer renderer)
+    {
+        if(count == 0)
+        {
+            renderer.println();
+            return;
+        }
+
+        long first = Math.max(0, count - moves.length);
+        if(first > 0)
+        {
+            renderer.buffer().append(" (").append(first).append(" EARLIER MOVES OMITTED)");
+            renderer.println();
+        }
+        for(long i = first; i < count; i++)
+        {
+            renderer.println(moves[(int) (i % moves.length)]);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.domino.app.view;
+
+import com.domino.app.controller.DominoController;
+
+/**
+ * A {@link DominoView} that displays nothing.
+ * <p>
+ * It is meant for automated runs, such as scripted replays of human seats or
+ * headless simulations, where formatting and writing the console output would
+ * only waste time.
+ * </p>
+ */
+public class SilentDominoView implements DominoView
+{
+    @Override
+    public void setController(DominoController dominoController) {}
+
+    @Override
+    public void resetViewData() {}
+
+    @Override
+    public void displayMainMenu() {}
+
+    @Override
+    public void displaySettingsMenu() {}
+
+    @Override
+    public void displayExitMessage() {}
+
+    @Override
+    public void displayDominoMatchHeader() {}
+
+    @Override
+    public void displayCurrentPlayerPlayableTiles() {}
+
+    @Override
+    public void displayRequestNumberMessage() {}
+
+    @Override
+    public void displaySideToPlayLastTile() {}
+
+    @Override
+    public void displayMatchResume() {}
+
+    @Override
+    public void displayPlayerMoveMade() {}
+
+    @Override
+    public void displayDrawMessage() {}
+
+    @Override
+    public void displayPassAction() {}
+
+    @Override
+    public void displayEndMatchSummary() {}
+
+    @Override
+    public void displayRoundScores() {}
+
+    @Override
+    public void displayEndMatchMenu() {}
+
+    @Override
+    public void displayFeatureMessage() {}
+
+    @Override
+    public void displayNumOfPlayersMessage() {}
+
+    @Override
+    public void displayNumOfHumanPlayersMessage() {}
+
+    @Override
+    public void displayMinDotsMessage() {}
+
+    @Override
+    public void displayMaxDotsMessage() {}
+
+    @Override
+    public void displayOpponentsTilesMessage() {}
+
+    @Override
+    public void displayBoneyardTilesMessage() {}
+
+    @Override
+    public void displayTargetScoreMessage() {}
+
+    @Override
+    public void displayTeamPlayMessage() {}
+
+    @Override
+    public void displayChangesSaved() {}
+
+    @Override
+    public void displayChangesDiscarded() {}
+
+    @Override
+    public void displaySelectedOption(int option) {}
+
+    @Override
+    public void flushDisplay() {}
+
+    @Override
+    public void displayInvalidOptionMessage() {}
+
+    @Override
+    public void displayInvalidInputMessage() {}
+
+    @Override
+    public void displaySeparatorSection() {}
+
+    @Override
+    public void displaySeparatorEndOfSection() {}
+}
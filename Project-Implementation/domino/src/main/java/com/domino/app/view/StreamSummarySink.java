@@ -0,0 +1,41 @@
+package com.domino.app.view;
+
+import java.io.OutputStream;
+
+/**
+ * A {@link SummarySink} that writes every move line to a stream, such as the console
+ * or a log, as soon as it happens and keeps nothing in memory.
+ * <p>
+ * Since the moves are not kept, the end-of-match summary only points to the stream.
+ * </p>
+ */
+public class StreamSummarySink implements SummarySink
+{
+    private final FrameRenderer out; // Renderer writing the move lines to the stream
+
+    /**
+     * Creates a sink writing the move lines to the given stream.
+     *
+     * @param out the stream receiving the move lines
+     */
+    public StreamSummarySink(OutputStream out)
+    {
+        this.out = new FrameRenderer(out);
+    }
+
+    @Override
+    public void reset() {}
+
+    @Override
+    public void append(CharSequence move)
+    {
+        out.println(move);
+        out.flush();
+    }
+
+    @Override
+    public void replay(FrameRenderer renderer)
+    {
+        renderer.println(" (MOVES STREAMED AS THEY WERE MADE)");
+    }
+}
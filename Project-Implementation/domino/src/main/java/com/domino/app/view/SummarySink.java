@@ -0,0 +1,37 @@
+package com.domino.app.view;
+
+/**
+ * Receives the move lines of a match as they happen and replays them at the end of the match.
+ * <p>
+ * Implementations decide where the lines go and how many of them are kept, so the
+ * memory a view holds for the match summary does not have to grow with the match.
+ * A sink holding a resource, such as an open file, releases it when closed.
+ * </p>
+ */
+public interface SummarySink extends AutoCloseable
+{
+    /**
+     * Discards the moves of the previous match and prepares the sink for a new one.
+     */
+    void reset();
+
+    /**
+     * Records the representation of a move.
+     *
+     * @param move the move lines, possibly spanning several lines separated by {@code '\n'}
+     */
+    void append(CharSequence move);
+
+    /**
+     * Writes the recorded summary of the current match to the renderer, one move per line.
+     *
+     * @param renderer the renderer receiving the summary
+     */
+    void replay(FrameRenderer renderer);
+
+    /**
+     * Releases the resources held by the sink. Does nothing by default.
+     */
+    @Override
+    default void close() {}
+}
@@ -0,0 +1,176 @@
+package com.domino.app.view;
+
+/**
+ * Caches the text representations used by the console view for a given tile set.
+ * <p>
+ * Every tile of the configured pip range is formatted once in both orientations,
+ * together with the board ends, seat labels, tile counts and option labels, so
+ * rendering a turn only appends precomputed strings instead of calling
+ * {@link String#format(String, Object...)}. Values outside the cached ranges are
+ * still formatted on demand.
+ * </p>
+ */
+public class TileFormatter
+{
+    private static final int MAX_CACHED_PIPS = 64; // Widest pip range whose tiles are cached
+    private static final String HIDDEN_TILE = "[?|?]";
+
+    private final int minDots; // Minimum number of pips covered by the cache
+    private final int maxDots; // Maximum number of pips covered by the cache
+    private final int numOfPlayers; // Number of seats covered by the cache
+    private final int range; // Number of distinct pip values, 0 if tiles are not cached
+
+    private final String[] tiles; // "[l|r]" indexed by orientation
+    private final String[] ends; // "<l|r>" indexed by orientation
+    private final String[] seats; // " (Jn)" indexed by turn
+    private final String[] counts; // "<n>" indexed by tile count
+    private final String[] omitted; // "[.n.]" indexed by omitted tile count
+    private final String[] options; // " (n) " indexed by option
+
+    /**
+     * Creates the cache for the given tile set and number of seats.
+     *
+     * @param minDots the minimum number of pips on the tiles
+     * @param maxDots the maximum number of pips on the tiles
+     * @param numOfPlayers the number of players in the match
+     */
+    public TileFormatter(int minDots, int maxDots, int numOfPlayers)
+    {
+        this.minDots = minDots;
+        this.maxDots = maxDots;
+        this.numOfPlayers = numOfPlayers;
+
+        int pips = maxDots - minDots + 1;
+        this.range = (0 < pips && pips <= MAX_CACHED_PIPS)? pips : 0;
+
+        this.tiles = new String[range * range];
+        this.ends = new String[range * range];
+        for(int left = 0; left < range; left++)
+        {
+            for(int right = 0; right < range; right++)
+            {
+                tiles[left * range + right] = "[" + (minDots + left) + "|" + (minDots + right) + "]";
+                ends[left * range + right] = "<" + (minDots + left) + "|" + (minDots + right) + ">";
+            }
+        }
+
+        int numOfTiles = range * (range + 1) / 2;
+        this.seats = new String[numOfPlayers];
+        for(int turn = 0; turn < numOfPlayers; turn++) seats[turn] = " (J" + turn + ")";
+
+        this.counts = new String[numOfTiles + 1];
+        this.omitted = new String[numOfTiles + 1];
+        this.options = new String[numOfTiles + 1];
+        for(int n = 0; n <= numOfTiles; n++)
+        {
+            counts[n] = "<" + n + ">";
+            omitted[n] = "[." + n + ".]";
+            options[n] = " (" + n + ") ";
+        }
+    }
+
+    /**
+     * Checks whether this cache was built for the given tile set and number of seats.
+     *
+     * @param minDots the minimum number of pips on the tiles
+     * @param maxDots the maximum number of pips on the tiles
+     * @param numOfPlayers the number of players in the match
+     * @return {@code true} if the cache can be reused; {@code false} otherwise
+     */
+    public boolean matches(int minDots, int maxDots, int numOfPlayers)
+    {
+        return this.minDots == minDots && this.maxDots == maxDots && this.numOfPlayers == numOfPlayers;
+    }
+
+    /**
+     * Gets the representation of a tile in the format [left|right].
+     *
+     * @param left the pips on the left end
+     * @param right the pips on the right end
+     * @return the tile representation
+     */
+    public String tile(int left, int right)
+    {
+        int index = index(left, right);
+        return index >= 0? tiles[index] : "[" + left + "|" + right + "]";
+    }
+
+    /**
+     * Gets the representation of a hidden tile.
+     *
+     * @return the hidden tile representation
+     */
+    public String hiddenTile() {return HIDDEN_TILE;}
+
+    /**
+     * Gets the representation of the board ends in the format &lt;left|right&gt;.
+     *
+     * @param left the pips on the left end of the board
+     * @param right the pips on the right end of the board
+     * @return the board ends representation
+     */
+    public String ends(int left, int right)
+    {
+        int index = index(left, right);
+        return index >= 0? ends[index] : "<" + left + "|" + right + ">";
+    }
+
+    /**
+     * Gets the label of a seat in the format " (Jn)".
+     *
+     * @param turn the turn index of the seat
+     * @return the seat label
+     */
+    public String seat(int turn)
+    {
+        return 0 <= turn && turn < seats.length? seats[turn] : " (J" + turn + ")";
+    }
+
+    /**
+     * Gets the representation of a tile count in the format &lt;n&gt;.
+     *
+     * @param count the number of tiles
+     * @return the tile count representation
+     */
+    public String count(int count)
+    {
+        return 0 <= count && count < counts.length? counts[count] : "<" + count + ">";
+    }
+
+    /**
+     * Gets the representation of tiles omitted from the board in the format [.n.].
+     *
+     * @param count the number of omitted tiles
+     * @return the omitted tiles representation
+     */
+    public String omitted(int count)
+    {
+        return 0 <= count && count < omitted.length? omitted[count] : "[." + count + ".]";
+    }
+
+    /**
+     * Gets the label of a selectable option in the format " (n) ".
+     *
+     * @param option the option number
+     * @return the option label
+     */
+    public String option(int option)
+    {
+        return 0 <= option && option < options.length? options[option] : " (" + option + ") ";
+    }
+
+    /**
+     * Computes the cache index of a tile orientation.
+     *
+     * @param left the pips on the left end
+     * @param right the pips on the right end
+     * @return the index into the tile caches, or {@code -1} if the tile is not cached
+     */
+    private int index(int left, int right)
+    {
+        int l = left - minDots;
+        int r = right - minDots;
+        if(l < 0 || r < 0 || l >= range || r >= range) return -1;
+        return l * range + r;
+    }
+}